@@ -0,0 +1,91 @@
+
+package com.example.grocery.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result ({@code -rf json}) against a saved baseline.
+ * Prints score and normalised allocation ({@code -prof gc}) deltas per benchmark
+ * and exits with status 1 when any score regresses by more than the threshold.
+ *
+ * Usage: BaselineComparator baseline.json current.json [thresholdPercent]
+ */
+public final class BaselineComparator {
+
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+
+    private BaselineComparator() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparator <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> current = load(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s %12s%n", "benchmark", "baseline", "current", "delta", "alloc B/op");
+        for (Map.Entry<String, JsonNode> e : current.entrySet()) {
+            JsonNode now = e.getValue();
+            JsonNode before = baseline.get(e.getKey());
+            double score = now.path("primaryMetric").path("score").asDouble();
+            String unit = now.path("primaryMetric").path("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s %12s%n", e.getKey(), "-", score, "new", alloc(now));
+                continue;
+            }
+            double base = before.path("primaryMetric").path("score").asDouble();
+            // Throughput modes are "higher is better"; time modes are "lower is better"
+            boolean higherIsBetter = unit.startsWith("ops/");
+            double delta = base == 0 ? 0 : (score - base) / base * 100.0;
+            double worse = higherIsBetter ? -delta : delta;
+            boolean regressed = worse > threshold;
+            if (regressed) regressions++;
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %12s%s%n",
+                    e.getKey(), base, score, delta, alloc(now), regressed ? "  REGRESSION" : "");
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    /** Keys each result by benchmark name plus its sorted @Param values. */
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> it = run.path("params").fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> p = it.next();
+                params.put(p.getKey(), p.getValue().asText());
+            }
+            String name = run.path("benchmark").asText().replace("com.example.grocery.bench.", "");
+            byKey.put(params.isEmpty() ? name : name + params, run);
+        }
+        return byKey;
+    }
+
+    private static String alloc(JsonNode run) {
+        Iterator<Map.Entry<String, JsonNode>> it = run.path("secondaryMetrics").fields();
+        while (it.hasNext()) {
+            Map.Entry<String, JsonNode> m = it.next();
+            // JMH < 1.36 prefixes profiler metrics with a middle dot
+            if (m.getKey().replace("·", "").equals(ALLOC_METRIC)) {
+                return String.format("%.0f", m.getValue().path("score").asDouble());
+            }
+        }
+        return "-";
+    }
+}
@@ -0,0 +1,81 @@
+
+package com.example.grocery.bench;
+
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.service.pricing.PriceProvider;
+import com.example.grocery.service.promo.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic baskets, prices and promotion sets shared by the benchmarks.
+ * The first five promotions mirror promotions.json; the rest are synthetic
+ * variations with rising thresholds so that large sets behave like a real
+ * catalogue (most rules never fire for a given basket).
+ */
+final class BenchmarkFixtures {
+    private BenchmarkFixtures() {}
+
+    private static final ItemType[] ITEMS = ItemType.values();
+
+    /** Prices from application.yml with the prices.json overrides applied. */
+    static PriceProvider prices() {
+        return type -> switch (type) {
+            case BANANAS -> new BigDecimal("0.55");
+            case ORANGES -> new BigDecimal("0.30");
+            case APPLES  -> new BigDecimal("0.65");
+            case LEMONS  -> new BigDecimal("0.25");
+            case PEACHES -> new BigDecimal("0.75");
+        };
+    }
+
+    /** {@code lines} basket lines cycling through every item with quantities 1..6. */
+    static List<BasketItem> basket(int lines) {
+        List<BasketItem> basket = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            basket.add(BasketItem.builder()
+                    .type(ITEMS[i % ITEMS.length])
+                    .quantity(1 + (i % 6))
+                    .build());
+        }
+        return basket;
+    }
+
+    /** {@code count} promotions of every {@link PromotionType}, in a stable order. */
+    static List<DiscountStrategy> promotions(int count) {
+        List<DiscountStrategy> all = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            all.add(promotion(i));
+        }
+        return all;
+    }
+
+    static List<DiscountStrategy> itemStrategies(List<DiscountStrategy> promotions) {
+        return promotions.stream().filter(s -> !(s instanceof BasketLevelStrategy)).toList();
+    }
+
+    static List<BasketLevelStrategy> basketStrategies(List<DiscountStrategy> promotions) {
+        return promotions.stream()
+                .filter(BasketLevelStrategy.class::isInstance)
+                .map(BasketLevelStrategy.class::cast)
+                .toList();
+    }
+
+    private static DiscountStrategy promotion(int i) {
+        int round = i / 5;
+        return switch (i % 5) {
+            case 0 -> new BuyXGetYFreeStrategy(ITEMS[round % ITEMS.length], 2 + round, 1);
+            case 1 -> new KItemForFixedPriceStrategy(ITEMS[(round + 1) % ITEMS.length], 3 + round,
+                    new BigDecimal("0.75").add(BigDecimal.valueOf(round, 2)));
+            case 2 -> new MinQtyFixedUnitPriceStrategy(ITEMS[(round + 2) % ITEMS.length], 3 + round, new BigDecimal("0.20"));
+            case 3 -> new ItemComboFixedPriceStrategy(
+                    ITEMS[round % ITEMS.length].name() + ":1," + ITEMS[(round + 1) % ITEMS.length].name() + ":" + (2 + round % 3),
+                    new BigDecimal("1.25"), round == 0 ? "3" : null);
+            default -> new MaxSubtotalPercentOffStrategy(new BigDecimal("50.00").add(BigDecimal.valueOf(round)),
+                    new BigDecimal("10.0"), "20.00");
+        };
+    }
+}
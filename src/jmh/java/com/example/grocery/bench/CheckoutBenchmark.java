@@ -0,0 +1,24 @@
+
+package com.example.grocery.bench;
+
+import com.example.grocery.domain.Receipt;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady-state (hot JIT) cost of one {@code CheckoutServiceImpl.checkout} call.
+ * Run with {@code -prof gc} to get the allocation rate per checkout.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    @Benchmark
+    public Receipt checkout(CheckoutState state) {
+        return state.checkoutService.checkout(state.basket);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.grocery.bench;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load test for POST /api/v1/checkout against a running app.
+ * Each of {@code concurrency} clients sends the next request as soon as the previous one
+ * returns; the first fifth of the run is warm-up and is not measured. Prints throughput and
+ * latency percentiles and appends them to target/load-results.csv, so a platform-thread run
+ * and a virtual-thread run (--spring.profiles.active=virtual) can be compared side by side.
+ *
+ * Usage: CheckoutLoadTest url concurrency seconds label
+ */
+public final class CheckoutLoadTest {
+
+    private static final String BASKET = """
+            {"items":[{"item":"Bananas","quantity":7},{"item":"Oranges","quantity":10},{"item":"Apples","quantity":1}]}""";
+
+    private CheckoutLoadTest() {}
+
+    /** Latencies of one client, in nanoseconds. */
+    private static final class Recorder {
+        long[] latencies = new long[1 << 14];
+        int count;
+
+        void record(long nanos) {
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = nanos;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: CheckoutLoadTest <url> <concurrency> <seconds> <label>");
+            System.exit(2);
+        }
+        URI url = URI.create(args[0]);
+        int concurrency = Integer.parseInt(args[1]);
+        int seconds = Integer.parseInt(args[2]);
+        String label = args[3];
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(BASKET))
+                .build();
+
+        long start = System.nanoTime();
+        long measureFrom = start + Duration.ofSeconds(seconds).toNanos() / 5;
+        long end = start + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        Recorder[] recorders = new Recorder[concurrency];
+        CountDownLatch done = new CountDownLatch(concurrency);
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        for (int c = 0; c < concurrency; c++) {
+            Recorder recorder = recorders[c] = new Recorder();
+            clients.execute(() -> {
+                try {
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        boolean ok;
+                        try {
+                            ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                        } catch (IOException e) {
+                            ok = false;
+                        }
+                        long after = System.nanoTime();
+                        if (now < measureFrom) continue;
+                        if (ok) recorder.record(after - now);
+                        else errors.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        clients.shutdown();
+
+        long[] all = Arrays.stream(recorders)
+                .flatMapToLong(r -> Arrays.stream(r.latencies, 0, r.count))
+                .sorted()
+                .toArray();
+        double measuredSeconds = (end - measureFrom) / 1e9;
+        double throughput = all.length / measuredSeconds;
+
+        String header = "label,concurrency,requests,errors,req_per_s,p50_ms,p99_ms,p999_ms,max_ms";
+        String row = String.format("%s,%d,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f", label, concurrency, all.length, errors.get(),
+                throughput, millis(all, 0.50), millis(all, 0.99), millis(all, 0.999), millis(all, 1.0));
+        System.out.println(header);
+        System.out.println(row);
+
+        Path csv = Path.of("target", "load-results.csv");
+        Files.createDirectories(csv.getParent());
+        if (!Files.exists(csv)) Files.writeString(csv, header + System.lineSeparator());
+        Files.writeString(csv, row + System.lineSeparator(), StandardOpenOption.APPEND);
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        if (sorted.length == 0) return Double.NaN;
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
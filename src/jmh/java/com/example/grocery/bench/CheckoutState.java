@@ -0,0 +1,41 @@
+
+package com.example.grocery.bench;
+
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.service.impl.CheckoutServiceImpl;
+import com.example.grocery.service.promo.DiscountStrategy;
+import com.example.grocery.service.promo.StrategyRegistry;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * A fully wired checkout for one (basket size, promotion count) combination.
+ * Shared by the hot and cold JIT benchmarks so both measure the same work.
+ */
+@State(Scope.Benchmark)
+public class CheckoutState {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int basketLines;
+
+    @Param({"5", "100", "1000", "10000", "100000"})
+    public int promotions;
+
+    CheckoutServiceImpl checkoutService;
+    List<BasketItem> basket;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<DiscountStrategy> all = BenchmarkFixtures.promotions(promotions);
+        checkoutService = new CheckoutServiceImpl(
+                BenchmarkFixtures.prices(),
+                new StrategyRegistry(BenchmarkFixtures.itemStrategies(all)),
+                BenchmarkFixtures.basketStrategies(all));
+        basket = BenchmarkFixtures.basket(basketLines);
+    }
+}
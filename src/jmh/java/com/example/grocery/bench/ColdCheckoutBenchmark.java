@@ -0,0 +1,24 @@
+
+package com.example.grocery.bench;
+
+import com.example.grocery.domain.Receipt;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold JIT: the very first checkout in a fresh JVM, as seen right after a deploy.
+ * Each fork measures a single invocation; the score is averaged across forks.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1, batchSize = 1)
+@Fork(10)
+public class ColdCheckoutBenchmark {
+
+    @Benchmark
+    public Receipt firstCheckout(CheckoutState state) {
+        return state.checkoutService.checkout(state.basket);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.grocery.bench;
+
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.service.catalog.ItemNameResolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-line item name lookup: {@link ItemNameResolver} against the trim + toLowerCase + HashMap resolver it
+ * replaced. Names are what clients actually send (mixed case, some padded), and all of them are names the old
+ * resolver also accepts. Run with {@code -prof gc} to see the allocation per lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemResolverBenchmark {
+
+    private static final String[] NAMES = {
+            "Bananas", "oranges", "APPLES", " Lemons", "peaches ", "Banana", "orange", " apple ",
+            "LEMON", "Peach", "bananas", "Oranges", "  apples", "lemons", "PEACHES", "unknown"
+    };
+
+    private ItemNameResolver resolver;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        resolver = new ItemNameResolver("classpath:item-aliases.txt");
+    }
+
+    @Benchmark
+    public ItemType legacy() {
+        return LegacyItemResolver.resolve(NAMES[next++ & (NAMES.length - 1)]);
+    }
+
+    @Benchmark
+    public ItemType resolver() {
+        return resolver.resolve(NAMES[next++ & (NAMES.length - 1)]);
+    }
+}
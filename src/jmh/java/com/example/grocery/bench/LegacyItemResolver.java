@@ -1,5 +1,5 @@
 
-package com.example.grocery.util;
+package com.example.grocery.bench;
 
 import com.example.grocery.domain.ItemType;
 
@@ -7,7 +7,10 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 
-public class ItemResolver {
+/**
+ * The resolver checkout used before ItemNameResolver (trim + toLowerCase per lookup), kept as a benchmark baseline.
+ */
+final class LegacyItemResolver {
     private static final Map<String, ItemType> LOOKUP = new HashMap<>();
     static {
         for (ItemType it : ItemType.values()) {
@@ -25,6 +28,8 @@ public class ItemResolver {
         LOOKUP.put(standardize("peaches"), ItemType.PEACHES);
     }
 
+    private LegacyItemResolver() {}
+
     private static String standardize(String s) { return s.trim().toLowerCase(Locale.ROOT); }
 
     public static ItemType resolve(String input) { return LOOKUP.get(standardize(input)); }
@@ -0,0 +1,108 @@
+package com.example.grocery.bench;
+
+import com.example.grocery.api.dto.BasketItemDto;
+import com.example.grocery.api.dto.BasketRequest;
+import com.example.grocery.api.stream.ReceiptJsonWriter;
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.service.impl.CheckoutServiceImpl;
+import com.example.grocery.service.promo.DiscountStrategy;
+import com.example.grocery.service.promo.StrategyRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The wire formats of {@code POST /api/v1/checkout}, per {@code format} and basket size: encoding the
+ * BasketRequest (the lane terminal) and decoding it (the server), then encoding the receipt with
+ * {@link ReceiptJsonWriter} (the server) and decoding it into a tree (the terminal). Item names are what
+ * terminals send ("Bananas", not the enum name). Payload sizes are printed at the start of each fork.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayloadEncodingBenchmark {
+
+    private static final String[] NAMES = {"Bananas", "Oranges", "Apples", "Lemons", "Peaches"};
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"5", "500"})
+    public int basketLines;
+
+    private ObjectMapper mapper;
+    private ReceiptJsonWriter writer;
+    private BasketRequest request;
+    private Receipt receipt;
+    private byte[] requestBytes;
+    private byte[] receiptBytes;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "json" -> new ObjectMapper();
+            case "cbor" -> new CBORMapper();
+            case "smile" -> new SmileMapper();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        writer = new ReceiptJsonWriter(new ObjectMapper());
+
+        List<BasketItem> basket = BenchmarkFixtures.basket(basketLines);
+        List<BasketItemDto> items = new ArrayList<>(basket.size());
+        for (BasketItem line : basket) {
+            BasketItemDto dto = new BasketItemDto();
+            dto.setItem(NAMES[line.getType().ordinal()]);
+            dto.setQuantity(line.getQuantity());
+            items.add(dto);
+        }
+        request = new BasketRequest();
+        request.setItems(items);
+
+        List<DiscountStrategy> promotions = BenchmarkFixtures.promotions(5);
+        receipt = new CheckoutServiceImpl(
+                BenchmarkFixtures.prices(),
+                new StrategyRegistry(BenchmarkFixtures.itemStrategies(promotions)),
+                BenchmarkFixtures.basketStrategies(promotions))
+                .checkout(basket);
+
+        requestBytes = mapper.writeValueAsBytes(request);
+        receiptBytes = encodeReceipt();
+        System.out.printf("%n%s, %d lines: basket %d bytes, receipt %d bytes%n",
+                format, basketLines, requestBytes.length, receiptBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeBasket() throws IOException {
+        return mapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public BasketRequest decodeBasket() throws IOException {
+        return mapper.readValue(requestBytes, BasketRequest.class);
+    }
+
+    @Benchmark
+    public byte[] encodeReceipt() throws IOException {
+        out.reset();
+        writer.write(receipt, mapper.getFactory(), out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public JsonNode decodeReceipt() throws IOException {
+        return mapper.readTree(receiptBytes);
+    }
+}
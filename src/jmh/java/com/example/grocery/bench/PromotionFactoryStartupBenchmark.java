@@ -0,0 +1,61 @@
+package com.example.grocery.bench;
+
+import com.example.grocery.api.dto.PromotionRuleDTO;
+import com.example.grocery.service.promo.PromotionEngine;
+import com.example.grocery.service.promo.PromotionFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of turning promotions.json into strategies, as DynamicPromotionBeanRegistrar does on boot:
+ * {@code scan} is the classpath scan plus reflective construction it used to do, {@code indexed} the
+ * PromotionTypeIndex generated at compile time. Each fork measures one call in a fresh JVM.
+ * With {@code springScanned}, Spring's scanner has already run once (as component scanning has by the time the
+ * registrar runs in the app), so only the promotion package scan itself is left to pay for.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1, batchSize = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class PromotionFactoryStartupBenchmark {
+
+    @Param({"false", "true"})
+    public boolean springScanned;
+
+    private List<PromotionRuleDTO> rules;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (InputStream in = PromotionFactoryStartupBenchmark.class.getResourceAsStream("/promotions.json")) {
+            rules = PromotionFactory.readRules(in);
+        }
+        if (springScanned) {
+            ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(true);
+            scanner.findCandidateComponents("com.example.grocery.api");
+        }
+    }
+
+    @Benchmark
+    public List<Object> scan() {
+        return createAll(PromotionFactory.scan(PromotionEngine.PROMOTION_PACKAGE));
+    }
+
+    @Benchmark
+    public List<Object> indexed() {
+        return createAll(PromotionFactory.indexed());
+    }
+
+    private List<Object> createAll(PromotionFactory factory) {
+        List<Object> promotions = new ArrayList<>(rules.size());
+        for (PromotionRuleDTO rule : rules) promotions.add(factory.create(rule));
+        return promotions;
+    }
+}
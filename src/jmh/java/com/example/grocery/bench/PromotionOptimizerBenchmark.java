@@ -0,0 +1,69 @@
+package com.example.grocery.bench;
+
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.service.impl.CheckoutServiceImpl;
+import com.example.grocery.service.promo.DiscountStrategy;
+import com.example.grocery.service.promo.PromotionEngine;
+import com.example.grocery.service.promo.PromotionOptimizer;
+import com.example.grocery.service.promo.StrategyRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout latency with greedy vs optimal promotion allocation on shop-sized baskets:
+ * every item present with {@code unitsPerItem} units, against the first {@code promotions}
+ * fixture promotions (a fifth of them combos, overlapping on neighbouring items).
+ * {@code budgetMs} is the optimizer's per-checkout budget; past it checkout falls back to greedy,
+ * so the optimal rows are capped at roughly that latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromotionOptimizerBenchmark {
+
+    @Param({"greedy", "optimal"})
+    public String allocation;
+
+    @Param({"2", "6", "20", "100"})
+    public int unitsPerItem;
+
+    @Param({"10", "25", "50"})
+    public int promotions;
+
+    @Param({"5"})
+    public int budgetMs;
+
+    private CheckoutServiceImpl checkoutService;
+    private List<BasketItem> basket;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<DiscountStrategy> all = BenchmarkFixtures.promotions(promotions);
+        PromotionEngine engine = new PromotionEngine(
+                new StrategyRegistry(BenchmarkFixtures.itemStrategies(all)),
+                BenchmarkFixtures.basketStrategies(all));
+        PromotionOptimizer optimizer = "optimal".equals(allocation)
+                ? new PromotionOptimizer(Duration.ofMillis(budgetMs))
+                : null;
+        checkoutService = new CheckoutServiceImpl(BenchmarkFixtures.prices(), engine, null, optimizer);
+
+        basket = new ArrayList<>();
+        for (ItemType type : ItemType.values()) {
+            basket.add(BasketItem.builder().type(type).quantity(unitsPerItem).build());
+        }
+    }
+
+    @Benchmark
+    public Receipt checkout() {
+        return checkoutService.checkout(basket);
+    }
+}
@@ -0,0 +1,73 @@
+
+package com.example.grocery.bench;
+
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.service.pricing.NormalizedBasket;
+import com.example.grocery.service.promo.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single evaluation of each {@link PromotionType} strategy.
+ * Item strategies are fed a quantity that makes them fire; basket strategies
+ * see a basket of {@code basketLines} lines (the only parameterised state), normalized once in setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromotionStrategyBenchmark {
+
+    private final BigDecimal unitPrice = new BigDecimal("0.50");
+    private final BuyXGetYFreeStrategy buyXGetYFree = new BuyXGetYFreeStrategy(ItemType.BANANAS, 2, 1);
+    private final KItemForFixedPriceStrategy kItemForFixedPrice =
+            new KItemForFixedPriceStrategy(ItemType.ORANGES, 3, new BigDecimal("0.75"));
+    private final MinQtyFixedUnitPriceStrategy minQtyFixedUnitPrice =
+            new MinQtyFixedUnitPriceStrategy(ItemType.APPLES, 3, new BigDecimal("0.55"));
+    private final ItemComboFixedPriceStrategy itemComboFixedPrice =
+            new ItemComboFixedPriceStrategy("APPLES:1,BANANAS:2", new BigDecimal("1.25"), "3");
+    private final MaxSubtotalPercentOffStrategy maxSubtotalPercentOff =
+            new MaxSubtotalPercentOffStrategy(new BigDecimal("50.00"), new BigDecimal("10.0"), "20.00");
+
+    @State(Scope.Benchmark)
+    public static class BasketState {
+        @Param({"1", "10", "100", "1000", "10000"})
+        public int basketLines;
+
+        NormalizedBasket basket;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            basket = NormalizedBasket.of(BenchmarkFixtures.basket(basketLines), BenchmarkFixtures.prices());
+        }
+    }
+
+    @Benchmark
+    public DiscountResult buyXGetYFree() {
+        return buyXGetYFree.apply(ItemType.BANANAS, 7, unitPrice);
+    }
+
+    @Benchmark
+    public DiscountResult kItemForFixedPrice() {
+        return kItemForFixedPrice.apply(ItemType.ORANGES, 7, unitPrice);
+    }
+
+    @Benchmark
+    public DiscountResult minQtyFixedUnitPrice() {
+        return minQtyFixedUnitPrice.apply(ItemType.APPLES, 7, unitPrice);
+    }
+
+    @Benchmark
+    public DiscountResult itemComboFixedPrice(BasketState state) {
+        return itemComboFixedPrice.applyBasket(state.basket);
+    }
+
+    @Benchmark
+    public DiscountResult maxSubtotalPercentOff(BasketState state) {
+        return maxSubtotalPercentOff.applyBasket(state.basket);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.grocery.bench;
+
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.service.impl.CheckoutServiceImpl;
+import com.example.grocery.service.journal.ReceiptJournal;
+import com.example.grocery.service.promo.DiscountStrategy;
+import com.example.grocery.service.promo.StrategyRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Sustained durable appends per second: {@link ReceiptJournal} (group commit on a memory-mapped segment)
+ * against writing each record with a FileChannel and forcing it before the next (fsync per receipt).
+ * The receipt is a 5-line checkout receipt. Run with -t 1 and -t 8 to see what batching fsyncs buys
+ * when requests arrive concurrently. Files go to java.io.tmpdir unless -Djournal.dir is given; put them on
+ * the disk you mean to measure.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReceiptJournalBenchmark {
+
+    @Param({"64"})
+    public int segmentMegabytes;
+
+    private Path dir;
+    private Receipt receipt;
+    private ReceiptJournal journal;
+    private FileChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private byte[] record;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path parent = Path.of(System.getProperty("journal.dir", System.getProperty("java.io.tmpdir")));
+        dir = Files.createTempDirectory(parent, "receipt-journal-bench");
+        List<DiscountStrategy> promotions = BenchmarkFixtures.promotions(5);
+        receipt = new CheckoutServiceImpl(
+                BenchmarkFixtures.prices(),
+                new StrategyRegistry(BenchmarkFixtures.itemStrategies(promotions)),
+                BenchmarkFixtures.basketStrategies(promotions))
+                .checkout(BenchmarkFixtures.basket(5));
+        journal = new ReceiptJournal(dir.resolve("journal"), segmentMegabytes * 1024 * 1024);
+        channel = FileChannel.open(dir.resolve("fsync-per-record.log"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        record = new byte[100]; // about the size the journal writes for this receipt
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        channel.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    public long groupCommit() {
+        return journal.append(receipt);
+    }
+
+    @Benchmark
+    public long fsyncPerRecord() throws IOException {
+        lock.lock();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(false);
+            return channel.position();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.grocery.bench;
+
+import com.example.grocery.api.mapper.CheckoutMapper;
+import com.example.grocery.api.stream.ReceiptJsonWriter;
+import com.example.grocery.domain.DiscountLine;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.domain.ReceiptLine;
+import com.example.grocery.service.impl.CheckoutServiceImpl;
+import com.example.grocery.service.promo.DiscountStrategy;
+import com.example.grocery.service.promo.StrategyRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing one checkout receipt as JSON: the ReceiptResponse copy serialized by the ObjectMapper (the path
+ * {@code POST /api/v1/checkout} used before) against {@link ReceiptJsonWriter}. Both write into a sink that only
+ * counts bytes. Run with {@code -prof gc} for the bytes allocated per receipt.
+ *
+ * BigDecimal caches its toString(), so serializing the same Receipt twice would hide most of the ObjectMapper's
+ * cost. Each call therefore writes a fresh copy, as every checkout does; {@link #freshReceipt} is the cost of
+ * that copy alone, to subtract from both.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReceiptSerializationBenchmark {
+
+    @Param({"3", "30", "300"})
+    public int basketLines;
+
+    private Receipt receipt;
+    private ObjectWriter objectWriter;
+    private ReceiptJsonWriter receiptWriter;
+    private final CountingSink sink = new CountingSink();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<DiscountStrategy> promotions = BenchmarkFixtures.promotions(5);
+        receipt = new CheckoutServiceImpl(
+                BenchmarkFixtures.prices(),
+                new StrategyRegistry(BenchmarkFixtures.itemStrategies(promotions)),
+                BenchmarkFixtures.basketStrategies(promotions))
+                .checkout(BenchmarkFixtures.basket(basketLines));
+        ObjectMapper mapper = new ObjectMapper();
+        objectWriter = mapper.writer();
+        receiptWriter = new ReceiptJsonWriter(mapper);
+    }
+
+    @Benchmark
+    public Receipt freshReceipt() {
+        return fresh();
+    }
+
+    @Benchmark
+    public long objectMapper() throws IOException {
+        sink.count = 0;
+        objectWriter.writeValue(sink, CheckoutMapper.toResponse(fresh()));
+        return sink.count;
+    }
+
+    @Benchmark
+    public long receiptWriter() throws IOException {
+        sink.count = 0;
+        receiptWriter.write(fresh(), sink);
+        return sink.count;
+    }
+
+    /** A copy of {@link #receipt} with new BigDecimals, none of which has been printed yet. */
+    private Receipt fresh() {
+        Receipt.ReceiptBuilder copy = Receipt.builder()
+                .subtotal(copy(receipt.getSubtotal()))
+                .totalDiscount(copy(receipt.getTotalDiscount()))
+                .total(copy(receipt.getTotal()))
+                .priceVersion(receipt.getPriceVersion())
+                .promotionVersion(receipt.getPromotionVersion());
+        for (ReceiptLine line : receipt.getItems()) {
+            copy.item(ReceiptLine.builder().itemName(line.getItemName()).quantity(line.getQuantity())
+                    .amount(copy(line.getAmount())).build());
+        }
+        for (DiscountLine line : receipt.getDiscounts()) {
+            copy.discount(DiscountLine.builder().description(line.getDescription()).amount(copy(line.getAmount())).build());
+        }
+        return copy.build();
+    }
+
+    private static BigDecimal copy(BigDecimal amount) {
+        return BigDecimal.valueOf(amount.unscaledValue().longValueExact(), amount.scale());
+    }
+
+    /** Discards what is written and counts it. */
+    static final class CountingSink extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
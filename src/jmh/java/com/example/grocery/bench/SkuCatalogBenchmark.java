@@ -0,0 +1,118 @@
+package com.example.grocery.bench;
+
+import com.example.grocery.service.catalog.MappedPriceFile;
+import com.example.grocery.service.catalog.SkuCatalog;
+import com.example.grocery.service.catalog.SkuPriceTable;
+import com.example.grocery.service.catalog.SkuPromotionIndex;
+import com.example.grocery.service.promo.DiscountStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-line lookups against a catalog of {@code skus} SKUs: code to id, id to price and id to promotions,
+ * and all three as a basket line would do them. {@code hashMapResolve} is the String-keyed
+ * {@code HashMap} + {@code toLowerCase} approach for comparison. Probe codes are drawn at random
+ * (mixed case) from the whole catalog, so large catalogs also pay for cache misses. {@code mappedPrice} reads
+ * the same prices from a memory-mapped {@link MappedPriceFile}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SkuCatalogBenchmark {
+
+    private static final int PROBES = 4096; // power of two
+
+    @Param({"1000", "100000", "1000000"})
+    public int skus;
+
+    private SkuCatalog catalog;
+    private SkuPriceTable prices;
+    private MappedPriceFile mapped;
+    private Path mappedPath;
+    private SkuPromotionIndex promotions;
+    private Map<String, Integer> hashMap;
+    private String[] probes;
+    private int[] probeIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SkuCatalog.Builder builder = SkuCatalog.builder();
+        for (int i = 0; i < skus; i++) builder.add(String.format("SKU-%07d", i));
+        catalog = builder.build();
+
+        SkuPriceTable.Builder priceBuilder = SkuPriceTable.builder(catalog);
+        SkuPromotionIndex.Builder promoBuilder = SkuPromotionIndex.builder(catalog);
+        List<DiscountStrategy> item = BenchmarkFixtures.itemStrategies(BenchmarkFixtures.promotions(100));
+        hashMap = new HashMap<>(catalog.size() * 2);
+        for (int id = 0; id < catalog.size(); id++) {
+            priceBuilder.price(id, 50 + id % 500);
+            if (id % 10 == 0) promoBuilder.add(id, item.get(id % item.size())); // 10% of SKUs on promotion
+            hashMap.put(catalog.code(id).toLowerCase(Locale.ROOT), id);
+        }
+        prices = priceBuilder.build();
+        promotions = promoBuilder.build();
+        mappedPath = Files.createTempFile("prices", ".bin");
+        MappedPriceFile.write(mappedPath, prices);
+        mapped = MappedPriceFile.open(mappedPath);
+
+        Random random = new Random(42);
+        probes = new String[PROBES];
+        probeIds = new int[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            int id = random.nextInt(catalog.size());
+            String code = catalog.code(id);
+            probes[i] = random.nextBoolean() ? code.toLowerCase(Locale.ROOT) : code;
+            probeIds[i] = id;
+        }
+    }
+
+    @Benchmark
+    public int resolve() {
+        return catalog.idOf(probes[next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public Integer hashMapResolve() {
+        return hashMap.get(probes[next++ & (PROBES - 1)].toLowerCase(Locale.ROOT));
+    }
+
+    @Benchmark
+    public long price() {
+        return prices.pricePenceOf(probeIds[next++ & (PROBES - 1)]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(mappedPath);
+    }
+
+    @Benchmark
+    public long mappedPrice() {
+        return mapped.pricePenceOf(probeIds[next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public DiscountStrategy[] promotionsFor() {
+        return promotions.strategiesFor(probeIds[next++ & (PROBES - 1)]);
+    }
+
+    /** Resolve, price and fetch promotions for one basket line. */
+    @Benchmark
+    public long line() {
+        int id = catalog.idOf(probes[next++ & (PROBES - 1)]);
+        return prices.pricePenceOf(id) + promotions.strategiesFor(id).length;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.grocery.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Starts the packaged app {@code runs} times with and without Spring AOT (-Dspring.aot.enabled=true), alternating
+ * so both modes see the same machine load. For each start it records Spring's "Started ... in" time, the JVM's
+ * "process running for" time, and, after a full GC, heap and non-heap used, loaded classes and (on Linux) RSS.
+ * Prints the median per mode and appends every run to target/startup-results.csv.
+ *
+ * The jar must come from {@code mvn -Paot package} (target/aot), or the aot runs fail to find the generated
+ * initializer.
+ *
+ * Usage: StartupProbe jar runs [port]
+ */
+public final class StartupProbe {
+
+    private static final Pattern STARTED =
+            Pattern.compile("Started \\S+ in ([0-9.]+) seconds \\(process running for ([0-9.]+)\\)");
+    private static final String[] MODES = {"jit", "aot"};
+    private static final String[] COLUMNS =
+            {"started_s", "process_s", "heap_mb", "nonheap_mb", "classes", "rss_mb"};
+
+    private StartupProbe() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: StartupProbe <jar> <runs> [port]");
+            System.exit(2);
+        }
+        Path jar = Path.of(args[0]);
+        int runs = Integer.parseInt(args[1]);
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : 18089;
+
+        String header = "mode,run," + String.join(",", COLUMNS);
+        Path csv = Path.of("target", "startup-results.csv");
+        Files.createDirectories(csv.getParent());
+        if (!Files.exists(csv)) Files.writeString(csv, header + System.lineSeparator());
+
+        List<List<double[]>> results = List.of(new ArrayList<>(), new ArrayList<>());
+        for (int run = 1; run <= runs; run++) {
+            for (int m = 0; m < MODES.length; m++) {
+                double[] sample = start(jar, MODES[m].equals("aot"), port);
+                results.get(m).add(sample);
+                StringBuilder row = new StringBuilder(MODES[m]).append(',').append(run);
+                for (double v : sample) row.append(',').append(String.format("%.2f", v));
+                System.out.println(row);
+                Files.writeString(csv, row + System.lineSeparator(), StandardOpenOption.APPEND);
+            }
+        }
+
+        System.out.println();
+        System.out.println("median  " + String.join("  ", COLUMNS));
+        for (int m = 0; m < MODES.length; m++) {
+            StringBuilder line = new StringBuilder(String.format("%-6s", MODES[m]));
+            for (int c = 0; c < COLUMNS.length; c++) {
+                line.append(String.format("  %" + COLUMNS[c].length() + ".2f", median(results.get(m), c)));
+            }
+            System.out.println(line);
+        }
+    }
+
+    private static double[] start(Path jar, boolean aot, int port) throws Exception {
+        Path java = Path.of(ProcessHandle.current().info().command().orElse("java"));
+        List<String> command = new ArrayList<>(List.of(java.toString()));
+        if (aot) command.add("-Dspring.aot.enabled=true");
+        command.addAll(List.of("-jar", jar.toString(), "--server.port=" + port));
+        Process app = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try {
+            Matcher started = awaitStarted(app);
+            double[] sample = new double[COLUMNS.length];
+            sample[0] = Double.parseDouble(started.group(1));
+            sample[1] = Double.parseDouble(started.group(2));
+
+            // Same starting point for both modes: whatever survives a full collection
+            Path jcmd = java.resolveSibling("jcmd");
+            new ProcessBuilder(jcmd.toString(), Long.toString(app.pid()), "GC.run")
+                    .redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start().waitFor();
+            sample[2] = metric(port, "jvm.memory.used?tag=area:heap") / (1024 * 1024);
+            sample[3] = metric(port, "jvm.memory.used?tag=area:nonheap") / (1024 * 1024);
+            sample[4] = metric(port, "jvm.classes.loaded");
+            sample[5] = rssMegabytes(app.pid());
+            return sample;
+        } finally {
+            app.destroy();
+            if (!app.waitFor(30, TimeUnit.SECONDS)) app.destroyForcibly().waitFor();
+        }
+    }
+
+    /** Reads the app's output until Spring reports it has started; the rest is drained in the background. */
+    private static Matcher awaitStarted(Process app) throws IOException {
+        BufferedReader out = new BufferedReader(new InputStreamReader(app.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = out.readLine()) != null) {
+            Matcher m = STARTED.matcher(line);
+            if (m.find()) {
+                CompletableFuture.runAsync(() -> out.lines().forEach(l -> { }));
+                return m;
+            }
+        }
+        throw new IllegalStateException("App exited before it started (exit code " + app.exitValue() + ")");
+    }
+
+    private static double metric(int port, String query) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/metrics/" + query)).build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher value = Pattern.compile("\"value\":([0-9.E+-]+)").matcher(body);
+        if (!value.find()) throw new IllegalStateException("No value for " + query + ": " + body);
+        return Double.parseDouble(value.group(1));
+    }
+
+    /** Resident set size from /proc, or NaN off Linux. */
+    private static double rssMegabytes(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) return Double.NaN;
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", "")) / 1024.0;
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static double median(List<double[]> samples, int column) {
+        double[] values = samples.stream().mapToDouble(s -> s[column]).sorted().toArray();
+        int n = values.length;
+        return n % 2 == 1 ? values[n / 2] : (values[n / 2 - 1] + values[n / 2]) / 2;
+    }
+}
@@ -0,0 +1,40 @@
+
+package com.example.grocery.bench;
+
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.service.promo.DiscountStrategy;
+import com.example.grocery.service.promo.StrategyRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup cost of {@link StrategyRegistry#strategiesFor} as the promotion set grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StrategyRegistryBenchmark {
+
+    @Param({"5", "100", "1000", "10000", "100000"})
+    public int promotions;
+
+    private StrategyRegistry registry;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<DiscountStrategy> all = BenchmarkFixtures.promotions(promotions);
+        registry = new StrategyRegistry(BenchmarkFixtures.itemStrategies(all));
+    }
+
+    @Benchmark
+    public List<DiscountStrategy> strategiesFor() {
+        ItemType[] items = ItemType.values();
+        return registry.strategiesFor(items[next++ % items.length]);
+    }
+}
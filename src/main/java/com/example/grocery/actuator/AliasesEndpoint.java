@@ -0,0 +1,45 @@
+package com.example.grocery.actuator;
+
+import com.example.grocery.service.catalog.ItemNameResolver;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/aliases: GET shows the active item-name aliases version, POST reloads catalog.aliases.location.
+ */
+@Component
+@Endpoint(id = "aliases")
+public class AliasesEndpoint {
+
+    private final ItemNameResolver resolver;
+
+    public AliasesEndpoint(ItemNameResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    @ReadOperation
+    public Map<String, Object> aliases() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("version", resolver.version());
+        body.put("location", resolver.location());
+        body.put("names", resolver.size());
+        resolver.lastFailure().ifPresent(failure -> {
+            body.put("lastError", failure.message());
+            body.put("lastErrorAt", failure.at().toString());
+        });
+        return body;
+    }
+
+    @WriteOperation
+    public Map<String, Object> reload() {
+        boolean reloaded = resolver.reload();
+        Map<String, Object> body = aliases();
+        body.put("reloaded", reloaded);
+        return body;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.grocery.actuator;
+
+import com.example.grocery.service.pricing.ConfigurablePriceCatalog;
+import com.example.grocery.service.pricing.MappedPriceCatalog;
+import com.example.grocery.service.pricing.PriceProvider;
+import com.example.grocery.service.pricing.PriceSnapshot;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Reports the active price version under /actuator/health (component "priceCatalog").
+ * A failed reload stays UP, since the previous prices are still served, and shows lastError.
+ * With catalog.binary enabled, the mapped file is what checkout prices from and is reported under "binary".
+ */
+@Component("priceCatalog")
+public class PriceCatalogHealthIndicator implements HealthIndicator {
+
+    private final ConfigurablePriceCatalog catalog;
+    private final PriceProvider activePrices;
+
+    public PriceCatalogHealthIndicator(ConfigurablePriceCatalog catalog, PriceProvider activePrices) {
+        this.catalog = catalog;
+        this.activePrices = activePrices;
+    }
+
+    @Override
+    public Health health() {
+        PriceSnapshot snapshot = catalog.snapshot();
+        Health.Builder health = Health.up()
+                .withDetail("version", snapshot.version())
+                .withDetail("loadedAt", snapshot.loadedAt().toString())
+                .withDetail("source", snapshot.source())
+                .withDetail("items", snapshot.prices().size());
+        catalog.reloadPath().ifPresent(path -> health.withDetail("reloadPath", path.toString()));
+        catalog.lastFailure().ifPresent(failure -> health
+                .withDetail("lastError", failure.message())
+                .withDetail("lastErrorAt", failure.at().toString()));
+        if (activePrices instanceof MappedPriceCatalog mapped) {
+            health.withDetail("binary", Map.of(
+                    "version", mapped.version(),
+                    "path", mapped.path().toString(),
+                    "skus", mapped.snapshot().file().size()));
+        }
+        return health.build();
+    }
+}
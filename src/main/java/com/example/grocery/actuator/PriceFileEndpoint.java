@@ -0,0 +1,54 @@
+package com.example.grocery.actuator;
+
+import com.example.grocery.service.pricing.MappedPriceCatalog;
+import com.example.grocery.service.pricing.PriceProvider;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/pricefile: GET shows the mapped price file and version, POST maps catalog.binary.path again.
+ * Reports {"enabled": false} unless catalog.binary.enabled=true.
+ */
+@Component
+@Endpoint(id = "pricefile")
+public class PriceFileEndpoint {
+
+    private final PriceProvider prices;
+
+    public PriceFileEndpoint(PriceProvider prices) {
+        this.prices = prices;
+    }
+
+    @ReadOperation
+    public Map<String, Object> priceFile() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        if (!(prices instanceof MappedPriceCatalog catalog)) {
+            body.put("enabled", false);
+            return body;
+        }
+        MappedPriceCatalog.Snapshot snapshot = catalog.snapshot();
+        body.put("enabled", true);
+        body.put("version", snapshot.version());
+        body.put("path", catalog.path().toString());
+        body.put("skus", snapshot.file().size());
+        body.put("loadedAt", snapshot.loadedAt().toString());
+        catalog.lastFailure().ifPresent(failure -> {
+            body.put("lastError", failure.message());
+            body.put("lastErrorAt", failure.at().toString());
+        });
+        return body;
+    }
+
+    @WriteOperation
+    public Map<String, Object> reload() {
+        boolean reloaded = prices instanceof MappedPriceCatalog catalog && catalog.reload();
+        Map<String, Object> body = priceFile();
+        body.put("reloaded", reloaded);
+        return body;
+    }
+}
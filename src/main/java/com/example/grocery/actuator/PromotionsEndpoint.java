@@ -0,0 +1,48 @@
+package com.example.grocery.actuator;
+
+import com.example.grocery.service.promo.BasketLevelStrategy;
+import com.example.grocery.service.promo.PromotionEngine;
+import com.example.grocery.service.promo.PromotionPlan;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/promotions: GET shows the active promotion version, POST reloads checkout.promotions.location.
+ */
+@Component
+@Endpoint(id = "promotions")
+public class PromotionsEndpoint {
+
+    private final PromotionEngine engine;
+
+    public PromotionsEndpoint(PromotionEngine engine) {
+        this.engine = engine;
+    }
+
+    @ReadOperation
+    public Map<String, Object> promotions() {
+        PromotionPlan plan = engine.current();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("version", plan.version());
+        body.put("location", engine.location());
+        body.put("basketStrategies", plan.basketStrategies().stream().map(BasketLevelStrategy::name).toList());
+        engine.lastFailure().ifPresent(failure -> {
+            body.put("lastError", failure.message());
+            body.put("lastErrorAt", failure.at().toString());
+        });
+        return body;
+    }
+
+    @WriteOperation
+    public Map<String, Object> reload() {
+        boolean reloaded = engine.reload();
+        Map<String, Object> body = promotions();
+        body.put("reloaded", reloaded);
+        return body;
+    }
+}
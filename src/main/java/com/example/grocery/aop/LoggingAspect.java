@@ -1,7 +1,9 @@
 
 package com.example.grocery.aop;
 
-import lombok.extern.slf4j.Slf4j;
+import com.example.grocery.config.InstrumentationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -11,11 +13,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Cross-cutting logging for controllers and services.
- * Logs method entry/exit, execution time, and exceptions.
+ * Cross-cutting timing for controllers and services.
+ *
+ * Every call is recorded in the Micrometer timer {@code grocery.method}
+ * (tags: class, method, outcome=success|error). Logging is the exception, not the rule:
+ * - calls slower than instrumentation.slow-threshold are logged at WARN;
+ * - a random instrumentation.sample-rate fraction of the rest is logged at INFO;
+ * - instrumentation.trace logs entry (with arguments) and exit of every call at DEBUG.
+ * No log message or argument string is built unless it is actually written.
  */
 @Aspect
 @Component
@@ -24,41 +36,92 @@ public class LoggingAspect {
 
     private static final Logger log = LoggerFactory.getLogger(LoggingAspect.class);
 
+    /** Timers and names for one advised method, built on its first call. */
+    private static final class Probe {
+        final String label;
+        final Timer success;
+        final Timer error;
+
+        Probe(MeterRegistry registry, Method method) {
+            String className = method.getDeclaringClass().getSimpleName();
+            this.label = className + "." + method.getName();
+            this.success = timer(registry, className, method.getName(), "success");
+            this.error = timer(registry, className, method.getName(), "error");
+        }
+
+        private static Timer timer(MeterRegistry registry, String className, String method, String outcome) {
+            return Timer.builder("grocery.method")
+                    .description("Duration of controller and service calls")
+                    .tag("class", className)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .register(registry);
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<Method, Probe> probes = new ConcurrentHashMap<>();
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final boolean trace;
+
+    public LoggingAspect(MeterRegistry registry, InstrumentationProperties props) {
+        this.registry = registry;
+        this.slowThresholdNanos = props.getSlowThreshold().toNanos();
+        this.sampleRate = props.getSampleRate();
+        this.trace = props.isTrace();
+    }
+
     /**
      * Pointcuts:
-     *  - Controllers: com.example.grocerystore.controller..*(..)
-     *  - Services:    com.example.grocerystore.service..*(..)
+     *  - Controllers: com.example.grocery.api.controller..*(..)
+     *  - Services:    com.example.grocery.service..*(..), except promotions, pricing and the item
+     *                 catalog (name resolution), which run per basket line inside checkout and are timed
+     *                 as part of it, and the what-if replay, a one-off batch run that reports its own time
      */
-    @Pointcut("execution(* com.example.grocery.controller..*(..))")
+    @Pointcut("execution(* com.example.grocery.api.controller..*(..))")
     public void controllerLayer() {}
 
-    @Pointcut("execution(* com.example.grocery.service..*(..))")
+    @Pointcut("execution(* com.example.grocery.service..*(..))"
+            + " && !within(com.example.grocery.service.promo..*)"
+            + " && !within(com.example.grocery.service.pricing..*)"
+            + " && !within(com.example.grocery.service.catalog..*)"
+            + " && !within(com.example.grocery.service.simulation..*)")
     public void serviceLayer() {}
 
     @Around("controllerLayer() || serviceLayer()")
     public Object logAround(ProceedingJoinPoint pjp) throws Throwable {
-        long startNs = System.nanoTime();
-        MethodSignature sig = (MethodSignature) pjp.getSignature();
-        String className = sig.getDeclaringType().getSimpleName();
-        String methodName = sig.getName();
-        Object[] args = pjp.getArgs();
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+        Probe probe = probes.get(method);
+        if (probe == null) probe = probes.computeIfAbsent(method, m -> new Probe(registry, m));
 
-        // Entry log (arguments trimmed to avoid noisy payloads)
-        //log.info("➡️  Enter {}.{}(args={})", className, methodName, safeArgs(args));
+        boolean tracing = trace && log.isDebugEnabled();
+        if (tracing) log.debug("Enter {}(args={})", probe.label, safeArgs(pjp.getArgs()));
 
-        log.info("➡️  Enter {}.{}(args={})", className, methodName, safeArgs(args));
+        long startNs = System.nanoTime();
         try {
             Object result = pjp.proceed();
 
-            long durationMs = (System.nanoTime() - startNs) / 1_000_000;
-            // Exit log (you can suppress large results if needed)
-            log.info("✅ Exit {}.{} [{} ms]", className, methodName, durationMs);
+            long durationNs = System.nanoTime() - startNs;
+            probe.success.record(durationNs, TimeUnit.NANOSECONDS);
+            if (durationNs >= slowThresholdNanos) {
+                log.warn("Slow call {} took {} ms", probe.label, TimeUnit.NANOSECONDS.toMillis(durationNs));
+            } else if (sampleRate > 0 && log.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                log.info("Sampled call {} took {} µs", probe.label, TimeUnit.NANOSECONDS.toMicros(durationNs));
+            }
+            if (tracing) log.debug("Exit {} [{} µs]", probe.label, TimeUnit.NANOSECONDS.toMicros(durationNs));
 
             return result;
         } catch (Throwable ex) {
-            long durationMs = (System.nanoTime() - startNs) / 1_000_000;
-            log.error("❌ Error in {}.{} after {} ms: {}",
-                    className, methodName, durationMs, ex.toString(), ex);
+            long durationNs = System.nanoTime() - startNs;
+            probe.error.record(durationNs, TimeUnit.NANOSECONDS);
+            if (ex instanceof IllegalArgumentException) {
+                // Client errors (unknown item, bad quantity) become 400s; no stack trace needed
+                if (log.isDebugEnabled()) log.debug("Rejected {}: {}", probe.label, ex.toString());
+            } else {
+                log.error("Error in {} after {} ms: {}",
+                        probe.label, TimeUnit.NANOSECONDS.toMillis(durationNs), ex.toString(), ex);
+            }
             throw ex;
         }
     }
@@ -74,4 +137,4 @@ public class LoggingAspect {
                 .toList()
                 .toString();
     }
-}
\ No newline at end of file
+}
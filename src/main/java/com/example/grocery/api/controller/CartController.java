@@ -0,0 +1,109 @@
+package com.example.grocery.api.controller;
+
+import com.example.grocery.api.dto.BasketItemDto;
+import com.example.grocery.api.dto.ReceiptResponse;
+import com.example.grocery.api.mapper.CheckoutMapper;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.service.CartService;
+import com.example.grocery.service.catalog.ItemNameResolver;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+@Tag(name = "Carts", description = "Cart sessions: a running receipt while a lane scans items one at a time")
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/v1/carts")
+public class CartController {
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private ItemNameResolver itemNameResolver;
+
+    @Operation(
+            summary = "Opens an empty cart",
+            description = "Returns the empty receipt; the cart's URL is in the Location header.",
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Created", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ReceiptResponse.class)))
+            }
+    )
+    @PostMapping
+    public ResponseEntity<Receipt> open() {
+        String id = cartService.open();
+        var location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(id).toUri();
+        return ResponseEntity.created(location).body(cartService.receipt(id));
+    }
+
+    @Operation(
+            summary = "Adds one line to a cart",
+            description = "Adds the line at the end and returns the re-priced receipt. Only the promotions that involve "
+                    + "the scanned item are re-evaluated; the receipt is the same as a checkout of all the cart's lines.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true,
+                    description = "Item and quantity", content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = BasketItemDto.class), examples = {
+                    @ExampleObject(name = "example-request", value = """
+                    { "item": "Bananas", "quantity": 1 }""")})),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Ok", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ReceiptResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Unknown item or quantity below 1", content = @Content),
+                    @ApiResponse(responseCode = "404", description = "No open cart with this id", content = @Content)
+            }
+    )
+    @PostMapping("/{cartId}/lines")
+    public ResponseEntity<Receipt> addLine(@PathVariable String cartId, @RequestBody @Valid BasketItemDto line) {
+        return ResponseEntity.ok(cartService.add(cartId, CheckoutMapper.toLine(line, itemNameResolver)));
+    }
+
+    @Operation(
+            summary = "Removes one line from a cart",
+            description = "Removes the line at the given 0-based index (the order of the receipt's items) "
+                    + "and returns the re-priced receipt.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Ok", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ReceiptResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "No line at this index", content = @Content),
+                    @ApiResponse(responseCode = "404", description = "No open cart with this id", content = @Content)
+            }
+    )
+    @DeleteMapping("/{cartId}/lines/{index}")
+    public ResponseEntity<Receipt> removeLine(@PathVariable String cartId, @PathVariable int index) {
+        return ResponseEntity.ok(cartService.remove(cartId, index));
+    }
+
+    @Operation(
+            summary = "Gets the current receipt of a cart",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Ok", content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ReceiptResponse.class))),
+                    @ApiResponse(responseCode = "404", description = "No open cart with this id", content = @Content)
+            }
+    )
+    @GetMapping("/{cartId}")
+    public ResponseEntity<Receipt> receipt(@PathVariable String cartId) {
+        return ResponseEntity.ok(cartService.receipt(cartId));
+    }
+
+    @Operation(
+            summary = "Closes a cart",
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "Closed", content = @Content),
+                    @ApiResponse(responseCode = "404", description = "No open cart with this id", content = @Content)
+            }
+    )
+    @DeleteMapping("/{cartId}")
+    public ResponseEntity<Void> close(@PathVariable String cartId) {
+        cartService.close(cartId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,38 +1,63 @@
 
 package com.example.grocery.api.controller;
 
+import com.example.grocery.api.dto.BasketBatchRequest;
 import com.example.grocery.api.dto.BasketRequest;
+import com.example.grocery.api.dto.BatchReceiptResponse;
 import com.example.grocery.api.dto.ReceiptResponse;
+import com.example.grocery.api.mapper.CheckoutMapper;
+import com.example.grocery.api.stream.NdjsonCheckoutStreamer;
 import com.example.grocery.domain.BasketItem;
-import com.example.grocery.domain.ItemType;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.service.BatchCheckoutService;
 import com.example.grocery.service.CheckoutService;
 import com.example.grocery.service.ItemCatalogService;
-import com.example.grocery.util.ItemResolver;
+import com.example.grocery.service.catalog.ItemNameResolver;
+import com.example.grocery.service.idempotency.IdempotentReceiptStore;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @Tag(name = "GroceryItems", description = "Item catalog endpoints: list and manage unit prices")
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/v1")
 public class CheckoutController {
     @Autowired
     private CheckoutService checkoutService;
     @Autowired
     private ItemCatalogService itemCatalogService;
+    @Autowired
+    private BatchCheckoutService batchCheckoutService;
+    @Autowired
+    private NdjsonCheckoutStreamer ndjsonCheckoutStreamer;
+    @Autowired
+    private IdempotentReceiptStore idempotentReceiptStore;
+    @Autowired
+    private ItemNameResolver itemNameResolver;
 
     @Operation(
             summary = "Creates the item checkout receipt",
-            description = "Creates the item checkout receipt with discount applied unit price for a given item type",
+            description = "Creates the item checkout receipt with discount applied unit price for a given item type. "
+                    + "With an Idempotency-Key header, a repeat of the same basket within checkout.idempotency.ttl "
+                    + "returns the first receipt; reusing the key for a different basket is rejected. "
+                    + "The basket may be sent, and the receipt requested (Accept), as application/cbor or "
+                    + "application/x-jackson-smile instead of JSON; the fields are the same.",
             requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true,
                     description = "Item type and unit price",content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = BasketRequest.class),examples = {
@@ -42,23 +67,74 @@ public class CheckoutController {
                     @ApiResponse(responseCode = "200",description = "Ok",content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = ReceiptResponse.class),examples = {@ExampleObject(name = "example-response", value = """
                         {"items":[{"itemName":"Banana","quantity":3,"amount":1.50},{"itemName":"Orange","quantity":3,"amount":0.90},{"itemName":"Apple","quantity":1,"amount":0.60}],"discounts":[{"description":"Buy 2 Get 1 Free (Bananas)","amount":-0.50},{"description":"3 Oranges for £0.75","amount":-0.15}],"subtotal":3.00,"totalDiscount":-0.65,"total":2.35}""") })),
-                    @ApiResponse(responseCode = "400", description = "Invalid item type or price", content = @Content)
+                    @ApiResponse(responseCode = "400", description = "Invalid item type or price, or Idempotency-Key reused for a different basket", content = @Content)
             }
     )
     @PostMapping("/checkout")
-    public ResponseEntity<ReceiptResponse> checkout(@RequestBody @Valid BasketRequest request) {
-        List<BasketItem> basket = request.getItems().stream().map(dto -> {
-            ItemType type = ItemResolver.resolve(dto.getItem());
-            if (type == null) throw new IllegalArgumentException("Unknown item: " + dto.getItem());
-            return BasketItem.builder().type(type).quantity(dto.getQuantity()).build();
-        }).toList();
-        var receipt = checkoutService.checkout(basket);
-        return ResponseEntity.ok(ReceiptResponse.builder()
-                .items(receipt.getItems())
-                .discounts(receipt.getDiscounts())
-                .subtotal(receipt.getSubtotal())
-                .totalDiscount(receipt.getTotalDiscount())
-                .total(receipt.getTotal())
-                .build());
+    public ResponseEntity<Receipt> checkout(@RequestBody @Valid BasketRequest request,
+                                            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+        List<BasketItem> basket = CheckoutMapper.toBasket(request, itemNameResolver);
+        var receipt = idempotencyKey == null
+                ? checkoutService.checkout(basket)
+                : idempotentReceiptStore.getOrCompute(idempotencyKey, basket, () -> checkoutService.checkout(basket));
+        // Written straight from the Receipt by ReceiptHttpMessageConverter; same fields as ReceiptResponse
+        return ResponseEntity.ok(receipt);
+    }
+
+    @Operation(
+            summary = "Prices many baskets in one request",
+            description = "Prices every basket in parallel against the same prices and promotions. "
+                    + "Results keep the input order; a basket that cannot be priced carries an error instead of a receipt. "
+                    + "Batches above checkout.batch.max-size are rejected.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true,
+                    description = "Array of baskets", content = @Content(mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = BasketRequest.class)), examples = {
+                    @ExampleObject(name = "example-request", value = """
+                    [{"items":[{"item":"Bananas","quantity":3}]},{"items":[{"item":"Kiwis","quantity":1}]}]""")})),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Ok", content = @Content(mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = BatchReceiptResponse.class)), examples = {@ExampleObject(name = "example-response", value = """
+                        [{"index":0,"receipt":{"items":[{"itemName":"bananas","quantity":3,"amount":1.65}],"discounts":[{"description":"Buy 2 Get 1 Free (BANANAS)","amount":-0.55}],"subtotal":1.65,"totalDiscount":-0.55,"total":1.10}},{"index":1,"error":"Unknown item: Kiwis"}]""") })),
+                    @ApiResponse(responseCode = "400", description = "Batch larger than the configured limit, or not an array", content = @Content),
+                    @ApiResponse(responseCode = "422", description = "A basket fails validation (e.g. no items)", content = @Content)
+            }
+    )
+    @PostMapping("/checkout/batch")
+    public ResponseEntity<List<BatchReceiptResponse>> checkoutBatch(@RequestBody @Valid BasketBatchRequest batch) {
+        // checkout.batch.max-size is enforced while the array is read, by BasketBatchHttpMessageConverter
+        var outcomes = batchCheckoutService.checkoutAll(batch.getBaskets(), r -> CheckoutMapper.toBasket(r, itemNameResolver));
+        return ResponseEntity.ok(outcomes.stream()
+                .map(o -> BatchReceiptResponse.builder()
+                        .index(o.getIndex())
+                        .receipt(o.getReceipt() == null ? null : CheckoutMapper.toResponse(o.getReceipt()))
+                        .error(o.getError())
+                        .build())
+                .toList());
+    }
+
+    @Operation(
+            summary = "Streams receipts for newline-delimited baskets",
+            description = "Reads one BasketRequest JSON object per line and writes one ReceiptResponse JSON line per basket "
+                    + "as it is priced. Memory is constant regardless of input size; a slow reader slows the producer down. "
+                    + "A basket that cannot be priced yields {\"line\":n,\"error\":\"...\"}.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true,
+                    description = "NDJSON baskets", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    examples = {@ExampleObject(name = "example-request", value = """
+                    {"items":[{"item":"Bananas","quantity":3}]}
+                    {"items":[{"item":"Kiwis","quantity":1}]}""")})),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Ok", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    examples = {@ExampleObject(name = "example-response", value = """
+                        {"items":[{"itemName":"bananas","quantity":3,"amount":1.65}],"discounts":[{"description":"Buy 2 Get 1 Free (BANANAS)","amount":-0.55}],"subtotal":1.65,"totalDiscount":-0.55,"total":1.10}
+                        {"line":2,"error":"Unknown item: Kiwis"}""")}))
+            }
+    )
+    @PostMapping(value = "/checkout/stream",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void checkoutStream(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        ndjsonCheckoutStreamer.stream(body, response.getOutputStream(), checkoutService);
     }
 }
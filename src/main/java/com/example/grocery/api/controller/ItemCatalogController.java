@@ -11,6 +11,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,6 +19,7 @@ import java.util.List;
 
 @Tag(name = "GroceryItems", description = "Item catalog endpoints: list and manage unit prices")
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/v1/items")
 public class ItemCatalogController {
 
@@ -26,7 +28,8 @@ public class ItemCatalogController {
 
     @Operation(
             summary = "Get item types with unit prices",
-            description = "Returns all known item types with current unit prices.",
+            description = "Returns all known item types with current unit prices. "
+                    + "Send Accept: application/cbor or application/x-jackson-smile for the same list in that encoding.",
             responses = {
                     @ApiResponse(
                             responseCode = "200",
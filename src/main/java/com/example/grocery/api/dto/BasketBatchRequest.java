@@ -0,0 +1,16 @@
+package com.example.grocery.api.dto;
+
+import jakarta.validation.Valid;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * The body of {@code POST /api/v1/checkout/batch}: a bare array of baskets, read by BasketBatchHttpMessageConverter.
+ * Each basket is validated as {@code /checkout} validates its body.
+ */
+@Data
+public class BasketBatchRequest {
+    @Valid
+    private List<BasketRequest> baskets;
+}
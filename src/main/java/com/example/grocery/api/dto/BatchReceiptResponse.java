@@ -0,0 +1,18 @@
+
+package com.example.grocery.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * One entry of a batch checkout response: {@code receipt} or {@code error}, never both.
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchReceiptResponse {
+    int index;
+    ReceiptResponse receipt;
+    String error;
+}
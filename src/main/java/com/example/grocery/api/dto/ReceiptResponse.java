@@ -17,4 +17,6 @@ public class ReceiptResponse {
     BigDecimal subtotal;
     BigDecimal totalDiscount;
     BigDecimal total;
+    long priceVersion;
+    long promotionVersion;
 }
@@ -0,0 +1,62 @@
+
+package com.example.grocery.api.mapper;
+
+import com.example.grocery.api.dto.BasketItemDto;
+import com.example.grocery.api.dto.BasketRequest;
+import com.example.grocery.api.dto.ReceiptResponse;
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.service.catalog.ItemNameResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts between checkout DTOs and the domain, shared by every checkout endpoint.
+ */
+public final class CheckoutMapper {
+    private CheckoutMapper() {}
+
+    /**
+     * Resolves item names with {@code resolver} and checks quantities.
+     *
+     * @throws IllegalArgumentException for an empty basket, an unknown item or a quantity below 1
+     */
+    public static List<BasketItem> toBasket(BasketRequest request, ItemNameResolver resolver) {
+        if (request == null || request.getItems() == null || request.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Basket must contain at least one item");
+        }
+        List<BasketItem> basket = new ArrayList<>(request.getItems().size());
+        for (BasketItemDto dto : request.getItems()) {
+            basket.add(toLine(dto, resolver));
+        }
+        return basket;
+    }
+
+    /**
+     * One basket line, checked as in {@link #toBasket}.
+     *
+     * @throws IllegalArgumentException for an unknown item or a quantity below 1
+     */
+    public static BasketItem toLine(BasketItemDto dto, ItemNameResolver resolver) {
+        ItemType type = resolver.resolve(dto.getItem());
+        if (type == null) throw new IllegalArgumentException("Unknown item: " + dto.getItem());
+        if (dto.getQuantity() < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1 for item: " + dto.getItem());
+        }
+        return BasketItem.builder().type(type).quantity(dto.getQuantity()).build();
+    }
+
+    public static ReceiptResponse toResponse(Receipt receipt) {
+        return ReceiptResponse.builder()
+                .items(receipt.getItems())
+                .discounts(receipt.getDiscounts())
+                .subtotal(receipt.getSubtotal())
+                .totalDiscount(receipt.getTotalDiscount())
+                .total(receipt.getTotal())
+                .priceVersion(receipt.getPriceVersion())
+                .promotionVersion(receipt.getPromotionVersion())
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.grocery.api.reactive;
+
+import com.example.grocery.api.dto.BasketRequest;
+import com.example.grocery.api.dto.ItemPriceDto;
+import com.example.grocery.api.dto.ReceiptResponse;
+import com.example.grocery.api.mapper.CheckoutMapper;
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.service.CheckoutService;
+import com.example.grocery.service.ItemCatalogService;
+import com.example.grocery.service.catalog.ItemNameResolver;
+import com.example.grocery.service.idempotency.IdempotentReceiptStore;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * WebFlux twin of CheckoutController and ItemCatalogController, active with the "reactive" profile.
+ * Same paths, payloads and errors. The services are synchronous (and the idempotency store may
+ * wait for an in-flight duplicate), so they run on the bounded-elastic scheduler, never on the event loop.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/v1")
+public class ReactiveCheckoutController {
+    @Autowired
+    private CheckoutService checkoutService;
+    @Autowired
+    private ItemCatalogService itemCatalogService;
+    @Autowired
+    private IdempotentReceiptStore idempotentReceiptStore;
+    @Autowired
+    private ItemNameResolver itemNameResolver;
+
+    @PostMapping("/checkout")
+    public Mono<ReceiptResponse> checkout(@RequestBody @Valid Mono<BasketRequest> request,
+                                          @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+        return request
+                .publishOn(Schedulers.boundedElastic())
+                .map(body -> CheckoutMapper.toResponse(checkout(CheckoutMapper.toBasket(body, itemNameResolver), idempotencyKey)));
+    }
+
+    @GetMapping("/items")
+    public Flux<ItemPriceDto> getItemsWithPrices() {
+        return Mono.fromCallable(itemCatalogService::getAllAsMap)
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(map -> map.entrySet().stream()
+                        .map(e -> new ItemPriceDto(e.getKey(), e.getValue()))
+                        .toList());
+    }
+
+    private Receipt checkout(List<BasketItem> basket, String idempotencyKey) {
+        return idempotencyKey == null
+                ? checkoutService.checkout(basket)
+                : idempotentReceiptStore.getOrCompute(idempotencyKey, basket, () -> checkoutService.checkout(basket));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.grocery.api.reactive;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.embedded.netty.NettyRouteProvider;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs the reactive profile on Reactor Netty. Tomcat is on the classpath for the servlet
+ * stack and Boot would otherwise prefer it for reactive applications too. WebFlux is an optional
+ * dependency, so nothing here is loaded unless Reactor Netty is on the classpath.
+ */
+@Configuration
+@ConditionalOnClass(name = "reactor.netty.http.server.HttpServer")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(ObjectProvider<NettyRouteProvider> routes,
+                                                                       ObjectProvider<NettyServerCustomizer> customizers) {
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory();
+        factory.addRouteProviders(routes.orderedStream().toArray(NettyRouteProvider[]::new));
+        factory.addServerCustomizers(customizers.orderedStream().toArray(NettyServerCustomizer[]::new));
+        return factory;
+    }
+}
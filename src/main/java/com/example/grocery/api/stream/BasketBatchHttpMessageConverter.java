@@ -0,0 +1,87 @@
+package com.example.grocery.api.stream;
+
+import com.example.grocery.api.dto.BasketBatchRequest;
+import com.example.grocery.api.dto.BasketRequest;
+import com.example.grocery.config.CheckoutProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the basket array of {@code POST /api/v1/checkout/batch} (JSON, CBOR or Smile) one basket at a time and
+ * rejects it as soon as it holds more than checkout.batch.max-size baskets, so an oversized batch is never bound
+ * in memory. Read-only; the baskets are validated afterwards like any {@code @Valid} request body.
+ */
+@Component
+public class BasketBatchHttpMessageConverter extends AbstractHttpMessageConverter<BasketBatchRequest> {
+
+    private final CheckoutProperties props;
+    private final ObjectReader json;
+    private final ObjectReader cbor = Jackson2ObjectMapperBuilder.cbor().build().readerFor(BasketRequest.class);
+    private final ObjectReader smile = Jackson2ObjectMapperBuilder.smile().build().readerFor(BasketRequest.class);
+
+    public BasketBatchHttpMessageConverter(ObjectMapper mapper, CheckoutProperties props) {
+        super(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, ReceiptHttpMessageConverter.APPLICATION_SMILE);
+        this.props = props;
+        this.json = mapper.readerFor(BasketRequest.class);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return BasketBatchRequest.class == clazz;
+    }
+
+    @Override
+    protected boolean canWrite(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected BasketBatchRequest readInternal(Class<? extends BasketBatchRequest> clazz, HttpInputMessage inputMessage)
+            throws IOException {
+        MediaType contentType = inputMessage.getHeaders().getContentType();
+        ObjectReader reader = json;
+        if (MediaType.APPLICATION_CBOR.isCompatibleWith(contentType)) reader = cbor;
+        else if (ReceiptHttpMessageConverter.APPLICATION_SMILE.isCompatibleWith(contentType)) reader = smile;
+
+        int maxSize = props.getBatch().getMaxSize();
+        List<BasketRequest> baskets = new ArrayList<>();
+        try (JsonParser parser = reader.createParser(inputMessage.getBody())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new HttpMessageNotReadableException("Expected an array of baskets", inputMessage);
+            }
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token == null) throw new HttpMessageNotReadableException("Unterminated batch array", inputMessage);
+                if (baskets.size() == maxSize) {
+                    throw new HttpMessageNotReadableException(
+                            "Batch exceeds the limit of " + maxSize + " baskets", inputMessage);
+                }
+                baskets.add(reader.readValue(parser));
+            }
+        } catch (JsonProcessingException ex) {
+            throw new HttpMessageNotReadableException("Invalid batch: " + ex.getOriginalMessage(), ex, inputMessage);
+        }
+        BasketBatchRequest batch = new BasketBatchRequest();
+        batch.setBaskets(baskets);
+        return batch;
+    }
+
+    @Override
+    protected void writeInternal(BasketBatchRequest batch, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("Basket batches are not written");
+    }
+}
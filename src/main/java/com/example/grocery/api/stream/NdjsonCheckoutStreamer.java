@@ -0,0 +1,107 @@
+
+package com.example.grocery.api.stream;
+
+import com.example.grocery.api.dto.BasketRequest;
+import com.example.grocery.api.mapper.CheckoutMapper;
+import com.example.grocery.service.CheckoutService;
+import com.example.grocery.service.catalog.ItemNameResolver;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Prices a stream of newline-delimited BasketRequest JSON and writes one
+ * ReceiptResponse JSON line per basket, in order.
+ *
+ * Input is consumed with a single JsonParser and output produced with a single
+ * JsonGenerator, so memory stays flat however long the stream is. Everything is
+ * blocking: a client that stops reading its responses stalls the writes, which
+ * stops further reads of its input (TCP backpressure instead of buffering).
+ *
+ * A basket that cannot be read or priced produces {"line":n,"error":"..."} and the
+ * stream continues; a JSON syntax error produces an error line and ends the stream,
+ * since the parser cannot resynchronise.
+ */
+@Component
+public class NdjsonCheckoutStreamer {
+
+    /** Receipts written between forced flushes when input keeps arriving. */
+    private static final int FLUSH_EVERY = 64;
+
+    private final ObjectReader basketReader;
+    private final ReceiptJsonWriter receiptWriter;
+    private final ObjectMapper mapper;
+    private final ItemNameResolver itemNameResolver;
+
+    public NdjsonCheckoutStreamer(ObjectMapper mapper, ItemNameResolver itemNameResolver, ReceiptJsonWriter receiptWriter) {
+        this.mapper = mapper;
+        this.itemNameResolver = itemNameResolver;
+        this.basketReader = mapper.readerFor(BasketRequest.class);
+        this.receiptWriter = receiptWriter;
+    }
+
+    /**
+     * @return number of baskets read (priced or failed)
+     */
+    public long stream(InputStream in, OutputStream out, CheckoutService checkoutService) throws IOException {
+        // One snapshot for the whole replay, so a reload cannot change prices mid-stream
+        CheckoutService snapshot = checkoutService.snapshot();
+        long line = 0;
+        int sinceFlush = 0;
+        try (JsonParser parser = mapper.getFactory().createParser(in);
+             JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            while (true) {
+                try {
+                    JsonToken token = parser.nextToken();
+                    if (token == null) break;
+                    line++;
+                    BasketRequest request = basketReader.readValue(parser);
+                    var receipt = snapshot.checkout(CheckoutMapper.toBasket(request, itemNameResolver));
+                    receiptWriter.write(receipt, generator);
+                    generator.writeRaw('\n');
+                } catch (JsonParseException ex) {
+                    writeError(generator, line, "Malformed JSON: " + ex.getOriginalMessage());
+                    break;
+                } catch (JsonMappingException ex) {
+                    // Well-formed JSON of the wrong shape: skip the rest of this basket
+                    writeError(generator, line, "Invalid basket: " + ex.getOriginalMessage());
+                    skipToRoot(parser);
+                } catch (IllegalArgumentException ex) {
+                    writeError(generator, line, ex.getMessage());
+                }
+
+                // Flush before we might block on input, so the client sees its receipts
+                if (++sinceFlush >= FLUSH_EVERY || in.available() == 0) {
+                    generator.flush();
+                    sinceFlush = 0;
+                }
+            }
+            generator.flush();
+        }
+        return line;
+    }
+
+    private static void skipToRoot(JsonParser parser) throws IOException {
+        while (!parser.getParsingContext().inRoot()) {
+            if (parser.nextToken() == null) return;
+        }
+    }
+
+    private static void writeError(JsonGenerator generator, long line, String message) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("line", line);
+        generator.writeStringField("error", message);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
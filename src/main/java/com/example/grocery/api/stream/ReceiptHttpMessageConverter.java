@@ -0,0 +1,62 @@
+package com.example.grocery.api.stream;
+
+import com.example.grocery.domain.Receipt;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link Receipt} returned by a controller with {@link ReceiptJsonWriter}, as JSON, CBOR or Smile
+ * depending on what the client accepts (JSON when it does not say). Spring Boot puts converter beans ahead of its
+ * defaults, so receipts skip the ReceiptResponse copy and the ObjectMapper. Write-only: requests are read by the
+ * regular Jackson converters, which also handle CBOR and Smile.
+ */
+@Component
+public class ReceiptHttpMessageConverter extends AbstractHttpMessageConverter<Receipt> {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    private final ReceiptJsonWriter writer;
+    private final JsonFactory json;
+    private final JsonFactory cbor = new CBORFactory();
+    private final JsonFactory smile = new SmileFactory();
+
+    public ReceiptHttpMessageConverter(ReceiptJsonWriter writer, ObjectMapper mapper) {
+        super(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+        this.writer = writer;
+        this.json = mapper.getFactory();
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Receipt.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Receipt readInternal(Class<? extends Receipt> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Receipts are not accepted as input", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Receipt receipt, HttpOutputMessage outputMessage) throws IOException {
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        JsonFactory factory = json;
+        if (MediaType.APPLICATION_CBOR.isCompatibleWith(contentType)) factory = cbor;
+        else if (APPLICATION_SMILE.isCompatibleWith(contentType)) factory = smile;
+        writer.write(receipt, factory, outputMessage.getBody());
+    }
+}
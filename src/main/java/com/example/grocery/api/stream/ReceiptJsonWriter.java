@@ -0,0 +1,163 @@
+package com.example.grocery.api.stream;
+
+import com.example.grocery.domain.DiscountLine;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.domain.ReceiptLine;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Writes a {@link Receipt} as ReceiptResponse JSON with a JsonGenerator, field by field, instead of copying it into
+ * a ReceiptResponse and letting the ObjectMapper introspect it. The output is byte for byte what the ObjectMapper
+ * writes for {@code CheckoutMapper.toResponse(receipt)}: same field order, nulls written as null.
+ *
+ * Checkout amounts are scale-2 BigDecimals; they are written from their pence as digits, without the String that
+ * BigDecimal.toString() would build. Any other scale is handed to the generator unchanged. Field names are
+ * pre-encoded once.
+ *
+ * Any Jackson generator will do: given a CBOR or Smile factory it writes the same schema in that encoding, again
+ * matching that format's ObjectMapper byte for byte (amounts are then native decimals, not digits, and arrays
+ * carry their length).
+ */
+@Component
+public class ReceiptJsonWriter {
+
+    private static final SerializableString ITEMS = new SerializedString("items");
+    private static final SerializableString DISCOUNTS = new SerializedString("discounts");
+    private static final SerializableString SUBTOTAL = new SerializedString("subtotal");
+    private static final SerializableString TOTAL_DISCOUNT = new SerializedString("totalDiscount");
+    private static final SerializableString TOTAL = new SerializedString("total");
+    private static final SerializableString PRICE_VERSION = new SerializedString("priceVersion");
+    private static final SerializableString PROMOTION_VERSION = new SerializedString("promotionVersion");
+    private static final SerializableString ITEM_NAME = new SerializedString("itemName");
+    private static final SerializableString QUANTITY = new SerializedString("quantity");
+    private static final SerializableString AMOUNT = new SerializedString("amount");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+
+    /** "-" plus 19 digits plus "." covers every long of pence. */
+    private static final int MAX_MONEY_CHARS = 21;
+
+    private final JsonFactory jsonFactory;
+
+    public ReceiptJsonWriter(ObjectMapper mapper) {
+        this.jsonFactory = mapper.getFactory();
+    }
+
+    /** Writes {@code receipt} as JSON to {@code out} and flushes; {@code out} is left open. */
+    public void write(Receipt receipt, OutputStream out) throws IOException {
+        write(receipt, jsonFactory, out);
+    }
+
+    /** Writes {@code receipt} in the encoding of {@code factory} to {@code out} and flushes; {@code out} is left open. */
+    public void write(Receipt receipt, JsonFactory factory, OutputStream out) throws IOException {
+        try (JsonGenerator generator = factory.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            write(receipt, generator);
+        }
+    }
+
+    /** Writes {@code receipt} as one object at the generator's current position. */
+    public void write(Receipt receipt, JsonGenerator generator) throws IOException {
+        char[] digits = new char[MAX_MONEY_CHARS];
+        generator.writeStartObject();
+
+        generator.writeFieldName(ITEMS);
+        List<ReceiptLine> items = receipt.getItems();
+        if (items == null) {
+            generator.writeNull();
+        } else {
+            int n = items.size();
+            generator.writeStartArray(items, n);
+            for (int i = 0; i < n; i++) {
+                ReceiptLine line = items.get(i);
+                generator.writeStartObject();
+                generator.writeFieldName(ITEM_NAME);
+                generator.writeString(line.getItemName());
+                generator.writeFieldName(QUANTITY);
+                generator.writeNumber(line.getQuantity());
+                generator.writeFieldName(AMOUNT);
+                writeMoney(generator, line.getAmount(), digits);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+
+        generator.writeFieldName(DISCOUNTS);
+        List<DiscountLine> discounts = receipt.getDiscounts();
+        if (discounts == null) {
+            generator.writeNull();
+        } else {
+            int n = discounts.size();
+            generator.writeStartArray(discounts, n);
+            for (int i = 0; i < n; i++) {
+                DiscountLine line = discounts.get(i);
+                generator.writeStartObject();
+                generator.writeFieldName(DESCRIPTION);
+                generator.writeString(line.getDescription());
+                generator.writeFieldName(AMOUNT);
+                writeMoney(generator, line.getAmount(), digits);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+
+        generator.writeFieldName(SUBTOTAL);
+        writeMoney(generator, receipt.getSubtotal(), digits);
+        generator.writeFieldName(TOTAL_DISCOUNT);
+        writeMoney(generator, receipt.getTotalDiscount(), digits);
+        generator.writeFieldName(TOTAL);
+        writeMoney(generator, receipt.getTotal(), digits);
+        generator.writeFieldName(PRICE_VERSION);
+        generator.writeNumber(receipt.getPriceVersion());
+        generator.writeFieldName(PROMOTION_VERSION);
+        generator.writeNumber(receipt.getPromotionVersion());
+
+        generator.writeEndObject();
+    }
+
+    private static void writeMoney(JsonGenerator generator, BigDecimal amount, char[] digits) throws IOException {
+        if (amount == null) {
+            generator.writeNull();
+        } else if (amount.scale() != 2 || amount.precision() > 18 || !generator.canWriteFormattedNumbers()) {
+            generator.writeNumber(amount);
+        } else {
+            // Scale 2 and at most 18 digits: the unscaled value is the pence and fits a long
+            int length = formatPence(amount.movePointRight(2).longValue(), digits);
+            generator.writeNumber(digits, 0, length);
+        }
+    }
+
+    /**
+     * Writes {@code pence} as BigDecimal.valueOf(pence, 2).toString() would (e.g. 235 -> "2.35", -5 -> "-0.05")
+     * into {@code out}.
+     *
+     * @return the number of chars written
+     */
+    static int formatPence(long pence, char[] out) {
+        // Work on the negative value so Long.MIN_VALUE needs no special case
+        long rest = pence < 0 ? pence : -pence;
+        int pos = out.length;
+        for (int i = 0; i < 2; i++) {
+            out[--pos] = (char) ('0' - rest % 10);
+            rest /= 10;
+        }
+        out[--pos] = '.';
+        do {
+            out[--pos] = (char) ('0' - rest % 10);
+            rest /= 10;
+        } while (rest != 0);
+        if (pence < 0) out[--pos] = '-';
+        int length = out.length - pos;
+        System.arraycopy(out, pos, out, 0, length);
+        return length;
+    }
+}
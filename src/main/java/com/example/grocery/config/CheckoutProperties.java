@@ -0,0 +1,143 @@
+package com.example.grocery.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Checkout API tuning from application.yml.
+ * Example:
+ * checkout:
+ *   batch:
+ *     max-size: 5000
+ *     parallelism: 8
+ *     virtual-threads: false
+ *   promotions:
+ *     location: file:/etc/grocery/promotions.json
+ *     allocation: optimal
+ *     optimizer-budget: 5ms
+ *   idempotency:
+ *     ttl: 5m
+ *     max-entries: 10000
+ *   carts:
+ *     max-carts: 10000
+ *     max-lines: 500
+ *     idle-timeout: 30m
+ *     store:
+ *       enabled: true
+ *       path: /var/lib/grocery/carts
+ *       snapshot-interval: 30s
+ *   journal:
+ *     enabled: true
+ *     path: /var/lib/grocery/receipts
+ *     segment-size: 64MB
+ *   simulation:
+ *     candidate: file:/tmp/promotions-next.json
+ *     baskets: /data/baskets-2025-05.ndjson
+ *     parallelism: 8
+ */
+@Setter
+@Getter
+@Validated
+@ConfigurationProperties(prefix = "checkout")
+public class CheckoutProperties {
+
+    private Batch batch = new Batch();
+    private Idempotency idempotency = new Idempotency();
+    private Promotions promotions = new Promotions();
+    private Carts carts = new Carts();
+    private Journal journal = new Journal();
+    private Simulation simulation = new Simulation();
+
+    @Setter
+    @Getter
+    public static class Batch {
+        /** Largest number of baskets accepted in one batch request. */
+        private int maxSize = 1000;
+        /** Threads in the pool that prices batch baskets. */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        /** Price each basket on a virtual thread (requires Java 21); parallelism still caps concurrency. */
+        private boolean virtualThreads = false;
+    }
+
+    @Setter
+    @Getter
+    public static class Idempotency {
+        /** How long a receipt is replayed for a repeated Idempotency-Key. */
+        private Duration ttl = Duration.ofMinutes(5);
+        /** Most receipts held at once; the oldest are evicted first. */
+        private int maxEntries = 10_000;
+    }
+
+    /** How basket units are shared between combo promotions and item deals. */
+    public enum Allocation {
+        /** The single best exclusive basket promotion; item deals are skipped for the items it touches. */
+        GREEDY,
+        /** Search for the split of units between combos and item deals with the largest discount. */
+        OPTIMAL
+    }
+
+    @Setter
+    @Getter
+    public static class Promotions {
+        /** Promotion rules read at startup and by the promotions actuator reload. */
+        private String location = "classpath:promotions.json";
+        /** Allocation policy for checkout. */
+        private Allocation allocation = Allocation.GREEDY;
+        /** Longest the optimal search may run for one basket before checkout falls back to greedy. */
+        private Duration optimizerBudget = Duration.ofMillis(5);
+    }
+
+    @Setter
+    @Getter
+    public static class Carts {
+        /** Most carts open at once; opening one more evicts the cart idle the longest. */
+        private int maxCarts = 10_000;
+        /** Most lines in one cart; a scan beyond it is rejected. */
+        private int maxLines = 500;
+        /** A cart untouched for this long is closed. */
+        private Duration idleTimeout = Duration.ofMinutes(30);
+        private Store store = new Store();
+    }
+
+    @Setter
+    @Getter
+    public static class Store {
+        /** Keep open carts on local disk so they survive a restart or crash. */
+        private boolean enabled = false;
+        /** Directory for the cart snapshot and change log. */
+        private String path = "./carts";
+        /** How often the change log is folded into a new snapshot; bounds the log replayed at startup. */
+        private Duration snapshotInterval = Duration.ofSeconds(30);
+    }
+
+    @Setter
+    @Getter
+    public static class Journal {
+        /** Append every checkout receipt to the receipt journal before it is returned. */
+        private boolean enabled = false;
+        /** Directory for the journal's segment files. */
+        private String path = "./journal";
+        /** Size of each memory-mapped segment; a new one is started when a receipt does not fit. */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+    }
+
+    @Setter
+    @Getter
+    public static class Simulation {
+        /** Run the what-if replay at startup instead of serving; set by the simulate profile. */
+        private boolean enabled = false;
+        /** Candidate promotion rules, priced against the live ones from promotions.location. */
+        private String candidate;
+        /** Historical baskets, one BasketRequest JSON per line. */
+        private String baskets;
+        /** Threads in the fork-join pool that prices the baskets. */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        /** Baskets read per fork-join task; a few chunks per thread are held in memory at once. */
+        private int chunkSize = 4096;
+    }
+}
@@ -1,81 +1,83 @@
-
 // src/main/java/com/example/grocery/config/DynamicPromotionBeanRegistrar.java
 package com.example.grocery.config;
 
-import com.example.grocery.api.dto.PromotionFileDTO;
 import com.example.grocery.api.dto.PromotionRuleDTO;
-import com.example.grocery.domain.ItemType;
-import com.example.grocery.service.promo.PromotionCtor;
-import com.example.grocery.service.promo.PromotionType;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.grocery.service.promo.PromotionEngine;
+import com.example.grocery.service.promo.PromotionFactory;
 import org.springframework.beans.BeansException;
-import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
 import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.EnvironmentAware;
 import org.springframework.context.ResourceLoaderAware;
-import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
-import org.springframework.core.type.filter.AnnotationTypeFilter;
 
-import java.lang.reflect.Constructor;
-import java.math.BigDecimal;
+import java.io.InputStream;
 import java.util.*;
 
-@Configuration
+/**
+ * Registers one bean per promotions.json rule at startup (checkout.promotions.location).
+ * Strategy construction lives in {@link PromotionFactory}; PromotionEngine.reload() uses the same
+ * factory to replace the set at runtime.
+ *
+ * Spring AOT: the promotions are deployment data, not application structure, so nothing is registered while
+ * the build-time AOT processor runs (it could not generate code for an instance supplier anyway). The registrar
+ * itself is part of the generated context, runs again at startup and reads the file found there.
+ */
+@Configuration(proxyBeanMethods = false)
 public class DynamicPromotionBeanRegistrar
-        implements BeanDefinitionRegistryPostProcessor, ResourceLoaderAware {
+        implements BeanDefinitionRegistryPostProcessor, ResourceLoaderAware, EnvironmentAware {
+
+    /** Set by Spring's AOT processor (AbstractAotProcessor) while it refreshes the context at build time. */
+    private static final String AOT_PROCESSING = "spring.aot.processing";
 
     private ResourceLoader resourceLoader;
+    private Environment environment;
 
     @Override
     public void setResourceLoader(ResourceLoader resourceLoader) {
         this.resourceLoader = resourceLoader;
     }
 
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
     @Override
     public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) throws BeansException {
+        if (Boolean.getBoolean(AOT_PROCESSING)) {
+            return;
+        }
         try {
             // 1) Load JSON (DTOs in com.example.grocery.api.dto)
-            PromotionFileDTO file = readPromotionsFile();
-            List<PromotionRuleDTO> rules = Optional.ofNullable(file.getPromotions()).orElseGet(Collections::emptyList);
+            List<PromotionRuleDTO> rules = readPromotionsFile();
             if (rules.isEmpty()) {
                 return; // nothing to register
             }
 
-            // 2) Discover concrete strategy classes annotated with @PromotionType
-            Map<String, Class<?>> ruleKeyToClass =
-                    scanPromotionClasses("com.example.grocery.service.promo");
+            // 2) @PromotionType classes, indexed at compile time (no classpath scan)
+            PromotionFactory factory = PromotionFactory.indexed();
 
-            // 3) Register one bean per rule
-            for (PromotionRuleDTO rule : rules) {
-                String key = normalize(rule.getRuleType());
-                Class<?> clazz = ruleKeyToClass.get(key);
-                if (clazz == null) {
-                    throw new IllegalStateException("No @PromotionType strategy found for ruleType: " + rule.getRuleType());
-                }
+            // 3) Register one bean per rule, named by its position so names are stable across restarts
+            for (int i = 0; i < rules.size(); i++) {
+                PromotionRuleDTO rule = rules.get(i);
+                Class<?> clazz = factory.classFor(rule);
+                Object promotion = factory.create(rule);
 
-                Constructor<?> ctor = findPromotionConstructor(clazz);
-                Object[] args = buildConstructorArgs(ctor, rule);
-
-                String beanName = "promo." + key + "." +
+                String beanName = "promo." + rule.getRuleType().trim().toUpperCase() + "." +
                         (rule.getItemType() == null ? "ALL" : rule.getItemType().name()) +
-                        "." + UUID.randomUUID();
+                        "." + i;
 
                 // ✅ Explicit bean class + instance supplier (fixes "No bean class specified")
                 RootBeanDefinition rbd = new RootBeanDefinition(clazz);
                 // Optional target type hint:
                 rbd.setTargetType(clazz);
-                rbd.setInstanceSupplier(() -> {
-                    try {
-                        return ctor.newInstance(args);
-                    } catch (Exception e) {
-                        throw new IllegalStateException("Failed to instantiate " + clazz.getSimpleName(), e);
-                    }
-                });
+                rbd.setInstanceSupplier(() -> promotion);
 
                 registry.registerBeanDefinition(beanName, rbd);
             }
@@ -89,89 +91,14 @@ public class DynamicPromotionBeanRegistrar
 
     // --- helpers ---
 
-    private PromotionFileDTO readPromotionsFile() throws Exception {
-        ObjectMapper mapper = new ObjectMapper();
-        // Your current implementation expects only 'promotions.json'
-        Resource resource = resourceLoader.getResource("classpath:promotions.json");
+    private List<PromotionRuleDTO> readPromotionsFile() throws Exception {
+        String location = environment.getProperty("checkout.promotions.location", PromotionEngine.DEFAULT_LOCATION);
+        Resource resource = resourceLoader.getResource(location);
         if (resource.exists()) {
-            return mapper.readValue(resource.getInputStream(), PromotionFileDTO.class);
-        }
-        throw new IllegalStateException("'promotions.json' not found on classpath");
-    }
-
-    private Map<String, Class<?>> scanPromotionClasses(String basePackage) throws ClassNotFoundException {
-        ClassPathScanningCandidateComponentProvider scanner =
-                new ClassPathScanningCandidateComponentProvider(false);
-        scanner.addIncludeFilter(new AnnotationTypeFilter(PromotionType.class));
-        Map<String, Class<?>> map = new HashMap<>();
-        for (BeanDefinition bd : scanner.findCandidateComponents(basePackage)) {
-            Class<?> clazz = Class.forName(bd.getBeanClassName());
-            if (clazz.isInterface() || java.lang.reflect.Modifier.isAbstract(clazz.getModifiers())) continue;
-            PromotionType ann = clazz.getAnnotation(PromotionType.class);
-            map.put(normalize(ann.value()), clazz);
-        }
-        return map;
-    }
-
-    private Constructor<?> findPromotionConstructor(Class<?> clazz) {
-        for (Constructor<?> c : clazz.getConstructors()) {
-            if (c.isAnnotationPresent(PromotionCtor.class)) {
-                return c;
-            }
-        }
-        throw new IllegalStateException("No @PromotionCtor constructor found in " + clazz.getName());
-    }
-
-    private Object[] buildConstructorArgs(Constructor<?> ctor, PromotionRuleDTO rule) {
-        PromotionCtor meta = ctor.getAnnotation(PromotionCtor.class);
-        String[] keys = meta.keys();
-
-        Class<?>[] types = ctor.getParameterTypes();
-        List<Object> args = new ArrayList<>(types.length);
-        int idx = 0;
-
-        // First parameter may be ItemType (item-scoped strategy)
-        if (types.length > 0 && types[0] == ItemType.class) {
-            if (rule.getItemType() == null) {
-                throw new IllegalArgumentException("Missing 'itemType' for ruleType: " + rule.getRuleType());
+            try (InputStream in = resource.getInputStream()) {
+                return PromotionFactory.readRules(in);
             }
-            args.add(rule.getItemType());
-            idx = 1;
-        }
-
-        // Remaining parameters from params using keys (declared order)
-        Map<String, String> p = rule.getParams();
-        for (String k : keys) {
-            Class<?> t = types[idx++];
-            String raw = require(p, k, rule.getRuleType());
-            Object value =
-                    t == int.class || t == Integer.class ? Integer.parseInt(raw) :
-                            t == long.class || t == Long.class ? Long.parseLong(raw) :
-                                    t == BigDecimal.class ? new BigDecimal(raw) :
-                                            t == String.class ? raw :
-                                                    unsupported(t, k);
-            args.add(value);
-        }
-
-        if (idx != types.length) {
-            throw new IllegalStateException("Constructor arity mismatch for " + ctor.getDeclaringClass().getName());
         }
-        return args.toArray();
-    }
-
-    private static String require(Map<String, String> p, String key, String rule) {
-        String v = (p == null) ? null : p.get(key);
-        if (v == null) {
-            throw new IllegalArgumentException("Missing param '" + key + "' for ruleType: " + rule);
-        }
-        return v;
-    }
-
-    private static Object unsupported(Class<?> t, String k) {
-        throw new IllegalArgumentException("Unsupported constructor param type: " + t.getName() + " for key '" + k + "'");
-    }
-
-    private static String normalize(String s) {
-        return (s == null ? "" : s.trim().toUpperCase());
+        throw new IllegalStateException("'" + location + "' not found");
     }
 }
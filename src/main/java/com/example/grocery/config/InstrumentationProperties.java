@@ -0,0 +1,30 @@
+package com.example.grocery.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * LoggingAspect tuning from application.yml.
+ * Example:
+ * instrumentation:
+ *   slow-threshold: 200ms
+ *   sample-rate: 0.001
+ *   trace: false
+ */
+@Setter
+@Getter
+@Validated
+@ConfigurationProperties(prefix = "instrumentation")
+public class InstrumentationProperties {
+
+    /** Calls at least this slow are logged at WARN. */
+    private Duration slowThreshold = Duration.ofMillis(200);
+    /** Fraction of the remaining calls logged at INFO (0 = none, 1 = all). */
+    private double sampleRate = 0.0;
+    /** Logs entry (with arguments) and exit of every call at DEBUG, as the aspect used to at INFO. */
+    private boolean trace = false;
+}
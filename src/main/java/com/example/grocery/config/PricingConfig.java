@@ -0,0 +1,24 @@
+package com.example.grocery.config;
+
+import com.example.grocery.service.pricing.ConfigurablePriceCatalog;
+import com.example.grocery.service.pricing.MappedPriceCatalog;
+import com.example.grocery.service.pricing.PriceCatalogProperties;
+import com.example.grocery.service.pricing.PriceProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Chooses the PriceProvider checkout uses. The choice is made in the bean method rather than with
+ * a @Conditional, so under Spring AOT catalog.binary.enabled is still read when the app starts,
+ * not frozen when the context was processed at build time.
+ */
+@Configuration
+public class PricingConfig {
+
+    @Bean
+    @Primary
+    public PriceProvider activePriceProvider(PriceCatalogProperties props, ConfigurablePriceCatalog catalog) {
+        return props.getBinary().isEnabled() ? new MappedPriceCatalog(props) : catalog;
+    }
+}
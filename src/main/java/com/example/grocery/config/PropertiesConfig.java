@@ -5,5 +5,5 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
-@EnableConfigurationProperties(PriceCatalogProperties.class)
+@EnableConfigurationProperties({PriceCatalogProperties.class, CheckoutProperties.class, InstrumentationProperties.class})
 public class PropertiesConfig { }
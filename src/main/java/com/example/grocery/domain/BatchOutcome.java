@@ -0,0 +1,16 @@
+
+package com.example.grocery.domain;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Result for one basket of a batch: a receipt, or the reason it could not be priced.
+ */
+@Value
+@Builder
+public class BatchOutcome {
+    int index;
+    Receipt receipt; // null when error is set
+    String error;
+}
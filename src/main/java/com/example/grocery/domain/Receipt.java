@@ -16,4 +16,6 @@ public class Receipt {
     BigDecimal subtotal;
     BigDecimal totalDiscount; // negative value
     BigDecimal total;
+    long priceVersion;     // PriceProvider.version() the receipt was priced with
+    long promotionVersion; // PromotionPlan.version() the receipt was priced with
 }
@@ -0,0 +1,9 @@
+package com.example.grocery.exception;
+
+/** No open cart has the requested id (never opened, or already closed). */
+public class CartNotFoundException extends RuntimeException {
+
+    public CartNotFoundException(String cartId) {
+        super("No open cart: " + cartId);
+    }
+}
@@ -3,9 +3,12 @@ package com.example.grocery.exception;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
@@ -18,6 +21,23 @@ public class GlobalExceptionHandler {
         return pd;
     }
 
+    /** A body that cannot be read, e.g. an oversized batch (BasketBatchHttpMessageConverter). */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ProblemDetail handleNotReadable(HttpMessageNotReadableException ex) {
+        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
+        pd.setTitle("Bad Request");
+        pd.setDetail(ex.getMessage());
+        return pd;
+    }
+
+    @ExceptionHandler(CartNotFoundException.class)
+    public ProblemDetail handleCartNotFound(CartNotFoundException ex) {
+        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.NOT_FOUND);
+        pd.setTitle("Not Found");
+        pd.setDetail(ex.getMessage());
+        return pd;
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ProblemDetail handleValidation(MethodArgumentNotValidException ex) {
         ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.UNPROCESSABLE_ENTITY);
@@ -26,6 +46,27 @@ public class GlobalExceptionHandler {
         return pd;
     }
 
+    /** Bean-validation failures on the reactive API (profile "reactive"). */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ProblemDetail handleReactiveValidation(WebExchangeBindException ex) {
+        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.UNPROCESSABLE_ENTITY);
+        pd.setTitle("Validation Error");
+        pd.setDetail(ex.getBindingResult().toString());
+        return pd;
+    }
+
+    /**
+     * A body the reactive API cannot read or bind, e.g. malformed JSON or a quantity that is not a number;
+     * 400 as on MVC. Its subclass WebExchangeBindException keeps its own 422 handler above.
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ProblemDetail handleReactiveInput(ServerWebInputException ex) {
+        ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
+        pd.setTitle("Bad Request");
+        pd.setDetail(ex.getReason());
+        return pd;
+    }
+
     @ExceptionHandler(Exception.class)
     public ProblemDetail handleGeneric(Exception ex) {
         ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -0,0 +1,23 @@
+
+package com.example.grocery.service;
+
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.BatchOutcome;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Prices many baskets in one call.
+ */
+public interface BatchCheckoutService {
+    /**
+     * Prices every input against one price and promotion snapshot, in parallel.
+     *
+     * @param inputs   raw baskets (e.g. request DTOs)
+     * @param toBasket converts one input; an IllegalArgumentException fails only that basket
+     * @return one outcome per input, in input order
+     * @throws IllegalArgumentException if the batch is larger than the configured maximum
+     */
+    <T> List<BatchOutcome> checkoutAll(List<T> inputs, Function<? super T, List<BasketItem>> toBasket);
+}
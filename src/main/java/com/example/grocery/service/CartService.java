@@ -0,0 +1,42 @@
+package com.example.grocery.service;
+
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.Receipt;
+
+/**
+ * Carts built up one line at a time, with a receipt after every change.
+ * The receipt always equals a checkout of the cart's lines at the current prices and promotions.
+ */
+public interface CartService {
+    /** Opens an empty cart and returns its id. */
+    String open();
+
+    /**
+     * Adds one line at the end of the cart.
+     *
+     * @throws com.example.grocery.exception.CartNotFoundException if no cart has this id
+     */
+    Receipt add(String cartId, BasketItem line);
+
+    /**
+     * Removes the line at {@code index}, 0-based in the order of the receipt's items.
+     *
+     * @throws com.example.grocery.exception.CartNotFoundException if no cart has this id
+     * @throws IllegalArgumentException if there is no such line
+     */
+    Receipt remove(String cartId, int index);
+
+    /**
+     * The current receipt.
+     *
+     * @throws com.example.grocery.exception.CartNotFoundException if no cart has this id
+     */
+    Receipt receipt(String cartId);
+
+    /**
+     * Closes the cart; its id is unknown from then on.
+     *
+     * @throws com.example.grocery.exception.CartNotFoundException if no cart has this id
+     */
+    void close(String cartId);
+}
@@ -18,4 +18,13 @@ public interface CheckoutService {
      * @return Receipt with items, discounts, subtotal, and total
      */
     Receipt checkout(List<BasketItem> basket);
+
+    /**
+     * Returns a CheckoutService pinned to the prices and promotions active right now,
+     * so several baskets can be priced consistently while reloads happen.
+     * Implementations without mutable state may return themselves.
+     */
+    default CheckoutService snapshot() {
+        return this;
+    }
 }
@@ -0,0 +1,396 @@
+package com.example.grocery.service.cart;
+
+import com.example.grocery.config.CheckoutProperties;
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.ItemType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Open carts on local disk: a snapshot of every cart, plus a log of the changes made since.
+ *
+ * Every open, add, remove and close appends one fixed-size record (with a CRC) to the current log, written
+ * straight to the file, so a process that dies loses nothing it acknowledged. Periodically the log is rotated
+ * and the carts are written to a new snapshot, after which the older logs are deleted; restoring at startup
+ * therefore reads one snapshot and at most a snapshot interval's worth of changes. Logs are only forced to
+ * the device when rotated, so a power failure can lose up to one interval of changes.
+ *
+ * Each cart numbers its changes (1, 2, ...). A snapshot records the number each cart had reached, and replay
+ * applies only the next number in sequence, so changes logged after a rotation but already in the snapshot are
+ * not applied twice. A torn record at the end of a log (a crash mid-write) ends that log.
+ *
+ * Write failures never fail a change: they are logged and counted, and the next snapshot records the carts
+ * as they are. Enabled with checkout.carts.store.enabled.
+ */
+@Component
+public class CartJournal implements Closeable {
+
+    /** A cart as stored: its id, the number of its last change and its lines. */
+    public record Cart(String id, long seq, List<BasketItem> lines) {}
+
+    private static final Logger log = LoggerFactory.getLogger(CartJournal.class);
+    private static final ItemType[] ITEM_TYPES = ItemType.values();
+
+    private static final String SNAPSHOT = "carts.snapshot";
+    private static final String LOG_PREFIX = "carts-";
+    private static final String LOG_SUFFIX = ".log";
+    private static final int SNAPSHOT_MAGIC = 0x43415254; // "CART"
+    private static final byte SNAPSHOT_FORMAT = 1;
+
+    private static final byte OPEN = 1;
+    private static final byte ADD = 2;
+    private static final byte REMOVE = 3;
+    private static final byte CLOSE = 4;
+    /** op, id (2 longs), seq, item ordinal, quantity or index, CRC32 of the rest. */
+    static final int RECORD_BYTES = 1 + 16 + 8 + 1 + 4 + 4;
+
+    private final Path directory; // null: disabled
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    private final CRC32 crc = new CRC32();
+    private FileChannel current;
+    private long generation;
+    private long failures;
+
+    @Autowired
+    public CartJournal(CheckoutProperties props) {
+        CheckoutProperties.Store store = props.getCarts().getStore();
+        this.directory = store.isEnabled() ? Path.of(store.getPath()) : null;
+    }
+
+    /** A journal kept in {@code directory}. */
+    public CartJournal(Path directory) {
+        this.directory = directory;
+    }
+
+    public boolean enabled() {
+        return directory != null;
+    }
+
+    /** Where the snapshot and logs are kept; null if disabled. */
+    public Path directory() {
+        return directory;
+    }
+
+    /** Appends that could not be written since startup. */
+    public long failures() {
+        appendLock.lock();
+        try {
+            return failures;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the snapshot and replays the logs after it, then compacts them into a new snapshot and starts
+     * a new log. Call once, before any change is recorded.
+     *
+     * @return the open carts, in the order they were opened
+     * @throws UncheckedIOException if the directory cannot be read or written
+     */
+    public List<Cart> recover() {
+        if (directory == null) return List.of();
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            Map<String, Replayed> carts = new LinkedHashMap<>();
+            long covered = readSnapshot(carts);
+            List<Path> logs = logsAfter(covered);
+            long records = 0;
+            for (Path file : logs) {
+                records += replay(file, carts);
+            }
+            generation = Math.max(covered, logs.isEmpty() ? 0 : generationOf(logs.get(logs.size() - 1)));
+
+            List<Cart> recovered = new ArrayList<>(carts.size());
+            carts.forEach((id, cart) -> recovered.add(new Cart(id, cart.seq, List.copyOf(cart.lines))));
+
+            appendLock.lock();
+            try {
+                rotate();
+            } finally {
+                appendLock.unlock();
+            }
+            writeSnapshot(recovered, generation - 1);
+            log.info("Restored {} carts from {} in {} ms ({} logged changes replayed)", recovered.size(), directory,
+                    (System.nanoTime() - start) / 1_000_000, records);
+            return recovered;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to restore carts from " + directory, ex);
+        }
+    }
+
+    public void opened(String cartId) {
+        append(OPEN, cartId, 0L, 0, 0);
+    }
+
+    public void added(String cartId, long seq, BasketItem line) {
+        append(ADD, cartId, seq, line.getType().ordinal(), line.getQuantity());
+    }
+
+    public void removed(String cartId, long seq, int index) {
+        append(REMOVE, cartId, seq, 0, index);
+    }
+
+    public void closed(String cartId) {
+        append(CLOSE, cartId, 0L, 0, 0);
+    }
+
+    /**
+     * Starts a new log, writes the carts {@code carts} returns to a new snapshot, and deletes the logs
+     * the snapshot now covers. Changes made while the carts are read go to the new log.
+     *
+     * @return false if the snapshot could not be written; the logs are kept
+     */
+    public boolean snapshot(Supplier<Collection<Cart>> carts) {
+        if (directory == null) return false;
+        snapshotLock.lock();
+        try {
+            long covered;
+            appendLock.lock();
+            try {
+                if (current == null) return false; // not recovered yet, or closed
+                rotate();
+                covered = generation - 1;
+            } finally {
+                appendLock.unlock();
+            }
+            writeSnapshot(carts.get(), covered);
+            return true;
+        } catch (IOException ex) {
+            log.warn("Cart snapshot failed in {}: {}", directory, ex.toString());
+            return false;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /** Forces and closes the current log; later changes are not recorded. */
+    @Override
+    public void close() {
+        appendLock.lock();
+        try {
+            if (current != null) {
+                current.force(false);
+                current.close();
+                current = null;
+            }
+        } catch (IOException ex) {
+            log.warn("Failed to close cart log in {}: {}", directory, ex.toString());
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void append(byte op, String cartId, long seq, int ordinal, int value) {
+        if (directory == null) return;
+        UUID id = UUID.fromString(cartId);
+        appendLock.lock();
+        try {
+            if (current == null) return;
+            record.clear();
+            record.put(op).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits())
+                    .putLong(seq).put((byte) ordinal).putInt(value);
+            crc.reset();
+            crc.update(record.array(), 0, RECORD_BYTES - 4);
+            record.putInt((int) crc.getValue());
+            record.flip();
+            while (record.hasRemaining()) current.write(record);
+        } catch (IOException ex) {
+            failures++;
+            log.warn("Failed to log cart change in {}: {}", directory, ex.toString());
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /** Forces and closes the current log and opens the next one. Caller holds appendLock. */
+    private void rotate() throws IOException {
+        if (current != null) {
+            current.force(false);
+            current.close();
+            current = null;
+        }
+        generation++;
+        current = FileChannel.open(directory.resolve(LOG_PREFIX + generation + LOG_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /** Writes and forces a temporary file, moves it over the snapshot, then deletes logs up to {@code covered}. */
+    private void writeSnapshot(Collection<Cart> carts, long covered) throws IOException {
+        Path tmp = directory.resolve(SNAPSHOT + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 64 * 1024), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeByte(SNAPSHOT_FORMAT);
+            out.writeLong(covered);
+            out.writeInt(carts.size());
+            for (Cart cart : carts) {
+                UUID id = UUID.fromString(cart.id());
+                out.writeLong(id.getMostSignificantBits());
+                out.writeLong(id.getLeastSignificantBits());
+                out.writeLong(cart.seq());
+                out.writeInt(cart.lines().size());
+                for (BasketItem line : cart.lines()) {
+                    out.writeByte(line.getType().ordinal());
+                    out.writeInt(line.getQuantity());
+                }
+            }
+            out.writeInt((int) checked.getChecksum().getValue());
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(tmp, directory.resolve(SNAPSHOT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (Path old : logs()) {
+            if (generationOf(old) <= covered) Files.deleteIfExists(old);
+        }
+    }
+
+    /**
+     * Loads the snapshot into {@code carts}.
+     *
+     * @return the last log generation it covers; 0 if there is no usable snapshot
+     */
+    private long readSnapshot(Map<String, Replayed> carts) throws IOException {
+        Path file = directory.resolve(SNAPSHOT);
+        if (!Files.exists(file)) return 0L;
+        Map<String, Replayed> read = new LinkedHashMap<>();
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 64 * 1024), new CRC32())) {
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readByte() != SNAPSHOT_FORMAT) {
+                log.warn("Ignoring {}: not a cart snapshot", file);
+                return 0L;
+            }
+            long covered = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String id = new UUID(in.readLong(), in.readLong()).toString();
+                Replayed cart = new Replayed(in.readLong());
+                int lines = in.readInt();
+                for (int j = 0; j < lines; j++) {
+                    cart.lines.add(line(in.readUnsignedByte(), in.readInt()));
+                }
+                read.put(id, cart);
+            }
+            int expected = (int) checked.getChecksum().getValue();
+            if (in.readInt() != expected) {
+                log.warn("Ignoring {}: checksum mismatch", file);
+                return 0L;
+            }
+            carts.putAll(read);
+            return covered;
+        } catch (EOFException | IllegalArgumentException ex) {
+            log.warn("Ignoring {}: truncated or corrupt ({})", file, ex.toString());
+            return 0L;
+        }
+    }
+
+    /** Applies one log's records to {@code carts}; stops at the first incomplete or corrupt record. */
+    private long replay(Path file, Map<String, Replayed> carts) throws IOException {
+        long applied = 0;
+        byte[] bytes = new byte[RECORD_BYTES];
+        CRC32 crc = new CRC32();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024)) {
+            while (true) {
+                int read = in.readNBytes(bytes, 0, RECORD_BYTES);
+                if (read == 0) break;
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                crc.reset();
+                crc.update(bytes, 0, RECORD_BYTES - 4);
+                if (read < RECORD_BYTES || buffer.getInt(RECORD_BYTES - 4) != (int) crc.getValue()) {
+                    log.warn("Cart log {} ends with a torn record after {} records", file, applied);
+                    break;
+                }
+                byte op = buffer.get();
+                String id = new UUID(buffer.getLong(), buffer.getLong()).toString();
+                long seq = buffer.getLong();
+                int ordinal = buffer.get() & 0xff;
+                int value = buffer.getInt();
+                Replayed cart = carts.get(id);
+                switch (op) {
+                    case OPEN -> carts.putIfAbsent(id, new Replayed(0L));
+                    case CLOSE -> carts.remove(id);
+                    case ADD -> {
+                        if (cart != null && seq == cart.seq + 1) {
+                            cart.lines.add(line(ordinal, value));
+                            cart.seq = seq;
+                        }
+                    }
+                    case REMOVE -> {
+                        if (cart != null && seq == cart.seq + 1 && value >= 0 && value < cart.lines.size()) {
+                            cart.lines.remove(value);
+                            cart.seq = seq;
+                        }
+                    }
+                    default -> {
+                        log.warn("Cart log {} has an unknown record type {}; ignoring the rest", file, op);
+                        return applied;
+                    }
+                }
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    private static BasketItem line(int ordinal, int quantity) {
+        if (ordinal >= ITEM_TYPES.length) throw new IllegalArgumentException("Unknown item ordinal " + ordinal);
+        return BasketItem.builder().type(ITEM_TYPES[ordinal]).quantity(quantity).build();
+    }
+
+    private List<Path> logsAfter(long generation) throws IOException {
+        List<Path> after = new ArrayList<>();
+        for (Path file : logs()) {
+            if (generationOf(file) > generation) after.add(file);
+        }
+        return after;
+    }
+
+    /** Log files in generation order. */
+    private List<Path> logs() throws IOException {
+        List<Path> logs = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, LOG_PREFIX + "*" + LOG_SUFFIX)) {
+            for (Path file : files) {
+                if (generationOf(file) > 0) logs.add(file);
+            }
+        }
+        logs.sort(Comparator.comparingLong(CartJournal::generationOf));
+        return logs;
+    }
+
+    private static long generationOf(Path log) {
+        String name = log.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length()));
+        } catch (NumberFormatException ex) {
+            return -1L;
+        }
+    }
+
+    /** A cart being rebuilt from the snapshot and logs. */
+    private static final class Replayed {
+        long seq;
+        final List<BasketItem> lines = new ArrayList<>();
+
+        Replayed(long seq) {
+            this.seq = seq;
+        }
+    }
+}
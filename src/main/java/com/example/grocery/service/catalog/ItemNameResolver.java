@@ -0,0 +1,276 @@
+package com.example.grocery.service.catalog;
+
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.service.pricing.PriceCatalogProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resolves the item names sent by clients ("Bananas", " banana ", "PEACHES") to {@link ItemType}.
+ *
+ * Matching ignores case, leading/trailing whitespace and runs of inner whitespace, and is done directly
+ * over the incoming {@link CharSequence}: hashing and comparison fold each character on the fly, so a
+ * lookup never trims, lower-cases or otherwise copies the input.
+ *
+ * Every ItemType name resolves; other names come from the aliases file at catalog.aliases.location
+ * ({@code alias = ITEM} per line). {@link #reload()} re-reads it and swaps in a new table only if every
+ * line is valid; a bad file keeps the current aliases and is reported by {@link #lastFailure()}.
+ */
+@Component
+public class ItemNameResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemNameResolver.class);
+
+    /** What {@link #fold} returns for whitespace; U+FFFF is a noncharacter, so never part of a name. */
+    private static final char SPACE = '\uffff';
+    private static final char[] ASCII = new char[0x80];
+
+    static {
+        for (char c = 0; c < 0x80; c++) ASCII[c] = Character.isWhitespace(c) ? SPACE : SkuCatalog.fold(c);
+    }
+
+    /** A reload that did not replace the aliases. */
+    public record ReloadFailure(Instant at, String message) {}
+
+    private final AtomicReference<Table> current = new AtomicReference<>();
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile ReloadFailure lastFailure;
+
+    @Autowired
+    public ItemNameResolver(PriceCatalogProperties props, ResourceLoader resourceLoader) {
+        this(resourceLoader, props.getAliases().getLocation());
+    }
+
+    public ItemNameResolver(String location) {
+        this(new DefaultResourceLoader(), location);
+    }
+
+    private ItemNameResolver(ResourceLoader resourceLoader, String location) {
+        this.resourceLoader = resourceLoader;
+        this.location = location;
+        try {
+            current.set(new Table(1L, readAliases()));
+        } catch (IOException | RuntimeException ex) {
+            throw new IllegalStateException("Failed to load item aliases from " + location, ex);
+        }
+    }
+
+    /** A resolver with fixed aliases (ItemType names are always added); {@link #reload()} is not available. */
+    public ItemNameResolver(Map<String, ItemType> aliases) {
+        this.resourceLoader = new DefaultResourceLoader();
+        this.location = null;
+        current.set(new Table(1L, aliases));
+    }
+
+    /** The item {@code name} stands for, or null if it is unknown. */
+    public ItemType resolve(CharSequence name) {
+        return name == null ? null : current.get().get(name);
+    }
+
+    public long version() {
+        return current.get().version;
+    }
+
+    /** Number of names that resolve, ItemType names included. */
+    public int size() {
+        return current.get().keys.length;
+    }
+
+    public String location() {
+        return location;
+    }
+
+    /** The most recent failed reload, cleared by the next successful one. */
+    public Optional<ReloadFailure> lastFailure() {
+        return Optional.ofNullable(lastFailure);
+    }
+
+    /**
+     * Re-reads the aliases file and swaps in the next version.
+     *
+     * @return false if the file could not be read or has an invalid line; the current aliases are kept
+     */
+    public boolean reload() {
+        if (location == null) return false;
+        reloadLock.lock();
+        try {
+            Table next = new Table(current.get().version + 1, readAliases());
+            current.set(next);
+            lastFailure = null;
+            log.info("Loaded item aliases version {} from {}: {} names", next.version, location, next.keys.length);
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            lastFailure = new ReloadFailure(Instant.now(), ex.toString());
+            log.warn("Keeping item aliases version {}; failed to load {}: {}", version(), location, ex.toString());
+            return false;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private Map<String, ItemType> readAliases() throws IOException {
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) throw new IOException("'" + location + "' not found");
+        try (InputStream in = resource.getInputStream()) {
+            return readAliases(in);
+        }
+    }
+
+    /** Reads {@code alias = ITEM} lines; blank lines and {@code #} comments are skipped. */
+    static Map<String, ItemType> readAliases(InputStream in) throws IOException {
+        Map<String, ItemType> aliases = new LinkedHashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int lineNo = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            int eq = line.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Line " + lineNo + ": expected alias = ITEM");
+            String alias = line.substring(0, eq).trim();
+            ItemType item;
+            try {
+                item = ItemType.valueOf(line.substring(eq + 1).trim().toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Line " + lineNo + ": unknown item '" + line.substring(eq + 1).trim() + "'");
+            }
+            if (alias.isEmpty()) throw new IllegalArgumentException("Line " + lineNo + ": empty alias");
+            aliases.put(alias, item);
+        }
+        return aliases;
+    }
+
+    /** Normalised names in an open-addressing table; immutable once built. */
+    private static final class Table {
+        private final long version;
+        private final String[] keys;      // normalised: lower case, single inner spaces
+        private final ItemType[] items;
+        private final long[] slots;       // (hash << 32) | (index + 1), 0 = empty
+        private final int mask;
+
+        Table(long version, Map<String, ItemType> aliases) {
+            Map<String, ItemType> names = new LinkedHashMap<>();
+            for (ItemType type : ItemType.values()) names.put(normalize(type.name()), type);
+            aliases.forEach((alias, item) -> {
+                String key = normalize(alias);
+                if (key.isEmpty()) throw new IllegalArgumentException("Empty alias for " + item);
+                ItemType previous = names.putIfAbsent(key, item);
+                if (previous != null && previous != item) {
+                    throw new IllegalArgumentException("Alias '" + alias + "' maps to both " + previous + " and " + item);
+                }
+            });
+
+            this.version = version;
+            this.keys = names.keySet().toArray(String[]::new);
+            this.items = names.values().toArray(ItemType[]::new);
+            int capacity = Integer.highestOneBit(Math.max(4, keys.length * 2 - 1)) << 1;
+            this.slots = new long[capacity];
+            this.mask = capacity - 1;
+            for (int i = 0; i < keys.length; i++) {
+                int hash = hash(keys[i]);
+                int slot = hash & mask;
+                while (slots[slot] != 0) slot = (slot + 1) & mask;
+                slots[slot] = ((long) hash << 32) | (i + 1);
+            }
+        }
+
+        ItemType get(CharSequence name) {
+            int hash = hash(name);
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                long entry = slots[slot];
+                if (entry == 0) return null;
+                if ((int) (entry >>> 32) != hash) continue;
+                int index = (int) entry - 1;
+                if (matches(keys[index], name)) return items[index];
+            }
+        }
+    }
+
+    /*
+     * The normalised form of a name is its non-blank words, lower-cased and joined by single spaces.
+     * hash() and matches() walk a raw name as if it were normalised, without building that string.
+     */
+
+    static String normalize(CharSequence name) {
+        StringBuilder out = new StringBuilder(name.length());
+        boolean pendingSpace = false;
+        for (int i = 0, n = name.length(); i < n; i++) {
+            char c = fold(name.charAt(i));
+            if (c == SPACE) {
+                pendingSpace = out.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                out.append(' ');
+                pendingSpace = false;
+            }
+            out.append(c);
+        }
+        return out.toString();
+    }
+
+    private static int hash(CharSequence name) {
+        int h = 0;
+        boolean started = false;
+        boolean pendingSpace = false;
+        for (int i = 0, n = name.length(); i < n; i++) {
+            char c = fold(name.charAt(i));
+            if (c == SPACE) {
+                pendingSpace = started;
+                continue;
+            }
+            if (pendingSpace) {
+                h = 31 * h + ' ';
+                pendingSpace = false;
+            }
+            h = 31 * h + c;
+            started = true;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String key, CharSequence name) {
+        int k = 0;
+        int length = key.length();
+        boolean pendingSpace = false;
+        for (int i = 0, n = name.length(); i < n; i++) {
+            char c = fold(name.charAt(i));
+            if (c == SPACE) {
+                pendingSpace = k > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                if (k == length || key.charAt(k++) != ' ') return false;
+                pendingSpace = false;
+            }
+            if (k == length || key.charAt(k++) != c) return false;
+        }
+        return k == length;
+    }
+
+    /** Lower case of {@code c}, or {@link #SPACE} for whitespace; ASCII from a table, which names are made of. */
+    private static char fold(char c) {
+        if (c < 0x80) return ASCII[c];
+        return Character.isWhitespace(c) ? SPACE : Character.toLowerCase(c);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.grocery.service.catalog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary price file, memory-mapped read-only: prices are read straight from the page cache, so opening a
+ * million-SKU file costs one mmap and a header check, not a parse.
+ *
+ * Layout (big-endian): a 16-byte header {@code int magic "GPRF", short format 1, short record size 12,
+ * int record count, int 0}, then one 12-byte record {@code int sku id, long price in pence} per priced SKU,
+ * ids strictly ascending. A file priced for every id is dense (record i holds id i) and is read without
+ * searching; sparse files fall back to binary search.
+ *
+ * {@link #write} writes a temp file next to the target, forces it to disk and renames it into place, so a
+ * reader opening the path sees either the old file or the complete new one. An open mapping keeps the file
+ * it mapped even after a replace; the OS releases it once the buffer is garbage collected. Never rewrite or
+ * truncate a mapped file in place: readers of the old mapping would fault.
+ */
+public final class MappedPriceFile {
+
+    public static final int MAGIC = 0x47505246; // "GPRF"
+    public static final short FORMAT = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 12;
+    private static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_BYTES) / RECORD_BYTES;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int count;
+
+    private MappedPriceFile(Path path, MappedByteBuffer buffer, int count) {
+        this.path = path;
+        this.buffer = buffer;
+        this.count = count;
+    }
+
+    /**
+     * Maps {@code path} and checks its header and length.
+     *
+     * @throws IllegalArgumentException if the file is not a price file of this format
+     */
+    public static MappedPriceFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Not a price file (" + size + " bytes): " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC) throw new IllegalArgumentException("Not a price file: " + path);
+            if (buffer.getShort(4) != FORMAT || buffer.getShort(6) != RECORD_BYTES) {
+                throw new IllegalArgumentException("Unsupported price file format " + buffer.getShort(4) + ": " + path);
+            }
+            int count = buffer.getInt(8);
+            if (count < 0 || size != HEADER_BYTES + (long) count * RECORD_BYTES) {
+                throw new IllegalArgumentException("Truncated price file, " + count + " records in " + size + " bytes: " + path);
+            }
+            return new MappedPriceFile(path, buffer, count);
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    /** Number of priced SKUs. */
+    public int size() {
+        return count;
+    }
+
+    /** Price of SKU {@code id} in pence, or {@link SkuPriceTable#NO_PRICE}. */
+    public long pricePenceOf(int id) {
+        if (id < 0) return SkuPriceTable.NO_PRICE;
+        if (id < count && idAt(id) == id) return priceAt(id); // dense files
+        int lo = 0;
+        int hi = Math.min(id, count - 1); // ids ascend, so record i has id >= i
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int midId = idAt(mid);
+            if (midId < id) lo = mid + 1;
+            else if (midId > id) hi = mid - 1;
+            else return priceAt(mid);
+        }
+        return SkuPriceTable.NO_PRICE;
+    }
+
+    private int idAt(int record) {
+        return buffer.getInt(HEADER_BYTES + record * RECORD_BYTES);
+    }
+
+    private long priceAt(int record) {
+        return buffer.getLong(HEADER_BYTES + record * RECORD_BYTES + 4);
+    }
+
+    /** Writes every priced SKU of {@code prices} to {@code target}, replacing it atomically. */
+    public static void write(Path target, SkuPriceTable prices) throws IOException {
+        int size = prices.catalog().size();
+        int count = 0;
+        for (int id = 0; id < size; id++) {
+            if (prices.hasPrice(id)) count++;
+        }
+        if (count > MAX_RECORDS) throw new IllegalArgumentException("Too many prices for one file: " + count);
+
+        Path dir = target.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer chunk = ByteBuffer.allocate(RECORD_BYTES * 4096);
+                chunk.putInt(MAGIC).putShort(FORMAT).putShort((short) RECORD_BYTES).putInt(count).putInt(0);
+                for (int id = 0; id < size; id++) {
+                    if (!prices.hasPrice(id)) continue;
+                    if (chunk.remaining() < RECORD_BYTES) drain(channel, chunk);
+                    chunk.putInt(id).putLong(prices.pricePenceOf(id));
+                }
+                drain(channel, chunk);
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer chunk) throws IOException {
+        chunk.flip();
+        while (chunk.hasRemaining()) channel.write(chunk);
+        chunk.clear();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.grocery.service.catalog;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Converts a prices.json file ({@code {"prices": {"BANANAS": "0.55", ...}}}) into a {@link MappedPriceFile}.
+ * Codes are resolved through a {@link SkuCatalog}, so the file may price any SKU of that catalog; an unknown
+ * code or a negative price rejects the whole file. The JSON is streamed, never held as a tree.
+ *
+ * Usage: {@code PriceFileConverter <prices.json> <prices.bin> [catalog.csv]}; without a catalog only the
+ * ItemType codes are known.
+ */
+public final class PriceFileConverter {
+    private PriceFileConverter() {}
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: PriceFileConverter <prices.json> <prices.bin> [catalog.csv]");
+            System.exit(2);
+        }
+        SkuCatalog catalog = SkuCatalog.ofItemTypes();
+        if (args.length == 3) {
+            try (Reader csv = Files.newBufferedReader(Path.of(args[2]), StandardCharsets.UTF_8)) {
+                catalog = SkuCatalogFile.read(csv).catalog();
+            }
+        }
+        SkuPriceTable prices;
+        try (InputStream json = Files.newInputStream(Path.of(args[0]))) {
+            prices = readJson(json, catalog);
+        }
+        MappedPriceFile.write(Path.of(args[1]), prices);
+        System.out.println("Wrote prices for " + MappedPriceFile.open(Path.of(args[1])).size() + " SKUs to " + args[1]);
+    }
+
+    /** Converts {@code json} and atomically replaces {@code target} with the result. */
+    public static void convert(InputStream json, SkuCatalog catalog, Path target) throws IOException {
+        MappedPriceFile.write(target, readJson(json, catalog));
+    }
+
+    public static SkuPriceTable readJson(InputStream json, SkuCatalog catalog) throws IOException {
+        SkuPriceTable.Builder prices = SkuPriceTable.builder(catalog);
+        try (JsonParser parser = JSON.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) throw new IllegalArgumentException("Expected a JSON object");
+            boolean found = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"prices".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (value != JsonToken.START_OBJECT) throw new IllegalArgumentException("Expected a \"prices\" object");
+                found = true;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String code = parser.currentName();
+                    parser.nextToken();
+                    int id = catalog.idOf(code.trim());
+                    if (id == SkuCatalog.UNKNOWN) throw new IllegalArgumentException("Unknown SKU: " + code);
+                    BigDecimal price;
+                    try {
+                        price = new BigDecimal(parser.getText().trim());
+                    } catch (NumberFormatException ex) {
+                        throw new IllegalArgumentException("Invalid price for " + code + ": " + parser.getText());
+                    }
+                    if (price.signum() < 0) throw new IllegalArgumentException("Negative price for SKU: " + code);
+                    prices.price(id, price);
+                }
+            }
+            if (!found) throw new IllegalArgumentException("Expected a \"prices\" object");
+        }
+        return prices.build();
+    }
+}
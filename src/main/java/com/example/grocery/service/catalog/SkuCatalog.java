@@ -0,0 +1,126 @@
+package com.example.grocery.service.catalog;
+
+import com.example.grocery.domain.ItemType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable set of SKU codes, each given a dense id 0..size()-1 in load order.
+ *
+ * The {@link ItemType} items are always loaded first, so {@code idOf(type) == type.ordinal()} and the
+ * ordinal-indexed arrays used by checkout (PriceSnapshot, NormalizedBasket, PromotionPlan) share the id space.
+ * Codes are matched case-insensitively through an open-addressing table; {@link #idOf(CharSequence)} neither
+ * allocates nor copies the input, so it can run on request buffers directly.
+ */
+public final class SkuCatalog {
+
+    /** Returned by {@link #idOf(CharSequence)} for an unknown code. */
+    public static final int UNKNOWN = -1;
+
+    private static final ItemType[] ITEM_TYPES = ItemType.values();
+
+    private final String[] codes;   // by id
+    // Open addressing with linear probing; each slot is (hash << 32) | (id + 1), 0 = empty.
+    // Keeping the hash in the slot means a probe only touches the code on a likely match.
+    private final long[] slots;
+    private final int mask;
+
+    private SkuCatalog(List<String> codes) {
+        this.codes = codes.toArray(String[]::new);
+        int capacity = Integer.highestOneBit(Math.max(4, this.codes.length * 2 - 1)) << 1; // load factor <= 0.5
+        this.slots = new long[capacity];
+        this.mask = capacity - 1;
+        for (int id = 0; id < this.codes.length; id++) {
+            String code = this.codes[id];
+            int hash = hash(code);
+            if (find(code, hash) != UNKNOWN) throw new IllegalArgumentException("Duplicate SKU code: " + code);
+            int slot = hash & mask;
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = ((long) hash << 32) | (id + 1);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** The catalog holding only the {@link ItemType} items. */
+    public static SkuCatalog ofItemTypes() {
+        return builder().build();
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    /** The code an id was loaded with. */
+    public String code(int id) {
+        return codes[id];
+    }
+
+    /** Id of {@code code}, ignoring case; {@link #UNKNOWN} if it is not in the catalog. */
+    public int idOf(CharSequence code) {
+        return find(code, hash(code));
+    }
+
+    /** Id of a built-in item; equal to its ordinal. */
+    public int idOf(ItemType type) {
+        return type.ordinal();
+    }
+
+    private int find(CharSequence code, int hash) {
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            long entry = slots[slot];
+            if (entry == 0) return UNKNOWN;
+            if ((int) (entry >>> 32) != hash) continue;
+            int id = (int) entry - 1;
+            if (equalsIgnoreCase(codes[id], code)) return id;
+        }
+    }
+
+    private static int hash(CharSequence s) {
+        int h = 0;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            h = 31 * h + fold(s.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equalsIgnoreCase(String code, CharSequence s) {
+        int n = code.length();
+        if (s.length() != n) return false;
+        for (int i = 0; i < n; i++) {
+            char a = code.charAt(i);
+            char b = s.charAt(i);
+            if (a != b && fold(a) != fold(b)) return false;
+        }
+        return true;
+    }
+
+    /** Lower case; ASCII without the Character tables, which dominate short codes. */
+    static char fold(char c) {
+        if (c < 0x80) return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+        return Character.toLowerCase(c);
+    }
+
+    /** Collects codes in id order; the {@link ItemType} items are added up front. */
+    public static final class Builder {
+        private final List<String> codes = new ArrayList<>();
+
+        private Builder() {
+            for (ItemType type : ITEM_TYPES) codes.add(type.name());
+        }
+
+        /** Adds a code and returns the id it will have. */
+        public int add(String code) {
+            if (code == null || code.isBlank()) throw new IllegalArgumentException("SKU code must not be blank");
+            codes.add(code.trim());
+            return codes.size() - 1;
+        }
+
+        public SkuCatalog build() {
+            return new SkuCatalog(codes);
+        }
+    }
+}
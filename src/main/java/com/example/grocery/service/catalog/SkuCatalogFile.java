@@ -0,0 +1,81 @@
+package com.example.grocery.service.catalog;
+
+import com.example.grocery.domain.ItemType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static com.example.grocery.util.MoneyMath.toPence;
+
+/**
+ * Reads a SKU catalog with prices from CSV lines {@code code,price} (e.g. {@code SKU-000123,1.25}).
+ * Blank lines, {@code #} comments and a leading {@code code,price} header are skipped. Ids are given in file
+ * order after the {@link ItemType} items; a line naming an ItemType only sets its price.
+ */
+public final class SkuCatalogFile {
+    private SkuCatalogFile() {}
+
+    /** A loaded catalog and its prices. */
+    public record Loaded(SkuCatalog catalog, SkuPriceTable prices) {}
+
+    public static Loaded read(Reader source) throws IOException {
+        SkuCatalog.Builder codes = SkuCatalog.builder();
+        long[] pence = new long[1024];
+        Arrays.fill(pence, SkuPriceTable.NO_PRICE);
+        int count = ItemType.values().length;
+
+        BufferedReader in = source instanceof BufferedReader b ? b : new BufferedReader(source);
+        String line;
+        int lineNo = 0;
+        while ((line = in.readLine()) != null) {
+            lineNo++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            if (lineNo == 1 && line.regionMatches(true, 0, "code,", 0, 5)) continue;
+
+            int comma = line.indexOf(',');
+            if (comma < 0) throw new IllegalArgumentException("Line " + lineNo + ": expected code,price");
+            String code = line.substring(0, comma).trim();
+            BigDecimal price;
+            try {
+                price = new BigDecimal(line.substring(comma + 1).trim());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Line " + lineNo + ": invalid price for " + code);
+            }
+
+            int id = itemTypeId(code);
+            if (id < 0) {
+                id = codes.add(code);
+                count = id + 1;
+            }
+            if (id >= pence.length) {
+                int from = pence.length;
+                pence = Arrays.copyOf(pence, Math.max(pence.length * 2, id + 1));
+                Arrays.fill(pence, from, pence.length, SkuPriceTable.NO_PRICE);
+            }
+            pence[id] = toPenceChecked(price, code);
+        }
+
+        SkuCatalog catalog = codes.build();
+        SkuPriceTable.Builder prices = SkuPriceTable.builder(catalog);
+        for (int id = 0; id < count; id++) {
+            if (pence[id] != SkuPriceTable.NO_PRICE) prices.price(id, pence[id]);
+        }
+        return new Loaded(catalog, prices.build());
+    }
+
+    private static int itemTypeId(String code) {
+        for (ItemType type : ItemType.values()) {
+            if (type.name().equalsIgnoreCase(code)) return type.ordinal();
+        }
+        return -1;
+    }
+
+    private static long toPenceChecked(BigDecimal price, String code) {
+        if (price.signum() < 0) throw new IllegalArgumentException("Negative price for SKU: " + code);
+        return toPence(price);
+    }
+}
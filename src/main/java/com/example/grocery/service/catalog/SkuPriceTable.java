@@ -0,0 +1,67 @@
+package com.example.grocery.service.catalog;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static com.example.grocery.util.MoneyMath.toPence;
+
+/**
+ * Unit prices in pence for every SKU of one {@link SkuCatalog}, in a {@code long[]} indexed by id.
+ * Immutable; build a new table to change prices.
+ */
+public final class SkuPriceTable {
+
+    /** Returned by {@link #pricePenceOf(int)} for a SKU without a price. */
+    public static final long NO_PRICE = -1L;
+
+    private final SkuCatalog catalog;
+    private final long[] pence;
+
+    private SkuPriceTable(SkuCatalog catalog, long[] pence) {
+        this.catalog = catalog;
+        this.pence = pence;
+    }
+
+    public static Builder builder(SkuCatalog catalog) {
+        return new Builder(catalog);
+    }
+
+    public SkuCatalog catalog() {
+        return catalog;
+    }
+
+    /** Price of SKU {@code id} in pence, or {@link #NO_PRICE}. */
+    public long pricePenceOf(int id) {
+        return pence[id];
+    }
+
+    public boolean hasPrice(int id) {
+        return pence[id] != NO_PRICE;
+    }
+
+    public static final class Builder {
+        private final SkuCatalog catalog;
+        private final long[] pence;
+
+        private Builder(SkuCatalog catalog) {
+            this.catalog = catalog;
+            this.pence = new long[catalog.size()];
+            Arrays.fill(pence, NO_PRICE);
+        }
+
+        public Builder price(int id, long pricePence) {
+            if (pricePence < 0) throw new IllegalArgumentException("Negative price for SKU: " + catalog.code(id));
+            pence[id] = pricePence;
+            return this;
+        }
+
+        /** Rounded HALF_UP to pence, like PriceMath.scale. */
+        public Builder price(int id, BigDecimal price) {
+            return price(id, toPence(price));
+        }
+
+        public SkuPriceTable build() {
+            return new SkuPriceTable(catalog, pence.clone());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.grocery.service.catalog;
+
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.service.promo.DiscountStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Item-level promotions per SKU of one {@link SkuCatalog}, ordered by priority.
+ *
+ * Backed by an array indexed by id; SKUs without promotions share one empty array, so a catalog of a
+ * million SKUs with a few thousand promotions costs one reference per SKU and lookups never allocate.
+ * Callers must not modify the returned arrays.
+ *
+ * Groundwork, like {@link SkuPriceTable}: checkout does not use it yet. Promotions are still filed by
+ * {@link ItemType} in StrategyRegistry; {@link Builder#addForItemTypes} files the same strategies by id.
+ */
+public final class SkuPromotionIndex {
+
+    private static final DiscountStrategy[] NONE = new DiscountStrategy[0];
+    private static final ItemType[] ITEM_TYPES = ItemType.values();
+
+    private final SkuCatalog catalog;
+    private final DiscountStrategy[][] byId;
+
+    private SkuPromotionIndex(SkuCatalog catalog, DiscountStrategy[][] byId) {
+        this.catalog = catalog;
+        this.byId = byId;
+    }
+
+    public static Builder builder(SkuCatalog catalog) {
+        return new Builder(catalog);
+    }
+
+    public SkuCatalog catalog() {
+        return catalog;
+    }
+
+    /** Strategies for SKU {@code id}, lowest priority first; empty if none. */
+    public DiscountStrategy[] strategiesFor(int id) {
+        return byId[id];
+    }
+
+    public static final class Builder {
+        private final SkuCatalog catalog;
+        private final Map<Integer, List<DiscountStrategy>> added = new HashMap<>();
+
+        private Builder(SkuCatalog catalog) {
+            this.catalog = catalog;
+        }
+
+        /** Files {@code strategy} under SKU {@code id}. */
+        public Builder add(int id, DiscountStrategy strategy) {
+            if (id < 0 || id >= catalog.size()) throw new IllegalArgumentException("Unknown SKU id: " + id);
+            added.computeIfAbsent(id, k -> new ArrayList<>()).add(strategy);
+            return this;
+        }
+
+        /** Files each strategy under every {@link ItemType} SKU it supports(). */
+        public Builder addForItemTypes(List<DiscountStrategy> strategies) {
+            for (DiscountStrategy strategy : strategies) {
+                for (ItemType type : ITEM_TYPES) {
+                    if (strategy.supports(type)) add(catalog.idOf(type), strategy);
+                }
+            }
+            return this;
+        }
+
+        public SkuPromotionIndex build() {
+            DiscountStrategy[][] byId = new DiscountStrategy[catalog.size()][];
+            Arrays.fill(byId, NONE);
+            added.forEach((id, strategies) -> byId[id] = strategies.stream()
+                    .sorted(Comparator.comparingInt(DiscountStrategy::priority))
+                    .toArray(DiscountStrategy[]::new));
+            return new SkuPromotionIndex(catalog, byId);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+
+package com.example.grocery.service.idempotency;
+
+import com.example.grocery.config.CheckoutProperties;
+import com.example.grocery.domain.Receipt;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, in-memory receipts keyed by the client's Idempotency-Key.
+ *
+ * - A repeated key within the TTL returns the stored receipt (hit).
+ * - A repeated key whose first request is still being priced waits for that
+ *   result instead of pricing again (coalesced).
+ * - Entries expire after checkout.idempotency.ttl; beyond max-entries the oldest are evicted.
+ *   An entry still being priced is never expired or evicted.
+ * - Failures are not stored, so a retry after an error is priced again.
+ *
+ * Counts are published as checkout.idempotency.requests{result=hit|miss|coalesced}
+ * and the current size as checkout.idempotency.entries.
+ */
+@Component
+public class IdempotentReceiptStore {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final class Entry {
+        final String key;
+        final Object fingerprint;
+        final long createdNanos;
+        final CompletableFuture<Receipt> receipt = new CompletableFuture<>();
+
+        Entry(String key, Object fingerprint, long createdNanos) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.createdNanos = createdNanos;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    @Autowired
+    public IdempotentReceiptStore(CheckoutProperties props, MeterRegistry meterRegistry) {
+        this(props, meterRegistry, System::nanoTime);
+    }
+
+    IdempotentReceiptStore(CheckoutProperties props, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.ttlNanos = props.getIdempotency().getTtl().toNanos();
+        this.maxEntries = props.getIdempotency().getMaxEntries();
+        this.clock = clock;
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.coalesced = requests(meterRegistry, "coalesced");
+        Gauge.builder("checkout.idempotency.entries", entries, ConcurrentHashMap::size)
+                .description("Receipts currently held for idempotent replay")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the receipt stored for {@code key}, or prices it with {@code compute} exactly once.
+     *
+     * @param fingerprint the request the key was first used with; reusing the key for a different request is rejected
+     * @throws IllegalArgumentException if the key is blank or too long, or was used with a different request
+     */
+    public Receipt getOrCompute(String key, Object fingerprint, Supplier<Receipt> compute) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1.." + MAX_KEY_LENGTH + " characters");
+        }
+        long now = clock.getAsLong();
+        purgeExpired(now);
+
+        Entry fresh = new Entry(key, fingerprint, now);
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, fresh);
+            if (existing == null) {
+                misses.increment();
+                insertionOrder.add(fresh);
+                evictOverflow();
+                return computeInto(fresh, compute);
+            }
+            if (existing.receipt.isDone() && isExpired(existing, now)) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new IllegalArgumentException("Idempotency-Key '" + key + "' was already used for a different basket");
+            }
+            (existing.receipt.isDone() ? hits : coalesced).increment();
+            return await(existing);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Receipt computeInto(Entry entry, Supplier<Receipt> compute) {
+        try {
+            Receipt receipt = compute.get();
+            entry.receipt.complete(receipt);
+            return receipt;
+        } catch (RuntimeException | Error ex) {
+            entries.remove(entry.key, entry);
+            insertionOrder.remove(entry);
+            entry.receipt.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private static Receipt await(Entry entry) {
+        try {
+            return entry.receipt.join();
+        } catch (CompletionException ex) {
+            // Waiters see the same failure the first caller saw
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            throw ex;
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdNanos >= ttlNanos;
+    }
+
+    /**
+     * An entry in insertionOrder still counts only while the map holds that same entry for its key; one that
+     * failed or was replaced after expiring is stale and is dropped when met.
+     */
+    private boolean isCurrent(Entry entry) {
+        return entries.get(entry.key) == entry;
+    }
+
+    /**
+     * Insertion order is creation order, so expired entries are at the head: stops at the first current entry that
+     * has not expired. An expired entry still being priced is skipped, not removed, so its duplicates keep waiting
+     * on it; it goes on a later pass.
+     */
+    private void purgeExpired(long now) {
+        for (Iterator<Entry> it = insertionOrder.iterator(); it.hasNext(); ) {
+            Entry entry = it.next();
+            if (!isCurrent(entry)) {
+                it.remove();
+            } else if (!isExpired(entry, now)) {
+                return;
+            } else if (entry.receipt.isDone()) {
+                it.remove();
+                entries.remove(entry.key, entry);
+            }
+        }
+    }
+
+    /** Evicts the oldest priced entries; entries still being priced are never evicted, so the store may briefly hold more. */
+    private void evictOverflow() {
+        Iterator<Entry> it = insertionOrder.iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            Entry entry = it.next();
+            if (!isCurrent(entry)) {
+                it.remove();
+            } else if (entry.receipt.isDone()) {
+                it.remove();
+                entries.remove(entry.key, entry);
+            }
+        }
+    }
+
+    /** Entries in the eviction queue, stale ones included; for tests. */
+    int queued() {
+        return insertionOrder.size();
+    }
+
+    private static Counter requests(MeterRegistry registry, String result) {
+        return Counter.builder("checkout.idempotency.requests")
+                .description("Checkout requests carrying an Idempotency-Key, by outcome")
+                .tag("result", result)
+                .register(registry);
+    }
+}
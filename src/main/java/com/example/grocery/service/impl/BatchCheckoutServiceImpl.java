@@ -0,0 +1,89 @@
+
+package com.example.grocery.service.impl;
+
+import com.example.grocery.config.CheckoutProperties;
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.BatchOutcome;
+import com.example.grocery.service.BatchCheckoutService;
+import com.example.grocery.service.CheckoutService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Prices batch baskets on its own bounded pool (checkout.batch.parallelism) so a
+ * large batch cannot starve request threads or the common fork-join pool.
+ * With checkout.batch.virtual-threads (Java 21+), each basket runs on a virtual thread
+ * instead, still limited to checkout.batch.parallelism at a time.
+ */
+@Service
+public class BatchCheckoutServiceImpl implements BatchCheckoutService {
+    private final CheckoutService checkoutService;
+    private final CheckoutProperties props;
+    private final Executor executor;
+
+    public BatchCheckoutServiceImpl(CheckoutService checkoutService, CheckoutProperties props) {
+        this.checkoutService = checkoutService;
+        this.props = props;
+        int parallelism = Math.max(1, props.getBatch().getParallelism());
+        if (props.getBatch().isVirtualThreads()) {
+            SimpleAsyncTaskExecutor virtual = new SimpleAsyncTaskExecutor("batch-checkout-");
+            virtual.setVirtualThreads(true);
+            virtual.setConcurrencyLimit(parallelism);
+            this.executor = virtual;
+        } else {
+            this.executor = new ForkJoinPool(parallelism);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService pool) pool.shutdown();
+        else if (executor instanceof SimpleAsyncTaskExecutor virtual) virtual.close();
+    }
+
+    @Override
+    public <T> List<BatchOutcome> checkoutAll(List<T> inputs, Function<? super T, List<BasketItem>> toBasket) {
+        int maxSize = props.getBatch().getMaxSize();
+        if (inputs.size() > maxSize) {
+            throw new IllegalArgumentException("Batch of " + inputs.size() + " baskets exceeds the limit of " + maxSize);
+        }
+
+        // Every basket is priced against the same prices and promotions
+        CheckoutService snapshot = checkoutService.snapshot();
+        List<CompletableFuture<BatchOutcome>> pending = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            int index = i;
+            T input = inputs.get(i);
+            pending.add(CompletableFuture.supplyAsync(() -> price(index, input, toBasket, snapshot), executor));
+        }
+
+        List<BatchOutcome> outcomes = new ArrayList<>(pending.size());
+        for (CompletableFuture<BatchOutcome> future : pending) {
+            outcomes.add(future.join());
+        }
+        return outcomes;
+    }
+
+    private static <T> BatchOutcome price(int index, T input, Function<? super T, List<BasketItem>> toBasket,
+                                          CheckoutService snapshot) {
+        try {
+            return BatchOutcome.builder()
+                    .index(index)
+                    .receipt(snapshot.checkout(toBasket.apply(input)))
+                    .build();
+        } catch (IllegalArgumentException ex) {
+            return BatchOutcome.builder().index(index).error(ex.getMessage()).build();
+        } catch (RuntimeException ex) {
+            return BatchOutcome.builder().index(index).error("Unexpected error: " + ex.getMessage()).build();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.grocery.service.impl;
+
+import com.example.grocery.config.CheckoutProperties;
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.exception.CartNotFoundException;
+import com.example.grocery.service.CartService;
+import com.example.grocery.service.cart.CartJournal;
+import com.example.grocery.service.pricing.PriceProvider;
+import com.example.grocery.service.promo.PromotionEngine;
+import com.example.grocery.service.promo.PromotionOptimizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Open carts in memory, each re-priced incrementally by its {@link CartSession}.
+ * Changes to one cart are serialised; different carts never wait for each other.
+ *
+ * - At most checkout.carts.max-carts are open; opening one more closes the cart idle the longest.
+ * - A cart untouched for checkout.carts.idle-timeout is closed by a sweep that runs every quarter of it.
+ * - With checkout.carts.store.enabled, carts are restored from the {@link CartJournal} at startup, every
+ *   change is logged, a snapshot is written every snapshot-interval and once more at shutdown.
+ *
+ * Published as checkout.carts.open, checkout.carts.memory (an estimate in bytes, from the number of carts and
+ * lines) and checkout.carts.evicted{reason=idle|capacity}.
+ */
+@Service
+public class CartServiceImpl implements CartService {
+
+    /**
+     * Approximate heap per cart (id and map entry included) and per line (receipt line included), measured
+     * with 10 and 40 line carts on a 64-bit JVM with compressed oops. Used for checkout.carts.memory only.
+     */
+    static final long CART_BYTES = 1_800;
+    static final long LINE_BYTES = 150;
+
+    private final ConcurrentHashMap<String, CartSession> carts = new ConcurrentHashMap<>();
+    private final PriceProvider priceProvider;
+    private final PromotionEngine promotions;
+    private final PromotionOptimizer optimizer; // null: greedy allocation only
+    private final CartJournal journal; // null: carts are not stored
+    private final int maxCarts;
+    private final int maxLines;
+    private final long idleNanos;
+    private final LongSupplier clock;
+    private final Counter evictedIdle;
+    private final Counter evictedCapacity;
+    private final ScheduledExecutorService housekeeper;
+
+    @Autowired
+    public CartServiceImpl(PriceProvider priceProvider, PromotionEngine promotions, PromotionOptimizer optimizer,
+                           CheckoutProperties props, CartJournal journal, MeterRegistry meterRegistry) {
+        this(priceProvider, promotions, optimizer, props, journal, meterRegistry, System::nanoTime);
+        long idleMillis = props.getCarts().getIdleTimeout().toMillis();
+        long sweepMillis = Math.max(1L, idleMillis / 4);
+        housekeeper.scheduleWithFixedDelay(this::evictIdle, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+        if (this.journal != null) {
+            long snapshotMillis = props.getCarts().getStore().getSnapshotInterval().toMillis();
+            housekeeper.scheduleWithFixedDelay(this::snapshot, snapshotMillis, snapshotMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Without the background sweep and snapshots; tests call {@link #evictIdle()} and {@link #snapshot()}. */
+    CartServiceImpl(PriceProvider priceProvider, PromotionEngine promotions, PromotionOptimizer optimizer,
+                    CheckoutProperties props, CartJournal journal, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.priceProvider = priceProvider;
+        this.promotions = promotions;
+        this.optimizer = optimizer != null && optimizer.enabled() ? optimizer : null;
+        this.journal = journal != null && journal.enabled() ? journal : null;
+        this.maxCarts = props.getCarts().getMaxCarts();
+        this.maxLines = props.getCarts().getMaxLines();
+        this.idleNanos = props.getCarts().getIdleTimeout().toNanos();
+        this.clock = clock;
+        this.evictedIdle = evicted(meterRegistry, "idle");
+        this.evictedCapacity = evicted(meterRegistry, "capacity");
+        Gauge.builder("checkout.carts.open", carts, ConcurrentHashMap::size)
+                .description("Open cart sessions")
+                .register(meterRegistry);
+        Gauge.builder("checkout.carts.memory", this, CartServiceImpl::estimatedBytes)
+                .description("Estimated heap held by open cart sessions")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cart-housekeeping");
+            t.setDaemon(true);
+            return t;
+        });
+        restore();
+    }
+
+    public CartServiceImpl(PriceProvider priceProvider, PromotionEngine promotions, PromotionOptimizer optimizer) {
+        this(priceProvider, promotions, optimizer, new CheckoutProperties(), null, new SimpleMeterRegistry(),
+                System::nanoTime);
+    }
+
+    public CartServiceImpl(PriceProvider priceProvider, PromotionEngine promotions) {
+        this(priceProvider, promotions, null);
+    }
+
+    /** Writes a last snapshot, so a clean restart replays no log. */
+    @PreDestroy
+    public void shutdown() {
+        housekeeper.shutdownNow();
+        if (journal != null) {
+            snapshot();
+            journal.close();
+        }
+    }
+
+    @Override
+    public String open() {
+        String id = UUID.randomUUID().toString();
+        CartSession cart = new CartSession(id, maxLines, journal);
+        cart.touch(clock.getAsLong());
+        // In the map before OPEN is logged: a snapshot taken in between then holds the cart, and the logs it
+        // deletes cannot have held its only OPEN. Nobody can change the cart before its id is returned.
+        carts.put(id, cart);
+        if (journal != null) journal.opened(id);
+        evictOverflow();
+        return id;
+    }
+
+    @Override
+    public Receipt add(String cartId, BasketItem line) {
+        return cart(cartId).add(line, priceProvider.snapshot(), promotions.current(), optimizer);
+    }
+
+    @Override
+    public Receipt remove(String cartId, int index) {
+        return cart(cartId).remove(index, priceProvider.snapshot(), promotions.current(), optimizer);
+    }
+
+    @Override
+    public Receipt receipt(String cartId) {
+        return cart(cartId).receipt(priceProvider.snapshot(), promotions.current(), optimizer);
+    }
+
+    @Override
+    public void close(String cartId) {
+        CartSession cart = cartId == null ? null : carts.remove(cartId);
+        if (cart == null) throw new CartNotFoundException(cartId);
+        if (journal != null) journal.closed(cartId);
+    }
+
+    /** Number of open carts. */
+    public int size() {
+        return carts.size();
+    }
+
+    /** Estimated heap held by the open carts, in bytes. */
+    public long estimatedBytes() {
+        long bytes = 0L;
+        for (CartSession cart : carts.values()) {
+            bytes += CART_BYTES + LINE_BYTES * cart.lineCount();
+        }
+        return bytes;
+    }
+
+    /** Closes every cart idle for longer than checkout.carts.idle-timeout. */
+    void evictIdle() {
+        long now = clock.getAsLong();
+        for (CartSession cart : carts.values()) {
+            if (now - cart.lastTouched() >= idleNanos && evict(cart)) evictedIdle.increment();
+        }
+    }
+
+    /** Folds the change log into a new snapshot of the open carts. */
+    boolean snapshot() {
+        if (journal == null) return false;
+        return journal.snapshot(() -> {
+            List<CartJournal.Cart> stored = new ArrayList<>(carts.size());
+            for (CartSession cart : carts.values()) stored.add(cart.stored());
+            return stored;
+        });
+    }
+
+    private void restore() {
+        if (journal == null) return;
+        long now = clock.getAsLong();
+        for (CartJournal.Cart stored : journal.recover()) {
+            CartSession cart = new CartSession(stored.id(), maxLines, journal, stored.seq(), stored.lines());
+            cart.touch(now);
+            carts.put(stored.id(), cart);
+        }
+        evictOverflow();
+    }
+
+    /** Beyond max-carts, closes the carts idle the longest; a scan, but only when over the limit. */
+    private void evictOverflow() {
+        while (carts.size() > maxCarts) {
+            CartSession oldest = null;
+            for (CartSession cart : carts.values()) {
+                if (oldest == null || cart.lastTouched() - oldest.lastTouched() < 0) oldest = cart;
+            }
+            if (oldest == null) return;
+            if (evict(oldest)) evictedCapacity.increment();
+        }
+    }
+
+    private boolean evict(CartSession cart) {
+        if (!carts.remove(cart.id(), cart)) return false;
+        if (journal != null) journal.closed(cart.id());
+        return true;
+    }
+
+    private CartSession cart(String cartId) {
+        CartSession cart = cartId == null ? null : carts.get(cartId);
+        if (cart == null) throw new CartNotFoundException(cartId);
+        cart.touch(clock.getAsLong());
+        return cart;
+    }
+
+    private static Counter evicted(MeterRegistry registry, String reason) {
+        return Counter.builder("checkout.carts.evicted")
+                .description("Carts closed by the store rather than the lane, by reason")
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.grocery.service.impl;
+
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.service.cart.CartJournal;
+import com.example.grocery.service.pricing.NormalizedBasket;
+import com.example.grocery.service.pricing.PriceProvider;
+import com.example.grocery.service.promo.AppliedDiscount;
+import com.example.grocery.service.promo.BasketLevelStrategy;
+import com.example.grocery.service.promo.PromotionOptimizer;
+import com.example.grocery.service.promo.PromotionPlan;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One open cart: its lines, plus what is needed to re-price it after a single change without starting over.
+ *
+ * Kept per item between changes: the total quantity, the unit price (looked up when the item arrives) and the
+ * item-level discounts at that quantity; and the amount of every basket strategy evaluated so far. A change to
+ * item T re-evaluates T's item strategies and the basket strategies whose affectedItems() include T. Basket-wide
+ * strategies (no affected items) see every item, so they are re-evaluated on every change. The receipt is then
+ * put together by the same code as a full checkout, so the two never disagree.
+ *
+ * This relies on a basket strategy's amount depending only on the quantities and prices of its affectedItems()
+ * (of the whole basket when there are none), which holds for every built-in strategy.
+ *
+ * Prices and promotions are pinned per session; when a change or read sees another price snapshot or plan,
+ * the whole cart is re-priced against it. A restored session starts that way, from its lines alone.
+ *
+ * Each change is numbered and recorded in the {@link CartJournal} under the session's lock, so the journal
+ * sees a cart's changes in the order they were made.
+ */
+final class CartSession {
+
+    private static final ItemType[] ITEM_TYPES = ItemType.values();
+
+    private final String id;
+    private final int maxLines;
+    private final CartJournal journal; // null: not stored
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<BasketItem> lines;
+    private final int[] quantities = new int[ITEM_TYPES.length];
+    private final long[] unitPrices = new long[ITEM_TYPES.length];
+    private final List<List<AppliedDiscount>> itemDiscounts = new ArrayList<>(ITEM_TYPES.length);
+    private final Map<BasketLevelStrategy, Long> basketAmounts = new IdentityHashMap<>();
+    private final Map<BasketLevelStrategy, String> basketDescriptions = new IdentityHashMap<>();
+    private PriceProvider prices;
+    private PromotionPlan plan;
+    private Receipt receipt;
+    private long evaluations;
+    private long seq;
+    private volatile int lineCount;
+    private volatile long lastTouched;
+
+    CartSession(String id, int maxLines, CartJournal journal) {
+        this(id, maxLines, journal, 0L, List.of());
+    }
+
+    /** A session restored from the journal: {@code seq} is the number of its last change. */
+    CartSession(String id, int maxLines, CartJournal journal, long seq, List<BasketItem> lines) {
+        this.id = id;
+        this.maxLines = maxLines;
+        this.journal = journal;
+        this.seq = seq;
+        this.lines = new ArrayList<>(lines);
+        this.lineCount = lines.size();
+        for (int i = 0; i < ITEM_TYPES.length; i++) itemDiscounts.add(List.of());
+    }
+
+    String id() {
+        return id;
+    }
+
+    /** Records that the cart was used at {@code nanos} (System.nanoTime() scale). */
+    void touch(long nanos) {
+        lastTouched = nanos;
+    }
+
+    long lastTouched() {
+        return lastTouched;
+    }
+
+    /** Lines in the cart; read without the lock, so it may be a change behind. */
+    int lineCount() {
+        return lineCount;
+    }
+
+    /** The cart as the journal stores it. */
+    CartJournal.Cart stored() {
+        lock.lock();
+        try {
+            return new CartJournal.Cart(id, seq, List.copyOf(lines));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Adds {@code line} at the end and returns the new receipt. */
+    Receipt add(BasketItem line, PriceProvider prices, PromotionPlan plan, PromotionOptimizer optimizer) {
+        lock.lock();
+        try {
+            if (lines.size() >= maxLines) {
+                throw new IllegalArgumentException("A cart holds at most " + maxLines + " lines");
+            }
+            ItemType type = line.getType();
+            int ordinal = type.ordinal();
+            if (prices != this.prices || plan != this.plan) {
+                lines.add(line);
+                try {
+                    repriceAll(prices, plan);
+                } catch (RuntimeException ex) {
+                    lines.remove(lines.size() - 1);
+                    throw ex;
+                }
+            } else {
+                int quantity;
+                try {
+                    quantity = Math.addExact(quantities[ordinal], line.getQuantity());
+                } catch (ArithmeticException ex) {
+                    throw new IllegalArgumentException("Total quantity too large for item: " + type);
+                }
+                // Look the price up before changing anything, so a failed lookup leaves the cart as it was
+                if (quantities[ordinal] == 0) unitPrices[ordinal] = prices.pricePenceOf(type);
+                lines.add(line);
+                quantities[ordinal] = quantity;
+                changed(type);
+            }
+            lineCount = lines.size();
+            seq++;
+            if (journal != null) journal.added(id, seq, line);
+            return assemble(optimizer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the line at {@code index} (0-based, the order of the receipt's items) and returns the new receipt.
+     *
+     * @throws IllegalArgumentException if there is no such line
+     */
+    Receipt remove(int index, PriceProvider prices, PromotionPlan plan, PromotionOptimizer optimizer) {
+        lock.lock();
+        try {
+            if (index < 0 || index >= lines.size()) {
+                throw new IllegalArgumentException("No line " + index + " in a cart of " + lines.size() + " lines");
+            }
+            BasketItem line = lines.remove(index);
+            if (prices != this.prices || plan != this.plan) {
+                try {
+                    repriceAll(prices, plan);
+                } catch (RuntimeException ex) {
+                    lines.add(index, line);
+                    throw ex;
+                }
+            } else {
+                ItemType type = line.getType();
+                int ordinal = type.ordinal();
+                quantities[ordinal] -= line.getQuantity();
+                if (quantities[ordinal] == 0) unitPrices[ordinal] = 0L;
+                changed(type);
+            }
+            lineCount = lines.size();
+            seq++;
+            if (journal != null) journal.removed(id, seq, index);
+            return assemble(optimizer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The receipt for the lines so far, re-priced first if prices or promotions have changed since. */
+    Receipt receipt(PriceProvider prices, PromotionPlan plan, PromotionOptimizer optimizer) {
+        lock.lock();
+        try {
+            if (receipt == null || prices != this.prices || plan != this.plan) {
+                repriceAll(prices, plan);
+                return assemble(optimizer);
+            }
+            return receipt;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Strategy evaluations (item and basket) since the session was opened. */
+    long evaluations() {
+        lock.lock();
+        try {
+            return evaluations;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Starts over from the lines; nothing changes if a price cannot be looked up. */
+    private void repriceAll(PriceProvider prices, PromotionPlan plan) {
+        NormalizedBasket totals = NormalizedBasket.of(lines, prices);
+        this.prices = prices;
+        this.plan = plan;
+        basketAmounts.clear();
+        basketDescriptions.clear();
+        for (ItemType type : ITEM_TYPES) {
+            quantities[type.ordinal()] = totals.quantityOf(type);
+            unitPrices[type.ordinal()] = totals.unitPriceOf(type);
+            recomputeItemDiscounts(type);
+        }
+    }
+
+    private void changed(ItemType type) {
+        recomputeItemDiscounts(type);
+        basketAmounts.keySet().removeIf(strategy -> dependsOn(strategy, type));
+        basketDescriptions.keySet().removeIf(strategy -> dependsOn(strategy, type));
+    }
+
+    private static boolean dependsOn(BasketLevelStrategy strategy, ItemType type) {
+        Set<ItemType> affected = strategy.affectedItems();
+        return affected.isEmpty() || affected.contains(type);
+    }
+
+    private void recomputeItemDiscounts(ItemType type) {
+        int ordinal = type.ordinal();
+        if (quantities[ordinal] == 0) {
+            itemDiscounts.set(ordinal, List.of());
+            return;
+        }
+        List<AppliedDiscount> discounts = new ArrayList<>(2);
+        CheckoutServiceImpl.itemDiscounts(plan, type, quantities[ordinal], unitPrices[ordinal], null, discounts);
+        evaluations += plan.registry().strategiesFor(type).size();
+        itemDiscounts.set(ordinal, discounts);
+    }
+
+    /** The single bucket exclusive policy of a full checkout, from the cached amounts. */
+    private Receipt assemble(PromotionOptimizer optimizer) {
+        NormalizedBasket basket = NormalizedBasket.ofTotals(quantities, unitPrices, prices);
+
+        BasketLevelStrategy best = null;
+        long bestAmount = 0L;
+        for (BasketLevelStrategy strategy : plan.candidatesFor(basket.items())) {
+            Long amount = basketAmounts.get(strategy);
+            if (amount == null) {
+                amount = strategy.applyBasketPence(basket);
+                evaluations++;
+                basketAmounts.put(strategy, amount);
+            }
+            if (amount > bestAmount) {
+                best = strategy;
+                bestAmount = amount;
+            }
+        }
+
+        List<AppliedDiscount> applied = new ArrayList<>();
+        Set<ItemType> suppressedItems = Set.of();
+        if (best != null) {
+            String description = basketDescriptions.computeIfAbsent(best, strategy -> strategy.describeBasket(basket));
+            applied.add(new AppliedDiscount(best, description, bestAmount));
+            suppressedItems = CheckoutServiceImpl.suppressedBy(best, basket);
+        }
+        for (ItemType type : basket.items()) {
+            if (!suppressedItems.contains(type)) applied.addAll(itemDiscounts.get(type.ordinal()));
+        }
+
+        applied = CheckoutServiceImpl.best(applied, basket, plan, optimizer);
+        receipt = CheckoutServiceImpl.receipt(List.copyOf(lines), basket, applied, prices.version(), plan.version(), null);
+        return receipt;
+    }
+}
@@ -3,20 +3,26 @@
 package com.example.grocery.service.impl;
 
 import com.example.grocery.domain.*;
+import com.example.grocery.service.journal.ReceiptJournal;
+import com.example.grocery.service.pricing.NormalizedBasket;
 import com.example.grocery.service.pricing.PriceProvider;
+import com.example.grocery.service.promo.AppliedDiscount;
 import com.example.grocery.service.promo.BasketLevelStrategy;
-import com.example.grocery.service.promo.DiscountResult;
 import com.example.grocery.service.promo.DiscountStrategy;
+import com.example.grocery.service.promo.PromotionEngine;
+import com.example.grocery.service.promo.PromotionMetrics;
+import com.example.grocery.service.promo.PromotionOptimizer;
+import com.example.grocery.service.promo.PromotionPlan;
 import com.example.grocery.service.promo.StrategyRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.example.grocery.service.CheckoutService;
 
-import java.math.BigDecimal;
 import java.util.*;
-import java.util.stream.Collectors;
 
-import static com.example.grocery.util.PriceMath.*;
+import static com.example.grocery.util.MoneyMath.multiply;
+import static com.example.grocery.util.MoneyMath.toBigDecimal;
 
 
 /**
@@ -25,104 +31,203 @@ import static com.example.grocery.util.PriceMath.*;
 @Service
 public class CheckoutServiceImpl implements CheckoutService {
     private final PriceProvider priceProvider;
-    private final StrategyRegistry registry;
-    private final List<BasketLevelStrategy> basketStrategies;
+    private final PromotionEngine promotions;
+    private final PromotionMetrics metrics; // null: promotions are not measured
+    private final PromotionOptimizer optimizer; // null: greedy allocation only
+    private final ReceiptJournal journal; // null: receipts are not journaled
+
+    @Autowired
+    public CheckoutServiceImpl(PriceProvider priceProvider, PromotionEngine promotions, PromotionMetrics metrics,
+                               PromotionOptimizer optimizer, ReceiptJournal journal) {
+        this.priceProvider = priceProvider;
+        this.promotions = promotions;
+        this.metrics = metrics;
+        this.optimizer = optimizer != null && optimizer.enabled() ? optimizer : null;
+        this.journal = journal != null && journal.enabled() ? journal : null;
+    }
+
+    public CheckoutServiceImpl(PriceProvider priceProvider, PromotionEngine promotions, PromotionMetrics metrics,
+                               PromotionOptimizer optimizer) {
+        this(priceProvider, promotions, metrics, optimizer, null);
+    }
+
+    public CheckoutServiceImpl(PriceProvider priceProvider, PromotionEngine promotions, PromotionMetrics metrics) {
+        this(priceProvider, promotions, metrics, null);
+    }
+
+    public CheckoutServiceImpl(PriceProvider priceProvider, PromotionEngine promotions) {
+        this(priceProvider, promotions, null);
+    }
 
     public CheckoutServiceImpl(PriceProvider priceProvider,
                                StrategyRegistry registry,
                                List<BasketLevelStrategy> basketStrategies) {
-        this.priceProvider = priceProvider;
-        this.registry = registry;
-        this.basketStrategies = basketStrategies;
+        this(priceProvider, new PromotionEngine(registry, basketStrategies));
+    }
+
+    /**
+     * Recompiles the promotion plan for a new strategy set and swaps it in.
+     * Checkouts already running keep the plan they started with.
+     */
+    public void refreshPromotions(StrategyRegistry registry, List<BasketLevelStrategy> basketStrategies) {
+        promotions.install(registry, basketStrategies);
     }
 
+    /**
+     * Reads the prices and the promotion plan once, so the whole receipt uses one version of each.
+     * With the receipt journal enabled, returns once the receipt is on disk.
+     */
     public Receipt checkout(List<BasketItem> basket) {
-        List<ReceiptLine> itemLines = new ArrayList<>();
-        List<DiscountLine> discountLines = new ArrayList<>();
-        BigDecimal subtotal = scale(BigDecimal.ZERO);
-        BigDecimal totalDiscount = scale(BigDecimal.ZERO);
-
-        // Compute & record item lines + collect per-item strategies to apply
-        Map<ItemType, BigDecimal> unitPrices = new EnumMap<>(ItemType.class);
-        Map<ItemType, Integer> quantities = new EnumMap<>(ItemType.class);
-        for (BasketItem item : basket) {
-            BigDecimal unit = scale(priceProvider.priceOf(item.getType()));
-            unitPrices.put(item.getType(), unit);
-            quantities.put(item.getType(), item.getQuantity());
-
-            BigDecimal linePrice = multiply(unit, item.getQuantity());
-            itemLines.add(ReceiptLine.builder()
-                    .itemName(item.getType().name().toLowerCase())
-                    .quantity(item.getQuantity())
-                    .amount(linePrice)
-                    .build());
-            subtotal = add(subtotal, linePrice);
-        }
+        return journaled(checkout(basket, priceProvider.snapshot(), promotions.current(), metrics, optimizer), journal);
+    }
 
-        // ---- SINGLE BUCKET EXCLUSIVE POLICY ----
+    @Override
+    public CheckoutService snapshot() {
+        PriceProvider prices = priceProvider.snapshot();
+        PromotionPlan pinned = promotions.current();
+        PromotionMetrics metrics = this.metrics;
+        PromotionOptimizer optimizer = this.optimizer;
+        ReceiptJournal journal = this.journal;
+        return basket -> journaled(checkout(basket, prices, pinned, metrics, optimizer), journal);
+    }
 
-        // 1) Evaluate all basket strategies once
-        record BasketCandidate(BasketLevelStrategy strategy, DiscountResult result) {}
-        List<BasketCandidate> candidates = basketStrategies.stream()
-                .map(s -> new BasketCandidate(s, s.applyBasket(basket, priceProvider)))
-                .filter(c -> c.result().getAmount().compareTo(BigDecimal.ZERO) > 0)
-                .collect(Collectors.toList());
+    private static Receipt journaled(Receipt receipt, ReceiptJournal journal) {
+        if (journal != null) journal.append(receipt);
+        return receipt;
+    }
 
-        // 2) Pick the single best basket promo (highest amount) among exclusive ones
-        Optional<BasketCandidate> bestExclusive = candidates.stream()
-                .filter(c -> c.strategy().exclusive())
-                .max(Comparator.comparing(c -> c.result().getAmount()));
+    /**
+     * Prices the basket in pence ({@code long}); BigDecimal is only created for the
+     * amounts that end up on the receipt. Rounding matches the PriceMath path exactly.
+     * Each strategy evaluation is timed into {@code metrics} when it is not null.
+     * With an {@code optimizer}, its allocation replaces the greedy discounts when it saves more.
+     */
+    private static Receipt checkout(List<BasketItem> lines, PriceProvider priceProvider, PromotionPlan plan,
+                                    PromotionMetrics metrics, PromotionOptimizer optimizer) {
+        // Sum lines per item once; every strategy below works from this
+        NormalizedBasket basket = NormalizedBasket.of(lines, priceProvider);
+        List<AppliedDiscount> applied = best(greedy(basket, plan, metrics), basket, plan, optimizer);
+        return receipt(lines, basket, applied, priceProvider.version(), plan.version(), metrics);
+    }
 
-        Set<ItemType> suppressedItems = Set.of();
-        if (bestExclusive.isPresent()) {
-            BasketCandidate chosen = bestExclusive.get();
-            // Record the basket discount
-            discountLines.add(DiscountLine.builder()
-                    .description(chosen.result().getDescription())
-                    .amount(negate(chosen.result().getAmount()))
-                    .build());
-            totalDiscount = add(totalDiscount, chosen.result().getAmount());
+    /**
+     * The discounts checkout gives {@code basket} under {@code plan}, in receipt order, without building the
+     * receipt or measuring the promotions. Used to price the same basket under several plans.
+     */
+    public static List<AppliedDiscount> discounts(NormalizedBasket basket, PromotionPlan plan,
+                                                  PromotionOptimizer optimizer) {
+        return best(greedy(basket, plan, null), basket, plan, optimizer);
+    }
 
-            // Suppress item-level discounts for affected items
-            Set<ItemType> affected = chosen.strategy().affectedItems();
-            suppressedItems = affected.isEmpty()
-                    ? quantities.keySet()                 // empty => whole basket suppressed
-                    : affected;
+    /** The optimizer's allocation if it saves more than {@code greedy}, else {@code greedy}. */
+    static List<AppliedDiscount> best(List<AppliedDiscount> greedy, NormalizedBasket basket, PromotionPlan plan,
+                                      PromotionOptimizer optimizer) {
+        if (optimizer != null) {
+            List<AppliedDiscount> optimal = optimizer.optimize(plan, basket);
+            if (optimal != null && total(optimal) > total(greedy)) return optimal;
         }
+        return greedy;
+    }
 
-        // ---- Apply item-level strategies except suppressed items ----
-        for (ItemType type : quantities.keySet()) {
-            if (suppressedItems.contains(type)) continue; // policy: skip per-item for affected items
+    /**
+     * Item lines as given, then {@code applied} in order (or "No Discount Applicable"), and the totals.
+     * Discounts given are counted into {@code metrics} when it is not null.
+     */
+    static Receipt receipt(List<BasketItem> lines, NormalizedBasket basket, List<AppliedDiscount> applied,
+                           long priceVersion, long promotionVersion, PromotionMetrics metrics) {
+        List<ReceiptLine> itemLines = new ArrayList<>(lines.size());
+        for (BasketItem item : lines) {
+            ItemType type = item.getType();
+            itemLines.add(ReceiptLine.builder()
+                    .itemName(type.name().toLowerCase())
+                    .quantity(item.getQuantity())
+                    .amount(toBigDecimal(multiply(basket.unitPriceOf(type), item.getQuantity())))
+                    .build());
+        }
+        long subtotal = basket.subtotalPence();
 
-            BigDecimal unit = unitPrices.get(type);
-            int qty = quantities.get(type);
-
-            for (DiscountStrategy strategy : registry.strategiesFor(type)) {
-                DiscountResult result = strategy.apply(type, qty, unit);
-                if (result.getAmount().compareTo(BigDecimal.ZERO) > 0) {
-                    discountLines.add(DiscountLine.builder()
-                            .description(result.getDescription())
-                            .amount(negate(result.getAmount()))
-                            .build());
-                    totalDiscount = add(totalDiscount, result.getAmount());
-                }
-            }
+        List<DiscountLine> discountLines = new ArrayList<>(Math.max(1, applied.size()));
+        long totalDiscount = 0L;
+        for (AppliedDiscount discount : applied) {
+            discountLines.add(DiscountLine.builder()
+                    .description(discount.description())
+                    .amount(toBigDecimal(-discount.amountPence()))
+                    .build());
+            totalDiscount += discount.amountPence();
+            if (metrics != null) metrics.statsFor(discount.strategy()).given(discount.amountPence());
         }
 
         if (discountLines.isEmpty()) {
             discountLines.add(DiscountLine.builder()
                     .description("No Discount Applicable")
-                    .amount(scale(BigDecimal.ZERO))
+                    .amount(toBigDecimal(0L))
                     .build());
         }
 
-        BigDecimal total = subtract(subtotal, totalDiscount);
         return Receipt.builder()
                 .items(itemLines)
                 .discounts(discountLines)
-                .subtotal(subtotal)
-                .totalDiscount(negate(totalDiscount))
-                .total(total)
+                .subtotal(toBigDecimal(subtotal))
+                .totalDiscount(toBigDecimal(-totalDiscount))
+                .total(toBigDecimal(subtotal - totalDiscount))
+                .priceVersion(priceVersion)
+                .promotionVersion(promotionVersion)
                 .build();
     }
+
+    /** Single bucket exclusive policy: the best basket promotion, then item deals on the items it leaves alone. */
+    private static List<AppliedDiscount> greedy(NormalizedBasket basket, PromotionPlan plan, PromotionMetrics metrics) {
+        List<AppliedDiscount> applied = new ArrayList<>();
+
+        // 1) Evaluate the basket strategies that can match these items, once, and
+        // 2) keep the single best one (highest amount; the earliest registered wins ties)
+        BasketLevelStrategy best = null;
+        long bestAmount = 0L;
+        for (BasketLevelStrategy strategy : plan.candidatesFor(basket.items())) {
+            long start = metrics == null ? 0L : System.nanoTime();
+            long amount = strategy.applyBasketPence(basket);
+            if (metrics != null) metrics.statsFor(strategy).evaluated(System.nanoTime() - start, amount);
+            if (amount > bestAmount) {
+                best = strategy;
+                bestAmount = amount;
+            }
+        }
+
+        Set<ItemType> suppressedItems = Set.of();
+        if (best != null) {
+            // Record the basket discount
+            applied.add(new AppliedDiscount(best, best.describeBasket(basket), bestAmount));
+            suppressedItems = suppressedBy(best, basket);
+        }
+
+        // ---- Apply item-level strategies except suppressed items ----
+        for (ItemType type : basket.items()) {
+            if (suppressedItems.contains(type)) continue; // policy: skip per-item for affected items
+            itemDiscounts(plan, type, basket.quantityOf(type), basket.unitPriceOf(type), metrics, applied);
+        }
+        return applied;
+    }
+
+    /** Items whose item deals a winning basket promotion replaces; empty affectedItems() means the whole basket. */
+    static Set<ItemType> suppressedBy(BasketLevelStrategy best, NormalizedBasket basket) {
+        Set<ItemType> affected = best.affectedItems();
+        return affected.isEmpty() ? basket.items() : affected;
+    }
+
+    /** Adds the item-level discounts for {@code qty} units of {@code type} to {@code applied}, in priority order. */
+    static void itemDiscounts(PromotionPlan plan, ItemType type, int qty, long unit, PromotionMetrics metrics,
+                              List<AppliedDiscount> applied) {
+        for (DiscountStrategy strategy : plan.registry().strategiesFor(type)) {
+            long start = metrics == null ? 0L : System.nanoTime();
+            long amount = strategy.discountPence(type, qty, unit);
+            if (metrics != null) metrics.statsFor(strategy).evaluated(System.nanoTime() - start, amount);
+            if (amount > 0) applied.add(new AppliedDiscount(strategy, strategy.describe(type, qty, unit), amount));
+        }
+    }
+
+    private static long total(List<AppliedDiscount> applied) {
+        long total = 0L;
+        for (AppliedDiscount discount : applied) total += discount.amountPence();
+        return total;
+    }
 }
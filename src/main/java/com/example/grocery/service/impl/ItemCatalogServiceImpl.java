@@ -19,8 +19,9 @@ public class ItemCatalogServiceImpl implements ItemCatalogService {
 
     public Map<ItemType, BigDecimal> getAllAsMap() {
         Map<ItemType, BigDecimal> map = new EnumMap<>(ItemType.class);
+        PriceProvider prices = priceProvider.snapshot(); // one version for the whole listing
         for (ItemType type : ItemType.values()) {
-            map.put(type, priceProvider.priceOf(type));
+            map.put(type, prices.priceOf(type));
         }
         System.out.println("Items and price :"+map);
         return map;
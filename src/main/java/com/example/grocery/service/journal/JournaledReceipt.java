@@ -0,0 +1,7 @@
+package com.example.grocery.service.journal;
+
+import com.example.grocery.domain.Receipt;
+
+/** A receipt read back from the journal: its sequence number (from 1), when it was appended and the receipt. */
+public record JournaledReceipt(long sequence, long epochMillis, Receipt receipt) {
+}
@@ -0,0 +1,174 @@
+package com.example.grocery.service.journal;
+
+import com.example.grocery.domain.DiscountLine;
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.domain.ReceiptLine;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.grocery.util.MoneyMath.toBigDecimal;
+
+/**
+ * The journal's record payload for a receipt. Integers are varints (zigzag where they can be negative) and
+ * amounts are pence, so a three-line receipt with two discounts takes about 100 bytes:
+ *
+ *   timestamp (epoch millis), priceVersion, promotionVersion,
+ *   item count, then per item: name, quantity, amount,
+ *   discount count, then per discount: description, amount,
+ *   subtotal, totalDiscount, total
+ *
+ * An item name that is an {@link ItemType} in lower case (what checkout writes) is one byte, its ordinal + 1;
+ * any other name is 0 followed by its UTF-8 bytes. Strings are a length and UTF-8 bytes.
+ *
+ * Amounts must be whole pence, as every checkout amount is.
+ */
+final class ReceiptCodec {
+
+    private static final ItemType[] ITEM_TYPES = ItemType.values();
+    private static final String[] ITEM_NAMES = Arrays.stream(ITEM_TYPES)
+            .map(type -> type.name().toLowerCase())
+            .toArray(String[]::new);
+
+    private ReceiptCodec() {}
+
+    /**
+     * Encodes {@code receipt}, stamped with {@code epochMillis}.
+     *
+     * @throws ArithmeticException if an amount is not a whole number of pence
+     */
+    static byte[] encode(Receipt receipt, long epochMillis) {
+        Output out = new Output(128);
+        out.varLong(epochMillis);
+        out.varLong(receipt.getPriceVersion());
+        out.varLong(receipt.getPromotionVersion());
+
+        List<ReceiptLine> items = receipt.getItems();
+        out.varLong(items.size());
+        for (ReceiptLine line : items) {
+            itemName(out, line.getItemName());
+            out.varLong(line.getQuantity());
+            out.money(line.getAmount());
+        }
+
+        List<DiscountLine> discounts = receipt.getDiscounts();
+        out.varLong(discounts.size());
+        for (DiscountLine line : discounts) {
+            out.string(line.getDescription());
+            out.money(line.getAmount());
+        }
+
+        out.money(receipt.getSubtotal());
+        out.money(receipt.getTotalDiscount());
+        out.money(receipt.getTotal());
+        return out.toByteArray();
+    }
+
+    /** Decodes the payload at {@code in}'s position; reads exactly what {@link #encode} wrote. */
+    static JournaledReceipt decode(long sequence, ByteBuffer in) {
+        long epochMillis = varLong(in);
+        Receipt.ReceiptBuilder receipt = Receipt.builder()
+                .priceVersion(varLong(in))
+                .promotionVersion(varLong(in));
+
+        for (long n = varLong(in); n > 0; n--) {
+            receipt.item(ReceiptLine.builder()
+                    .itemName(itemName(in))
+                    .quantity((int) varLong(in))
+                    .amount(money(in))
+                    .build());
+        }
+        for (long n = varLong(in); n > 0; n--) {
+            receipt.discount(DiscountLine.builder()
+                    .description(string(in))
+                    .amount(money(in))
+                    .build());
+        }
+
+        receipt.subtotal(money(in))
+                .totalDiscount(money(in))
+                .total(money(in));
+        return new JournaledReceipt(sequence, epochMillis, receipt.build());
+    }
+
+    private static void itemName(Output out, String name) {
+        for (int i = 0; i < ITEM_NAMES.length; i++) {
+            if (ITEM_NAMES[i].equals(name)) {
+                out.varLong(i + 1);
+                return;
+            }
+        }
+        out.varLong(0);
+        out.string(name);
+    }
+
+    private static String itemName(ByteBuffer in) {
+        int tag = (int) varLong(in);
+        return tag == 0 ? string(in) : ITEM_NAMES[tag - 1];
+    }
+
+    private static BigDecimal money(ByteBuffer in) {
+        long zigzag = varLong(in);
+        return toBigDecimal((zigzag >>> 1) ^ -(zigzag & 1));
+    }
+
+    private static String string(ByteBuffer in) {
+        int length = (int) varLong(in);
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static long varLong(ByteBuffer in) {
+        long value = 0L;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7f) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    /** A growable byte array. */
+    private static final class Output {
+        private byte[] bytes;
+        private int size;
+
+        Output(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        void varLong(long value) {
+            ensure(10);
+            while ((value & ~0x7fL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void money(BigDecimal amount) {
+            long pence = amount.movePointRight(2).longValueExact();
+            varLong((pence << 1) ^ (pence >> 63));
+        }
+
+        void string(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varLong(utf8.length);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensure(int more) {
+            if (size + more > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + more));
+        }
+    }
+}
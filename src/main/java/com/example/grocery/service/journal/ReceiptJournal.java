@@ -0,0 +1,365 @@
+package com.example.grocery.service.journal;
+
+import com.example.grocery.config.CheckoutProperties;
+import com.example.grocery.domain.Receipt;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of checkout receipts in memory-mapped segment files, for finance.
+ *
+ * A receipt is encoded by {@link ReceiptCodec} outside any lock, then copied into the current segment as one
+ * record: length, CRC32 and payload. {@link #append} returns once the record is on disk. Rather than each caller
+ * forcing the file, one flusher thread forces everything appended since its last force and releases every caller
+ * it covered (group commit): while one force runs the next batch collects, so concurrent checkouts share fsyncs
+ * instead of queueing for one each.
+ *
+ * A segment is a fixed-size file named after the sequence number of its first record; when a record does not fit,
+ * the segment is forced and the next one started. Segments are never deleted. On startup the last segment is
+ * scanned to its last intact record; a record torn by a crash is zeroed and later records overwrite it.
+ * {@link ReceiptJournalReader} reads them back, including while the journal is being written.
+ *
+ * Enabled with checkout.journal.enabled; metrics are checkout.journal.appends and checkout.journal.batch (records
+ * made durable per force).
+ */
+@Component
+public class ReceiptJournal implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReceiptJournal.class);
+
+    private final Path directory; // null: disabled
+    private final int segmentSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition forced = lock.newCondition();
+    private final Counter appends;
+    private final DistributionSummary batches;
+    private final Thread flusher;
+    private Segment segment;
+    private long written;  // sequence of the last record copied into a segment
+    private long durable;  // sequence of the last record forced to disk
+    private IOException failure;
+    private boolean closed;
+
+    @Autowired
+    public ReceiptJournal(CheckoutProperties props, MeterRegistry meterRegistry) {
+        this(props.getJournal().isEnabled() ? Path.of(props.getJournal().getPath()) : null,
+                (int) props.getJournal().getSegmentSize().toBytes(), meterRegistry);
+    }
+
+    /** A journal in {@code directory} with segments of {@code segmentSize} bytes. */
+    public ReceiptJournal(Path directory, int segmentSize) {
+        this(directory, segmentSize, new SimpleMeterRegistry());
+    }
+
+    private ReceiptJournal(Path directory, int segmentSize, MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.appends = Counter.builder("checkout.journal.appends")
+                .description("Receipts appended to the receipt journal")
+                .register(meterRegistry);
+        this.batches = DistributionSummary.builder("checkout.journal.batch")
+                .description("Receipts made durable by one force of the receipt journal")
+                .register(meterRegistry);
+        if (directory == null) {
+            this.flusher = null;
+            return;
+        }
+        if (segmentSize < Segment.HEADER_BYTES + Segment.FRAME_BYTES + 64) {
+            throw new IllegalArgumentException("Journal segment size too small: " + segmentSize);
+        }
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = Segment.list(directory);
+            if (segments.isEmpty()) {
+                segment = Segment.create(directory, 1L, segmentSize);
+            } else {
+                segment = Segment.recover(segments.get(segments.size() - 1));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to open the receipt journal in " + directory, ex);
+        }
+        written = durable = segment.lastSequence();
+        log.info("Receipt journal in {}: {} receipts so far", directory, written);
+        flusher = new Thread(this::flushLoop, "receipt-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    public boolean enabled() {
+        return directory != null;
+    }
+
+    /** Where the segments are kept; null if disabled. */
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Appends {@code receipt} and waits until it is on disk.
+     *
+     * @return the receipt's sequence number
+     * @throws UncheckedIOException if the journal cannot be written; the receipt is not recorded
+     * @throws IllegalArgumentException if the receipt would not fit in an empty segment; the journal stays usable
+     * @throws IllegalStateException if the journal is disabled or closed
+     */
+    public long append(Receipt receipt) {
+        if (directory == null) throw new IllegalStateException("Receipt journal is disabled");
+        byte[] payload = ReceiptCodec.encode(receipt, System.currentTimeMillis());
+        if (payload.length > Segment.maxPayload(segmentSize)) {
+            throw new IllegalArgumentException("Receipt of " + payload.length
+                    + " bytes exceeds the journal segment size of " + segmentSize + " bytes");
+        }
+        long sequence;
+        lock.lock();
+        try {
+            if (closed) throw new IllegalStateException("Receipt journal is closed");
+            if (failure != null) throw new UncheckedIOException("Receipt journal unavailable", failure);
+            try {
+                if (!segment.fits(payload.length)) roll();
+                segment.write(payload);
+            } catch (IOException ex) {
+                failure = ex;
+                throw new UncheckedIOException("Receipt journal unavailable", ex);
+            }
+            sequence = ++written;
+            appended.signal();
+            while (durable < sequence) {
+                if (failure != null) throw new UncheckedIOException("Receipt journal unavailable", failure);
+                forced.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+        appends.increment();
+        return sequence;
+    }
+
+    /** Sequence number of the last durable receipt; 0 if none. */
+    public long lastSequence() {
+        lock.lock();
+        try {
+            return durable;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Reads the journal from {@code fromSequence}; see {@link ReceiptJournalReader}. */
+    public ReceiptJournalReader read(long fromSequence) throws IOException {
+        if (directory == null) throw new IllegalStateException("Receipt journal is disabled");
+        return ReceiptJournalReader.open(directory, fromSequence);
+    }
+
+    /** Lets pending appends finish, then forces and closes the current segment. */
+    @PreDestroy
+    @Override
+    public void close() {
+        if (flusher == null) return;
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            segment.close();
+        } catch (IOException ex) {
+            log.warn("Failed to close receipt journal segment: {}", ex.toString());
+        }
+    }
+
+    /** Forces the full segment and starts the next one. Caller holds the lock. */
+    private void roll() throws IOException {
+        segment.forceAll();
+        segment.close();
+        segment = Segment.create(directory, written + 1, segmentSize);
+    }
+
+    private void flushLoop() {
+        lock.lock();
+        try {
+            while (true) {
+                while (durable == written && !closed) appended.awaitUninterruptibly();
+                if (durable == written) return; // closed and drained
+                long target = written;
+                Segment current = segment;
+                int from = current.forcedTo;
+                int to = current.position();
+                lock.unlock();
+                IOException error = null;
+                try {
+                    current.force(from, to);
+                } catch (IOException ex) {
+                    error = ex;
+                } finally {
+                    lock.lock();
+                }
+                if (error != null) {
+                    log.error("Receipt journal force failed; appends will fail from now on", error);
+                    failure = error;
+                    forced.signalAll();
+                    return;
+                }
+                if (current.forcedTo < to) current.forcedTo = to;
+                batches.record(target - durable);
+                durable = target;
+                forced.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** One segment file, mapped for writing. */
+    static final class Segment {
+        static final int MAGIC = 0x52435054; // "RCPT"
+        static final int HEADER_BYTES = 16;  // magic, format, padding, first sequence
+        static final int FRAME_BYTES = 8;    // length, CRC32
+        static final String PREFIX = "receipts-";
+        static final String SUFFIX = ".seg";
+
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final long firstSequence;
+        private final CRC32 crc = new CRC32();
+        private long records;
+        private int forcedTo; // written up to here is on disk; guarded by the journal lock
+
+        private Segment(FileChannel channel, MappedByteBuffer buffer, long firstSequence) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.firstSequence = firstSequence;
+        }
+
+        static Path file(Path directory, long firstSequence) {
+            return directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+        }
+
+        /** Segment files in sequence order. */
+        static List<Path> list(Path directory) throws IOException {
+            try (var files = Files.list(directory)) {
+                return files.filter(p -> {
+                    String name = p.getFileName().toString();
+                    return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                }).sorted().toList();
+            }
+        }
+
+        static Segment create(Path directory, long firstSequence, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file(directory, firstSequence),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(1).putLong(firstSequence);
+            Segment segment = new Segment(channel, buffer, firstSequence);
+            segment.forceAll();
+            // The new file's directory entry must survive a crash too
+            ReceiptJournalReader.forceDirectory(directory);
+            return segment;
+        }
+
+        /** Maps an existing segment and positions it after its last intact record, zeroing a torn one. */
+        static Segment recover(Path file) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC) throw new IOException("Not a receipt journal segment: " + file);
+            Segment segment = new Segment(channel, buffer, buffer.getLong(8));
+            int position = HEADER_BYTES;
+            ReceiptJournalReader.Frame frame;
+            while ((frame = ReceiptJournalReader.frameAt(buffer, position, segment.crc)) != null && frame.valid()) {
+                position = frame.end();
+                segment.records++;
+            }
+            int end = position;
+            if (frame != null) {
+                // A torn record: clear it so it cannot be mistaken for data once later records follow
+                end = Math.min(buffer.capacity(), frame.end());
+                for (int i = position; i < end; i++) buffer.put(i, (byte) 0);
+                log.warn("Receipt journal {}: dropped a torn record after {} receipts", file, segment.records);
+            }
+            buffer.position(position);
+            segment.force(0, end);
+            segment.forcedTo = position;
+            return segment;
+        }
+
+        long lastSequence() {
+            return firstSequence + records - 1;
+        }
+
+        boolean fits(int payloadBytes) {
+            return buffer.remaining() >= FRAME_BYTES + payloadBytes + 4; // + room for the zero end marker
+        }
+
+        /** Largest payload an empty segment of {@code segmentSize} bytes holds. */
+        static int maxPayload(int segmentSize) {
+            return segmentSize - HEADER_BYTES - FRAME_BYTES - 4;
+        }
+
+        void write(byte[] payload) throws IOException {
+            if (!fits(payload.length)) {
+                throw new IOException("Receipt of " + payload.length + " bytes exceeds the journal segment size");
+            }
+            crc.reset();
+            crc.update(payload);
+            buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+            records++;
+        }
+
+        int position() {
+            return buffer.position();
+        }
+
+        /**
+         * Writes bytes {@code from} to {@code to} of the mapping to disk (msync of just those pages); safe while
+         * other threads write further on. The mapping's own force is used because FileChannel.force only promises
+         * to flush writes made through the channel.
+         */
+        void force(int from, int to) throws IOException {
+            if (to <= from) return;
+            try {
+                buffer.force(from, to - from);
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        /** Forces everything written so far. Caller holds the journal lock. */
+        void forceAll() throws IOException {
+            int to = buffer.position();
+            force(forcedTo, to);
+            forcedTo = Math.max(forcedTo, to);
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.grocery.service.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+import com.example.grocery.service.journal.ReceiptJournal.Segment;
+
+/**
+ * Reads receipts back from a journal directory in sequence order, one segment mapped at a time, so memory stays
+ * flat however long the journal is. Works on a journal that is being appended to: it returns every intact record
+ * present when it reaches it and stops at the first gap (a record still being written, or the end).
+ *
+ * <pre>
+ * try (ReceiptJournalReader reader = ReceiptJournalReader.open(dir, 1)) {
+ *     while (reader.hasNext()) process(reader.next());
+ * }
+ * </pre>
+ */
+public final class ReceiptJournalReader implements Iterator<JournaledReceipt>, Closeable {
+
+    /** A record frame in a segment: whether its CRC matches, and where the next one starts. */
+    record Frame(boolean valid, int payloadAt, int length, int end) {}
+
+    private final Path directory;
+    private final List<Path> segments;
+    private final long fromSequence;
+    private final CRC32 crc = new CRC32();
+    private int segmentIndex = -1;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+    private long sequence;
+    private JournaledReceipt next;
+    private boolean done;
+
+    private ReceiptJournalReader(Path directory, List<Path> segments, long fromSequence) {
+        this.directory = directory;
+        this.segments = segments;
+        this.fromSequence = fromSequence;
+    }
+
+    /** A reader over {@code directory} starting at the receipt numbered {@code fromSequence} (1 for all). */
+    public static ReceiptJournalReader open(Path directory, long fromSequence) throws IOException {
+        List<Path> segments = Segment.list(directory);
+        // Skip whole segments that end before fromSequence: the next one starts at or before it
+        int first = 0;
+        for (int i = 1; i < segments.size(); i++) {
+            if (firstSequenceOf(segments.get(i)) <= fromSequence) first = i;
+        }
+        return new ReceiptJournalReader(directory, segments.subList(first, segments.size()), fromSequence);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !done) next = advance();
+        return next != null;
+    }
+
+    @Override
+    public JournaledReceipt next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        JournaledReceipt result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        done = true;
+        buffer = null;
+        if (channel != null) channel.close();
+    }
+
+    private JournaledReceipt advance() {
+        try {
+            while (true) {
+                if (buffer == null && !openNextSegment()) {
+                    done = true;
+                    return null;
+                }
+                Frame frame = frameAt(buffer, position, crc);
+                if (frame == null || !frame.valid()) {
+                    // End of this segment's records; later segments only exist if this one was full
+                    if (segmentIndex + 1 >= segments.size()) {
+                        done = true;
+                        return null;
+                    }
+                    channel.close();
+                    buffer = null;
+                    continue;
+                }
+                position = frame.end();
+                long current = sequence++;
+                if (current < fromSequence) continue;
+                byte[] payload = new byte[frame.length()];
+                buffer.get(frame.payloadAt(), payload);
+                return ReceiptCodec.decode(current, ByteBuffer.wrap(payload));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read the receipt journal in " + directory, ex);
+        }
+    }
+
+    private boolean openNextSegment() throws IOException {
+        if (++segmentIndex >= segments.size()) return false;
+        channel = FileChannel.open(segments.get(segmentIndex), StandardOpenOption.READ);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (buffer.getInt(0) != Segment.MAGIC) throw new IOException("Not a receipt journal segment: " + segments.get(segmentIndex));
+        sequence = buffer.getLong(8);
+        position = Segment.HEADER_BYTES;
+        return true;
+    }
+
+    /**
+     * The frame at {@code position}: null at the end of the records (a zero length, or no room left),
+     * otherwise whether its payload matches its CRC.
+     */
+    static Frame frameAt(ByteBuffer buffer, int position, CRC32 crc) {
+        if (position + Segment.FRAME_BYTES > buffer.capacity()) return null;
+        int length = buffer.getInt(position);
+        if (length == 0) return null;
+        int payloadAt = position + Segment.FRAME_BYTES;
+        if (length < 0 || length > buffer.capacity() - payloadAt) {
+            return new Frame(false, payloadAt, 0, buffer.capacity());
+        }
+        crc.reset();
+        crc.update(buffer.duplicate().limit(payloadAt + length).position(payloadAt));
+        boolean valid = (int) crc.getValue() == buffer.getInt(position + 4);
+        return new Frame(valid, payloadAt, length, payloadAt + length);
+    }
+
+    /** Makes a newly created file's directory entry durable; a no-op where directories cannot be forced. */
+    static void forceDirectory(Path directory) {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException ex) {
+            // Not supported on this platform
+        }
+    }
+
+    private static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(Segment.PREFIX.length(), name.length() - Segment.SUFFIX.length()));
+    }
+}
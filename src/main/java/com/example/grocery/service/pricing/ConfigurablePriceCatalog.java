@@ -3,56 +3,207 @@ package com.example.grocery.service.pricing;
 import com.example.grocery.domain.ItemType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.EnumMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
-import static com.example.grocery.util.PriceMath.scale;
-
+/**
+ * Prices from application.yml (catalog.prices), overridden by classpath prices.json and,
+ * when catalog.reload is enabled, by an external file that is re-read whenever it changes.
+ *
+ * Every load builds a new immutable {@link PriceSnapshot} with the next version and swaps it
+ * in atomically; reads never lock. A load that fails keeps the current snapshot and is
+ * reported by {@link #lastFailure()} (surfaced through the actuator health endpoint).
+ */
 @Component
 @EnableConfigurationProperties(PriceCatalogProperties.class)
 public class ConfigurablePriceCatalog implements PriceProvider {
 
-    private final Map<ItemType, BigDecimal> prices = new EnumMap<>(ItemType.class);
+    private static final Logger log = LoggerFactory.getLogger(ConfigurablePriceCatalog.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** A reload that did not replace the snapshot. */
+    public record ReloadFailure(Instant at, String message) {}
+
+    private final Map<ItemType, BigDecimal> basePrices = new EnumMap<>(ItemType.class);
+    private final AtomicReference<PriceSnapshot> current = new AtomicReference<>();
+    private final Path reloadPath;
+    private final ScheduledExecutorService poller;
+    private volatile ReloadFailure lastFailure;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    // Last seen modification time and size of the reload file; only touched by the poller
+    private long seenModified = -1L;
+    private long seenSize = -1L;
+    private boolean unreadable; // the last look could not stat the file; warned once until it is back
 
     public ConfigurablePriceCatalog(PriceCatalogProperties props) {
         // 1) Load from application.yml (catalog.prices)
         if (props.getPrices() != null) {
-            props.getPrices().forEach((k, v) -> prices.put(k, scale(v)));
+            basePrices.putAll(props.getPrices());
         }
-        System.out.println("Default Items Price :"+prices);
+        log.debug("Base prices from catalog.prices: {}", basePrices);
         // 2) Optional JSON override (classpath: prices.json)
         try {
             ClassPathResource json = new ClassPathResource("prices.json");
             if (json.exists()) {
-                ObjectMapper mapper = new ObjectMapper();
-                JsonNode root = mapper.readTree(json.getInputStream());
-                JsonNode node = root.get("prices");
-                if (node != null && node.isObject()) {
-                    Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
-                    while (fields.hasNext()) {
-                        Map.Entry<String, JsonNode> e = fields.next();
-                        ItemType item = ItemType.valueOf(e.getKey().trim().toUpperCase());
-                        BigDecimal val = scale(new BigDecimal(e.getValue().asText()));
-                        prices.put(item, val); // override
-                    }
-                    System.out.println("Updated Items Price from price.json:"+prices);
+                try (InputStream in = json.getInputStream()) {
+                    basePrices.putAll(readPrices(in, false));
                 }
+                log.info("Prices after classpath prices.json: {}", basePrices);
             }
         } catch (Exception ex) {
             throw new IllegalStateException("Failed to load prices.json", ex);
         }
+        current.set(new PriceSnapshot(1L, Instant.now(), "classpath:prices.json", basePrices));
+
+        // 3) Optional external file, layered on top and polled for changes
+        PriceCatalogProperties.Reload reload = props.getReload();
+        if (reload.isEnabled() && StringUtils.hasText(reload.getPath())) {
+            this.reloadPath = Path.of(reload.getPath());
+            pollOnce();
+            long interval = reload.getInterval().toMillis();
+            this.poller = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "price-catalog-reload");
+                t.setDaemon(true);
+                return t;
+            });
+            poller.scheduleWithFixedDelay(this::pollOnce, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.reloadPath = null;
+            this.poller = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (poller != null) poller.shutdownNow();
     }
 
     @Override
     public BigDecimal priceOf(ItemType type) {
-        return Optional.ofNullable(prices.get(type))
-                .orElseThrow(() -> new IllegalArgumentException("Missing price for item: " + type));
+        return current.get().priceOf(type);
+    }
+
+    @Override
+    public long pricePenceOf(ItemType type) {
+        return current.get().pricePenceOf(type);
+    }
+
+    @Override
+    public long version() {
+        return current.get().version();
+    }
+
+    /** The snapshot in force right now; it never changes, however many reloads follow. */
+    @Override
+    public PriceSnapshot snapshot() {
+        return current.get();
+    }
+
+    /** The external file being watched, if reload is enabled. */
+    public Optional<Path> reloadPath() {
+        return Optional.ofNullable(reloadPath);
+    }
+
+    /** The most recent failed load, cleared by the next successful one. */
+    public Optional<ReloadFailure> lastFailure() {
+        return Optional.ofNullable(lastFailure);
+    }
+
+    /**
+     * Re-reads the external file now and swaps in a new snapshot.
+     *
+     * @return false if reload is disabled or the file could not be read; the current snapshot is kept
+     */
+    public boolean reload() {
+        if (reloadPath == null) return false;
+        reloadLock.lock();
+        try {
+            Map<ItemType, BigDecimal> merged = new EnumMap<>(basePrices);
+            try (InputStream in = Files.newInputStream(reloadPath)) {
+                merged.putAll(readPrices(in, true));
+            }
+            PriceSnapshot next = new PriceSnapshot(current.get().version() + 1, Instant.now(), reloadPath.toString(), merged);
+            current.set(next);
+            lastFailure = null;
+            log.info("Loaded prices version {} from {}: {}", next.version(), reloadPath, next.prices());
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            lastFailure = new ReloadFailure(Instant.now(), ex.toString());
+            log.warn("Keeping prices version {}; failed to load {}: {}", current.get().version(), reloadPath, ex.toString());
+            return false;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /** Reloads when the file's modification time or size has changed since the last look. */
+    private void pollOnce() {
+        try {
+            long modified = Files.getLastModifiedTime(reloadPath).toMillis();
+            long size = Files.size(reloadPath);
+            if (unreadable) {
+                log.info("Price reload file {} is readable again", reloadPath);
+                unreadable = false;
+            }
+            if (modified == seenModified && size == seenSize) return;
+            seenModified = modified;
+            seenSize = size;
+            reload();
+        } catch (IOException | RuntimeException ex) {
+            // Keep polling: the file may be missing only while it is being replaced
+            lastFailure = new ReloadFailure(Instant.now(), ex.toString());
+            if (!unreadable) {
+                log.warn("Cannot read price reload file {}; keeping prices version {}: {}",
+                        reloadPath, current.get().version(), ex.toString());
+                unreadable = true;
+            }
+            seenModified = -1L;
+            seenSize = -1L;
+        }
+    }
+
+    /**
+     * Reads {@code {"prices": {"BANANAS": 0.55, ...}}}.
+     *
+     * @param required whether a file without a "prices" object is an error; the classpath file has always been
+     *                 allowed to leave it out, while a reload must not silently serve the base prices
+     */
+    static Map<ItemType, BigDecimal> readPrices(InputStream in, boolean required) throws IOException {
+        Map<ItemType, BigDecimal> prices = new EnumMap<>(ItemType.class);
+        JsonNode root = MAPPER.readTree(in);
+        JsonNode node = root == null ? null : root.get("prices");
+        if (node == null || !node.isObject()) {
+            if (!required) return prices;
+            throw new IllegalArgumentException("Expected a \"prices\" object");
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> e = fields.next();
+            ItemType item = ItemType.valueOf(e.getKey().trim().toUpperCase());
+            prices.put(item, new BigDecimal(e.getValue().asText()));
+        }
+        return prices;
     }
 }
@@ -0,0 +1,186 @@
+package com.example.grocery.service.pricing;
+
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.service.catalog.MappedPriceFile;
+import com.example.grocery.service.catalog.SkuPriceTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.example.grocery.util.MoneyMath.toPence;
+import static com.example.grocery.util.PriceMath.scale;
+
+/**
+ * Prices served from a memory-mapped {@link MappedPriceFile} at catalog.binary.path, in place of
+ * ConfigurablePriceCatalog when catalog.binary.enabled is true (see PricingConfig). Startup maps the file
+ * instead of parsing it, so it takes the same time for five SKUs as for a million, and prices stay off the heap.
+ *
+ * SKU ids are SkuCatalog ids, so an ItemType is looked up by its ordinal. As in ConfigurablePriceCatalog, the
+ * catalog.prices values sit underneath: an ItemType the file does not price falls back to them, so a file
+ * converted from prices.json prices exactly what JSON mode does. {@link #reload()} maps the file at the path
+ * again (replace it with {@link MappedPriceFile#write}, which renames atomically) and swaps it in as the next
+ * version; a file that fails its checks keeps the current one.
+ */
+public class MappedPriceCatalog implements PriceProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedPriceCatalog.class);
+
+    /** A reload that did not replace the mapped file. */
+    public record ReloadFailure(Instant at, String message) {}
+
+    private final Path path;
+    private final long[] basePence; // catalog.prices by ordinal, NO_PRICE where unset
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile ReloadFailure lastFailure;
+
+    public MappedPriceCatalog(PriceCatalogProperties props) {
+        this(Path.of(props.getBinary().getPath()), props.getPrices());
+    }
+
+    public MappedPriceCatalog(Path path) {
+        this(path, null);
+    }
+
+    public MappedPriceCatalog(Path path, Map<ItemType, BigDecimal> basePrices) {
+        this.path = path;
+        this.basePence = new long[ItemType.values().length];
+        Arrays.fill(basePence, SkuPriceTable.NO_PRICE);
+        if (basePrices != null) {
+            basePrices.forEach((type, price) -> {
+                if (price.signum() < 0) throw new IllegalArgumentException("Negative price for item: " + type);
+                basePence[type.ordinal()] = toPence(scale(price));
+            });
+        }
+        try {
+            current.set(new Snapshot(1L, Instant.now(), MappedPriceFile.open(path), basePence));
+        } catch (IOException | RuntimeException ex) {
+            throw new IllegalStateException("Failed to map price file " + path, ex);
+        }
+        log.info("Mapped prices version 1 from {}: {} SKUs", path, current.get().file.size());
+    }
+
+    @Override
+    public BigDecimal priceOf(ItemType type) {
+        return current.get().priceOf(type);
+    }
+
+    @Override
+    public long pricePenceOf(ItemType type) {
+        return current.get().pricePenceOf(type);
+    }
+
+    /** Price of any SKU id, or {@link SkuPriceTable#NO_PRICE}. */
+    public long pricePenceOf(int skuId) {
+        return current.get().pricePenceOf(skuId);
+    }
+
+    @Override
+    public long version() {
+        return current.get().version;
+    }
+
+    /** The mapping in force right now; it keeps serving its file, however many reloads follow. */
+    @Override
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    /** The most recent failed reload, cleared by the next successful one. */
+    public Optional<ReloadFailure> lastFailure() {
+        return Optional.ofNullable(lastFailure);
+    }
+
+    /**
+     * Maps the file at {@link #path()} again and swaps it in as the next version.
+     *
+     * @return false if the file could not be mapped or is not a valid price file; the current one is kept
+     */
+    public boolean reload() {
+        reloadLock.lock();
+        try {
+            Snapshot next = new Snapshot(current.get().version + 1, Instant.now(), MappedPriceFile.open(path), basePence);
+            current.set(next);
+            lastFailure = null;
+            log.info("Mapped prices version {} from {}: {} SKUs", next.version, path, next.file.size());
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            lastFailure = new ReloadFailure(Instant.now(), ex.toString());
+            log.warn("Keeping prices version {}; failed to map {}: {}", version(), path, ex.toString());
+            return false;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /** Writes {@code prices} over the file at {@link #path()} and reloads it. */
+    public boolean install(SkuPriceTable prices) throws IOException {
+        MappedPriceFile.write(path, prices);
+        return reload();
+    }
+
+    /** One mapped file, over the base prices, and the version it was installed as. */
+    public static final class Snapshot implements PriceProvider {
+        private final long version;
+        private final Instant loadedAt;
+        private final MappedPriceFile file;
+        private final long[] basePence;
+
+        private Snapshot(long version, Instant loadedAt, MappedPriceFile file, long[] basePence) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+            this.file = file;
+            this.basePence = basePence;
+        }
+
+        @Override
+        public BigDecimal priceOf(ItemType type) {
+            return BigDecimal.valueOf(pricePenceOf(type), 2);
+        }
+
+        @Override
+        public long pricePenceOf(ItemType type) {
+            long pence = pricePenceOf(type.ordinal());
+            if (pence == SkuPriceTable.NO_PRICE) throw new IllegalArgumentException("Missing price for item: " + type);
+            return pence;
+        }
+
+        /** Price of any SKU id from the file, else the base price of an ItemType id, else NO_PRICE. */
+        public long pricePenceOf(int skuId) {
+            long pence = file.pricePenceOf(skuId);
+            if (pence == SkuPriceTable.NO_PRICE && skuId >= 0 && skuId < basePence.length) return basePence[skuId];
+            return pence;
+        }
+
+        @Override
+        public long version() {
+            return version;
+        }
+
+        @Override
+        public Snapshot snapshot() {
+            return this;
+        }
+
+        public Instant loadedAt() {
+            return loadedAt;
+        }
+
+        public MappedPriceFile file() {
+            return file;
+        }
+    }
+}
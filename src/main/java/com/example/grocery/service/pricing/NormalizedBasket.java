@@ -0,0 +1,112 @@
+package com.example.grocery.service.pricing;
+
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.ItemType;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.example.grocery.util.MoneyMath.multiply;
+
+/**
+ * A basket summed per item in one pass: quantities and unit prices (pence) indexed by item ordinal,
+ * plus the prices it was priced with. Duplicate lines of an item add up.
+ *
+ * Checkout builds one per request and hands it to every strategy, so none of them walks or
+ * re-aggregates the raw lines. Immutable once built.
+ */
+public final class NormalizedBasket {
+
+    private static final ItemType[] ITEM_TYPES = ItemType.values();
+
+    private final PriceProvider prices;
+    private final int[] quantities;
+    private final long[] unitPrices;
+    private final Set<ItemType> items;
+    private final long subtotalPence;
+
+    private NormalizedBasket(PriceProvider prices, int[] quantities, long[] unitPrices, Set<ItemType> items,
+                             long subtotalPence) {
+        this.prices = prices;
+        this.quantities = quantities;
+        this.unitPrices = unitPrices;
+        this.items = items;
+        this.subtotalPence = subtotalPence;
+    }
+
+    /** Sums {@code lines} per item and looks up each item's price once. */
+    public static NormalizedBasket of(List<BasketItem> lines, PriceProvider prices) {
+        int[] quantities = new int[ITEM_TYPES.length];
+        long[] unitPrices = new long[ITEM_TYPES.length];
+        Set<ItemType> items = EnumSet.noneOf(ItemType.class);
+        for (BasketItem line : lines) {
+            ItemType type = line.getType();
+            int ordinal = type.ordinal();
+            if (items.add(type)) unitPrices[ordinal] = prices.pricePenceOf(type);
+            try {
+                quantities[ordinal] = Math.addExact(quantities[ordinal], line.getQuantity());
+            } catch (ArithmeticException ex) {
+                throw new IllegalArgumentException("Total quantity too large for item: " + type);
+            }
+        }
+        long subtotal = 0L;
+        for (ItemType type : items) {
+            subtotal += multiply(unitPrices[type.ordinal()], quantities[type.ordinal()]);
+        }
+        return new NormalizedBasket(prices, quantities, unitPrices, Collections.unmodifiableSet(items), subtotal);
+    }
+
+    /**
+     * A basket from per-item totals already summed, indexed by item ordinal; items with a quantity above 0
+     * are present. The arrays are copied. Used by cart sessions, which keep their totals between scans.
+     */
+    public static NormalizedBasket ofTotals(int[] quantities, long[] unitPrices, PriceProvider prices) {
+        Set<ItemType> items = EnumSet.noneOf(ItemType.class);
+        long subtotal = 0L;
+        for (ItemType type : ITEM_TYPES) {
+            int ordinal = type.ordinal();
+            if (quantities[ordinal] > 0) {
+                items.add(type);
+                subtotal += multiply(unitPrices[ordinal], quantities[ordinal]);
+            }
+        }
+        return new NormalizedBasket(prices, quantities.clone(), unitPrices.clone(),
+                Collections.unmodifiableSet(items), subtotal);
+    }
+
+    /** The prices this basket was priced with. */
+    public PriceProvider prices() {
+        return prices;
+    }
+
+    /** Items with at least one unit, in ordinal order. */
+    public Set<ItemType> items() {
+        return items;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    /** Total units of {@code type} across all lines; 0 if absent. */
+    public int quantityOf(ItemType type) {
+        return quantities[type.ordinal()];
+    }
+
+    /** Unit price of {@code type} in pence; 0 if absent. */
+    public long unitPriceOf(ItemType type) {
+        return unitPrices[type.ordinal()];
+    }
+
+    /** Sum of quantity x unit price over all items, in pence. */
+    public long subtotalPence() {
+        return subtotalPence;
+    }
+
+    /** A copy of the quantities, indexed by item ordinal. */
+    public int[] quantities() {
+        return quantities.clone();
+    }
+}
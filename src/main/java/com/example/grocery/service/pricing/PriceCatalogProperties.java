@@ -9,6 +9,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.annotation.Validated;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.EnumMap;
 import java.util.Map;
 
@@ -29,4 +30,55 @@ public class PriceCatalogProperties {
     @NotNull
     private Map<ItemType, BigDecimal> prices = new EnumMap<>(ItemType.class);
 
+    private Reload reload = new Reload();
+
+    private Aliases aliases = new Aliases();
+
+    private Binary binary = new Binary();
+
+    /**
+     * Optional external prices file, same shape as prices.json, layered over it and re-read when it changes.
+     * Example:
+     * catalog:
+     *   reload:
+     *     enabled: true
+     *     path: /etc/grocery/prices.json
+     *     interval: 5s
+     */
+    @Setter
+    @Getter
+    public static class Reload {
+        private boolean enabled = false;
+        private String path;
+        /** How often the file's modification time and size are checked. */
+        private Duration interval = Duration.ofSeconds(5);
+    }
+
+    /**
+     * File of extra item names ("alias = ITEM" per line), reloadable via /actuator/aliases.
+     * Example:
+     * catalog:
+     *   aliases:
+     *     location: file:/etc/grocery/item-aliases.txt
+     */
+    @Setter
+    @Getter
+    public static class Aliases {
+        private String location = "classpath:item-aliases.txt";
+    }
+
+    /**
+     * Serve prices from a memory-mapped binary file (see PriceFileConverter) instead of the maps above.
+     * Example:
+     * catalog:
+     *   binary:
+     *     enabled: true
+     *     path: /var/lib/grocery/prices.bin
+     */
+    @Setter
+    @Getter
+    public static class Binary {
+        private boolean enabled = false;
+        private String path = "./prices.bin";
+    }
 }
@@ -2,9 +2,25 @@
 package com.example.grocery.service.pricing;
 
 import com.example.grocery.domain.ItemType;
+import com.example.grocery.util.MoneyMath;
 
 import java.math.BigDecimal;
 
 public interface PriceProvider {
     BigDecimal priceOf(ItemType type);
+
+    /** Unit price in pence, rounded HALF_UP like PriceMath.scale(priceOf(type)). */
+    default long pricePenceOf(ItemType type) {
+        return MoneyMath.toPence(priceOf(type));
+    }
+
+    /** Version of the prices being served; 0 for providers that are not versioned. */
+    default long version() {
+        return 0L;
+    }
+
+    /** A provider whose prices never change; providers that are already immutable return themselves. */
+    default PriceProvider snapshot() {
+        return this;
+    }
 }
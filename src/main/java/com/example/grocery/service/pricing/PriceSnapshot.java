@@ -0,0 +1,82 @@
+package com.example.grocery.service.pricing;
+
+import com.example.grocery.domain.ItemType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static com.example.grocery.util.MoneyMath.toPence;
+import static com.example.grocery.util.PriceMath.scale;
+
+/**
+ * One immutable, versioned set of unit prices.
+ * ConfigurablePriceCatalog swaps whole snapshots, so a reader sees either the old prices or the new ones, never a mix.
+ */
+public final class PriceSnapshot implements PriceProvider {
+
+    private static final long MISSING = Long.MIN_VALUE;
+
+    private final long version;
+    private final Instant loadedAt;
+    private final String source;
+    private final Map<ItemType, BigDecimal> prices;
+    private final long[] pence = new long[ItemType.values().length];
+
+    public PriceSnapshot(long version, Instant loadedAt, String source, Map<ItemType, BigDecimal> prices) {
+        Map<ItemType, BigDecimal> scaled = new EnumMap<>(ItemType.class);
+        prices.forEach((type, price) -> {
+            if (price.signum() < 0) throw new IllegalArgumentException("Negative price for item: " + type);
+            scaled.put(type, scale(price));
+        });
+        this.version = version;
+        this.loadedAt = loadedAt;
+        this.source = source;
+        this.prices = Collections.unmodifiableMap(scaled);
+        // Pence view for the checkout hot path, indexed by ordinal
+        for (ItemType type : ItemType.values()) {
+            BigDecimal price = scaled.get(type);
+            pence[type.ordinal()] = price == null ? MISSING : toPence(price);
+        }
+    }
+
+    @Override
+    public BigDecimal priceOf(ItemType type) {
+        BigDecimal price = prices.get(type);
+        if (price == null) throw new IllegalArgumentException("Missing price for item: " + type);
+        return price;
+    }
+
+    @Override
+    public long pricePenceOf(ItemType type) {
+        long p = pence[type.ordinal()];
+        if (p == MISSING) throw new IllegalArgumentException("Missing price for item: " + type);
+        return p;
+    }
+
+    @Override
+    public PriceSnapshot snapshot() {
+        return this;
+    }
+
+    /** Increases by one on every successful load. */
+    @Override
+    public long version() {
+        return version;
+    }
+
+    public Instant loadedAt() {
+        return loadedAt;
+    }
+
+    /** Where the prices were read from, e.g. "classpath:prices.json" or the reload file path. */
+    public String source() {
+        return source;
+    }
+
+    public Map<ItemType, BigDecimal> prices() {
+        return prices;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.grocery.service.promo;
+
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.service.pricing.PriceProvider;
+
+/**
+ * A basket promotion made of whole "sets" of units (e.g. a combo), so {@link PromotionOptimizer}
+ * can give it fewer sets than fit and leave the remaining units to item-level deals.
+ */
+public interface AllocatableBasketStrategy extends BasketLevelStrategy {
+
+    /** Units of {@code type} one set consumes; 0 if the set does not use it. */
+    int unitsPerSet(ItemType type);
+
+    /** Most sets one basket may receive ({@link Integer#MAX_VALUE} if uncapped). */
+    int maxSets();
+
+    /** Discount one set gives at these prices, in pence; 0 or less means a set is never worth taking. */
+    long discountPerSetPence(PriceProvider priceProvider);
+
+    /** Receipt text for {@code sets} sets. */
+    String describeSets(int sets);
+}
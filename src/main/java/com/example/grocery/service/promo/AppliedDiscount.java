@@ -0,0 +1,5 @@
+package com.example.grocery.service.promo;
+
+/** One discount chosen for a receipt: the strategy that gave it, its receipt text and amount in pence (> 0). */
+public record AppliedDiscount(DiscountStrategy strategy, String description, long amountPence) {
+}
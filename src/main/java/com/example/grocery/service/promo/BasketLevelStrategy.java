@@ -1,23 +1,36 @@
 package com.example.grocery.service.promo;
 
 import com.example.grocery.domain.ItemType;
-import com.example.grocery.service.pricing.PriceProvider;
-import com.example.grocery.domain.BasketItem;
+import com.example.grocery.service.pricing.NormalizedBasket;
+import com.example.grocery.util.MoneyMath;
 
-import java.util.List;
 import java.util.Set;
 
 
 /**
  * Marker + basket-aware apply for promotions that need the whole basket.
+ * Strategies see the {@link NormalizedBasket} (lines summed per item), never the raw lines.
  */
 public interface BasketLevelStrategy extends DiscountStrategy {
 
     /**
-     * Compute a single basket-wide DiscountResult.
+     * Compute a single basket-wide DiscountResult at the basket's {@link NormalizedBasket#prices()}.
      * Return ZERO amount if not applicable.
      */
-    DiscountResult applyBasket(List<BasketItem> basket, PriceProvider priceProvider);
+    DiscountResult applyBasket(NormalizedBasket basket);
+
+    /**
+     * Same discount as {@link #applyBasket}, in pence (0 if not applicable).
+     * The default bridges through applyBasket(); built-in strategies override it.
+     */
+    default long applyBasketPence(NormalizedBasket basket) {
+        return MoneyMath.toPence(applyBasket(basket).getAmount());
+    }
+
+    /** Receipt text for a non-zero {@link #applyBasketPence} result. */
+    default String describeBasket(NormalizedBasket basket) {
+        return applyBasket(basket).getDescription();
+    }
 
     /** By default, basket promos are exclusive (only one wins). */
     default boolean exclusive() { return true; }
@@ -6,6 +6,7 @@ import com.example.grocery.domain.ItemType;
 import java.math.BigDecimal;
 import java.util.Objects;
 
+import static com.example.grocery.util.MoneyMath.multiply;
 import static com.example.grocery.util.PriceMath.scale;
 
 /**
@@ -46,5 +47,15 @@ public class BuyXGetYFreeStrategy implements DiscountStrategy {
         return new DiscountResult(description, discount);
     }
 
+    @Override
+    public long discountPence(ItemType type, int quantity, long unitPricePence) {
+        int groupSize = x + y;
+        if (type != targetItem || quantity < groupSize) return 0L;
+        return multiply(unitPricePence, (quantity / groupSize) * y);
+    }
+
+    @Override
+    public String describe(ItemType type, int quantity, long unitPricePence) { return description; }
+
     @Override public String name() { return "BUY_X_GET_Y_FREE(" + targetItem + ":" + x + "," + y + ")";  }
 }
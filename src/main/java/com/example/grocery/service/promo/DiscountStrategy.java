@@ -2,6 +2,8 @@
 package com.example.grocery.service.promo;
 
 import com.example.grocery.domain.ItemType;
+import com.example.grocery.util.MoneyMath;
+
 import java.math.BigDecimal;
 
 public interface DiscountStrategy {
@@ -13,4 +15,17 @@ public interface DiscountStrategy {
 
     /** Lower priority runs earlier. Use to control stacking order if needed. */
     default int priority() { return 100; }
+
+    /**
+     * Same discount as {@link #apply}, in pence (0 if not applicable).
+     * The default bridges through apply(); built-in strategies override it to stay allocation-free.
+     */
+    default long discountPence(ItemType type, int quantity, long unitPricePence) {
+        return MoneyMath.toPence(apply(type, quantity, MoneyMath.toBigDecimal(unitPricePence)).getAmount());
+    }
+
+    /** Receipt text for a non-zero {@link #discountPence} result. */
+    default String describe(ItemType type, int quantity, long unitPricePence) {
+        return apply(type, quantity, MoneyMath.toBigDecimal(unitPricePence)).getDescription();
+    }
 }
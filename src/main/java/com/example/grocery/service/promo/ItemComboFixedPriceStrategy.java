@@ -1,13 +1,15 @@
 package com.example.grocery.service.promo;
 
 import com.example.grocery.domain.ItemType;
+import com.example.grocery.service.pricing.NormalizedBasket;
 import com.example.grocery.service.pricing.PriceProvider;
-import com.example.grocery.domain.BasketItem;
 
 import java.math.BigDecimal;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import static com.example.grocery.util.MoneyMath.multiply;
+import static com.example.grocery.util.MoneyMath.toPence;
 import static com.example.grocery.util.PriceMath.scale;
 
 /**
@@ -20,11 +22,15 @@ import static com.example.grocery.util.PriceMath.scale;
  *   max    -> optional cap on number of combo sets applied (e.g. "3"). If absent, unlimited.
  */
 @PromotionType("ITEM_COMBO_FIXED_PRICE")
-public class ItemComboFixedPriceStrategy implements BasketLevelStrategy {
+public class ItemComboFixedPriceStrategy implements AllocatableBasketStrategy {
 
     private final Map<ItemType, Integer> combo;
     private final BigDecimal comboPrice;
     private final Integer maxSets; // nullable
+    // primitive copies of combo/comboPrice for the pence path
+    private final ItemType[] comboItems;
+    private final int[] comboQuantities;
+    private final long comboPricePence;
 
     @PromotionCtor(keys = { "combo", "price", "max" })
     public ItemComboFixedPriceStrategy(String comboCsv, BigDecimal price, String maxOpt) {
@@ -34,6 +40,9 @@ public class ItemComboFixedPriceStrategy implements BasketLevelStrategy {
         if (combo.isEmpty()) throw new IllegalArgumentException("combo must define at least one item:qty");
         if (comboPrice.compareTo(BigDecimal.ZERO) <= 0) throw new IllegalArgumentException("price must be > 0");
         if (maxSets != null && maxSets <= 0) throw new IllegalArgumentException("max must be > 0");
+        this.comboItems = combo.keySet().toArray(ItemType[]::new);
+        this.comboQuantities = Arrays.stream(comboItems).mapToInt(combo::get).toArray();
+        this.comboPricePence = toPence(comboPrice);
     }
 
     @Override
@@ -50,23 +59,13 @@ public class ItemComboFixedPriceStrategy implements BasketLevelStrategy {
 
 
     @Override
-    public DiscountResult applyBasket(List<BasketItem> basket, PriceProvider priceProvider) {
-        if (basket == null || basket.isEmpty()) return new DiscountResult("", BigDecimal.ZERO);
-
-        // Compute how many full combo sets fit in the basket
-        Map<ItemType, Integer> counts = basket.stream()
-                .collect(Collectors.toMap(BasketItem::getType, BasketItem::getQuantity, Integer::sum));
-
-        int possibleSets = combo.entrySet().stream()
-                .mapToInt(e -> counts.getOrDefault(e.getKey(), 0) / e.getValue())
-                .min().orElse(0);
-
-        if (possibleSets <= 0) return new DiscountResult("", BigDecimal.ZERO);
-        int sets = (maxSets == null) ? possibleSets : Math.min(possibleSets, maxSets);
+    public DiscountResult applyBasket(NormalizedBasket basket) {
+        int sets = setsIn(basket);
+        if (sets <= 0) return new DiscountResult("", BigDecimal.ZERO);
 
         // Normal price of one combo
         BigDecimal normalOneSet = combo.entrySet().stream()
-                .map(e -> scale(priceProvider.priceOf(e.getKey()))
+                .map(e -> scale(basket.prices().priceOf(e.getKey()))
                         .multiply(BigDecimal.valueOf(e.getValue())))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
@@ -74,8 +73,55 @@ public class ItemComboFixedPriceStrategy implements BasketLevelStrategy {
         if (discountPerSet.compareTo(BigDecimal.ZERO) <= 0) return new DiscountResult("", BigDecimal.ZERO);
 
         BigDecimal totalDiscount = scale(discountPerSet.multiply(BigDecimal.valueOf(sets)));
-        String description = "Combo " + formatCombo(combo) + " for " + comboPrice + " (x" + sets + ")";
-        return new DiscountResult(description, totalDiscount);
+        return new DiscountResult(describeSets(sets), totalDiscount);
+    }
+
+    @Override
+    public long applyBasketPence(NormalizedBasket basket) {
+        int sets = setsIn(basket);
+        if (sets <= 0) return 0L;
+        long discountPerSet = discountPerSetPence(basket.prices());
+        return discountPerSet <= 0 ? 0L : multiply(discountPerSet, sets);
+    }
+
+    @Override
+    public String describeBasket(NormalizedBasket basket) {
+        return describeSets(setsIn(basket));
+    }
+
+    @Override
+    public int unitsPerSet(ItemType type) {
+        Integer units = combo.get(type);
+        return units == null ? 0 : units;
+    }
+
+    @Override
+    public int maxSets() {
+        return maxSets == null ? Integer.MAX_VALUE : maxSets;
+    }
+
+    @Override
+    public long discountPerSetPence(PriceProvider priceProvider) {
+        long normalOneSet = 0L;
+        for (int i = 0; i < comboItems.length; i++) {
+            normalOneSet += multiply(priceProvider.pricePenceOf(comboItems[i]), comboQuantities[i]);
+        }
+        return normalOneSet - comboPricePence;
+    }
+
+    @Override
+    public String describeSets(int sets) {
+        return "Combo " + formatCombo(combo) + " for " + comboPrice + " (x" + sets + ")";
+    }
+
+    /** Number of combo sets the basket holds, capped by max. */
+    private int setsIn(NormalizedBasket basket) {
+        int possibleSets = Integer.MAX_VALUE;
+        for (int i = 0; i < comboItems.length; i++) {
+            possibleSets = Math.min(possibleSets, basket.quantityOf(comboItems[i]) / comboQuantities[i]);
+        }
+        if (possibleSets <= 0) return 0;
+        return (maxSets == null) ? possibleSets : Math.min(possibleSets, maxSets);
     }
 
     @Override
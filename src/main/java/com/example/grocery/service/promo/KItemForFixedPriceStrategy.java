@@ -6,6 +6,8 @@ import com.example.grocery.domain.ItemType;
 import java.math.BigDecimal;
 import java.util.Objects;
 
+import static com.example.grocery.util.MoneyMath.multiply;
+import static com.example.grocery.util.MoneyMath.toPence;
 import static com.example.grocery.util.PriceMath.scale;
 
 /**
@@ -22,6 +24,7 @@ public class KItemForFixedPriceStrategy implements DiscountStrategy {
     private final ItemType targetItem;
     private final int k;
     private final BigDecimal groupPrice;
+    private final long groupPricePence;
     private final String description;
 
     @PromotionCtor(keys = { "k", "price" })
@@ -33,6 +36,7 @@ public class KItemForFixedPriceStrategy implements DiscountStrategy {
         this.targetItem = Objects.requireNonNull(targetItem);
         this.k = k;
         this.groupPrice = scale(groupPrice);
+        this.groupPricePence = toPence(this.groupPrice);
         this.description = k + " " + targetItem.name() + " for £" + this.groupPrice;
     }
 
@@ -64,6 +68,19 @@ public class KItemForFixedPriceStrategy implements DiscountStrategy {
         return new DiscountResult(description, discount);
     }
 
+    @Override
+    public long discountPence(ItemType type, int quantity, long unitPricePence) {
+        if (type != targetItem || quantity < k) return 0L;
+        int groups = quantity / k;
+        long discount = multiply(multiply(unitPricePence, k), groups) - multiply(groupPricePence, groups);
+        return Math.max(discount, 0L);
+    }
+
+    @Override
+    public String describe(ItemType type, int quantity, long unitPricePence) {
+        return description;
+    }
+
     @Override
     public String name() {
         return "K_ITEM_FOR_FIXED_PRICE(" + targetItem + ":" + k + "@" + groupPrice   + ")";
@@ -1,13 +1,13 @@
 package com.example.grocery.service.promo;
 
 import com.example.grocery.domain.ItemType;
-import com.example.grocery.service.pricing.PriceProvider;
-import com.example.grocery.domain.BasketItem;
+import com.example.grocery.service.pricing.NormalizedBasket;
 
 import java.math.BigDecimal;
-import java.util.List;
 import java.util.Set;
 
+import static com.example.grocery.util.MoneyMath.percentOf;
+import static com.example.grocery.util.MoneyMath.toPence;
 import static com.example.grocery.util.PriceMath.scale;
 
 /**
@@ -25,6 +25,11 @@ public class MaxSubtotalPercentOffStrategy implements BasketLevelStrategy {
     private final BigDecimal threshold;
     private final BigDecimal percent; // 0..100
     private final BigDecimal cap;      // nullable
+    // pence / basis-point copies for the pence path; capPence < 0 means "no cap"
+    private final long thresholdPence;
+    private final long percentBasisPoints;
+    private final long capPence;
+    private final String description;
 
     @PromotionCtor(keys = { "threshold", "percent", "cap" })
     public MaxSubtotalPercentOffStrategy(BigDecimal threshold, BigDecimal percent, String capOpt) {
@@ -37,6 +42,11 @@ public class MaxSubtotalPercentOffStrategy implements BasketLevelStrategy {
             throw new IllegalArgumentException("percent must be between 0 and 100");
         if (this.cap != null && this.cap.compareTo(BigDecimal.ZERO) <= 0)
             throw new IllegalArgumentException("cap must be > 0 when provided");
+        this.thresholdPence = toPence(this.threshold);
+        this.percentBasisPoints = toPence(this.percent);
+        this.capPence = this.cap == null ? -1L : toPence(this.cap);
+        this.description = this.percent + "% off on subtotal >= " + this.threshold
+                + (this.cap != null ? " (cap " + this.cap + ")" : "");
     }
 
     @Override
@@ -53,12 +63,12 @@ public class MaxSubtotalPercentOffStrategy implements BasketLevelStrategy {
 
 
     @Override
-    public DiscountResult applyBasket(List<BasketItem> basket, PriceProvider priceProvider) {
+    public DiscountResult applyBasket(NormalizedBasket basket) {
         if (basket == null || basket.isEmpty()) return new DiscountResult("", BigDecimal.ZERO);
 
-        BigDecimal subtotal = basket.stream()
-                .map(it -> scale(priceProvider.priceOf(it.getType()))
-                        .multiply(BigDecimal.valueOf(it.getQuantity())))
+        BigDecimal subtotal = basket.items().stream()
+                .map(type -> scale(basket.prices().priceOf(type))
+                        .multiply(BigDecimal.valueOf(basket.quantityOf(type))))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         if (subtotal.compareTo(threshold) < 0) return new DiscountResult("", BigDecimal.ZERO);
@@ -67,10 +77,25 @@ public class MaxSubtotalPercentOffStrategy implements BasketLevelStrategy {
         BigDecimal discount = (cap == null) ? raw : raw.min(cap);
         if (discount.compareTo(BigDecimal.ZERO) <= 0) return new DiscountResult("", BigDecimal.ZERO);
 
-        String description = percent + "% off on subtotal >= " + threshold + (cap != null ? " (cap " + cap + ")" : "");
         return new DiscountResult(description, discount);
     }
 
+    @Override
+    public long applyBasketPence(NormalizedBasket basket) {
+        if (basket == null || basket.isEmpty()) return 0L;
+        long subtotal = basket.subtotalPence();
+        if (subtotal < thresholdPence) return 0L;
+
+        long raw = percentOf(subtotal, percentBasisPoints);
+        long discount = capPence < 0 ? raw : Math.min(raw, capPence);
+        return Math.max(discount, 0L);
+    }
+
+    @Override
+    public String describeBasket(NormalizedBasket basket) {
+        return description;
+    }
+
     @Override
     public String name() {
         return "MAX_SUBTOTAL_PERCENT_OFF(threshold=" + threshold + ", percent=" + percent + (cap != null ? ", cap=" + cap : "") + ")";
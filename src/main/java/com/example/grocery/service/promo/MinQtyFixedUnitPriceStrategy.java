@@ -5,6 +5,8 @@ import com.example.grocery.domain.ItemType;
 import java.math.BigDecimal;
 import java.util.Objects;
 
+import static com.example.grocery.util.MoneyMath.multiply;
+import static com.example.grocery.util.MoneyMath.toPence;
 import static com.example.grocery.util.PriceMath.scale;
 
 /**
@@ -18,6 +20,7 @@ public class MinQtyFixedUnitPriceStrategy implements DiscountStrategy {
     private final ItemType targetItem;
     private final int minQty;
     private final BigDecimal discountedUnitPrice;
+    private final long discountedUnitPricePence;
     private final String description;
 
     // IMPORTANT: keys must match promotions.json params -> { "minQty": "...", "unitPrice": "..." }
@@ -30,6 +33,7 @@ public class MinQtyFixedUnitPriceStrategy implements DiscountStrategy {
         this.targetItem = Objects.requireNonNull(targetItem);
         this.minQty = minQty;
         this.discountedUnitPrice = scale(unitPrice);
+        this.discountedUnitPricePence = toPence(this.discountedUnitPrice);
         this.description = targetItem.name() + " unit £" + this.discountedUnitPrice + " (min " + minQty + ")";
     }
 
@@ -52,6 +56,16 @@ public class MinQtyFixedUnitPriceStrategy implements DiscountStrategy {
         return new DiscountResult(description, discount);
     }
 
+    @Override
+    public long discountPence(ItemType type, int quantity, long unitPricePence) {
+        if (type != targetItem || quantity < minQty) return 0L;
+        long delta = unitPricePence - discountedUnitPricePence;
+        return delta <= 0 ? 0L : multiply(delta, quantity);
+    }
+
+    @Override
+    public String describe(ItemType type, int quantity, long unitPricePence) { return description; }
+
     @Override
     public String name() {
         return targetItem.name().toLowerCase() + "-min-" + minQty + "-unit-" + discountedUnitPrice;
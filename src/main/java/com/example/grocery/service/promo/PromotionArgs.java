@@ -0,0 +1,53 @@
+package com.example.grocery.service.promo;
+
+import com.example.grocery.api.dto.PromotionRuleDTO;
+import com.example.grocery.domain.ItemType;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Reads {@link PromotionCtor} arguments from a rule, for the factories in the generated PromotionTypeIndex.
+ * Same conversions and messages as the reflective path in PromotionFactory.
+ */
+public final class PromotionArgs {
+    private PromotionArgs() {}
+
+    public static ItemType itemType(PromotionRuleDTO rule) {
+        if (rule.getItemType() == null) {
+            throw new IllegalArgumentException("Missing 'itemType' for ruleType: " + rule.getRuleType());
+        }
+        return rule.getItemType();
+    }
+
+    public static String param(PromotionRuleDTO rule, String key) {
+        Map<String, String> params = rule.getParams();
+        String value = params == null ? null : params.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing param '" + key + "' for ruleType: " + rule.getRuleType());
+        }
+        return value;
+    }
+
+    public static int intParam(PromotionRuleDTO rule, String key) {
+        return Integer.parseInt(param(rule, key));
+    }
+
+    public static long longParam(PromotionRuleDTO rule, String key) {
+        return Long.parseLong(param(rule, key));
+    }
+
+    public static BigDecimal decimalParam(PromotionRuleDTO rule, String key) {
+        return new BigDecimal(param(rule, key));
+    }
+
+    /** Runs the constructor, prefixing its validation errors with the rule type. */
+    public static Object construct(PromotionRuleDTO rule, Supplier<Object> constructor) {
+        try {
+            return constructor.get();
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException(rule.getRuleType() + ": " + ex.getMessage(), ex);
+        }
+    }
+}
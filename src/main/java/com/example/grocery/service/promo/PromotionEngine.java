@@ -0,0 +1,146 @@
+package com.example.grocery.service.promo;
+
+import com.example.grocery.api.dto.PromotionRuleDTO;
+import com.example.grocery.config.CheckoutProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Owns the active, versioned {@link PromotionPlan}.
+ *
+ * Starts from the promotion beans registered at startup (version 1). {@link #reload()} re-reads
+ * checkout.promotions.location, builds and validates every rule, and only then swaps in a new
+ * plan with the next version; a file with any bad rule keeps the current plan and is reported by
+ * {@link #lastFailure()}. Checkouts read the plan once, so in-flight ones finish on the old set.
+ */
+@Component
+public class PromotionEngine {
+
+    public static final String PROMOTION_PACKAGE = "com.example.grocery.service.promo";
+    public static final String DEFAULT_LOCATION = "classpath:promotions.json";
+
+    private static final Logger log = LoggerFactory.getLogger(PromotionEngine.class);
+
+    /** A reload that did not replace the plan. */
+    public record ReloadFailure(Instant at, String message) {}
+
+    private final AtomicReference<PromotionPlan> current;
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    // Serialises installs
+    private final ReentrantLock installLock = new ReentrantLock();
+    private volatile ReloadFailure lastFailure;
+
+    @Autowired
+    public PromotionEngine(StrategyRegistry registry, List<BasketLevelStrategy> basketStrategies,
+                           CheckoutProperties props, ResourceLoader resourceLoader) {
+        this.current = new AtomicReference<>(PromotionPlan.compile(1L, registry, basketStrategies));
+        this.resourceLoader = resourceLoader;
+        this.location = props.getPromotions().getLocation();
+    }
+
+    public PromotionEngine(StrategyRegistry registry, List<BasketLevelStrategy> basketStrategies, String location) {
+        this.current = new AtomicReference<>(PromotionPlan.compile(1L, registry, basketStrategies));
+        this.resourceLoader = new DefaultResourceLoader();
+        this.location = location;
+    }
+
+    public PromotionEngine(StrategyRegistry registry, List<BasketLevelStrategy> basketStrategies) {
+        this(registry, basketStrategies, DEFAULT_LOCATION);
+    }
+
+    /** The plan in force right now; it never changes, however many reloads follow. */
+    public PromotionPlan current() {
+        return current.get();
+    }
+
+    public String location() {
+        return location;
+    }
+
+    /** The most recent failed reload, cleared by the next successful one. */
+    public Optional<ReloadFailure> lastFailure() {
+        return Optional.ofNullable(lastFailure);
+    }
+
+    /** Compiles the given strategies as the next version and swaps it in. */
+    public PromotionPlan install(StrategyRegistry registry, List<BasketLevelStrategy> basketStrategies) {
+        installLock.lock();
+        try {
+            PromotionPlan next = PromotionPlan.compile(current.get().version() + 1, registry, basketStrategies);
+            current.set(next);
+            return next;
+        } finally {
+            installLock.unlock();
+        }
+    }
+
+    /**
+     * Re-reads the promotion file and installs it as the next version.
+     *
+     * @return false if the file could not be read or any rule is invalid; the current plan is kept
+     */
+    public boolean reload() {
+        installLock.lock();
+        try {
+            List<PromotionRuleDTO> rules = readRules();
+            PromotionPlan next = compile(current.get().version() + 1, rules);
+            current.set(next);
+            lastFailure = null;
+            log.info("Loaded promotions version {} from {}: {} rules", next.version(), location, rules.size());
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            lastFailure = new ReloadFailure(Instant.now(), ex.toString());
+            log.warn("Keeping promotions version {}; failed to load {}: {}", current.get().version(), location, ex.toString());
+            return false;
+        } finally {
+            installLock.unlock();
+        }
+    }
+
+    /**
+     * Builds every rule with its {@link PromotionType} strategy, as a reload does, into a plan stamped
+     * {@code version}. Nothing is installed.
+     *
+     * @throws IllegalArgumentException for a rule with missing or invalid params
+     * @throws IllegalStateException    for an unknown ruleType
+     */
+    public static PromotionPlan compile(long version, List<PromotionRuleDTO> rules) {
+        PromotionFactory factory = PromotionFactory.indexed();
+
+        // Build everything first: one bad rule rejects the whole file
+        List<DiscountStrategy> itemStrategies = new ArrayList<>(rules.size());
+        List<BasketLevelStrategy> basketStrategies = new ArrayList<>();
+        for (PromotionRuleDTO rule : rules) {
+            Object promotion = factory.create(rule);
+            if (!(promotion instanceof DiscountStrategy strategy)) {
+                throw new IllegalStateException(promotion.getClass().getName() + " is not a DiscountStrategy");
+            }
+            itemStrategies.add(strategy);
+            if (strategy instanceof BasketLevelStrategy basket) basketStrategies.add(basket);
+        }
+        return PromotionPlan.compile(version, new StrategyRegistry(itemStrategies), basketStrategies);
+    }
+
+    private List<PromotionRuleDTO> readRules() throws IOException {
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) throw new IOException("'" + location + "' not found");
+        try (InputStream in = resource.getInputStream()) {
+            return PromotionFactory.readRules(in);
+        }
+    }
+}
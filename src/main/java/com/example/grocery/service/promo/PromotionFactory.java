@@ -0,0 +1,178 @@
+package com.example.grocery.service.promo;
+
+import com.example.grocery.api.dto.PromotionFileDTO;
+import com.example.grocery.api.dto.PromotionRuleDTO;
+import com.example.grocery.domain.ItemType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Turns promotions.json rules into strategy instances: finds the {@link PromotionType} class
+ * for each ruleType and calls its {@link PromotionCtor} constructor with the rule's params.
+ *
+ * Used at startup by DynamicPromotionBeanRegistrar and at runtime by PromotionEngine.reload(), both through
+ * {@link #indexed()}: the PromotionTypeIndex generated at compile time by PromotionIndexProcessor, which calls
+ * each constructor directly. {@link #scan(String)} finds the same classes by classpath scanning and reflection.
+ */
+public final class PromotionFactory {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** A strategy class and how to build it from a rule. */
+    public record Entry(Class<?> type, Function<PromotionRuleDTO, Object> factory) {}
+
+    private static final PromotionFactory INDEXED = new PromotionFactory(PromotionTypeIndex.types());
+
+    private final Map<String, Entry> ruleKeyToEntry;
+
+    private PromotionFactory(Map<String, Entry> ruleKeyToEntry) {
+        this.ruleKeyToEntry = ruleKeyToEntry;
+    }
+
+    /** The promotion types indexed at build time; no scanning or reflection. */
+    public static PromotionFactory indexed() {
+        return INDEXED;
+    }
+
+    /** Discovers concrete strategy classes annotated with @PromotionType under {@code basePackage}. */
+    public static PromotionFactory scan(String basePackage) {
+        ClassPathScanningCandidateComponentProvider scanner =
+                new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(PromotionType.class));
+        Map<String, Entry> map = new HashMap<>();
+        for (BeanDefinition bd : scanner.findCandidateComponents(basePackage)) {
+            Class<?> clazz;
+            try {
+                clazz = Class.forName(bd.getBeanClassName());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Cannot load promotion class " + bd.getBeanClassName(), e);
+            }
+            if (clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) continue;
+            PromotionType ann = clazz.getAnnotation(PromotionType.class);
+            Class<?> type = clazz;
+            map.put(normalize(ann.value()), new Entry(type, rule -> construct(type, rule)));
+        }
+        return new PromotionFactory(map);
+    }
+
+    public static List<PromotionRuleDTO> readRules(InputStream in) throws IOException {
+        PromotionFileDTO file = MAPPER.readValue(in, PromotionFileDTO.class);
+        return Optional.ofNullable(file.getPromotions()).orElseGet(Collections::emptyList);
+    }
+
+    /** The strategy class for a rule. */
+    public Class<?> classFor(PromotionRuleDTO rule) {
+        return entryFor(rule).type();
+    }
+
+    /** Rule types this factory can build, upper case. */
+    public Set<String> ruleTypes() {
+        return Collections.unmodifiableSet(ruleKeyToEntry.keySet());
+    }
+
+    private Entry entryFor(PromotionRuleDTO rule) {
+        Entry entry = ruleKeyToEntry.get(normalize(rule.getRuleType()));
+        if (entry == null) {
+            throw new IllegalStateException("No @PromotionType strategy found for ruleType: " + rule.getRuleType());
+        }
+        return entry;
+    }
+
+    /**
+     * Builds the strategy for one rule, running its constructor's validation.
+     *
+     * @throws IllegalArgumentException for missing or invalid params
+     * @throws IllegalStateException    for an unknown ruleType or a malformed strategy class
+     */
+    public Object create(PromotionRuleDTO rule) {
+        return entryFor(rule).factory().apply(rule);
+    }
+
+    private static Object construct(Class<?> clazz, PromotionRuleDTO rule) {
+        Constructor<?> ctor = findPromotionConstructor(clazz);
+        Object[] args = buildConstructorArgs(ctor, rule);
+        try {
+            return ctor.newInstance(args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IllegalArgumentException iae) {
+                throw new IllegalArgumentException(rule.getRuleType() + ": " + iae.getMessage(), iae);
+            }
+            throw new IllegalStateException("Failed to instantiate " + clazz.getSimpleName(), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to instantiate " + clazz.getSimpleName(), e);
+        }
+    }
+
+    private static Constructor<?> findPromotionConstructor(Class<?> clazz) {
+        for (Constructor<?> c : clazz.getConstructors()) {
+            if (c.isAnnotationPresent(PromotionCtor.class)) {
+                return c;
+            }
+        }
+        throw new IllegalStateException("No @PromotionCtor constructor found in " + clazz.getName());
+    }
+
+    private static Object[] buildConstructorArgs(Constructor<?> ctor, PromotionRuleDTO rule) {
+        PromotionCtor meta = ctor.getAnnotation(PromotionCtor.class);
+        String[] keys = meta.keys();
+
+        Class<?>[] types = ctor.getParameterTypes();
+        List<Object> args = new ArrayList<>(types.length);
+        int idx = 0;
+
+        // First parameter may be ItemType (item-scoped strategy)
+        if (types.length > 0 && types[0] == ItemType.class) {
+            if (rule.getItemType() == null) {
+                throw new IllegalArgumentException("Missing 'itemType' for ruleType: " + rule.getRuleType());
+            }
+            args.add(rule.getItemType());
+            idx = 1;
+        }
+
+        // Remaining parameters from params using keys (declared order)
+        Map<String, String> p = rule.getParams();
+        for (String k : keys) {
+            Class<?> t = types[idx++];
+            String raw = require(p, k, rule.getRuleType());
+            Object value =
+                    t == int.class || t == Integer.class ? Integer.parseInt(raw) :
+                            t == long.class || t == Long.class ? Long.parseLong(raw) :
+                                    t == BigDecimal.class ? new BigDecimal(raw) :
+                                            t == String.class ? raw :
+                                                    unsupported(t, k);
+            args.add(value);
+        }
+
+        if (idx != types.length) {
+            throw new IllegalStateException("Constructor arity mismatch for " + ctor.getDeclaringClass().getName());
+        }
+        return args.toArray();
+    }
+
+    private static String require(Map<String, String> p, String key, String rule) {
+        String v = (p == null) ? null : p.get(key);
+        if (v == null) {
+            throw new IllegalArgumentException("Missing param '" + key + "' for ruleType: " + rule);
+        }
+        return v;
+    }
+
+    private static Object unsupported(Class<?> t, String k) {
+        throw new IllegalArgumentException("Unsupported constructor param type: " + t.getName() + " for key '" + k + "'");
+    }
+
+    private static String normalize(String s) {
+        return (s == null ? "" : s.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.grocery.service.promo;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-promotion evaluation statistics, tagged by promotion=name() and type=@PromotionType:
+ * - checkout.promotion.evaluation  (timer: evaluations and time spent in the strategy)
+ * - checkout.promotion.hits        (evaluations that produced a non-zero discount)
+ * - checkout.promotion.discount    (discount actually given on receipts, GBP)
+ *
+ * Counts live in LongAdders that Micrometer reads on scrape, so recording never contends
+ * on a shared counter. Reloaded strategies with the same name and type continue the same series.
+ */
+@Component
+public class PromotionMetrics {
+
+    /** Accumulators for one promotion; updated on the checkout path. */
+    public static final class Stats {
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder discountPence = new LongAdder();
+
+        /** One evaluation that took {@code durationNs} and computed {@code amountPence}. */
+        public void evaluated(long durationNs, long amountPence) {
+            evaluations.increment();
+            nanos.add(durationNs);
+            if (amountPence > 0) hits.increment();
+        }
+
+        /** A discount that made it onto a receipt. */
+        public void given(long amountPence) {
+            discountPence.add(amountPence);
+        }
+
+        long evaluations() { return evaluations.sum(); }
+        long hits() { return hits.sum(); }
+        long discountPence() { return discountPence.sum(); }
+    }
+
+    private record Key(String type, String name) {}
+
+    // Bounds the per-instance cache when promotions are reloaded many times
+    private static final int MAX_STALE_INSTANCES = 1024;
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<Key, Stats> byKey = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<DiscountStrategy, Stats> byInstance = new ConcurrentHashMap<>();
+
+    public PromotionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /** The accumulators for a strategy instance; a map lookup on the hot path. */
+    public Stats statsFor(DiscountStrategy strategy) {
+        Stats stats = byInstance.get(strategy);
+        if (stats != null) return stats;
+        if (byInstance.size() > byKey.size() + MAX_STALE_INSTANCES) byInstance.clear();
+        stats = byKey.computeIfAbsent(new Key(typeOf(strategy), strategy.name()), this::register);
+        byInstance.putIfAbsent(strategy, stats);
+        return stats;
+    }
+
+    private Stats register(Key key) {
+        Stats stats = new Stats();
+        Tags tags = Tags.of("promotion", key.name(), "type", key.type());
+        FunctionTimer.builder("checkout.promotion.evaluation", stats,
+                        Stats::evaluations, s -> s.nanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time spent evaluating a promotion during checkout")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("checkout.promotion.hits", stats, s -> s.hits())
+                .description("Evaluations that produced a non-zero discount")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("checkout.promotion.discount", stats, s -> s.discountPence() / 100.0)
+                .description("Discount given on receipts")
+                .baseUnit("GBP")
+                .tags(tags)
+                .register(registry);
+        return stats;
+    }
+
+    private static String typeOf(DiscountStrategy strategy) {
+        PromotionType type = strategy.getClass().getAnnotation(PromotionType.class);
+        return type != null ? type.value() : strategy.getClass().getSimpleName();
+    }
+}
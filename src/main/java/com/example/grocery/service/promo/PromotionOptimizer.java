@@ -0,0 +1,236 @@
+package com.example.grocery.service.promo;
+
+import com.example.grocery.config.CheckoutProperties;
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.service.pricing.NormalizedBasket;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits a basket's units between combo sets ({@link AllocatableBasketStrategy}) and the item-level
+ * deals on whatever is left, to give the largest total discount.
+ *
+ * Searches the number of sets per combo depth-first, largest discount per set first, memoising each
+ * (combo, remaining units) state and skipping set counts whose upper bound cannot beat the best found.
+ * The bound assumes an item deal never shrinks when there are more units, which holds for every
+ * built-in strategy. A search that outlives the time budget (or its state limit) is abandoned and
+ * checkout keeps the greedy receipt, so a basket never prices worse than in greedy mode.
+ *
+ * Enabled with checkout.promotions.allocation=optimal; the budget is checkout.promotions.optimizer-budget.
+ */
+@Component
+public class PromotionOptimizer {
+
+    private static final ItemType[] ITEM_TYPES = ItemType.values();
+    private static final int CLOCK_CHECK_INTERVAL = 256;
+    private static final int MAX_STATES = 100_000;
+    private static final int MAX_CACHED_QUANTITY = 1 << 16;
+
+    /** Unwinds an abandoned search; preallocated and stackless since it is control flow. */
+    private static final RuntimeException OUT_OF_BUDGET = new RuntimeException("optimizer budget exceeded", null, false, false) {};
+
+    private final boolean enabled;
+    private final long budgetNanos;
+
+    @Autowired
+    public PromotionOptimizer(CheckoutProperties props) {
+        this.enabled = props.getPromotions().getAllocation() == CheckoutProperties.Allocation.OPTIMAL;
+        this.budgetNanos = props.getPromotions().getOptimizerBudget().toNanos();
+    }
+
+    /** An enabled optimizer with the given per-checkout budget. */
+    public PromotionOptimizer(Duration budget) {
+        this.enabled = true;
+        this.budgetNanos = budget.toNanos();
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * The best allocation for a basket, as receipt discounts in order (combos, then item deals).
+     *
+     * @return null if no combo applies or the budget ran out; the caller keeps its greedy result
+     */
+    public List<AppliedDiscount> optimize(PromotionPlan plan, NormalizedBasket basket) {
+        List<AllocatableBasketStrategy> combos = new ArrayList<>();
+        List<Long> perSet = new ArrayList<>();
+        for (BasketLevelStrategy candidate : plan.candidatesFor(basket.items())) {
+            if (!(candidate instanceof AllocatableBasketStrategy combo)) continue;
+            long discount = combo.discountPerSetPence(basket.prices());
+            if (discount > 0) {
+                combos.add(combo);
+                perSet.add(discount);
+            }
+        }
+        if (combos.isEmpty()) return null;
+
+        Search search = new Search(plan, basket, combos, perSet, System.nanoTime() + budgetNanos);
+        try {
+            return search.run();
+        } catch (RuntimeException ex) {
+            if (ex == OUT_OF_BUDGET) return null;
+            throw ex;
+        }
+    }
+
+    /** State for one optimisation; not shared between threads. */
+    private static final class Search {
+
+        /** Memo key: the next combo to decide and the units still unallocated. */
+        private record State(int combo, int[] remaining) {
+            @Override
+            public boolean equals(Object o) {
+                return o instanceof State s && s.combo == combo && Arrays.equals(s.remaining, remaining);
+            }
+
+            @Override
+            public int hashCode() {
+                return 31 * combo + Arrays.hashCode(remaining);
+            }
+        }
+
+        private final PromotionPlan plan;
+        private final NormalizedBasket basket;
+        private final int[] quantities;
+        private final AllocatableBasketStrategy[] combos;
+        private final long[] perSet;
+        private final int[][] units;          // units[c][ordinal] per set of combo c
+        private final long[][] itemValues;    // itemValues[ordinal][r], -1 until computed
+        private final Map<State, long[]> memo = new HashMap<>(); // {best value, sets of this combo}
+        private final long deadline;
+        private int visits;
+
+        Search(PromotionPlan plan, NormalizedBasket basket, List<AllocatableBasketStrategy> combos,
+               List<Long> perSet, long deadline) {
+            this.plan = plan;
+            this.basket = basket;
+            this.quantities = basket.quantities();
+            this.deadline = deadline;
+
+            // Largest discount per set first: good allocations are found early and prune the rest
+            Integer[] order = new Integer[combos.size()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Long.compare(perSet.get(b), perSet.get(a)));
+            this.combos = new AllocatableBasketStrategy[order.length];
+            this.perSet = new long[order.length];
+            this.units = new int[order.length][ITEM_TYPES.length];
+            for (int c = 0; c < order.length; c++) {
+                this.combos[c] = combos.get(order[c]);
+                this.perSet[c] = perSet.get(order[c]);
+                for (ItemType type : ITEM_TYPES) {
+                    units[c][type.ordinal()] = this.combos[c].unitsPerSet(type);
+                }
+            }
+            this.itemValues = new long[ITEM_TYPES.length][];
+        }
+
+        List<AppliedDiscount> run() {
+            int[] remaining = quantities.clone();
+            solve(0, remaining);
+
+            // Walk the memo along the chosen set counts
+            List<AppliedDiscount> applied = new ArrayList<>();
+            for (int c = 0; c < combos.length; c++) {
+                int sets = (int) memo.get(new State(c, remaining))[1];
+                if (sets == 0) continue;
+                for (int i = 0; i < remaining.length; i++) remaining[i] -= sets * units[c][i];
+                applied.add(new AppliedDiscount(combos[c], combos[c].describeSets(sets), sets * perSet[c]));
+            }
+            for (ItemType type : basket.items()) {
+                int qty = remaining[type.ordinal()];
+                if (qty <= 0) continue;
+                long unit = basket.unitPriceOf(type);
+                for (DiscountStrategy strategy : plan.registry().strategiesFor(type)) {
+                    long amount = strategy.discountPence(type, qty, unit);
+                    if (amount > 0) applied.add(new AppliedDiscount(strategy, strategy.describe(type, qty, unit), amount));
+                }
+            }
+            return applied;
+        }
+
+        /** Best discount from combos {@code c..} plus item deals on what they leave of {@code remaining}. */
+        private long solve(int c, int[] remaining) {
+            if (c == combos.length) return itemDiscounts(remaining);
+
+            State key = new State(c, remaining.clone());
+            long[] known = memo.get(key);
+            if (known != null) return known[0];
+            if (visits++ % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) throw OUT_OF_BUDGET;
+
+            int[] unit = units[c];
+            int max = Math.min(setsFit(unit, remaining), combos[c].maxSets());
+            int[] rest = new int[remaining.length];
+            long best = -1L;
+            int bestSets = 0;
+            for (int sets = max; sets >= 0; sets--) {
+                for (int i = 0; i < rest.length; i++) rest[i] = remaining[i] - sets * unit[i];
+                long taken = sets * perSet[c];
+                if (taken + upperBound(c + 1, rest) <= best) continue;
+                long value = taken + solve(c + 1, rest);
+                if (value > best) {
+                    best = value;
+                    bestSets = sets;
+                }
+            }
+
+            memo.put(key, new long[] { best, bestSets });
+            if (memo.size() > MAX_STATES) throw OUT_OF_BUDGET;
+            return best;
+        }
+
+        /** Every remaining combo at its most sets, plus item deals on all remaining units. */
+        private long upperBound(int c, int[] remaining) {
+            long bound = itemDiscounts(remaining);
+            for (int k = c; k < combos.length; k++) {
+                bound += Math.min(setsFit(units[k], remaining), combos[k].maxSets()) * perSet[k];
+            }
+            return bound;
+        }
+
+        private static int setsFit(int[] unit, int[] remaining) {
+            int fit = Integer.MAX_VALUE;
+            for (int i = 0; i < unit.length; i++) {
+                if (unit[i] > 0) fit = Math.min(fit, remaining[i] / unit[i]);
+            }
+            return fit;
+        }
+
+        private long itemDiscounts(int[] remaining) {
+            long total = 0L;
+            for (ItemType type : basket.items()) {
+                total += itemDiscount(type, remaining[type.ordinal()]);
+            }
+            return total;
+        }
+
+        /** Sum of the item's deals on {@code qty} units; cached per quantity unless the line is huge. */
+        private long itemDiscount(ItemType type, int qty) {
+            if (qty <= 0) return 0L;
+            int ordinal = type.ordinal();
+            long[] cache = itemValues[ordinal];
+            if (cache == null && quantities[ordinal] <= MAX_CACHED_QUANTITY) {
+                cache = new long[quantities[ordinal] + 1];
+                Arrays.fill(cache, -1L);
+                itemValues[ordinal] = cache;
+            }
+            if (cache != null && cache[qty] >= 0) return cache[qty];
+
+            long unit = basket.unitPriceOf(type);
+            long total = 0L;
+            for (DiscountStrategy strategy : plan.registry().strategiesFor(type)) {
+                total += Math.max(0L, strategy.discountPence(type, qty, unit));
+            }
+            if (cache != null) cache[qty] = total;
+            return total;
+        }
+    }
+}
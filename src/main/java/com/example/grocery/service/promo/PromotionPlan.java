@@ -0,0 +1,131 @@
+
+package com.example.grocery.service.promo;
+
+import com.example.grocery.domain.ItemType;
+
+import java.util.*;
+
+/**
+ * Immutable, precompiled view of the active promotions used by checkout.
+ *
+ * Exclusive basket strategies are indexed by their affectedItems(), so a basket only
+ * evaluates the ones that touch its items; strategies with no affected items
+ * (basket-wide, e.g. MaxSubtotalPercentOffStrategy) are always candidates.
+ * Non-exclusive basket strategies are kept out of the index because the
+ * single-bucket exclusive policy never applies them.
+ *
+ * Build a new plan whenever the strategy set changes; never mutate one in place.
+ */
+public final class PromotionPlan {
+
+    /** An indexed exclusive strategy: its registration order and affected items sorted by ordinal. */
+    private record Indexed(int order, ItemType[] affected) {
+
+        /**
+         * A strategy is filed under every affected item; it is only reported from
+         * the bucket of its lowest-ordinal item that is present, so each one is seen once.
+         */
+        boolean anchoredAt(ItemType bucket, Set<ItemType> present) {
+            for (ItemType item : affected) {
+                if (item == bucket) return true;
+                if (present.contains(item)) return false;
+            }
+            return true;
+        }
+    }
+
+    private static final Indexed[] NONE = new Indexed[0];
+
+    private final long version;
+    private final StrategyRegistry registry;
+    private final List<BasketLevelStrategy> exclusive;
+    private final int[] basketWide;
+    private final Indexed[][] byItem;
+
+    private PromotionPlan(long version, StrategyRegistry registry, List<BasketLevelStrategy> exclusive,
+                          int[] basketWide, Indexed[][] byItem) {
+        this.version = version;
+        this.registry = registry;
+        this.exclusive = exclusive;
+        this.basketWide = basketWide;
+        this.byItem = byItem;
+    }
+
+    /**
+     * Compiles a plan from the item registry and the registered basket strategies.
+     * Registration order is preserved so ties between equal discounts resolve as before.
+     */
+    public static PromotionPlan compile(StrategyRegistry registry, List<BasketLevelStrategy> basketStrategies) {
+        return compile(1L, registry, basketStrategies);
+    }
+
+    /** As {@link #compile(StrategyRegistry, List)}, stamping the plan with {@code version}. */
+    public static PromotionPlan compile(long version, StrategyRegistry registry, List<BasketLevelStrategy> basketStrategies) {
+        List<BasketLevelStrategy> exclusive = basketStrategies.stream()
+                .filter(BasketLevelStrategy::exclusive)
+                .toList();
+
+        List<Integer> basketWide = new ArrayList<>();
+        Map<ItemType, List<Indexed>> buckets = new EnumMap<>(ItemType.class);
+        for (int order = 0; order < exclusive.size(); order++) {
+            Set<ItemType> affected = exclusive.get(order).affectedItems();
+            if (affected.isEmpty()) {
+                basketWide.add(order);
+                continue;
+            }
+            ItemType[] sorted = EnumSet.copyOf(affected).toArray(ItemType[]::new);
+            Indexed indexed = new Indexed(order, sorted);
+            for (ItemType item : sorted) {
+                buckets.computeIfAbsent(item, k -> new ArrayList<>()).add(indexed);
+            }
+        }
+
+        Indexed[][] byItem = new Indexed[ItemType.values().length][];
+        for (ItemType item : ItemType.values()) {
+            byItem[item.ordinal()] = buckets.getOrDefault(item, List.of()).toArray(NONE);
+        }
+        return new PromotionPlan(version,
+                registry,
+                exclusive,
+                basketWide.stream().mapToInt(Integer::intValue).toArray(),
+                byItem);
+    }
+
+    /** Recorded on every receipt priced with this plan. */
+    public long version() {
+        return version;
+    }
+
+    /** Item-level strategies, per item and ordered by priority. */
+    public StrategyRegistry registry() {
+        return registry;
+    }
+
+    /** All exclusive basket strategies in registration order. */
+    public List<BasketLevelStrategy> basketStrategies() {
+        return exclusive;
+    }
+
+    /**
+     * Exclusive basket strategies that could apply to a basket holding {@code basketItems},
+     * in registration order.
+     */
+    public List<BasketLevelStrategy> candidatesFor(Set<ItemType> basketItems) {
+        int[] picked = Arrays.copyOf(basketWide, basketWide.length + 8);
+        int count = basketWide.length;
+        for (ItemType item : basketItems) {
+            for (Indexed candidate : byItem[item.ordinal()]) {
+                if (!candidate.anchoredAt(item, basketItems)) continue;
+                if (count == picked.length) picked = Arrays.copyOf(picked, count * 2);
+                picked[count++] = candidate.order();
+            }
+        }
+        Arrays.sort(picked, 0, count);
+
+        List<BasketLevelStrategy> candidates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            candidates.add(exclusive.get(picked[i]));
+        }
+        return candidates;
+    }
+}
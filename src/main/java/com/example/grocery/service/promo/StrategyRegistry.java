@@ -8,23 +8,26 @@ import java.util.*;
 
 /**
  * Builds a per-item, ordered list of strategies using supports() and priority().
+ * Lists are held in an array indexed by ordinal (the item's SKU id, see SkuCatalog).
  */
 @Component
 public class StrategyRegistry {
 
-    private final Map<ItemType, List<DiscountStrategy>> byItem = new EnumMap<>(ItemType.class);
+    private final List<DiscountStrategy>[] byItem;
 
+    @SuppressWarnings("unchecked")
     public StrategyRegistry(List<DiscountStrategy> strategies) {
-        for (ItemType item : ItemType.values()) {
-            List<DiscountStrategy> list = strategies.stream()
+        ItemType[] items = ItemType.values();
+        byItem = new List[items.length];
+        for (ItemType item : items) {
+            byItem[item.ordinal()] = strategies.stream()
                     .filter(s -> s.supports(item))
                     .sorted(Comparator.comparingInt(DiscountStrategy::priority))
                     .toList();
-            byItem.put(item, list);
         }
     }
 
     public List<DiscountStrategy> strategiesFor(ItemType type) {
-        return byItem.getOrDefault(type, List.of());
+        return byItem[type.ordinal()];
     }
 }
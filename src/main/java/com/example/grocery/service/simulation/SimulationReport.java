@@ -0,0 +1,129 @@
+package com.example.grocery.service.simulation;
+
+import com.example.grocery.service.promo.DiscountStrategy;
+import com.example.grocery.service.promo.PromotionType;
+import com.example.grocery.util.MoneyMath;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a {@link WhatIfSimulator} run. Amounts are pence; discounts are positive (what the shop gives away).
+ * Prices are the same under both plans, so the change in revenue is minus the change in discount.
+ *
+ * @param promotions one row per promotion name, live promotions first in plan order, then those only the
+ *                   candidate has; a promotion in both files with the same parameters has one row
+ * @param firstError the first skipped basket and why, or null
+ */
+public record SimulationReport(long liveVersion, long candidateVersion, long baskets, long skipped, String firstError,
+                               long subtotalPence, long liveDiscountPence, long candidateDiscountPence,
+                               long changedBaskets, List<Row> promotions, Duration elapsed) {
+
+    /** One promotion: how often each plan applied it and what it gave. Zero on the side that lacks it. */
+    public record Row(String promotion, String type, long liveApplied, long liveGivenPence,
+                      long candidateApplied, long candidateGivenPence) {
+
+        public long deltaPence() {
+            return candidateGivenPence - liveGivenPence;
+        }
+    }
+
+    public long liveRevenuePence() {
+        return subtotalPence - liveDiscountPence;
+    }
+
+    public long candidateRevenuePence() {
+        return subtotalPence - candidateDiscountPence;
+    }
+
+    public long discountDeltaPence() {
+        return candidateDiscountPence - liveDiscountPence;
+    }
+
+    static SimulationReport of(long liveVersion, long candidateVersion, long read, long skipped, String firstError,
+                               long subtotal, long changed,
+                               WhatIfSimulator.Slots liveSlots, WhatIfSimulator.Side live,
+                               WhatIfSimulator.Slots candidateSlots, WhatIfSimulator.Side candidate,
+                               long elapsedNanos) {
+        Map<String, Sums> byName = new LinkedHashMap<>();
+        for (int i = 0; i < liveSlots.size(); i++) {
+            Sums sums = sumsFor(byName, liveSlots.promotions.get(i));
+            sums.liveApplied += live.applied[i];
+            sums.liveGiven += live.given[i];
+        }
+        for (int i = 0; i < candidateSlots.size(); i++) {
+            Sums sums = sumsFor(byName, candidateSlots.promotions.get(i));
+            sums.candidateApplied += candidate.applied[i];
+            sums.candidateGiven += candidate.given[i];
+        }
+        List<Row> rows = new ArrayList<>(byName.size());
+        byName.forEach((name, sums) -> rows.add(new Row(name, sums.type,
+                sums.liveApplied, sums.liveGiven, sums.candidateApplied, sums.candidateGiven)));
+
+        return new SimulationReport(liveVersion, candidateVersion, read - skipped, skipped, firstError,
+                subtotal, live.discount, candidate.discount, changed, List.copyOf(rows), Duration.ofNanos(elapsedNanos));
+    }
+
+    /** A row being summed; promotions of a plan that share a name share a row. */
+    private static final class Sums {
+        final String type;
+        long liveApplied;
+        long liveGiven;
+        long candidateApplied;
+        long candidateGiven;
+
+        Sums(String type) {
+            this.type = type;
+        }
+    }
+
+    private static Sums sumsFor(Map<String, Sums> byName, DiscountStrategy promotion) {
+        return byName.computeIfAbsent(promotion.name(), name -> new Sums(typeOf(promotion)));
+    }
+
+    private static String typeOf(DiscountStrategy strategy) {
+        PromotionType type = strategy.getClass().getAnnotation(PromotionType.class);
+        return type != null ? type.value() : strategy.getClass().getSimpleName();
+    }
+
+    /** Writes the report as text tables. */
+    public void print(PrintStream out) {
+        double seconds = Math.max(elapsed.toNanos(), 1) / 1e9;
+        out.printf("What-if replay: %,d baskets priced in %.1f s (%,.0f/s), promotions v%d (live) vs v%d (candidate)%n",
+                baskets, seconds, (baskets + skipped) / seconds, liveVersion, candidateVersion);
+        if (skipped > 0) out.printf("Skipped %,d unreadable or unpriceable baskets; first: %s%n", skipped, firstError);
+        out.printf("Baskets priced differently: %,d (%.2f%%)%n%n", changedBaskets,
+                baskets == 0 ? 0.0 : 100.0 * changedBaskets / baskets);
+
+        out.printf("%-28s %18s %18s %18s%n", "", "live", "candidate", "delta");
+        out.printf("%-28s %18s%n", "Subtotal", money(subtotalPence));
+        out.printf("%-28s %18s %18s %18s%n", "Discount",
+                money(liveDiscountPence), money(candidateDiscountPence), signed(discountDeltaPence()));
+        out.printf("%-28s %18s %18s %18s%n%n", "Revenue",
+                money(liveRevenuePence()), money(candidateRevenuePence()), signed(-discountDeltaPence()));
+
+        int width = "Promotion".length();
+        for (Row row : promotions) width = Math.max(width, row.promotion().length());
+        String rowFormat = "%-" + width + "s %,12d %14s %,12d %14s %14s%n";
+        out.printf("%-" + width + "s %12s %14s %12s %14s %14s%n", "Promotion",
+                "live uses", "live given", "cand. uses", "cand. given", "delta given");
+        for (Row row : promotions) {
+            out.printf(rowFormat, row.promotion(),
+                    row.liveApplied(), money(row.liveGivenPence()),
+                    row.candidateApplied(), money(row.candidateGivenPence()), signed(row.deltaPence()));
+        }
+        out.flush();
+    }
+
+    private static String money(long pence) {
+        return String.format("%,.2f", MoneyMath.toBigDecimal(pence));
+    }
+
+    private static String signed(long pence) {
+        return (pence > 0 ? "+" : "") + money(pence);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.grocery.service.simulation;
+
+import com.example.grocery.api.dto.PromotionRuleDTO;
+import com.example.grocery.config.CheckoutProperties;
+import com.example.grocery.service.catalog.ItemNameResolver;
+import com.example.grocery.service.pricing.PriceProvider;
+import com.example.grocery.service.promo.PromotionEngine;
+import com.example.grocery.service.promo.PromotionFactory;
+import com.example.grocery.service.promo.PromotionOptimizer;
+import com.example.grocery.service.promo.PromotionPlan;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The what-if replay as a command-line mode of the app: with the simulate profile
+ * (checkout.simulation.enabled and no web server), prices checkout.simulation.baskets under the live
+ * promotions and the rules in checkout.simulation.candidate, prints the {@link SimulationReport} to stdout
+ * and returns, which ends the run. The candidate is built with the same @PromotionType strategies as a reload;
+ * a bad rule or an unreadable file fails startup.
+ */
+@Component
+public class SimulationRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulationRunner.class);
+
+    private final CheckoutProperties.Simulation props;
+    private final PriceProvider priceProvider;
+    private final PromotionEngine promotions;
+    private final PromotionOptimizer optimizer;
+    private final ItemNameResolver itemNameResolver;
+    private final ObjectMapper mapper;
+    private final ResourceLoader resourceLoader;
+
+    public SimulationRunner(CheckoutProperties props, PriceProvider priceProvider, PromotionEngine promotions,
+                            PromotionOptimizer optimizer, ItemNameResolver itemNameResolver, ObjectMapper mapper,
+                            ResourceLoader resourceLoader) {
+        this.props = props.getSimulation();
+        this.priceProvider = priceProvider;
+        this.promotions = promotions;
+        this.optimizer = optimizer;
+        this.itemNameResolver = itemNameResolver;
+        this.mapper = mapper;
+        this.resourceLoader = resourceLoader;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!props.isEnabled()) return;
+        if (props.getCandidate() == null || props.getBaskets() == null) {
+            throw new IllegalStateException(
+                    "The simulate profile needs checkout.simulation.candidate and checkout.simulation.baskets");
+        }
+
+        PromotionPlan live = promotions.current();
+        List<PromotionRuleDTO> rules = readCandidate();
+        PromotionPlan candidate = PromotionEngine.compile(live.version() + 1, rules);
+        log.info("What-if replay of {}: live promotions from {} against {} candidate rules from {}",
+                props.getBaskets(), promotions.location(), rules.size(), props.getCandidate());
+
+        WhatIfSimulator simulator = new WhatIfSimulator(priceProvider, optimizer, itemNameResolver, mapper,
+                props.getParallelism(), props.getChunkSize());
+        SimulationReport report;
+        try (InputStream in = openBaskets(Path.of(props.getBaskets()))) {
+            report = simulator.run(in, live, candidate);
+        }
+        report.print(System.out);
+    }
+
+    private List<PromotionRuleDTO> readCandidate() throws IOException {
+        Resource resource = resourceLoader.getResource(props.getCandidate());
+        if (!resource.exists()) throw new IOException("'" + props.getCandidate() + "' not found");
+        try (InputStream in = resource.getInputStream()) {
+            return PromotionFactory.readRules(in);
+        }
+    }
+
+    /** The baskets file, gunzipped on the fly when its name ends in .gz. */
+    private static InputStream openBaskets(Path file) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+        return file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(in, 1 << 16) : in;
+    }
+}
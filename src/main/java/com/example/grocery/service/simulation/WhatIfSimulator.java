@@ -0,0 +1,283 @@
+package com.example.grocery.service.simulation;
+
+import com.example.grocery.api.dto.BasketRequest;
+import com.example.grocery.api.mapper.CheckoutMapper;
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.service.catalog.ItemNameResolver;
+import com.example.grocery.service.impl.CheckoutServiceImpl;
+import com.example.grocery.service.pricing.NormalizedBasket;
+import com.example.grocery.service.pricing.PriceProvider;
+import com.example.grocery.service.promo.AppliedDiscount;
+import com.example.grocery.service.promo.DiscountStrategy;
+import com.example.grocery.service.promo.PromotionOptimizer;
+import com.example.grocery.service.promo.PromotionPlan;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Prices a stream of historical baskets under the live promotion plan and a candidate plan, with the same prices
+ * and allocation as checkout, and sums what each plan gives away, in total and per promotion.
+ *
+ * Input is newline-delimited BasketRequest JSON, as {@code POST /api/v1/checkout/stream} takes. One thread parses
+ * it into chunks of {@code chunkSize} baskets; each chunk is priced on a fork-join pool, split into leaves that
+ * tally into arrays indexed by promotion, and the tallies are summed. At most two chunks per thread are read ahead,
+ * so memory stays flat however long the file is. A basket that cannot be read or priced is skipped and counted; a
+ * JSON syntax error ends the run, since the parser cannot resynchronise.
+ */
+public final class WhatIfSimulator {
+
+    private static final Logger log = LoggerFactory.getLogger(WhatIfSimulator.class);
+
+    /** Baskets below which a task prices its slice itself rather than forking. */
+    private static final int LEAF_SIZE = 256;
+    private static final long PROGRESS_EVERY = 1_000_000;
+
+    private final PriceProvider prices;
+    private final PromotionOptimizer optimizer; // null: greedy allocation only
+    private final ItemNameResolver itemNameResolver;
+    private final ObjectMapper mapper;
+    private final ObjectReader basketReader;
+    private final int parallelism;
+    private final int chunkSize;
+
+    public WhatIfSimulator(PriceProvider prices, PromotionOptimizer optimizer, ItemNameResolver itemNameResolver,
+                           ObjectMapper mapper, int parallelism, int chunkSize) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        if (chunkSize < 1) throw new IllegalArgumentException("Chunk size must be at least 1: " + chunkSize);
+        this.prices = prices;
+        this.optimizer = optimizer != null && optimizer.enabled() ? optimizer : null;
+        this.itemNameResolver = itemNameResolver;
+        this.mapper = mapper;
+        this.basketReader = mapper.readerFor(BasketRequest.class);
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads {@code baskets} to the end (it is left open) and prices each basket under both plans, with one price
+     * snapshot for the whole run.
+     *
+     * @throws IOException on a read error or malformed JSON
+     */
+    public SimulationReport run(InputStream baskets, PromotionPlan live, PromotionPlan candidate) throws IOException {
+        long started = System.nanoTime();
+        Pricing pricing = new Pricing(prices.snapshot(), optimizer, new Slots(live), new Slots(candidate));
+        Tally total = pricing.newTally();
+        long read = 0;
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        Deque<ForkJoinTask<Tally>> inFlight = new ArrayDeque<>();
+        try (JsonParser parser = mapper.getFactory().createParser(baskets)) {
+            List<Basket> chunk = new ArrayList<>(chunkSize);
+            while (true) {
+                try {
+                    if (parser.nextToken() == null) break;
+                    read++;
+                    chunk.add(new Basket(read, CheckoutMapper.toBasket(basketReader.readValue(parser), itemNameResolver)));
+                } catch (JsonMappingException | IllegalArgumentException ex) {
+                    if (ex instanceof JsonMappingException) skipToRoot(parser);
+                    total.skip(read, message(ex));
+                }
+                if (chunk.size() == chunkSize) {
+                    inFlight.add(pool.submit(new PriceTask(pricing, chunk, 0, chunk.size())));
+                    chunk = new ArrayList<>(chunkSize);
+                    // Read ahead at most two chunks per thread
+                    while (inFlight.size() > 2 * parallelism) total.add(inFlight.poll().join());
+                }
+                if (read % PROGRESS_EVERY == 0) log.info("What-if replay: {} baskets read", read);
+            }
+            if (!chunk.isEmpty()) inFlight.add(pool.submit(new PriceTask(pricing, chunk, 0, chunk.size())));
+            while (!inFlight.isEmpty()) total.add(inFlight.poll().join());
+        } catch (JsonParseException ex) {
+            throw new IOException("Malformed JSON in basket " + read + ": " + ex.getOriginalMessage(), ex);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return SimulationReport.of(live.version(), candidate.version(), read, total.skipped, total.firstError,
+                total.subtotal, total.changed, pricing.live, total.live, pricing.candidate, total.candidate,
+                System.nanoTime() - started);
+    }
+
+    private static String message(Exception ex) {
+        return ex instanceof JsonMappingException mapping ? "Invalid basket: " + mapping.getOriginalMessage()
+                : ex.getMessage();
+    }
+
+    private static void skipToRoot(JsonParser parser) throws IOException {
+        while (!parser.getParsingContext().inRoot()) {
+            if (parser.nextToken() == null) return;
+        }
+    }
+
+    /**
+     * A plan and its promotions, each with the slot its totals are kept in. Filled before the run and only read
+     * during it, so the leaves share it without locking.
+     */
+    static final class Slots {
+        final PromotionPlan plan;
+        final List<DiscountStrategy> promotions = new ArrayList<>();
+        private final Map<DiscountStrategy, Integer> slots = new IdentityHashMap<>();
+
+        Slots(PromotionPlan plan) {
+            this.plan = plan;
+            plan.basketStrategies().forEach(this::register);
+            for (ItemType item : ItemType.values()) plan.registry().strategiesFor(item).forEach(this::register);
+        }
+
+        private void register(DiscountStrategy strategy) {
+            if (slots.putIfAbsent(strategy, promotions.size()) == null) promotions.add(strategy);
+        }
+
+        int slotOf(DiscountStrategy strategy) {
+            Integer slot = slots.get(strategy);
+            if (slot == null) throw new IllegalStateException(strategy.name() + " is not part of the plan");
+            return slot;
+        }
+
+        int size() {
+            return promotions.size();
+        }
+    }
+
+    /** What each plan gave: per promotion slot, the times applied and pence given. */
+    static final class Side {
+        long discount;
+        final long[] applied;
+        final long[] given;
+
+        Side(int promotions) {
+            applied = new long[promotions];
+            given = new long[promotions];
+        }
+
+        /** @return the basket's total discount under this plan */
+        long add(List<AppliedDiscount> discounts, Slots slots) {
+            long sum = 0;
+            for (AppliedDiscount discount : discounts) {
+                int slot = slots.slotOf(discount.strategy());
+                applied[slot]++;
+                given[slot] += discount.amountPence();
+                sum += discount.amountPence();
+            }
+            discount += sum;
+            return sum;
+        }
+
+        void add(Side other) {
+            discount += other.discount;
+            for (int i = 0; i < applied.length; i++) {
+                applied[i] += other.applied[i];
+                given[i] += other.given[i];
+            }
+        }
+    }
+
+    /** A basket and its number in the input, counting from 1. */
+    private record Basket(long number, List<BasketItem> lines) {}
+
+    /** Sums for a run of baskets; leaves fill their own and the pipeline adds them up. */
+    static final class Tally {
+        long subtotal;
+        long changed; // baskets whose discount differs between the plans
+        long skipped;
+        String firstError; // the lowest-numbered skipped basket and why
+        private long firstErrorBasket = Long.MAX_VALUE;
+        final Side live;
+        final Side candidate;
+
+        Tally(int livePromotions, int candidatePromotions) {
+            live = new Side(livePromotions);
+            candidate = new Side(candidatePromotions);
+        }
+
+        void skip(long basket, String error) {
+            skipped++;
+            if (basket < firstErrorBasket) {
+                firstErrorBasket = basket;
+                firstError = "basket " + basket + ": " + error;
+            }
+        }
+
+        void add(Tally other) {
+            subtotal += other.subtotal;
+            changed += other.changed;
+            skipped += other.skipped;
+            if (other.firstErrorBasket < firstErrorBasket) {
+                firstErrorBasket = other.firstErrorBasket;
+                firstError = other.firstError;
+            }
+            live.add(other.live);
+            candidate.add(other.candidate);
+        }
+    }
+
+    /** Everything a leaf needs to price a basket under both plans. */
+    private record Pricing(PriceProvider prices, PromotionOptimizer optimizer, Slots live, Slots candidate) {
+
+        Tally newTally() {
+            return new Tally(live.size(), candidate.size());
+        }
+
+        /** Adds {@code lines} to {@code tally}, or throws and leaves it as it was if the basket cannot be priced. */
+        void price(List<BasketItem> lines, Tally tally) {
+            NormalizedBasket basket = NormalizedBasket.of(lines, prices);
+            List<AppliedDiscount> underLive = CheckoutServiceImpl.discounts(basket, live.plan, optimizer);
+            List<AppliedDiscount> underCandidate = CheckoutServiceImpl.discounts(basket, candidate.plan, optimizer);
+            tally.subtotal += basket.subtotalPence();
+            long before = tally.live.add(underLive, live);
+            long after = tally.candidate.add(underCandidate, candidate);
+            if (before != after) tally.changed++;
+        }
+    }
+
+    private static final class PriceTask extends RecursiveTask<Tally> {
+        private final Pricing pricing;
+        private final List<Basket> baskets;
+        private final int from;
+        private final int to;
+
+        PriceTask(Pricing pricing, List<Basket> baskets, int from, int to) {
+            this.pricing = pricing;
+            this.baskets = baskets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from <= LEAF_SIZE) {
+                Tally tally = pricing.newTally();
+                for (int i = from; i < to; i++) {
+                    Basket basket = baskets.get(i);
+                    try {
+                        pricing.price(basket.lines(), tally);
+                    } catch (RuntimeException ex) {
+                        // A missing price or an overflowing quantity: skip the basket, not the run
+                        tally.skip(basket.number(), ex.getMessage());
+                    }
+                }
+                return tally;
+            }
+            int mid = (from + to) >>> 1;
+            PriceTask left = new PriceTask(pricing, baskets, from, mid);
+            left.fork();
+            Tally tally = new PriceTask(pricing, baskets, mid, to).compute();
+            tally.add(left.join());
+            return tally;
+        }
+    }
+}
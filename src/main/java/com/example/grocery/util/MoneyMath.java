@@ -0,0 +1,50 @@
+
+package com.example.grocery.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money as a primitive {@code long} count of pence (minor units, scale 2).
+ *
+ * Every value PriceMath produces has scale 2, so sums, differences and integer
+ * multiples are exact in pence; the only rounding steps are converting an
+ * arbitrary BigDecimal in ({@link #toPence}) and percentages ({@link #percentOf}),
+ * both HALF_UP exactly like {@link PriceMath#scale}.
+ */
+public final class MoneyMath {
+    private MoneyMath() {}
+
+    /** Rounds HALF_UP to 2 decimals, as PriceMath.scale does, and returns the pence. */
+    public static long toPence(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /** The pence as a scale-2 BigDecimal (e.g. 235 -> 2.35). */
+    public static BigDecimal toBigDecimal(long pence) {
+        return BigDecimal.valueOf(pence, 2);
+    }
+
+    public static long multiply(long pence, int qty) {
+        return Math.multiplyExact(pence, (long) qty);
+    }
+
+    /**
+     * {@code percent} of an amount, rounded HALF_UP to the penny.
+     *
+     * @param basisPoints the percentage at scale 2, i.e. hundredths of a percent (10.00% = 1000)
+     */
+    public static long percentOf(long pence, long basisPoints) {
+        return divideHalfUp(Math.multiplyExact(pence, basisPoints), 10_000L);
+    }
+
+    /** Integer division rounding half away from zero (BigDecimal HALF_UP). */
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += Long.signum(dividend) * Long.signum(divisor);
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.grocery.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Generates {@code com.example.grocery.service.promo.PromotionTypeIndex}: one entry per {@code @PromotionType}
+ * class, holding its class and a factory lambda that calls the {@code @PromotionCtor} constructor directly.
+ * PromotionFactory.indexed() reads it, so startup neither scans the classpath nor constructs reflectively.
+ *
+ * The checks PromotionFactory.scan() makes at runtime (a public @PromotionCtor constructor, supported parameter
+ * types, one key per parameter after an optional leading ItemType, unique rule types) are compile errors here.
+ * Compiled ahead of the main sources; see the compile-promotion-processor execution in pom.xml.
+ */
+@SupportedAnnotationTypes(PromotionIndexProcessor.PROMOTION_TYPE)
+public class PromotionIndexProcessor extends AbstractProcessor {
+
+    static final String PROMOTION_TYPE = "com.example.grocery.service.promo.PromotionType";
+    static final String PROMOTION_CTOR = "com.example.grocery.service.promo.PromotionCtor";
+    static final String PACKAGE = "com.example.grocery.service.promo";
+    static final String INDEX = "PromotionTypeIndex";
+
+    private static final String ITEM_TYPE = "com.example.grocery.domain.ItemType";
+
+    /** Reader in PromotionArgs for each supported constructor parameter type. */
+    private static final Map<String, String> READERS = Map.of(
+            "int", "intParam",
+            "java.lang.Integer", "intParam",
+            "long", "longParam",
+            "java.lang.Long", "longParam",
+            "java.math.BigDecimal", "decimalParam",
+            "java.lang.String", "param");
+
+    private boolean generated;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        TypeElement promotionType = processingEnv.getElementUtils().getTypeElement(PROMOTION_TYPE);
+        if (generated || promotionType == null) return false;
+        Set<? extends Element> annotated = round.getElementsAnnotatedWith(promotionType);
+        if (annotated.isEmpty()) return false;
+
+        Messager messager = processingEnv.getMessager();
+        Map<String, String> entries = new TreeMap<>(); // rule type -> generated put(...) line
+        for (Element element : annotated) {
+            if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) continue;
+            TypeElement type = (TypeElement) element;
+            String ruleType = stringValue(annotation(type, PROMOTION_TYPE), "value").trim().toUpperCase();
+            String entry = entry(type, ruleType, messager);
+            if (entry == null) continue;
+            if (entries.put(ruleType, entry) != null) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Duplicate @PromotionType \"" + ruleType + "\"", type);
+            }
+        }
+        write(entries, annotated, messager);
+        generated = true;
+        return false;
+    }
+
+    /** The put(...) statement registering {@code type}, or null after reporting an error. */
+    private String entry(TypeElement type, String ruleType, Messager messager) {
+        ExecutableElement ctor = null;
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.CONSTRUCTOR && annotation(member, PROMOTION_CTOR) != null) {
+                ctor = (ExecutableElement) member;
+            }
+        }
+        if (ctor == null || !ctor.getModifiers().contains(Modifier.PUBLIC)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "No public @PromotionCtor constructor", type);
+            return null;
+        }
+
+        List<String> keys = stringValues(annotation(ctor, PROMOTION_CTOR), "keys");
+        List<? extends VariableElement> params = ctor.getParameters();
+        List<String> args = new ArrayList<>();
+        int index = 0;
+        if (!params.isEmpty() && params.get(0).asType().toString().equals(ITEM_TYPE)) {
+            args.add("PromotionArgs.itemType(rule)");
+            index = 1;
+        }
+        if (params.size() - index != keys.size()) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@PromotionCtor keys " + keys + " do not match the parameters", ctor);
+            return null;
+        }
+        for (String key : keys) {
+            TypeMirror paramType = params.get(index++).asType();
+            String reader = READERS.get(paramType.toString());
+            if (reader == null) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "Unsupported constructor param type: " + paramType + " for key '" + key + "'", ctor);
+                return null;
+            }
+            args.add("PromotionArgs." + reader + "(rule, \"" + escape(key) + "\")");
+        }
+
+        String className = type.getQualifiedName().toString();
+        StringBuilder put = new StringBuilder();
+        put.append("        types.put(\"").append(escape(ruleType)).append("\", new PromotionFactory.Entry(")
+                .append(className).append(".class, rule -> {\n");
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < args.size(); i++) {
+            String name = "a" + i;
+            put.append("            ").append(params.get(i).asType().toString()).append(' ').append(name).append(" = ").append(args.get(i)).append(";\n");
+            names.add(name);
+        }
+        put.append("            return PromotionArgs.construct(rule, () -> new ").append(className)
+                .append('(').append(String.join(", ", names)).append("));\n");
+        put.append("        }));\n");
+        return put.toString();
+    }
+
+    private void write(Map<String, String> entries, Set<? extends Element> origins, Messager messager) {
+        Filer filer = processingEnv.getFiler();
+        try (Writer out = filer.createSourceFile(PACKAGE + "." + INDEX, origins.toArray(Element[]::new)).openWriter()) {
+            out.write("package " + PACKAGE + ";\n\n");
+            out.write("import java.util.Collections;\n");
+            out.write("import java.util.LinkedHashMap;\n");
+            out.write("import java.util.Map;\n\n");
+            out.write("/** Generated by " + PromotionIndexProcessor.class.getName() + " from the @PromotionType classes. */\n");
+            out.write("@javax.annotation.processing.Generated(\"" + PromotionIndexProcessor.class.getName() + "\")\n");
+            out.write("public final class " + INDEX + " {\n");
+            out.write("    private " + INDEX + "() {}\n\n");
+            out.write("    /** Rule type (upper case) to strategy class and factory. */\n");
+            out.write("    public static Map<String, PromotionFactory.Entry> types() {\n");
+            out.write("        Map<String, PromotionFactory.Entry> types = new LinkedHashMap<>();\n");
+            for (String entry : entries.values()) out.write(entry);
+            out.write("        return Collections.unmodifiableMap(types);\n");
+            out.write("    }\n");
+            out.write("}\n");
+        } catch (IOException ex) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Cannot write " + INDEX + ": " + ex);
+        }
+    }
+
+    private static AnnotationMirror annotation(Element element, String annotationType) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().toString().equals(annotationType)) return mirror;
+        }
+        return null;
+    }
+
+    private static AnnotationValue value(AnnotationMirror mirror, String name) {
+        for (var e : mirror.getElementValues().entrySet()) {
+            if (e.getKey().getSimpleName().contentEquals(name)) return e.getValue();
+        }
+        return null;
+    }
+
+    private static String stringValue(AnnotationMirror mirror, String name) {
+        AnnotationValue value = value(mirror, name);
+        return value == null ? "" : (String) value.getValue();
+    }
+
+    private static List<String> stringValues(AnnotationMirror mirror, String name) {
+        AnnotationValue value = value(mirror, name);
+        List<String> values = new ArrayList<>();
+        if (value == null) return values;
+        Object raw = value.getValue();
+        if (raw instanceof List<?> list) {
+            for (Object item : list) values.add((String) ((AnnotationValue) item).getValue());
+        } else {
+            values.add((String) raw); // keys = "x"
+        }
+        return values;
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
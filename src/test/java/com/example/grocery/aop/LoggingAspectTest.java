@@ -0,0 +1,87 @@
+package com.example.grocery.aop;
+
+import com.example.grocery.config.InstrumentationProperties;
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.service.CheckoutService;
+import com.example.grocery.service.catalog.ItemNameResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoggingAspectTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    /** Implements a service-layer interface, so the serviceLayer() pointcut matches. */
+    static class StubCheckout implements CheckoutService {
+        @Override
+        public Receipt checkout(List<BasketItem> basket) {
+            if (basket == null) throw new IllegalArgumentException("Basket must contain at least one item");
+            return Receipt.builder().total(BigDecimal.ZERO).build();
+        }
+    }
+
+    private static CheckoutService proxied(LoggingAspect aspect) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new StubCheckout());
+        factory.setProxyTargetClass(true); // as Spring Boot proxies beans
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Calls are recorded in grocery.method timers by outcome")
+    void recordsTimersByOutcome() {
+        var aspect = new LoggingAspect(meters, new InstrumentationProperties());
+        CheckoutService service = proxied(aspect);
+
+        service.checkout(List.of());
+        service.checkout(List.of());
+        assertThatThrownBy(() -> service.checkout(null)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(meters.get("grocery.method")
+                .tag("class", "StubCheckout").tag("method", "checkout").tag("outcome", "success")
+                .timer().count()).isEqualTo(2);
+        assertThat(meters.get("grocery.method")
+                .tag("method", "checkout").tag("outcome", "error")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("With tracing off, arguments are never stringified")
+    void noArgumentStringsWithoutTrace() {
+        var aspect = new LoggingAspect(meters, new InstrumentationProperties());
+        CheckoutService service = proxied(aspect);
+        List<BasketItem> basket = new ArrayList<>() {
+            @Override
+            public String toString() {
+                throw new AssertionError("argument was stringified");
+            }
+        };
+
+        assertThat(service.checkout(basket).getTotal()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    @DisplayName("Per-line item name resolution is outside the service pointcut")
+    void itemNameResolverIsNotAdvised() {
+        var aspect = new LoggingAspect(meters, new InstrumentationProperties());
+        AspectJProxyFactory factory = new AspectJProxyFactory(new ItemNameResolver(Map.of()));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        ItemNameResolver resolver = factory.getProxy();
+
+        assertThat(resolver.resolve("Bananas")).isEqualTo(ItemType.BANANAS);
+        assertThat(meters.find("grocery.method").timers()).isEmpty();
+    }
+}
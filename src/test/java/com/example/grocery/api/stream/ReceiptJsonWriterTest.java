@@ -0,0 +1,78 @@
+package com.example.grocery.api.stream;
+
+import com.example.grocery.api.mapper.CheckoutMapper;
+import com.example.grocery.domain.DiscountLine;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.domain.ReceiptLine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReceiptJsonWriterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ReceiptJsonWriter writer = new ReceiptJsonWriter(mapper);
+
+    @Test
+    @DisplayName("Same bytes as the ObjectMapper writes for the ReceiptResponse, in JSON, CBOR and Smile")
+    void matchesObjectMapperOutput() throws IOException {
+        Receipt typical = Receipt.builder()
+                .item(line("bananas", 3, 165))
+                .item(line("oranges", 3, 90))
+                .item(line("apples", 1, 60))
+                .discount(discount("Buy 2 Get 1 Free (BANANAS)", -55))
+                .discount(discount("3 Oranges for £0.75 \"deal\"\n", -15))
+                .subtotal(BigDecimal.valueOf(315, 2))
+                .totalDiscount(BigDecimal.valueOf(-70, 2))
+                .total(BigDecimal.valueOf(245, 2))
+                .priceVersion(3)
+                .promotionVersion(Long.MAX_VALUE)
+                .build();
+        Receipt odd = Receipt.builder()
+                .item(line("peaches", 1, 5))
+                .discount(discount("No Discount Applicable", 0))
+                .subtotal(new BigDecimal("1E+3"))         // not scale 2: left to the generator
+                .totalDiscount(new BigDecimal("-0.125"))
+                .total(new BigDecimal("123456789012345678901.23"))
+                .build();
+        Receipt empty = Receipt.builder().build();
+
+        for (Receipt receipt : new Receipt[]{typical, odd, empty}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writer.write(receipt, out);
+            assertThat(out.toByteArray()).isEqualTo(mapper.writeValueAsBytes(CheckoutMapper.toResponse(receipt)));
+
+            for (ObjectMapper binary : new ObjectMapper[]{new CBORMapper(), new SmileMapper()}) {
+                out.reset();
+                writer.write(receipt, binary.getFactory(), out);
+                assertThat(out.toByteArray()).as(binary.getFactory().getFormatName())
+                        .isEqualTo(binary.writeValueAsBytes(CheckoutMapper.toResponse(receipt)));
+            }
+        }
+    }
+
+    @Test
+    void formatsPenceLikeBigDecimal() {
+        char[] buffer = new char[21];
+        for (long pence : new long[]{0, 1, -1, 9, -10, 99, 100, -105, 123_456, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            int length = ReceiptJsonWriter.formatPence(pence, buffer);
+            assertThat(new String(buffer, 0, length)).isEqualTo(BigDecimal.valueOf(pence, 2).toString());
+        }
+    }
+
+    private static ReceiptLine line(String name, int quantity, long pence) {
+        return ReceiptLine.builder().itemName(name).quantity(quantity).amount(BigDecimal.valueOf(pence, 2)).build();
+    }
+
+    private static DiscountLine discount(String description, long pence) {
+        return DiscountLine.builder().description(description).amount(BigDecimal.valueOf(pence, 2)).build();
+    }
+}
@@ -0,0 +1,130 @@
+
+package com.example.grocery.service;
+
+import com.example.grocery.config.CheckoutProperties;
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.BatchOutcome;
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.service.impl.BatchCheckoutServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchCheckoutServiceTest {
+
+    /** Receipt total == quantity of the single line, so order is easy to check. */
+    private final CheckoutService echo = basket -> Receipt.builder()
+            .total(BigDecimal.valueOf(basket.get(0).getQuantity()))
+            .build();
+
+    private BatchCheckoutServiceImpl service;
+
+    private BatchCheckoutServiceImpl service(CheckoutService checkoutService, int maxSize) {
+        return service(checkoutService, maxSize, false);
+    }
+
+    private BatchCheckoutServiceImpl service(CheckoutService checkoutService, int maxSize, boolean virtualThreads) {
+        CheckoutProperties props = new CheckoutProperties();
+        props.getBatch().setMaxSize(maxSize);
+        props.getBatch().setParallelism(4);
+        props.getBatch().setVirtualThreads(virtualThreads);
+        service = new BatchCheckoutServiceImpl(checkoutService, props);
+        return service;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) service.shutdown();
+    }
+
+    private static List<BasketItem> basketOf(int qty) {
+        if (qty < 1) throw new IllegalArgumentException("Quantity must be at least 1");
+        return List.of(BasketItem.builder().type(ItemType.APPLES).quantity(qty).build());
+    }
+
+    @Test
+    @DisplayName("Outcomes keep input order and failures are reported per basket")
+    void ordersOutcomesAndIsolatesErrors() {
+        List<Integer> inputs = IntStream.rangeClosed(-1, 200).boxed().toList();
+
+        List<BatchOutcome> outcomes = service(echo, 1000).checkoutAll(inputs, BatchCheckoutServiceTest::basketOf);
+
+        assertThat(outcomes).hasSize(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            BatchOutcome outcome = outcomes.get(i);
+            assertThat(outcome.getIndex()).isEqualTo(i);
+            if (inputs.get(i) < 1) {
+                assertThat(outcome.getReceipt()).isNull();
+                assertThat(outcome.getError()).contains("Quantity");
+            } else {
+                assertThat(outcome.getReceipt().getTotal()).isEqualByComparingTo(BigDecimal.valueOf(inputs.get(i)));
+            }
+        }
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    @DisplayName("Virtual-thread mode prices on virtual threads, at most parallelism at a time")
+    void virtualThreadMode() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicInteger platform = new AtomicInteger();
+        CheckoutService observing = basket -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            if (!Thread.currentThread().toString().startsWith("VirtualThread")) platform.incrementAndGet();
+            try {
+                Thread.sleep(2);
+                return echo.checkout(basket);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+        };
+
+        List<BatchOutcome> outcomes = service(observing, 1000, true)
+                .checkoutAll(IntStream.rangeClosed(1, 100).boxed().toList(), BatchCheckoutServiceTest::basketOf);
+
+        assertThat(outcomes).extracting(BatchOutcome::getIndex).containsExactlyElementsOf(IntStream.range(0, 100).boxed().toList());
+        assertThat(platform).hasValue(0);
+        assertThat(peak.get()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Batches above max-size are rejected before any basket is priced")
+    void rejectsOversizedBatch() {
+        AtomicInteger priced = new AtomicInteger();
+        CheckoutService counting = basket -> { priced.incrementAndGet(); return echo.checkout(basket); };
+
+        assertThatThrownBy(() -> service(counting, 2).checkoutAll(List.of(1, 2, 3), BatchCheckoutServiceTest::basketOf))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("exceeds the limit of 2");
+        assertThat(priced).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("All baskets are priced by one snapshot of the checkout service")
+    void usesOneSnapshot() {
+        AtomicInteger snapshots = new AtomicInteger();
+        CheckoutService snapshotting = new CheckoutService() {
+            @Override public Receipt checkout(List<BasketItem> basket) { throw new AssertionError("live service used"); }
+            @Override public CheckoutService snapshot() { snapshots.incrementAndGet(); return echo; }
+        };
+
+        List<BatchOutcome> outcomes = service(snapshotting, 100).checkoutAll(List.of(1, 2, 3), BatchCheckoutServiceTest::basketOf);
+
+        assertThat(outcomes).allSatisfy(o -> assertThat(o.getError()).isNull());
+        assertThat(snapshots).hasValue(1);
+    }
+}
@@ -0,0 +1,143 @@
+
+package com.example.grocery.service;
+
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.service.impl.CheckoutServiceImpl;
+import com.example.grocery.service.pricing.PriceProvider;
+import com.example.grocery.service.promo.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Differential tests: the pence-based CheckoutServiceImpl must produce receipts
+ * identical (values and scale) to the original PriceMath implementation for
+ * random prices, promotion sets and baskets.
+ */
+class CheckoutDifferentialTest {
+
+    private static final ItemType[] ITEMS = ItemType.values();
+
+    /** The reference predates versioned receipts; compare everything else. */
+    private static Receipt unversioned(Receipt receipt) {
+        return Receipt.builder()
+                .items(receipt.getItems())
+                .discounts(receipt.getDiscounts())
+                .subtotal(receipt.getSubtotal())
+                .totalDiscount(receipt.getTotalDiscount())
+                .total(receipt.getTotal())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Random baskets/promotions: pence checkout == PriceMath checkout, field by field")
+    void penceCheckoutMatchesPriceMathCheckout() {
+        Random random = new Random(20240517L);
+        for (int run = 0; run < 3_000; run++) {
+            PriceProvider prices = randomPrices(random);
+            List<DiscountStrategy> itemStrategies = randomItemStrategies(random);
+            List<PriceMathCheckoutReference.BasketRule> basketRules = randomBasketRules(random);
+            List<BasketItem> basket = randomBasket(random);
+
+            var registry = new StrategyRegistry(itemStrategies);
+            Receipt expected = new PriceMathCheckoutReference(prices, registry, basketRules).checkout(basket);
+            Receipt actual = new CheckoutServiceImpl(prices, registry, strategies(basketRules)).checkout(basket);
+
+            assertThat(unversioned(actual)).as("run %d, basket %s", run, basket).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Sub-penny prices and fractional percentages round HALF_UP like PriceMath")
+    void halfUpEdgeCases() {
+        PriceProvider prices = type -> switch (type) {
+            case BANANAS -> new BigDecimal("0.125");  // -> 0.13
+            case ORANGES -> new BigDecimal("0.124");  // -> 0.12
+            case APPLES  -> new BigDecimal("0.335");
+            case LEMONS  -> new BigDecimal("0.005");
+            case PEACHES -> new BigDecimal("19.995");
+        };
+        var registry = new StrategyRegistry(List.of(
+                new BuyXGetYFreeStrategy(ItemType.BANANAS, 2, 1),
+                new KItemForFixedPriceStrategy(ItemType.ORANGES, 3, new BigDecimal("0.305")),
+                new MinQtyFixedUnitPriceStrategy(ItemType.APPLES, 2, new BigDecimal("0.325"))));
+        List<PriceMathCheckoutReference.BasketRule> basketRules = List.of(
+                PriceMathCheckoutReference.PercentOff.of(new BigDecimal("1.00"), new BigDecimal("12.345"), null));
+
+        for (int peaches = 0; peaches < 40; peaches++) {
+            List<BasketItem> basket = new ArrayList<>(List.of(
+                    BasketItem.builder().type(ItemType.BANANAS).quantity(7).build(),
+                    BasketItem.builder().type(ItemType.ORANGES).quantity(9).build(),
+                    BasketItem.builder().type(ItemType.APPLES).quantity(3).build(),
+                    BasketItem.builder().type(ItemType.LEMONS).quantity(11).build()));
+            if (peaches > 0) basket.add(BasketItem.builder().type(ItemType.PEACHES).quantity(peaches).build());
+
+            Receipt expected = new PriceMathCheckoutReference(prices, registry, basketRules).checkout(basket);
+            Receipt actual = new CheckoutServiceImpl(prices, registry, strategies(basketRules)).checkout(basket);
+            assertThat(unversioned(actual)).isEqualTo(expected);
+        }
+    }
+
+    private static PriceProvider randomPrices(Random random) {
+        Map<ItemType, BigDecimal> prices = new EnumMap<>(ItemType.class);
+        for (ItemType item : ITEMS) {
+            // three decimals so unit price rounding is exercised
+            prices.put(item, BigDecimal.valueOf(1 + random.nextInt(5_000), 3));
+        }
+        return prices::get;
+    }
+
+    private static List<DiscountStrategy> randomItemStrategies(Random random) {
+        List<DiscountStrategy> strategies = new ArrayList<>();
+        for (int i = random.nextInt(6); i > 0; i--) {
+            ItemType item = ITEMS[random.nextInt(ITEMS.length)];
+            strategies.add(switch (random.nextInt(3)) {
+                case 0 -> new BuyXGetYFreeStrategy(item, 1 + random.nextInt(4), 1 + random.nextInt(3));
+                case 1 -> new KItemForFixedPriceStrategy(item, 2 + random.nextInt(4), BigDecimal.valueOf(5 + random.nextInt(3_000), 3));
+                default -> new MinQtyFixedUnitPriceStrategy(item, 1 + random.nextInt(5), BigDecimal.valueOf(5 + random.nextInt(5_000), 3));
+            });
+        }
+        return strategies;
+    }
+
+    private static List<BasketLevelStrategy> strategies(List<PriceMathCheckoutReference.BasketRule> rules) {
+        return rules.stream().map(PriceMathCheckoutReference.BasketRule::strategy).toList();
+    }
+
+    private static List<PriceMathCheckoutReference.BasketRule> randomBasketRules(Random random) {
+        List<PriceMathCheckoutReference.BasketRule> rules = new ArrayList<>();
+        for (int i = random.nextInt(4); i > 0; i--) {
+            if (random.nextBoolean()) {
+                ItemType a = ITEMS[random.nextInt(ITEMS.length)];
+                ItemType b = ITEMS[(a.ordinal() + 1 + random.nextInt(ITEMS.length - 1)) % ITEMS.length];
+                rules.add(PriceMathCheckoutReference.Combo.of(
+                        a + ":" + (1 + random.nextInt(3)) + "," + b + ":" + (1 + random.nextInt(3)),
+                        BigDecimal.valueOf(5 + random.nextInt(4_000), 3),
+                        random.nextBoolean() ? null : String.valueOf(1 + random.nextInt(4))));
+            } else {
+                rules.add(PriceMathCheckoutReference.PercentOff.of(
+                        BigDecimal.valueOf(random.nextInt(3_000), 2),
+                        BigDecimal.valueOf(random.nextInt(10_000), 3),
+                        random.nextBoolean() ? null : BigDecimal.valueOf(1 + random.nextInt(2_000), 2).toPlainString()));
+            }
+        }
+        return rules;
+    }
+
+    private static List<BasketItem> randomBasket(Random random) {
+        List<BasketItem> basket = new ArrayList<>();
+        for (int i = 1 + random.nextInt(8); i > 0; i--) {
+            basket.add(BasketItem.builder()
+                    .type(ITEMS[random.nextInt(ITEMS.length)])
+                    .quantity(1 + random.nextInt(25))
+                    .build());
+        }
+        return basket;
+    }
+}
@@ -134,4 +134,62 @@ class CheckoutServiceTest {
         // Total: 2.20
         assertThat(receipt.getTotal()).isEqualByComparingTo("2.20");
     }
+
+    @Test
+    @DisplayName("Refreshed promotions: combo added at runtime applies to the next checkout")
+    void refreshPromotionsSwapsPlan() {
+        var priceProvider = new TestPriceProvider();
+        var registry = buildStandardRegistry();
+        var checkoutService = new CheckoutServiceImpl(priceProvider, registry, new ArrayList<>());
+        List<BasketItem> basket = List.of(
+                BasketItem.builder().type(ItemType.APPLES).quantity(1).build(),
+                BasketItem.builder().type(ItemType.BANANAS).quantity(2).build()
+        );
+
+        // Subtotal 0.60 + 1.00 = 1.60, no banana group of 3 yet
+        assertThat(checkoutService.checkout(basket).getTotal()).isEqualByComparingTo("1.60");
+        assertThat(checkoutService.checkout(basket).getPromotionVersion()).isEqualTo(1L);
+
+        checkoutService.refreshPromotions(registry, List.of(
+                new ItemComboFixedPriceStrategy("APPLES:1,BANANAS:2", new BigDecimal("1.25"), "3")));
+
+        // Combo: 1.60 - 1.25 = 0.35 off
+        Receipt receipt = checkoutService.checkout(basket);
+        assertThat(receipt.getTotalDiscount()).isEqualByComparingTo("-0.35");
+        assertThat(receipt.getTotal()).isEqualByComparingTo("1.25");
+        assertThat(receipt.getPromotionVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Snapshot keeps pricing with the promotions active when it was taken")
+    void snapshotIsPinnedToPlan() {
+        var checkoutService = new CheckoutServiceImpl(new TestPriceProvider(), buildStandardRegistry(), new ArrayList<>());
+        List<BasketItem> basket = List.of(BasketItem.builder().type(ItemType.BANANAS).quantity(3).build());
+
+        CheckoutService snapshot = checkoutService.snapshot();
+        checkoutService.refreshPromotions(new StrategyRegistry(List.of()), List.of());
+
+        // Snapshot still applies Buy 2 Get 1 Free; the live service no longer does
+        assertThat(snapshot.checkout(basket).getTotal()).isEqualByComparingTo("1.00");
+        assertThat(checkoutService.checkout(basket).getTotal()).isEqualByComparingTo("1.50");
+    }
+
+    @Test
+    @DisplayName("Duplicate lines of one item add up before promotions are applied")
+    void duplicateLinesAreSummed() {
+        var checkoutService = new CheckoutServiceImpl(new TestPriceProvider(), buildStandardRegistry(), new ArrayList<>());
+        List<BasketItem> basket = List.of(
+                BasketItem.builder().type(ItemType.BANANAS).quantity(2).build(),
+                BasketItem.builder().type(ItemType.ORANGES).quantity(3).build(),
+                BasketItem.builder().type(ItemType.BANANAS).quantity(1).build());
+
+        Receipt receipt = checkoutService.checkout(basket);
+
+        // Lines are listed as sent; 3 bananas in total earn Buy 2 Get 1 Free
+        assertThat(receipt.getItems()).hasSize(3);
+        assertThat(receipt.getSubtotal()).isEqualByComparingTo("2.40");
+        assertThat(receipt.getDiscounts()).extracting("description")
+                .containsExactly("Buy 2 Get 1 Free (BANANAS)", "3 ORANGES for £0.75");
+        assertThat(receipt.getTotal()).isEqualByComparingTo("1.75");
+    }
 }
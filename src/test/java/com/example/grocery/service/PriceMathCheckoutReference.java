@@ -0,0 +1,206 @@
+
+package com.example.grocery.service;
+
+import com.example.grocery.domain.*;
+import com.example.grocery.service.pricing.PriceProvider;
+import com.example.grocery.service.promo.BasketLevelStrategy;
+import com.example.grocery.service.promo.DiscountResult;
+import com.example.grocery.service.promo.DiscountStrategy;
+import com.example.grocery.service.promo.ItemComboFixedPriceStrategy;
+import com.example.grocery.service.promo.MaxSubtotalPercentOffStrategy;
+import com.example.grocery.service.promo.StrategyRegistry;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static com.example.grocery.util.PriceMath.*;
+
+
+/**
+ * The original BigDecimal/PriceMath checkout, kept as the oracle for differential tests
+ * of the pence-based CheckoutServiceImpl. Only changed where checkout rules changed:
+ * duplicate lines of an item now add up. Basket promotions are priced here from their own
+ * parameters, so the oracle shares no discount arithmetic with the code under test.
+ */
+class PriceMathCheckoutReference implements CheckoutService {
+    private final PriceProvider priceProvider;
+    private final StrategyRegistry registry;
+    private final List<BasketRule> basketRules;
+
+    /** A basket promotion: the strategy checkout is given, and the parameters the reference prices it from. */
+    sealed interface BasketRule {
+        BasketLevelStrategy strategy();
+
+        /** The discount on a basket with these unit prices and summed quantities; zero if it does not apply. */
+        BigDecimal discount(Map<ItemType, BigDecimal> unitPrices, Map<ItemType, Integer> quantities);
+
+        String description(Map<ItemType, Integer> quantities);
+    }
+
+    /** ITEM_COMBO_FIXED_PRICE: each full set of {@code items} costs {@code price}, at most {@code maxSets} times. */
+    record Combo(ItemComboFixedPriceStrategy strategy, Map<ItemType, Integer> items, BigDecimal price,
+                 Integer maxSets) implements BasketRule {
+
+        static Combo of(String csv, BigDecimal price, String max) {
+            Map<ItemType, Integer> items = new EnumMap<>(ItemType.class);
+            for (String part : csv.split(",")) {
+                String[] itemAndQty = part.split(":");
+                items.put(ItemType.valueOf(itemAndQty[0].trim()), Integer.parseInt(itemAndQty[1].trim()));
+            }
+            return new Combo(new ItemComboFixedPriceStrategy(csv, price, max), items, scale(price),
+                    max == null ? null : Integer.valueOf(max));
+        }
+
+        int sets(Map<ItemType, Integer> quantities) {
+            int sets = Integer.MAX_VALUE;
+            for (Map.Entry<ItemType, Integer> e : items.entrySet()) {
+                sets = Math.min(sets, quantities.getOrDefault(e.getKey(), 0) / e.getValue());
+            }
+            return maxSets == null ? sets : Math.min(sets, maxSets);
+        }
+
+        @Override
+        public BigDecimal discount(Map<ItemType, BigDecimal> unitPrices, Map<ItemType, Integer> quantities) {
+            int sets = sets(quantities);
+            if (sets <= 0) return BigDecimal.ZERO;
+            BigDecimal normal = scale(BigDecimal.ZERO);
+            for (Map.Entry<ItemType, Integer> e : items.entrySet()) {
+                normal = add(normal, multiply(unitPrices.get(e.getKey()), e.getValue()));
+            }
+            BigDecimal perSet = subtract(normal, price);
+            return perSet.signum() <= 0 ? BigDecimal.ZERO : multiply(perSet, sets);
+        }
+
+        @Override
+        public String description(Map<ItemType, Integer> quantities) {
+            // Receipt text only: the strategy lists the combo in its own item order
+            return strategy.describeSets(sets(quantities));
+        }
+    }
+
+    /** MAX_SUBTOTAL_PERCENT_OFF: {@code percent} off a subtotal of at least {@code threshold}, capped at {@code cap}. */
+    record PercentOff(MaxSubtotalPercentOffStrategy strategy, BigDecimal threshold, BigDecimal percent,
+                      BigDecimal cap) implements BasketRule {
+
+        static PercentOff of(BigDecimal threshold, BigDecimal percent, String cap) {
+            return new PercentOff(new MaxSubtotalPercentOffStrategy(threshold, percent, cap),
+                    scale(threshold), scale(percent), cap == null ? null : scale(new BigDecimal(cap)));
+        }
+
+        @Override
+        public BigDecimal discount(Map<ItemType, BigDecimal> unitPrices, Map<ItemType, Integer> quantities) {
+            BigDecimal subtotal = scale(BigDecimal.ZERO);
+            for (Map.Entry<ItemType, Integer> e : quantities.entrySet()) {
+                subtotal = add(subtotal, multiply(unitPrices.get(e.getKey()), e.getValue()));
+            }
+            if (subtotal.compareTo(threshold) < 0) return BigDecimal.ZERO;
+            BigDecimal off = scale(subtotal.multiply(percent).movePointLeft(2));
+            return cap == null ? off : off.min(cap);
+        }
+
+        @Override
+        public String description(Map<ItemType, Integer> quantities) {
+            return percent + "% off on subtotal >= " + threshold + (cap != null ? " (cap " + cap + ")" : "");
+        }
+    }
+
+    PriceMathCheckoutReference(PriceProvider priceProvider,
+                               StrategyRegistry registry,
+                               List<BasketRule> basketRules) {
+        this.priceProvider = priceProvider;
+        this.registry = registry;
+        this.basketRules = basketRules;
+    }
+
+    public Receipt checkout(List<BasketItem> basket) {
+        List<ReceiptLine> itemLines = new ArrayList<>();
+        List<DiscountLine> discountLines = new ArrayList<>();
+        BigDecimal subtotal = scale(BigDecimal.ZERO);
+        BigDecimal totalDiscount = scale(BigDecimal.ZERO);
+
+        // Compute & record item lines + collect per-item strategies to apply
+        Map<ItemType, BigDecimal> unitPrices = new EnumMap<>(ItemType.class);
+        Map<ItemType, Integer> quantities = new EnumMap<>(ItemType.class);
+        for (BasketItem item : basket) {
+            BigDecimal unit = scale(priceProvider.priceOf(item.getType()));
+            unitPrices.put(item.getType(), unit);
+            quantities.merge(item.getType(), item.getQuantity(), Integer::sum);
+
+            BigDecimal linePrice = multiply(unit, item.getQuantity());
+            itemLines.add(ReceiptLine.builder()
+                    .itemName(item.getType().name().toLowerCase())
+                    .quantity(item.getQuantity())
+                    .amount(linePrice)
+                    .build());
+            subtotal = add(subtotal, linePrice);
+        }
+
+        // ---- SINGLE BUCKET EXCLUSIVE POLICY ----
+
+        // 1) Evaluate all basket strategies once
+        record BasketCandidate(BasketLevelStrategy strategy, DiscountResult result) {}
+        List<BasketCandidate> candidates = basketRules.stream()
+                .map(r -> new BasketCandidate(r.strategy(),
+                        new DiscountResult(r.description(quantities), r.discount(unitPrices, quantities))))
+                .filter(c -> c.result().getAmount().compareTo(BigDecimal.ZERO) > 0)
+                .collect(Collectors.toList());
+
+        // 2) Pick the single best basket promo (highest amount) among exclusive ones
+        Optional<BasketCandidate> bestExclusive = candidates.stream()
+                .filter(c -> c.strategy().exclusive())
+                .max(Comparator.comparing(c -> c.result().getAmount()));
+
+        Set<ItemType> suppressedItems = Set.of();
+        if (bestExclusive.isPresent()) {
+            BasketCandidate chosen = bestExclusive.get();
+            // Record the basket discount
+            discountLines.add(DiscountLine.builder()
+                    .description(chosen.result().getDescription())
+                    .amount(negate(chosen.result().getAmount()))
+                    .build());
+            totalDiscount = add(totalDiscount, chosen.result().getAmount());
+
+            // Suppress item-level discounts for affected items
+            Set<ItemType> affected = chosen.strategy().affectedItems();
+            suppressedItems = affected.isEmpty()
+                    ? quantities.keySet()                 // empty => whole basket suppressed
+                    : affected;
+        }
+
+        // ---- Apply item-level strategies except suppressed items ----
+        for (ItemType type : quantities.keySet()) {
+            if (suppressedItems.contains(type)) continue; // policy: skip per-item for affected items
+
+            BigDecimal unit = unitPrices.get(type);
+            int qty = quantities.get(type);
+
+            for (DiscountStrategy strategy : registry.strategiesFor(type)) {
+                DiscountResult result = strategy.apply(type, qty, unit);
+                if (result.getAmount().compareTo(BigDecimal.ZERO) > 0) {
+                    discountLines.add(DiscountLine.builder()
+                            .description(result.getDescription())
+                            .amount(negate(result.getAmount()))
+                            .build());
+                    totalDiscount = add(totalDiscount, result.getAmount());
+                }
+            }
+        }
+
+        if (discountLines.isEmpty()) {
+            discountLines.add(DiscountLine.builder()
+                    .description("No Discount Applicable")
+                    .amount(scale(BigDecimal.ZERO))
+                    .build());
+        }
+
+        BigDecimal total = subtract(subtotal, totalDiscount);
+        return Receipt.builder()
+                .items(itemLines)
+                .discounts(discountLines)
+                .subtotal(subtotal)
+                .totalDiscount(negate(totalDiscount))
+                .total(total)
+                .build();
+    }
+}
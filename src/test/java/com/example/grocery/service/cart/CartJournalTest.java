@@ -0,0 +1,89 @@
+package com.example.grocery.service.cart;
+
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.ItemType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private final String a = UUID.randomUUID().toString();
+    private final String b = UUID.randomUUID().toString();
+
+    @Test
+    @DisplayName("Carts are rebuilt from the log alone after a crash")
+    void replaysLogWithoutSnapshot() {
+        CartJournal journal = new CartJournal(dir);
+        assertThat(journal.recover()).isEmpty();
+        journal.opened(a);
+        journal.added(a, 1, line(ItemType.BANANAS, 3));
+        journal.added(a, 2, line(ItemType.APPLES, 1));
+        journal.opened(b);
+        journal.added(b, 1, line(ItemType.LEMONS, 2));
+        journal.removed(a, 3, 0);
+        journal.closed(b);
+        // no close(): the process died
+
+        assertThat(new CartJournal(dir).recover())
+                .containsExactly(new CartJournal.Cart(a, 3, List.of(line(ItemType.APPLES, 1))));
+    }
+
+    @Test
+    @DisplayName("Changes logged while a snapshot reads the carts are not applied twice")
+    void snapshotAndLogOverlap() {
+        CartJournal journal = new CartJournal(dir);
+        journal.recover();
+        journal.opened(a);
+        journal.added(a, 1, line(ItemType.BANANAS, 3));
+
+        assertThat(journal.snapshot(() -> {
+            // A scan lands after the log was rotated but before this cart is read
+            journal.added(a, 2, line(ItemType.ORANGES, 1));
+            return List.of(new CartJournal.Cart(a, 2, List.of(line(ItemType.BANANAS, 3), line(ItemType.ORANGES, 1))));
+        })).isTrue();
+        journal.added(a, 3, line(ItemType.PEACHES, 4));
+
+        assertThat(new CartJournal(dir).recover()).containsExactly(new CartJournal.Cart(a, 3,
+                List.of(line(ItemType.BANANAS, 3), line(ItemType.ORANGES, 1), line(ItemType.PEACHES, 4))));
+    }
+
+    @Test
+    @DisplayName("A torn record at the end of the log is dropped; the log stays bounded by snapshots")
+    void tornTailAndCompaction() throws IOException {
+        CartJournal journal = new CartJournal(dir);
+        journal.recover();
+        journal.opened(a);
+        journal.added(a, 1, line(ItemType.BANANAS, 3));
+        journal.close();
+        try (var logs = Files.list(dir)) {
+            Path log = logs.filter(p -> p.toString().endsWith(".log")).findFirst().orElseThrow();
+            Files.write(log, new byte[CartJournal.RECORD_BYTES - 5], StandardOpenOption.APPEND);
+        }
+
+        CartJournal restarted = new CartJournal(dir);
+        assertThat(restarted.recover()).containsExactly(new CartJournal.Cart(a, 1, List.of(line(ItemType.BANANAS, 3))));
+        try (var files = Files.list(dir)) {
+            // Recovery compacted everything into the snapshot and started one empty log
+            assertThat(files.map(p -> p.getFileName().toString()).sorted())
+                    .containsExactly("carts-2.log", "carts.snapshot");
+        }
+        assertThat(restarted.failures()).isZero();
+    }
+
+    private static BasketItem line(ItemType type, int quantity) {
+        return BasketItem.builder().type(type).quantity(quantity).build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.grocery.service.catalog;
+
+import com.example.grocery.domain.ItemType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ItemNameResolverTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Bundled aliases: case, surrounding and repeated inner whitespace are ignored")
+    void resolvesVariants() {
+        var resolver = new ItemNameResolver("classpath:item-aliases.txt");
+
+        for (ItemType type : ItemType.values()) {
+            assertThat(resolver.resolve(type.name())).isEqualTo(type);
+            assertThat(resolver.resolve(type.name().toLowerCase())).isEqualTo(type);
+        }
+        assertThat(resolver.resolve("Banana")).isEqualTo(ItemType.BANANAS);
+        assertThat(resolver.resolve("  peach\t")).isEqualTo(ItemType.PEACHES);
+        assertThat(resolver.resolve(new StringBuilder("ORANGE"))).isEqualTo(ItemType.ORANGES);
+        assertThat(resolver.resolve(CharBuffer.wrap(" lemons "))).isEqualTo(ItemType.LEMONS);
+
+        assertThat(resolver.resolve("kiwi")).isNull();
+        assertThat(resolver.resolve("bananass")).isNull();
+        assertThat(resolver.resolve("banan")).isNull();
+        assertThat(resolver.resolve("   ")).isNull();
+        assertThat(resolver.resolve("")).isNull();
+        assertThat(resolver.resolve(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Multi-word aliases match with any run of whitespace between words, but not without it")
+    void multiWordAliases() {
+        var resolver = new ItemNameResolver(Map.of("Blood  Orange", ItemType.ORANGES));
+
+        assertThat(resolver.resolve("blood orange")).isEqualTo(ItemType.ORANGES);
+        assertThat(resolver.resolve(" BLOOD \t\n ORANGE ")).isEqualTo(ItemType.ORANGES);
+        assertThat(resolver.resolve("bloodorange")).isNull();
+        assertThat(resolver.resolve("blood orange s")).isNull();
+    }
+
+    @Test
+    @DisplayName("Reload swaps in the file's aliases as the next version")
+    void reloadInstallsNextVersion() throws IOException {
+        Path file = Files.writeString(dir.resolve("aliases.txt"), "banana = BANANAS\n");
+        var resolver = new ItemNameResolver(file.toUri().toString());
+        assertThat(resolver.resolve("plantain")).isNull();
+
+        Files.writeString(file, """
+                # bananas by another name
+                banana   = BANANAS
+                plantain = bananas
+                """);
+        assertThat(resolver.reload()).isTrue();
+        assertThat(resolver.version()).isEqualTo(2L);
+        assertThat(resolver.resolve("Plantain")).isEqualTo(ItemType.BANANAS);
+        assertThat(resolver.lastFailure()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A file with one invalid line is rejected whole and the current aliases are kept")
+    void invalidFileKeepsAliases() throws IOException {
+        Path file = Files.writeString(dir.resolve("aliases.txt"), "banana = BANANAS\n");
+        var resolver = new ItemNameResolver(file.toUri().toString());
+
+        Files.writeString(file, "plantain = BANANAS\nkiwi = KIWIS\n");
+        assertThat(resolver.reload()).isFalse();
+        assertThat(resolver.version()).isEqualTo(1L);
+        assertThat(resolver.resolve("plantain")).isNull();
+        assertThat(resolver.resolve("banana")).isEqualTo(ItemType.BANANAS);
+        assertThat(resolver.lastFailure()).get().extracting(ItemNameResolver.ReloadFailure::message).asString()
+                .contains("Line 2");
+
+        Files.writeString(file, "apples = BANANAS\n");
+        assertThat(resolver.reload()).isFalse();
+        assertThat(resolver.lastFailure()).get().extracting(ItemNameResolver.ReloadFailure::message).asString()
+                .contains("APPLES", "BANANAS");
+
+        Files.delete(file);
+        assertThat(resolver.reload()).isFalse();
+        assertThat(resolver.resolve("banana")).isEqualTo(ItemType.BANANAS);
+
+        assertThatThrownBy(() -> new ItemNameResolver(dir.resolve("missing.txt").toUri().toString()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.grocery.service.catalog;
+
+import com.example.grocery.domain.ItemType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedPriceFileTest {
+
+    @TempDir
+    Path dir;
+
+    private static SkuCatalog catalog(int skus) {
+        SkuCatalog.Builder builder = SkuCatalog.builder();
+        for (int i = 0; i < skus; i++) builder.add("SKU-" + i);
+        return builder.build();
+    }
+
+    @Test
+    @DisplayName("Dense and sparse files return every written price and NO_PRICE for the rest")
+    void roundTrip() throws IOException {
+        SkuCatalog catalog = catalog(10_000);
+        SkuPriceTable.Builder dense = SkuPriceTable.builder(catalog);
+        SkuPriceTable.Builder sparse = SkuPriceTable.builder(catalog);
+        for (int id = 0; id < catalog.size(); id++) {
+            dense.price(id, 10L + id);
+            if (id % 7 == 3) sparse.price(id, 10L + id);
+        }
+
+        Path densePath = dir.resolve("dense.bin");
+        Path sparsePath = dir.resolve("sparse.bin");
+        MappedPriceFile.write(densePath, dense.build());
+        MappedPriceFile.write(sparsePath, sparse.build());
+        MappedPriceFile denseFile = MappedPriceFile.open(densePath);
+        MappedPriceFile sparseFile = MappedPriceFile.open(sparsePath);
+
+        assertThat(denseFile.size()).isEqualTo(catalog.size());
+        assertThat(Files.size(densePath)).isEqualTo(16L + 12L * catalog.size());
+        for (int id = 0; id < catalog.size(); id++) {
+            assertThat(denseFile.pricePenceOf(id)).isEqualTo(10L + id);
+            assertThat(sparseFile.pricePenceOf(id)).isEqualTo(id % 7 == 3 ? 10L + id : SkuPriceTable.NO_PRICE);
+        }
+        assertThat(denseFile.pricePenceOf(catalog.size())).isEqualTo(SkuPriceTable.NO_PRICE);
+        assertThat(denseFile.pricePenceOf(-1)).isEqualTo(SkuPriceTable.NO_PRICE);
+    }
+
+    @Test
+    @DisplayName("A replaced file is swapped whole; an open mapping keeps the prices it mapped")
+    void atomicReplace() throws IOException {
+        SkuCatalog catalog = SkuCatalog.ofItemTypes();
+        Path path = dir.resolve("prices.bin");
+        MappedPriceFile.write(path, SkuPriceTable.builder(catalog).price(0, 50L).build());
+        MappedPriceFile old = MappedPriceFile.open(path);
+
+        MappedPriceFile.write(path, SkuPriceTable.builder(catalog).price(0, 60L).price(1, 30L).build());
+
+        assertThat(old.pricePenceOf(0)).isEqualTo(50L);
+        assertThat(MappedPriceFile.open(path).pricePenceOf(0)).isEqualTo(60L);
+        try (var files = Files.list(dir)) {
+            assertThat(files).containsExactly(path); // no temp files left behind
+        }
+    }
+
+    @Test
+    @DisplayName("Files that are not price files, or are cut short, are rejected")
+    void rejectsBadFiles() throws IOException {
+        Path json = Files.writeString(dir.resolve("prices.json"), "{\"prices\":{\"BANANAS\":0.50}}");
+        assertThatThrownBy(() -> MappedPriceFile.open(json)).isInstanceOf(IllegalArgumentException.class);
+
+        Path path = dir.resolve("prices.bin");
+        MappedPriceFile.write(path, SkuPriceTable.builder(SkuCatalog.ofItemTypes()).price(0, 50L).price(1, 30L).build());
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 4));
+        assertThatThrownBy(() -> MappedPriceFile.open(path))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Truncated");
+    }
+
+    @Test
+    @DisplayName("prices.json converts through the catalog; unknown codes reject the file")
+    void convertsJson() throws IOException {
+        SkuCatalog.Builder builder = SkuCatalog.builder();
+        int kiwi = builder.add("KIWI-1");
+        SkuCatalog catalog = builder.build();
+        String json = "{\"version\":3,\"prices\":{\"BANANAS\":\"0.55\",\"kiwi-1\":1.20,\"APPLES\":0.655}}";
+
+        Path path = dir.resolve("prices.bin");
+        PriceFileConverter.convert(stream(json), catalog, path);
+        MappedPriceFile file = MappedPriceFile.open(path);
+
+        assertThat(file.size()).isEqualTo(3);
+        assertThat(file.pricePenceOf(ItemType.BANANAS.ordinal())).isEqualTo(55L);
+        assertThat(file.pricePenceOf(ItemType.APPLES.ordinal())).isEqualTo(66L); // HALF_UP like PriceMath.scale
+        assertThat(file.pricePenceOf(kiwi)).isEqualTo(120L);
+        assertThat(file.pricePenceOf(ItemType.LEMONS.ordinal())).isEqualTo(SkuPriceTable.NO_PRICE);
+
+        assertThatThrownBy(() -> PriceFileConverter.readJson(stream("{\"prices\":{\"KIWI-2\":1}}"), catalog))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("KIWI-2");
+        assertThatThrownBy(() -> PriceFileConverter.readJson(stream("{\"items\":{}}"), catalog))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
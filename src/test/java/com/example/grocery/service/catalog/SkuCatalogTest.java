@@ -0,0 +1,110 @@
+package com.example.grocery.service.catalog;
+
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.service.promo.BuyXGetYFreeStrategy;
+import com.example.grocery.service.promo.DiscountStrategy;
+import com.example.grocery.service.promo.MinQtyFixedUnitPriceStrategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SkuCatalogTest {
+
+    @Test
+    @DisplayName("ItemTypes keep their ordinals as ids; added SKUs get the next dense ids")
+    void denseIds() {
+        SkuCatalog.Builder builder = SkuCatalog.builder();
+        int kiwi = builder.add("KIWI-1");
+        int mango = builder.add("MANGO-7");
+        SkuCatalog catalog = builder.build();
+
+        assertThat(catalog.size()).isEqualTo(ItemType.values().length + 2);
+        for (ItemType type : ItemType.values()) {
+            assertThat(catalog.idOf(type)).isEqualTo(type.ordinal());
+            assertThat(catalog.idOf(type.name())).isEqualTo(type.ordinal());
+        }
+        assertThat(kiwi).isEqualTo(ItemType.values().length);
+        assertThat(catalog.idOf("kiwi-1")).isEqualTo(kiwi);
+        assertThat(catalog.idOf(new StringBuilder("Mango-7"))).isEqualTo(mango);
+        assertThat(catalog.code(mango)).isEqualTo("MANGO-7");
+        assertThat(catalog.idOf("MANGO-8")).isEqualTo(SkuCatalog.UNKNOWN);
+        assertThat(catalog.idOf("")).isEqualTo(SkuCatalog.UNKNOWN);
+    }
+
+    @Test
+    @DisplayName("Codes differing only in case are duplicates")
+    void rejectsDuplicates() {
+        SkuCatalog.Builder builder = SkuCatalog.builder();
+        builder.add("sku-1");
+        builder.add("SKU-1");
+        assertThatThrownBy(builder::build).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("SKU-1");
+
+        SkuCatalog.Builder clash = SkuCatalog.builder();
+        clash.add("bananas");
+        assertThatThrownBy(clash::build).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("A large catalog resolves every code to its own id")
+    void largeCatalog() {
+        SkuCatalog.Builder builder = SkuCatalog.builder();
+        for (int i = 0; i < 200_000; i++) builder.add("SKU-" + i);
+        SkuCatalog catalog = builder.build();
+        for (int i = 0; i < 200_000; i += 997) {
+            assertThat(catalog.idOf("sku-" + i)).isEqualTo(ItemType.values().length + i);
+        }
+    }
+
+    @Test
+    @DisplayName("CSV load: prices by id, ItemType rows only price the built-in items")
+    void readsCsv() throws Exception {
+        String csv = """
+                code,price
+                # fruit
+                BANANAS,0.55
+                SKU-1, 1.25
+                SKU-2,0.125
+                """;
+        SkuCatalogFile.Loaded loaded = SkuCatalogFile.read(new StringReader(csv));
+        SkuCatalog catalog = loaded.catalog();
+        SkuPriceTable prices = loaded.prices();
+
+        assertThat(catalog.size()).isEqualTo(ItemType.values().length + 2);
+        assertThat(prices.pricePenceOf(catalog.idOf(ItemType.BANANAS))).isEqualTo(55L);
+        assertThat(prices.pricePenceOf(catalog.idOf("sku-1"))).isEqualTo(125L);
+        assertThat(prices.pricePenceOf(catalog.idOf("SKU-2"))).isEqualTo(13L);
+        assertThat(prices.hasPrice(catalog.idOf(ItemType.APPLES))).isFalse();
+
+        assertThatThrownBy(() -> SkuCatalogFile.read(new StringReader("SKU-1,-1")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SkuCatalogFile.read(new StringReader("SKU-1")))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Line 1");
+    }
+
+    @Test
+    @DisplayName("Promotions are filed per SKU id in priority order; other SKUs share an empty list")
+    void promotionIndex() {
+        SkuCatalog.Builder builder = SkuCatalog.builder();
+        int kiwi = builder.add("KIWI");
+        SkuCatalog catalog = builder.build();
+        DiscountStrategy b2g1 = new BuyXGetYFreeStrategy(ItemType.BANANAS, 2, 1);
+        DiscountStrategy minQty = new MinQtyFixedUnitPriceStrategy(ItemType.BANANAS, 3, new BigDecimal("0.40"));
+
+        SkuPromotionIndex index = SkuPromotionIndex.builder(catalog)
+                .addForItemTypes(List.of(b2g1, minQty))
+                .add(kiwi, b2g1)
+                .build();
+
+        assertThat(index.strategiesFor(catalog.idOf(ItemType.BANANAS))).containsExactly(b2g1, minQty); // priority 50 before 70
+        assertThat(index.strategiesFor(kiwi)).containsExactly(b2g1);
+        assertThat(index.strategiesFor(catalog.idOf(ItemType.APPLES))).isEmpty();
+        assertThatThrownBy(() -> SkuPromotionIndex.builder(catalog).add(catalog.size(), b2g1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.grocery.service.idempotency;
+
+import com.example.grocery.config.CheckoutProperties;
+import com.example.grocery.domain.Receipt;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotentReceiptStoreTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger computed = new AtomicInteger();
+
+    private IdempotentReceiptStore store(Duration ttl, int maxEntries) {
+        CheckoutProperties props = new CheckoutProperties();
+        props.getIdempotency().setTtl(ttl);
+        props.getIdempotency().setMaxEntries(maxEntries);
+        return new IdempotentReceiptStore(props, meters, now::get);
+    }
+
+    private Receipt compute() {
+        return Receipt.builder().total(BigDecimal.valueOf(computed.incrementAndGet())).build();
+    }
+
+    private double count(String result) {
+        return meters.get("checkout.idempotency.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    @DisplayName("A repeated key returns the first receipt without pricing again")
+    void repeatedKeyIsAHit() {
+        IdempotentReceiptStore store = store(Duration.ofMinutes(5), 10);
+
+        Receipt first = store.getOrCompute("k1", "basket", this::compute);
+        Receipt second = store.getOrCompute("k1", "basket", this::compute);
+
+        assertThat(second).isSameAs(first);
+        assertThat(computed).hasValue(1);
+        assertThat(count("miss")).isEqualTo(1.0);
+        assertThat(count("hit")).isEqualTo(1.0);
+        assertThat(meters.get("checkout.idempotency.entries").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Entries older than the TTL are priced again")
+    void expiredEntryIsRecomputed() {
+        IdempotentReceiptStore store = store(Duration.ofSeconds(10), 10);
+
+        Receipt first = store.getOrCompute("k1", "basket", this::compute);
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        Receipt second = store.getOrCompute("k1", "basket", this::compute);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(computed).hasValue(2);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Beyond max-entries the oldest keys are evicted")
+    void oldestKeysAreEvicted() {
+        IdempotentReceiptStore store = store(Duration.ofMinutes(5), 2);
+
+        store.getOrCompute("k1", "a", this::compute);
+        store.getOrCompute("k2", "b", this::compute);
+        store.getOrCompute("k3", "c", this::compute);
+        assertThat(store.size()).isEqualTo(2);
+
+        store.getOrCompute("k1", "a", this::compute);
+        assertThat(computed).hasValue(4);
+        assertThat(count("hit")).isZero();
+    }
+
+    @Test
+    @DisplayName("Reusing a key for a different basket is rejected")
+    void keyReusedForDifferentBasket() {
+        IdempotentReceiptStore store = store(Duration.ofMinutes(5), 10);
+        store.getOrCompute("k1", "a", this::compute);
+
+        assertThatThrownBy(() -> store.getOrCompute("k1", "b", this::compute))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("different basket");
+        assertThatThrownBy(() -> store.getOrCompute(" ", "a", this::compute))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Failures are not stored, so a retry prices again")
+    void failuresAreNotCached() {
+        IdempotentReceiptStore store = store(Duration.ofMinutes(5), 10);
+
+        assertThatThrownBy(() -> store.getOrCompute("k1", "a", () -> {
+            throw new IllegalArgumentException("Unknown item: Kiwis");
+        })).hasMessage("Unknown item: Kiwis");
+
+        assertThat(store.size()).isZero();
+        assertThat(store.getOrCompute("k1", "a", this::compute).getTotal()).isEqualByComparingTo("1");
+    }
+
+    @Test
+    @DisplayName("Concurrent duplicates wait for the in-flight computation")
+    void inFlightDuplicatesAreCoalesced() throws Exception {
+        IdempotentReceiptStore store = store(Duration.ofMinutes(5), 10);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        int waiters = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(waiters + 1);
+        try {
+            Future<Receipt> first = pool.submit(() -> store.getOrCompute("k1", "a", () -> {
+                started.countDown();
+                await(release);
+                return compute();
+            }));
+            started.await();
+
+            CountDownLatch calling = new CountDownLatch(waiters);
+            Future<?>[] duplicates = new Future<?>[waiters];
+            for (int i = 0; i < waiters; i++) {
+                duplicates[i] = pool.submit(() -> {
+                    calling.countDown();
+                    return store.getOrCompute("k1", "a", this::compute);
+                });
+            }
+            calling.await();
+            // Give the duplicates time to reach the in-flight entry before releasing it
+            Thread.sleep(50);
+            release.countDown();
+
+            Receipt receipt = first.get(5, TimeUnit.SECONDS);
+            for (Future<?> duplicate : duplicates) {
+                assertThat(duplicate.get(5, TimeUnit.SECONDS)).isSameAs(receipt);
+            }
+            assertThat(computed).hasValue(1);
+            assertThat(count("miss")).isEqualTo(1.0);
+            assertThat(count("hit") + count("coalesced")).isEqualTo(waiters);
+            assertThat(count("coalesced")).isPositive();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("A failed computation leaves nothing in the eviction queue")
+    void failureLeavesNoStaleQueueEntry() {
+        IdempotentReceiptStore store = store(Duration.ofMinutes(5), 1);
+
+        assertThatThrownBy(() -> store.getOrCompute("k1", "a", () -> {
+            throw new IllegalArgumentException("Unknown item: Kiwis");
+        }));
+        assertThat(store.queued()).isZero();
+
+        Receipt k1 = store.getOrCompute("k1", "a", this::compute);
+        assertThat(store.getOrCompute("k1", "a", this::compute)).isSameAs(k1);
+        assertThat(store.queued()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Expired entries behind one still being priced are purged; the in-flight one is kept")
+    void purgeSkipsInFlightEntries() throws Exception {
+        IdempotentReceiptStore store = store(Duration.ofSeconds(10), 10);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Receipt> slow = pool.submit(() -> store.getOrCompute("slow", "s", () -> {
+                started.countDown();
+                await(release);
+                return compute();
+            }));
+            started.await();
+            Receipt first = store.getOrCompute("k1", "a", this::compute);
+            store.getOrCompute("k2", "b", this::compute);
+
+            now.addAndGet(Duration.ofSeconds(10).toNanos());
+            Receipt second = store.getOrCompute("k1", "a", this::compute);
+
+            assertThat(second).isNotSameAs(first);
+            // k2 expired and went; k1 was replaced, not queued twice; "slow" is still in flight and stays
+            assertThat(store.size()).isEqualTo(2);
+            assertThat(store.queued()).isEqualTo(2);
+
+            release.countDown();
+            Receipt slowReceipt = slow.get(5, TimeUnit.SECONDS);
+            now.addAndGet(Duration.ofSeconds(5).toNanos());
+            assertThat(store.getOrCompute("slow", "s", this::compute)).isNotSameAs(slowReceipt);
+            assertThat(store.queued()).isEqualTo(store.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Overflow never evicts an entry still being priced; its duplicate still coalesces")
+    void overflowKeepsInFlightEntries() throws Exception {
+        IdempotentReceiptStore store = store(Duration.ofMinutes(5), 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Receipt> first = pool.submit(() -> store.getOrCompute("k1", "a", () -> {
+                started.countDown();
+                await(release);
+                return compute();
+            }));
+            started.await();
+
+            store.getOrCompute("k2", "b", this::compute);
+            assertThat(store.size()).isEqualTo(2);
+
+            Future<Receipt> duplicate = pool.submit(() -> store.getOrCompute("k1", "a", this::compute));
+            Thread.sleep(50);
+            release.countDown();
+            assertThat(duplicate.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+            assertThat(computed).hasValue(2);
+
+            // Once priced, the oldest goes on the next overflow
+            store.getOrCompute("k3", "c", this::compute);
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(store.queued()).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
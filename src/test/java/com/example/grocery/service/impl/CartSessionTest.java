@@ -0,0 +1,331 @@
+package com.example.grocery.service.impl;
+
+import com.example.grocery.config.CheckoutProperties;
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.exception.CartNotFoundException;
+import com.example.grocery.service.cart.CartJournal;
+import com.example.grocery.service.pricing.PriceProvider;
+import com.example.grocery.service.promo.*;
+import org.junit.jupiter.api.DisplayName;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Property tests: after every add or remove, a cart's receipt must equal a full checkout of its lines,
+ * for random prices, promotion sets and scan sequences, including reloads in the middle of a cart and
+ * a restart from the cart store.
+ */
+class CartSessionTest {
+
+    private static final ItemType[] ITEMS = ItemType.values();
+
+    @Test
+    @DisplayName("Random scans and removals: cart receipt == full checkout after every change")
+    void receiptMatchesFullCheckoutAfterEveryChange() {
+        Random random = new Random(20250311L);
+        for (int run = 0; run < 500; run++) {
+            PriceProvider prices = randomPrices(random);
+            PromotionEngine promotions = new PromotionEngine(
+                    new StrategyRegistry(randomItemStrategies(random)), randomBasketStrategies(random));
+            PromotionOptimizer optimizer = random.nextBoolean() ? null : new PromotionOptimizer(Duration.ofSeconds(5));
+
+            assertScansMatchCheckout(random, run, prices, promotions, optimizer, () -> {});
+        }
+    }
+
+    @Test
+    @DisplayName("Price and promotion reloads mid-cart re-price it against the new versions")
+    void receiptFollowsReloads() {
+        Random random = new Random(20250312L);
+        for (int run = 0; run < 200; run++) {
+            SwitchingPrices prices = new SwitchingPrices(randomPrices(random));
+            PromotionEngine promotions = new PromotionEngine(
+                    new StrategyRegistry(randomItemStrategies(random)), randomBasketStrategies(random));
+
+            assertScansMatchCheckout(random, run, prices, promotions, null, () -> {
+                if (random.nextInt(5) == 0) prices.install(randomPrices(random));
+                if (random.nextInt(5) == 0) {
+                    promotions.install(new StrategyRegistry(randomItemStrategies(random)), randomBasketStrategies(random));
+                }
+            });
+        }
+    }
+
+    @Test
+    @DisplayName("A scan re-evaluates only the changed item's strategies and the basket strategies involving it")
+    void scanEvaluatesOnlyAffectedStrategies() {
+        PriceProvider prices = type -> new BigDecimal("0.50");
+        PromotionPlan plan = PromotionPlan.compile(
+                new StrategyRegistry(List.of(
+                        new BuyXGetYFreeStrategy(ItemType.BANANAS, 2, 1),
+                        new BuyXGetYFreeStrategy(ItemType.APPLES, 3, 1))),
+                List.of(new ItemComboFixedPriceStrategy("APPLES:1,ORANGES:1", new BigDecimal("0.80"), null)));
+        CartSession cart = new CartSession(UUID.randomUUID().toString(), 500, null);
+
+        cart.add(line(ItemType.APPLES, 1), prices, plan, null);
+        cart.add(line(ItemType.ORANGES, 1), prices, plan, null);
+        long before = cart.evaluations();
+
+        cart.add(line(ItemType.BANANAS, 3), prices, plan, null);
+        assertThat(cart.evaluations() - before).as("banana deal only; the combo is cached").isEqualTo(1);
+
+        before = cart.evaluations();
+        Receipt receipt = cart.add(line(ItemType.APPLES, 1), prices, plan, null);
+        assertThat(cart.evaluations() - before).as("apple deal and the combo").isEqualTo(2);
+
+        List<BasketItem> lines = List.of(line(ItemType.APPLES, 1), line(ItemType.ORANGES, 1),
+                line(ItemType.BANANAS, 3), line(ItemType.APPLES, 1));
+        assertThat(receipt).isEqualTo(new CheckoutServiceImpl(prices, new PromotionEngine(plan.registry(),
+                plan.basketStrategies())).checkout(lines));
+    }
+
+    @Test
+    @DisplayName("Unknown carts and line indexes are rejected")
+    void rejectsUnknownCartsAndLines() {
+        PromotionEngine promotions = new PromotionEngine(new StrategyRegistry(List.of()), List.of());
+        CartServiceImpl carts = new CartServiceImpl(type -> BigDecimal.ONE, promotions);
+
+        String id = carts.open();
+        carts.add(id, line(ItemType.LEMONS, 2));
+        assertThatThrownBy(() -> carts.remove(id, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(carts.remove(id, 0).getItems()).isEmpty();
+
+        carts.close(id);
+        assertThatThrownBy(() -> carts.receipt(id)).isInstanceOf(CartNotFoundException.class);
+        assertThatThrownBy(() -> carts.close(id)).isInstanceOf(CartNotFoundException.class);
+        assertThat(carts.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Carts restored from disk after a crash give the same receipts")
+    void restoresCartsAfterCrash(@TempDir Path dir) {
+        Random random = new Random(20250313L);
+        PriceProvider prices = randomPrices(random);
+        PromotionEngine promotions = new PromotionEngine(
+                new StrategyRegistry(randomItemStrategies(random)), randomBasketStrategies(random));
+        CheckoutProperties props = new CheckoutProperties();
+        CartServiceImpl carts = new CartServiceImpl(prices, promotions, null, props, new CartJournal(dir),
+                new SimpleMeterRegistry(), System::nanoTime);
+
+        Map<String, List<BasketItem>> expected = new LinkedHashMap<>();
+        for (int step = 0; step < 400; step++) {
+            if (step == 200) assertThat(carts.snapshot()).isTrue();
+            int action = random.nextInt(10);
+            if (expected.isEmpty() || action == 0) {
+                String id = carts.open();
+                expected.put(id, new ArrayList<>());
+                continue;
+            }
+            String id = new ArrayList<>(expected.keySet()).get(random.nextInt(expected.size()));
+            List<BasketItem> lines = expected.get(id);
+            if (action == 1) {
+                carts.close(id);
+                expected.remove(id);
+            } else if (action == 2 && !lines.isEmpty()) {
+                int index = random.nextInt(lines.size());
+                lines.remove(index);
+                carts.remove(id, index);
+            } else {
+                BasketItem line = line(ITEMS[random.nextInt(ITEMS.length)], 1 + random.nextInt(6));
+                lines.add(line);
+                carts.add(id, line);
+            }
+        }
+        // The process dies: no shutdown(), no final snapshot
+
+        CartServiceImpl restarted = new CartServiceImpl(prices, promotions, null, props, new CartJournal(dir),
+                new SimpleMeterRegistry(), System::nanoTime);
+        CheckoutServiceImpl checkout = new CheckoutServiceImpl(prices, promotions);
+        assertThat(restarted.size()).isEqualTo(expected.size());
+        expected.forEach((id, lines) -> assertThat(restarted.receipt(id)).isEqualTo(checkout.checkout(lines)));
+    }
+
+    @Test
+    @DisplayName("A snapshot taken while a cart is being opened keeps the cart and its later changes")
+    void snapshotDuringOpenKeepsCart(@TempDir Path dir) {
+        PromotionEngine promotions = new PromotionEngine(new StrategyRegistry(List.of()), List.of());
+        CheckoutProperties props = new CheckoutProperties();
+        AtomicReference<CartServiceImpl> service = new AtomicReference<>();
+        // The housekeeper's snapshot runs right after OPEN is logged, before open() returns
+        CartJournal journal = new CartJournal(dir) {
+            @Override
+            public void opened(String cartId) {
+                super.opened(cartId);
+                assertThat(service.get().snapshot()).isTrue();
+            }
+        };
+        service.set(new CartServiceImpl(type -> BigDecimal.ONE, promotions, null, props, journal,
+                new SimpleMeterRegistry(), System::nanoTime));
+
+        String id = service.get().open();
+        service.get().add(id, line(ItemType.APPLES, 2));
+        // The process dies: no shutdown(), no final snapshot
+
+        CartServiceImpl restarted = new CartServiceImpl(type -> BigDecimal.ONE, promotions, null, props,
+                new CartJournal(dir), new SimpleMeterRegistry(), System::nanoTime);
+        assertThat(restarted.receipt(id).getTotal()).isEqualByComparingTo("2.00");
+    }
+
+    @Test
+    @DisplayName("Idle carts are closed; beyond max-carts the longest idle is closed; memory is accounted")
+    void boundsOpenCarts() {
+        CheckoutProperties props = new CheckoutProperties();
+        props.getCarts().setMaxCarts(2);
+        props.getCarts().setMaxLines(3);
+        props.getCarts().setIdleTimeout(Duration.ofMinutes(10));
+        AtomicLong now = new AtomicLong();
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        PromotionEngine promotions = new PromotionEngine(new StrategyRegistry(List.of()), List.of());
+        CartServiceImpl carts = new CartServiceImpl(type -> BigDecimal.ONE, promotions, null, props, null, meters, now::get);
+
+        String first = carts.open();
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+        String second = carts.open();
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+        carts.add(first, line(ItemType.APPLES, 1)); // first is now the most recently used
+        String third = carts.open();
+
+        assertThatThrownBy(() -> carts.receipt(second)).isInstanceOf(CartNotFoundException.class);
+        assertThat(carts.size()).isEqualTo(2);
+        assertThat(meters.get("checkout.carts.evicted").tag("reason", "capacity").counter().count()).isEqualTo(1.0);
+        assertThat(meters.get("checkout.carts.memory").gauge().value())
+                .isEqualTo(2 * CartServiceImpl.CART_BYTES + CartServiceImpl.LINE_BYTES);
+
+        carts.add(first, line(ItemType.APPLES, 1));
+        carts.add(first, line(ItemType.APPLES, 1));
+        assertThatThrownBy(() -> carts.add(first, line(ItemType.APPLES, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+        carts.receipt(third);
+        carts.evictIdle();
+        assertThat(carts.size()).isEqualTo(1);
+        assertThatThrownBy(() -> carts.receipt(first)).isInstanceOf(CartNotFoundException.class);
+        assertThat(meters.get("checkout.carts.evicted").tag("reason", "idle").counter().count()).isEqualTo(1.0);
+    }
+
+    private static void assertScansMatchCheckout(Random random, int run, PriceProvider prices,
+                                                 PromotionEngine promotions, PromotionOptimizer optimizer,
+                                                 Runnable betweenChanges) {
+        CartServiceImpl carts = new CartServiceImpl(prices, promotions, optimizer);
+        CheckoutServiceImpl checkout = new CheckoutServiceImpl(prices, promotions, null, optimizer);
+        String id = carts.open();
+        List<BasketItem> lines = new ArrayList<>();
+        assertThat(carts.receipt(id)).isEqualTo(checkout.checkout(lines));
+
+        for (int step = 0; step < 30; step++) {
+            betweenChanges.run();
+            Receipt receipt;
+            if (!lines.isEmpty() && random.nextInt(4) == 0) {
+                int index = random.nextInt(lines.size());
+                lines.remove(index);
+                receipt = carts.remove(id, index);
+            } else {
+                BasketItem line = line(ITEMS[random.nextInt(ITEMS.length)], 1 + random.nextInt(6));
+                lines.add(line);
+                receipt = carts.add(id, line);
+            }
+            assertThat(receipt).as("run %d, step %d, lines %s", run, step, lines).isEqualTo(checkout.checkout(lines));
+        }
+        betweenChanges.run();
+        assertThat(carts.receipt(id)).as("run %d, final read", run).isEqualTo(checkout.checkout(lines));
+    }
+
+    /** A reloadable provider: snapshots are the installed prices, versioned from 1. */
+    private static final class SwitchingPrices implements PriceProvider {
+        private final AtomicReference<PriceProvider> current = new AtomicReference<>();
+        private long version;
+
+        SwitchingPrices(PriceProvider initial) {
+            install(initial);
+        }
+
+        void install(PriceProvider prices) {
+            long v = ++version;
+            current.set(new PriceProvider() {
+                @Override
+                public BigDecimal priceOf(ItemType type) {
+                    return prices.priceOf(type);
+                }
+
+                @Override
+                public long version() {
+                    return v;
+                }
+            });
+        }
+
+        @Override
+        public BigDecimal priceOf(ItemType type) {
+            return current.get().priceOf(type);
+        }
+
+        @Override
+        public long version() {
+            return current.get().version();
+        }
+
+        @Override
+        public PriceProvider snapshot() {
+            return current.get();
+        }
+    }
+
+    private static BasketItem line(ItemType type, int quantity) {
+        return BasketItem.builder().type(type).quantity(quantity).build();
+    }
+
+    private static PriceProvider randomPrices(Random random) {
+        Map<ItemType, BigDecimal> prices = new EnumMap<>(ItemType.class);
+        for (ItemType item : ITEMS) {
+            prices.put(item, BigDecimal.valueOf(1 + random.nextInt(5_000), 3));
+        }
+        return prices::get;
+    }
+
+    private static List<DiscountStrategy> randomItemStrategies(Random random) {
+        List<DiscountStrategy> strategies = new ArrayList<>();
+        for (int i = random.nextInt(6); i > 0; i--) {
+            ItemType item = ITEMS[random.nextInt(ITEMS.length)];
+            strategies.add(switch (random.nextInt(3)) {
+                case 0 -> new BuyXGetYFreeStrategy(item, 1 + random.nextInt(4), 1 + random.nextInt(3));
+                case 1 -> new KItemForFixedPriceStrategy(item, 2 + random.nextInt(4), BigDecimal.valueOf(5 + random.nextInt(3_000), 3));
+                default -> new MinQtyFixedUnitPriceStrategy(item, 1 + random.nextInt(5), BigDecimal.valueOf(5 + random.nextInt(5_000), 3));
+            });
+        }
+        return strategies;
+    }
+
+    private static List<BasketLevelStrategy> randomBasketStrategies(Random random) {
+        List<BasketLevelStrategy> strategies = new ArrayList<>();
+        for (int i = random.nextInt(4); i > 0; i--) {
+            if (random.nextBoolean()) {
+                ItemType a = ITEMS[random.nextInt(ITEMS.length)];
+                ItemType b = ITEMS[(a.ordinal() + 1 + random.nextInt(ITEMS.length - 1)) % ITEMS.length];
+                strategies.add(new ItemComboFixedPriceStrategy(
+                        a + ":" + (1 + random.nextInt(3)) + "," + b + ":" + (1 + random.nextInt(3)),
+                        BigDecimal.valueOf(5 + random.nextInt(4_000), 3),
+                        random.nextBoolean() ? null : String.valueOf(1 + random.nextInt(4))));
+            } else {
+                strategies.add(new MaxSubtotalPercentOffStrategy(
+                        BigDecimal.valueOf(random.nextInt(3_000), 2),
+                        BigDecimal.valueOf(random.nextInt(10_000), 3),
+                        random.nextBoolean() ? null : BigDecimal.valueOf(1 + random.nextInt(2_000), 2).toPlainString()));
+            }
+        }
+        return strategies;
+    }
+}
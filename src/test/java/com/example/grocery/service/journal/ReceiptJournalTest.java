@@ -0,0 +1,152 @@
+package com.example.grocery.service.journal;
+
+import com.example.grocery.domain.DiscountLine;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.domain.ReceiptLine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReceiptJournalTest {
+
+    private static final int SMALL_SEGMENT = 4 * 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Receipts read back equal, in order, across segment rolls and from any sequence")
+    void roundTripsAcrossSegments() throws IOException {
+        List<Receipt> receipts = new ArrayList<>();
+        try (ReceiptJournal journal = new ReceiptJournal(dir, SMALL_SEGMENT)) {
+            for (int i = 0; i < 300; i++) {
+                Receipt receipt = receipt(i);
+                receipts.add(receipt);
+                assertThat(journal.append(receipt)).isEqualTo(i + 1);
+            }
+            assertThat(ReceiptJournal.Segment.list(dir)).hasSizeGreaterThan(3);
+            assertThat(read(journal, 1)).containsExactlyElementsOf(receipts);
+            assertThat(read(journal, 250)).containsExactlyElementsOf(receipts.subList(249, 300));
+            assertThat(read(journal, 301)).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Concurrent appends get distinct sequence numbers and are all durable")
+    void concurrentAppends() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try (ReceiptJournal journal = new ReceiptJournal(dir, SMALL_SEGMENT * 4)) {
+            List<Future<Long>> sequences = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                Receipt receipt = receipt(i);
+                sequences.add(pool.submit(() -> journal.append(receipt)));
+            }
+            Set<Long> seen = new HashSet<>();
+            for (Future<Long> sequence : sequences) seen.add(sequence.get());
+            assertThat(seen).hasSize(2_000).allMatch(s -> s >= 1 && s <= 2_000);
+            assertThat(journal.lastSequence()).isEqualTo(2_000);
+            assertThat(read(journal, 1)).hasSize(2_000);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Reopening continues the numbering and drops a record torn by a crash")
+    void recoversAfterTornRecord() throws IOException {
+        try (ReceiptJournal journal = new ReceiptJournal(dir, SMALL_SEGMENT)) {
+            journal.append(receipt(1));
+            journal.append(receipt(2));
+        }
+        Path segment = ReceiptJournal.Segment.list(dir).get(0);
+        // A third record whose payload never fully reached the file
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = ReceiptJournal.Segment.HEADER_BYTES;
+            ByteBuffer frame = ByteBuffer.allocate(8);
+            while (channel.read(frame.clear(), end) == 8 && frame.getInt(0) != 0) end += 8 + frame.getInt(0);
+            channel.write(ByteBuffer.allocate(12).putInt(40).putInt(12345).putInt(7).flip(), end);
+        }
+
+        try (ReceiptJournal reopened = new ReceiptJournal(dir, SMALL_SEGMENT)) {
+            assertThat(reopened.lastSequence()).isEqualTo(2);
+            assertThat(reopened.append(receipt(3))).isEqualTo(3);
+            assertThat(read(reopened, 1)).containsExactly(receipt(1), receipt(2), receipt(3));
+        }
+    }
+
+    @Test
+    @DisplayName("A receipt larger than a segment is rejected without rolling, and the journal stays usable")
+    void rejectsReceiptLargerThanSegment() throws IOException {
+        Receipt.ReceiptBuilder huge = Receipt.builder()
+                .subtotal(BigDecimal.ONE).totalDiscount(BigDecimal.ZERO).total(BigDecimal.ONE);
+        for (int i = 0; i < 500; i++) {
+            huge.item(ReceiptLine.builder().itemName("item-" + i).quantity(1).amount(BigDecimal.ONE).build());
+        }
+        try (ReceiptJournal journal = new ReceiptJournal(dir, SMALL_SEGMENT)) {
+            journal.append(receipt(1));
+            assertThatThrownBy(() -> journal.append(huge.build()))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("exceeds the journal segment size");
+            assertThat(ReceiptJournal.Segment.list(dir)).hasSize(1);
+
+            assertThat(journal.append(receipt(2))).isEqualTo(2);
+            assertThat(read(journal, 1)).containsExactly(receipt(1), receipt(2));
+        }
+    }
+
+    @Test
+    @DisplayName("Codec keeps names that are not item types, unicode descriptions and negative amounts")
+    void codecRoundTrip() {
+        Receipt receipt = Receipt.builder()
+                .item(ReceiptLine.builder().itemName("gift card").quantity(1).amount(new BigDecimal("25.00")).build())
+                .item(ReceiptLine.builder().itemName("bananas").quantity(100_000).amount(new BigDecimal("50000.00")).build())
+                .discount(DiscountLine.builder().description("3 Oranges for £0.75 ✓").amount(new BigDecimal("-0.15")).build())
+                .subtotal(new BigDecimal("50025.00"))
+                .totalDiscount(new BigDecimal("-0.15"))
+                .total(new BigDecimal("50024.85"))
+                .priceVersion(Long.MAX_VALUE)
+                .promotionVersion(0)
+                .build();
+        byte[] bytes = ReceiptCodec.encode(receipt, 1_700_000_000_000L);
+        JournaledReceipt decoded = ReceiptCodec.decode(7, ByteBuffer.wrap(bytes));
+        assertThat(decoded).isEqualTo(new JournaledReceipt(7, 1_700_000_000_000L, receipt));
+    }
+
+    private static List<Receipt> read(ReceiptJournal journal, long from) throws IOException {
+        List<Receipt> receipts = new ArrayList<>();
+        try (ReceiptJournalReader reader = journal.read(from)) {
+            reader.forEachRemaining(r -> receipts.add(r.receipt()));
+        }
+        return receipts;
+    }
+
+    private static Receipt receipt(int i) {
+        long subtotal = 100L + i;
+        return Receipt.builder()
+                .item(ReceiptLine.builder().itemName("bananas").quantity(1 + i % 7).amount(BigDecimal.valueOf(subtotal, 2)).build())
+                .discount(DiscountLine.builder().description("Buy 2 Get 1 Free (BANANAS)").amount(BigDecimal.valueOf(-i, 2)).build())
+                .subtotal(BigDecimal.valueOf(subtotal, 2))
+                .totalDiscount(BigDecimal.valueOf(-i, 2))
+                .total(BigDecimal.valueOf(subtotal - i, 2))
+                .priceVersion(1)
+                .promotionVersion(i)
+                .build();
+    }
+}
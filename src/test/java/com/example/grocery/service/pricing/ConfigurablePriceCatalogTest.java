@@ -0,0 +1,115 @@
+package com.example.grocery.service.pricing;
+
+import com.example.grocery.domain.ItemType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConfigurablePriceCatalogTest {
+
+    @TempDir
+    Path dir;
+
+    private ConfigurablePriceCatalog catalog;
+
+    @AfterEach
+    void tearDown() {
+        if (catalog != null) catalog.shutdown();
+    }
+
+    private ConfigurablePriceCatalog catalogWatching(Path file) {
+        PriceCatalogProperties props = new PriceCatalogProperties();
+        props.setPrices(Map.of(ItemType.LEMONS, new BigDecimal("0.25")));
+        props.getReload().setEnabled(true);
+        props.getReload().setPath(file.toString());
+        props.getReload().setInterval(Duration.ofHours(1)); // tests call reload() directly
+        catalog = new ConfigurablePriceCatalog(props);
+        return catalog;
+    }
+
+    @Test
+    @DisplayName("The external file is layered over the base prices and each reload bumps the version")
+    void reloadSwapsInNewVersion() throws IOException {
+        Path file = Files.writeString(dir.resolve("prices.json"), "{\"prices\":{\"LEMONS\":0.40}}");
+        ConfigurablePriceCatalog catalog = catalogWatching(file);
+
+        PriceSnapshot first = catalog.snapshot();
+        assertThat(catalog.priceOf(ItemType.LEMONS)).isEqualByComparingTo("0.40");
+        assertThat(catalog.pricePenceOf(ItemType.BANANAS)).isEqualTo(55L); // classpath prices.json
+
+        Files.writeString(file, "{\"prices\":{\"LEMONS\":0.45}}");
+        assertThat(catalog.reload()).isTrue();
+
+        assertThat(catalog.pricePenceOf(ItemType.LEMONS)).isEqualTo(45L);
+        assertThat(catalog.snapshot().version()).isEqualTo(first.version() + 1);
+        // A snapshot taken before the reload keeps its prices
+        assertThat(first.pricePenceOf(ItemType.LEMONS)).isEqualTo(40L);
+        assertThat(catalog.lastFailure()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A file that fails to parse keeps the current snapshot and records the error")
+    void failedReloadKeepsSnapshot() throws IOException {
+        Path file = Files.writeString(dir.resolve("prices.json"), "{\"prices\":{\"LEMONS\":0.40}}");
+        ConfigurablePriceCatalog catalog = catalogWatching(file);
+        PriceSnapshot before = catalog.snapshot();
+
+        Files.writeString(file, "{\"prices\":{\"KIWIS\":0.40}}");
+        assertThat(catalog.reload()).isFalse();
+        Files.writeString(file, "{\"prices\":{\"LEMONS\":");
+        assertThat(catalog.reload()).isFalse();
+
+        assertThat(catalog.snapshot()).isSameAs(before);
+        assertThat(catalog.pricePenceOf(ItemType.LEMONS)).isEqualTo(40L);
+        assertThat(catalog.lastFailure()).isPresent();
+
+        Files.writeString(file, "{\"prices\":{\"LEMONS\":0.50}}");
+        assertThat(catalog.reload()).isTrue();
+        assertThat(catalog.lastFailure()).isEmpty();
+        assertThat(catalog.snapshot().version()).isEqualTo(before.version() + 1);
+    }
+
+    @Test
+    @DisplayName("A missing file at startup serves the base prices and reports the error")
+    void missingFileAtStartup() {
+        ConfigurablePriceCatalog catalog = catalogWatching(dir.resolve("absent.json"));
+
+        assertThat(catalog.snapshot().version()).isEqualTo(1L);
+        assertThat(catalog.pricePenceOf(ItemType.LEMONS)).isEqualTo(25L);
+        assertThat(catalog.lastFailure()).isPresent();
+    }
+
+    @Test
+    @DisplayName("Only a reload rejects a file without a \"prices\" object; the classpath file may leave it out")
+    void pricesObjectRequiredOnlyOnReload() throws IOException {
+        assertThat(ConfigurablePriceCatalog.readPrices(stream("{}"), false)).isEmpty();
+        assertThat(ConfigurablePriceCatalog.readPrices(stream("{\"prices\":[]}"), false)).isEmpty();
+
+        Path file = Files.writeString(dir.resolve("prices.json"), "{\"prices\":{\"LEMONS\":0.40}}");
+        ConfigurablePriceCatalog catalog = catalogWatching(file);
+        PriceSnapshot before = catalog.snapshot();
+
+        Files.writeString(file, "{\"price\":{\"LEMONS\":0.45}}");
+        assertThat(catalog.reload()).isFalse();
+        assertThat(catalog.snapshot()).isSameAs(before);
+        assertThat(catalog.lastFailure()).get().extracting(ConfigurablePriceCatalog.ReloadFailure::message)
+                .asString().contains("Expected a \"prices\" object");
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
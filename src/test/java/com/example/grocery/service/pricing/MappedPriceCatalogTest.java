@@ -0,0 +1,109 @@
+package com.example.grocery.service.pricing;
+
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.service.catalog.MappedPriceFile;
+import com.example.grocery.service.catalog.PriceFileConverter;
+import com.example.grocery.service.catalog.SkuCatalog;
+import com.example.grocery.service.catalog.SkuPriceTable;
+import com.example.grocery.service.impl.CheckoutServiceImpl;
+import com.example.grocery.service.promo.PromotionEngine;
+import com.example.grocery.service.promo.StrategyRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedPriceCatalogTest {
+
+    @TempDir
+    Path dir;
+
+    private static SkuPriceTable prices(long bananas, long apples) {
+        return SkuPriceTable.builder(SkuCatalog.ofItemTypes())
+                .price(ItemType.BANANAS.ordinal(), bananas)
+                .price(ItemType.APPLES.ordinal(), apples)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Checkout prices from the mapped file; install swaps in the next version for new checkouts only")
+    void installSwapsInNextVersion() throws IOException {
+        Path path = dir.resolve("prices.bin");
+        MappedPriceFile.write(path, prices(50L, 60L));
+        var catalog = new MappedPriceCatalog(path);
+        var checkout = new CheckoutServiceImpl(catalog, new PromotionEngine(new StrategyRegistry(List.of()), List.of()));
+        List<BasketItem> basket = List.of(BasketItem.builder().type(ItemType.APPLES).quantity(2).build());
+
+        PriceProvider before = catalog.snapshot();
+        Receipt first = checkout.checkout(basket);
+        assertThat(first.getTotal()).isEqualByComparingTo("1.20");
+        assertThat(first.getPriceVersion()).isEqualTo(1L);
+
+        assertThat(catalog.install(prices(50L, 65L))).isTrue();
+        Receipt second = checkout.checkout(basket);
+        assertThat(second.getTotal()).isEqualByComparingTo("1.30");
+        assertThat(second.getPriceVersion()).isEqualTo(2L);
+        assertThat(before.pricePenceOf(ItemType.APPLES)).isEqualTo(60L);
+        assertThat(catalog.priceOf(ItemType.APPLES)).isEqualByComparingTo("0.65");
+
+        assertThatThrownBy(() -> catalog.pricePenceOf(ItemType.LEMONS))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("LEMONS");
+    }
+
+    @Test
+    @DisplayName("A file that fails its checks is not mapped and the current prices are kept")
+    void invalidFileKeepsPrices() throws IOException {
+        Path path = dir.resolve("prices.bin");
+        MappedPriceFile.write(path, prices(50L, 60L));
+        var catalog = new MappedPriceCatalog(path);
+
+        // Replaced by rename, as MappedPriceFile.write does: rewriting a mapped file in place would fault its readers
+        Path json = Files.writeString(dir.resolve("prices.json"), "{\"prices\":{\"APPLES\":0.10}}");
+        Files.move(json, path, StandardCopyOption.REPLACE_EXISTING);
+        assertThat(catalog.reload()).isFalse();
+        assertThat(catalog.version()).isEqualTo(1L);
+        assertThat(catalog.pricePenceOf(ItemType.APPLES)).isEqualTo(60L);
+        assertThat(catalog.lastFailure()).isPresent();
+
+        assertThatThrownBy(() -> new MappedPriceCatalog(dir.resolve("absent.bin")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("Binary mode from the shipped prices.json prices every ItemType as JSON mode does")
+    void binaryModeMatchesJsonMode() throws IOException {
+        PriceCatalogProperties props = new PriceCatalogProperties();
+        // application.yml's catalog.prices; prices.json only overrides some of them
+        props.setPrices(Map.of(ItemType.BANANAS, new BigDecimal("0.50"), ItemType.ORANGES, new BigDecimal("0.30"),
+                ItemType.APPLES, new BigDecimal("0.60"), ItemType.LEMONS, new BigDecimal("0.25"),
+                ItemType.PEACHES, new BigDecimal("0.75")));
+        Path path = dir.resolve("prices.bin");
+        try (InputStream json = new ClassPathResource("prices.json").getInputStream()) {
+            PriceFileConverter.convert(json, SkuCatalog.ofItemTypes(), path);
+        }
+        props.getBinary().setPath(path.toString());
+
+        var jsonMode = new ConfigurablePriceCatalog(props);
+        var binaryMode = new MappedPriceCatalog(props);
+        for (ItemType type : ItemType.values()) {
+            assertThat(binaryMode.pricePenceOf(type)).as(type.name()).isEqualTo(jsonMode.pricePenceOf(type));
+            assertThat(binaryMode.priceOf(type)).as(type.name()).isEqualTo(jsonMode.priceOf(type));
+            assertThat(binaryMode.pricePenceOf(type.ordinal())).as(type.name()).isEqualTo(jsonMode.pricePenceOf(type));
+        }
+        assertThat(binaryMode.pricePenceOf(ItemType.BANANAS)).isEqualTo(55L); // from the file, not the base
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.grocery.service.promo;
+
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.service.CheckoutService;
+import com.example.grocery.service.impl.CheckoutServiceImpl;
+import com.example.grocery.service.pricing.PriceProvider;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PromotionEngineTest {
+
+    @TempDir
+    Path dir;
+
+    private final PriceProvider prices = type -> new BigDecimal("0.50");
+    private final List<BasketItem> bananas = List.of(BasketItem.builder().type(ItemType.BANANAS).quantity(3).build());
+
+    private static String rules(String... rules) {
+        return "{\"promotions\":[" + String.join(",", rules) + "]}";
+    }
+
+    private static final String BANANAS_3_FOR_2 =
+            "{\"ruleType\":\"BUY_X_GET_Y_FREE\",\"itemType\":\"BANANAS\",\"params\":{\"x\":\"2\",\"y\":\"1\"}}";
+    private static final String BANANAS_3_FOR_1 =
+            "{\"ruleType\":\"K_ITEM_FOR_FIXED_PRICE\",\"itemType\":\"BANANAS\",\"params\":{\"k\":\"3\",\"price\":\"1.00\"}}";
+
+    @Test
+    @DisplayName("Reload swaps in the file's promotions as the next version; receipts record it")
+    void reloadInstallsNextVersion() throws IOException {
+        Path file = Files.writeString(dir.resolve("promotions.json"), rules(BANANAS_3_FOR_2));
+        var engine = new PromotionEngine(new StrategyRegistry(List.of()), List.of(), file.toUri().toString());
+        var checkout = new CheckoutServiceImpl(prices, engine);
+
+        Receipt before = checkout.checkout(bananas);
+        assertThat(before.getTotal()).isEqualByComparingTo("1.50");
+        assertThat(before.getPromotionVersion()).isEqualTo(1L);
+
+        assertThat(engine.reload()).isTrue();
+        Receipt after = checkout.checkout(bananas);
+        assertThat(after.getTotal()).isEqualByComparingTo("1.00");
+        assertThat(after.getPromotionVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("A file with one invalid rule is rejected whole and the current plan is kept")
+    void invalidFileKeepsPlan() throws IOException {
+        Path file = Files.writeString(dir.resolve("promotions.json"), rules(BANANAS_3_FOR_2));
+        var engine = new PromotionEngine(new StrategyRegistry(List.of()), List.of(), file.toUri().toString());
+        assertThat(engine.reload()).isTrue();
+        PromotionPlan loaded = engine.current();
+
+        Files.writeString(file, rules(BANANAS_3_FOR_1,
+                "{\"ruleType\":\"K_ITEM_FOR_FIXED_PRICE\",\"itemType\":\"ORANGES\",\"params\":{\"k\":\"1\",\"price\":\"0.75\"}}"));
+        assertThat(engine.reload()).isFalse();
+        assertThat(engine.current()).isSameAs(loaded);
+        assertThat(engine.lastFailure()).get().extracting(PromotionEngine.ReloadFailure::message).asString()
+                .contains("k must be > 1");
+
+        Files.writeString(file, rules("{\"ruleType\":\"NO_SUCH_RULE\",\"params\":{}}"));
+        assertThat(engine.reload()).isFalse();
+        assertThat(engine.current()).isSameAs(loaded);
+    }
+
+    @Test
+    @DisplayName("A checkout pinned before a reload finishes on the old promotions")
+    void snapshotKeepsOldPromotions() throws IOException {
+        Path file = Files.writeString(dir.resolve("promotions.json"), rules(BANANAS_3_FOR_1));
+        var engine = new PromotionEngine(new StrategyRegistry(List.of(new BuyXGetYFreeStrategy(ItemType.BANANAS, 2, 1))),
+                List.of(), file.toUri().toString());
+        var checkout = new CheckoutServiceImpl(prices, engine);
+
+        CheckoutService inFlight = checkout.snapshot();
+        assertThat(engine.reload()).isTrue();
+
+        assertThat(inFlight.checkout(bananas).getPromotionVersion()).isEqualTo(1L);
+        assertThat(inFlight.checkout(bananas).getTotal()).isEqualByComparingTo("1.00");
+        // 3 for £1.00 vs the old 3 for 2 happen to agree on total; the description shows which set priced it
+        assertThat(checkout.checkout(bananas).getDiscounts().get(0).getDescription()).contains("3 BANANAS for £1.00");
+        assertThat(inFlight.checkout(bananas).getDiscounts().get(0).getDescription()).doesNotContain("for £1.00");
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.grocery.service.promo;
+
+import com.example.grocery.api.dto.PromotionRuleDTO;
+import com.example.grocery.domain.ItemType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class PromotionFactoryTest {
+
+    private final PromotionFactory indexed = PromotionFactory.indexed();
+    private final PromotionFactory scanned = PromotionFactory.scan(PromotionEngine.PROMOTION_PACKAGE);
+
+    private static PromotionRuleDTO rule(String ruleType, ItemType itemType, Map<String, String> params) {
+        PromotionRuleDTO rule = new PromotionRuleDTO();
+        rule.setRuleType(ruleType);
+        rule.setItemType(itemType);
+        rule.setParams(params);
+        return rule;
+    }
+
+    @Test
+    @DisplayName("The build-time index holds every @PromotionType class the classpath scan finds")
+    void indexMatchesScan() throws IOException {
+        assertThat(indexed.ruleTypes()).containsExactlyInAnyOrderElementsOf(scanned.ruleTypes());
+
+        List<PromotionRuleDTO> rules;
+        try (InputStream in = getClass().getResourceAsStream("/promotions.json")) {
+            rules = PromotionFactory.readRules(in);
+        }
+        assertThat(rules).isNotEmpty();
+        for (PromotionRuleDTO rule : rules) {
+            assertThat(indexed.classFor(rule)).isEqualTo(scanned.classFor(rule));
+            DiscountStrategy fromIndex = (DiscountStrategy) indexed.create(rule);
+            DiscountStrategy fromScan = (DiscountStrategy) scanned.create(rule);
+            assertThat(fromIndex).isExactlyInstanceOf(fromScan.getClass());
+            assertThat(fromIndex.name()).isEqualTo(fromScan.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Indexed construction reports bad rules with the same errors as the reflective path")
+    void sameErrors() {
+        List<PromotionRuleDTO> bad = List.of(
+                rule("buy_x_get_y_free", null, Map.of("x", "2", "y", "1")),            // missing itemType
+                rule("BUY_X_GET_Y_FREE", ItemType.BANANAS, Map.of("x", "2")),          // missing param
+                rule("BUY_X_GET_Y_FREE", ItemType.BANANAS, Map.of("x", "0", "y", "1")), // constructor validation
+                rule("K_ITEM_FOR_FIXED_PRICE", ItemType.ORANGES, Map.of("k", "3", "price", "cheap")));
+        for (PromotionRuleDTO rule : bad) {
+            Throwable expected = catchThrowable(() -> scanned.create(rule));
+            assertThat(expected).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> indexed.create(rule))
+                    .isInstanceOf(expected.getClass())
+                    .hasMessage(expected.getMessage());
+        }
+
+        assertThatThrownBy(() -> indexed.create(rule("NO_SUCH_RULE", null, Map.of())))
+                .isInstanceOf(IllegalStateException.class).hasMessageContaining("NO_SUCH_RULE");
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.grocery.service.promo;
+
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.service.impl.CheckoutServiceImpl;
+import com.example.grocery.service.pricing.PriceProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PromotionMetricsTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final PriceProvider prices = type -> new BigDecimal("0.50");
+
+    private static List<BasketItem> basket(ItemType type, int qty) {
+        return List.of(BasketItem.builder().type(type).quantity(qty).build());
+    }
+
+    @Test
+    @DisplayName("Evaluations, hits, time and discount given are recorded per promotion")
+    void recordsPerPromotion() {
+        var bananas = new BuyXGetYFreeStrategy(ItemType.BANANAS, 2, 1);
+        var combo = new ItemComboFixedPriceStrategy("APPLES:1,BANANAS:2", new BigDecimal("1.25"), "3");
+        var engine = new PromotionEngine(new StrategyRegistry(List.of(bananas)), List.of(combo));
+        var checkout = new CheckoutServiceImpl(prices, engine, new PromotionMetrics(meters));
+
+        checkout.checkout(basket(ItemType.BANANAS, 3));   // B2G1: 0.50 off
+        checkout.checkout(basket(ItemType.BANANAS, 2));   // evaluated, no discount
+        checkout.checkout(List.of(                         // combo wins, bananas suppressed
+                BasketItem.builder().type(ItemType.APPLES).quantity(1).build(),
+                BasketItem.builder().type(ItemType.BANANAS).quantity(2).build()));
+
+        String b2g1 = bananas.name();
+        assertThat(meters.get("checkout.promotion.evaluation").tag("promotion", b2g1)
+                .tag("type", "BUY_X_GET_Y_FREE").functionTimer().count()).isEqualTo(2.0);
+        assertThat(meters.get("checkout.promotion.evaluation").tag("promotion", b2g1)
+                .functionTimer().totalTime(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(meters.get("checkout.promotion.hits").tag("promotion", b2g1)
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meters.get("checkout.promotion.discount").tag("promotion", b2g1)
+                .functionCounter().count()).isEqualTo(0.50);
+
+        assertThat(meters.get("checkout.promotion.evaluation").tag("promotion", combo.name())
+                .tag("type", "ITEM_COMBO_FIXED_PRICE").functionTimer().count()).isEqualTo(3.0); // candidate whenever bananas are present
+        assertThat(meters.get("checkout.promotion.hits").tag("promotion", combo.name())
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meters.get("checkout.promotion.discount").tag("promotion", combo.name())
+                .functionCounter().count()).isEqualTo(0.25);
+    }
+
+    @Test
+    @DisplayName("Concurrent checkouts lose no counts; a reloaded instance continues the same series")
+    void concurrentAndReloaded() {
+        var metrics = new PromotionMetrics(meters);
+        var first = new BuyXGetYFreeStrategy(ItemType.BANANAS, 2, 1);
+        var engine = new PromotionEngine(new StrategyRegistry(List.of(first)), List.of());
+        var checkout = new CheckoutServiceImpl(prices, engine, metrics);
+
+        IntStream.range(0, 10_000).parallel().forEach(i -> checkout.checkout(basket(ItemType.BANANAS, 3)));
+        engine.install(new StrategyRegistry(List.of(new BuyXGetYFreeStrategy(ItemType.BANANAS, 2, 1))), List.of());
+        checkout.checkout(basket(ItemType.BANANAS, 3));
+
+        assertThat(meters.get("checkout.promotion.hits").tag("promotion", first.name())
+                .functionCounter().count()).isEqualTo(10_001.0);
+        assertThat(meters.find("checkout.promotion.hits").functionCounters()).hasSize(1);
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.grocery.service.promo;
+
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.service.impl.CheckoutServiceImpl;
+import com.example.grocery.service.pricing.NormalizedBasket;
+import com.example.grocery.service.pricing.PriceProvider;
+import com.example.grocery.util.MoneyMath;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PromotionOptimizerTest {
+
+    private final PriceProvider prices = type -> switch (type) {
+        case APPLES -> new BigDecimal("0.60");
+        case BANANAS -> new BigDecimal("0.50");
+        case ORANGES -> new BigDecimal("0.30");
+        case LEMONS -> new BigDecimal("0.25");
+        case PEACHES -> new BigDecimal("0.75");
+    };
+
+    private static List<BasketItem> basket(Object... typeAndQty) {
+        List<BasketItem> items = new ArrayList<>();
+        for (int i = 0; i < typeAndQty.length; i += 2) {
+            items.add(BasketItem.builder().type((ItemType) typeAndQty[i]).quantity((Integer) typeAndQty[i + 1]).build());
+        }
+        return items;
+    }
+
+    private CheckoutServiceImpl checkout(List<DiscountStrategy> items, List<BasketLevelStrategy> combos, Duration budget) {
+        var engine = new PromotionEngine(new StrategyRegistry(items), combos);
+        return new CheckoutServiceImpl(prices, engine, null, budget == null ? null : new PromotionOptimizer(budget));
+    }
+
+    @Test
+    @DisplayName("Leftover units of a combo item still get their item deal")
+    void combinesComboWithItemDealOnLeftovers() {
+        List<DiscountStrategy> items = List.of(new BuyXGetYFreeStrategy(ItemType.BANANAS, 2, 1));
+        var combo = new ItemComboFixedPriceStrategy("APPLES:1,BANANAS:2", new BigDecimal("1.25"), null);
+        List<BasketLevelStrategy> combos = List.of(combo);
+        var basket = basket(ItemType.APPLES, 1, ItemType.BANANAS, 5);
+
+        Receipt greedy = checkout(items, combos, null).checkout(basket);
+        Receipt optimal = checkout(items, combos, Duration.ofSeconds(1)).checkout(basket);
+
+        assertThat(greedy.getTotalDiscount()).isEqualByComparingTo("-0.35");   // combo only, bananas suppressed
+        assertThat(optimal.getTotalDiscount()).isEqualByComparingTo("-0.85");  // combo x1 + B2G1 on 3 bananas
+        assertThat(optimal.getDiscounts()).extracting("description")
+                .containsExactly(combo.describeSets(1), "Buy 2 Get 1 Free (BANANAS)");
+        assertThat(optimal.getTotal()).isEqualByComparingTo(optimal.getSubtotal().add(optimal.getTotalDiscount()));
+    }
+
+    @Test
+    @DisplayName("Overlapping combos share the basket instead of one taking it all")
+    void splitsUnitsBetweenOverlappingCombos() {
+        var applesBananas = new ItemComboFixedPriceStrategy("APPLES:1,BANANAS:1", new BigDecimal("0.80"), null);  // 0.30 per set
+        var bananasOranges = new ItemComboFixedPriceStrategy("BANANAS:1,ORANGES:2", new BigDecimal("0.85"), null); // 0.25 per set
+        List<BasketLevelStrategy> combos = List.of(applesBananas, bananasOranges);
+        var basket = basket(ItemType.APPLES, 2, ItemType.BANANAS, 4, ItemType.ORANGES, 4);
+
+        Receipt greedy = checkout(List.of(), combos, null).checkout(basket);
+        Receipt optimal = checkout(List.of(), combos, Duration.ofSeconds(1)).checkout(basket);
+
+        assertThat(greedy.getTotalDiscount()).isEqualByComparingTo("-0.60");
+        assertThat(optimal.getTotalDiscount()).isEqualByComparingTo("-1.10");
+        assertThat(optimal.getDiscounts()).extracting("description")
+                .containsExactly(applesBananas.describeSets(2), bananasOranges.describeSets(2));
+    }
+
+    @Test
+    @DisplayName("A basket-wide promotion that beats every allocation is kept")
+    void keepsGreedyWhenItIsBetter() {
+        List<BasketLevelStrategy> basketStrategies = List.of(
+                new ItemComboFixedPriceStrategy("APPLES:1,BANANAS:2", new BigDecimal("1.25"), null),
+                new MaxSubtotalPercentOffStrategy(new BigDecimal("1.00"), new BigDecimal("50"), null));
+        var basket = basket(ItemType.APPLES, 1, ItemType.BANANAS, 2);
+
+        Receipt greedy = checkout(List.of(), basketStrategies, null).checkout(basket);
+        Receipt optimal = checkout(List.of(), basketStrategies, Duration.ofSeconds(1)).checkout(basket);
+
+        assertThat(optimal).isEqualTo(greedy);
+    }
+
+    @Test
+    @DisplayName("A search that runs out of budget falls back to the greedy receipt")
+    void fallsBackToGreedyOnBudget() {
+        List<DiscountStrategy> items = List.of(new BuyXGetYFreeStrategy(ItemType.BANANAS, 2, 1));
+        List<BasketLevelStrategy> combos = List.of(new ItemComboFixedPriceStrategy("APPLES:1,BANANAS:2", new BigDecimal("1.25"), null));
+        var basket = basket(ItemType.APPLES, 1, ItemType.BANANAS, 5);
+        var plan = new PromotionEngine(new StrategyRegistry(items), combos).current();
+        var normalized = NormalizedBasket.of(basket, prices);
+        assertThat(new PromotionOptimizer(Duration.ofNanos(-1)).optimize(plan, normalized)).isNull();
+
+        // A huge basket with many overlapping combos cannot be searched in 1 ms
+        List<BasketLevelStrategy> many = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            many.add(new ItemComboFixedPriceStrategy("APPLES:" + i + ",BANANAS:1,ORANGES:" + (7 - i),
+                    new BigDecimal("0.10"), null));
+        }
+        var big = basket(ItemType.APPLES, 5_000, ItemType.BANANAS, 5_000, ItemType.ORANGES, 5_000);
+        Receipt greedy = checkout(items, many, null).checkout(big);
+        Receipt fallback = checkout(items, many, Duration.ofMillis(1)).checkout(big);
+        assertThat(fallback).isEqualTo(greedy);
+    }
+
+    @Test
+    @DisplayName("Random small baskets: optimal == exhaustive search and never worse than greedy")
+    void matchesExhaustiveSearch() {
+        Random random = new Random(20250611L);
+        ItemType[] types = ItemType.values();
+        for (int run = 0; run < 500; run++) {
+            List<DiscountStrategy> items = new ArrayList<>();
+            for (ItemType type : types) {
+                switch (random.nextInt(4)) {
+                    case 0 -> items.add(new BuyXGetYFreeStrategy(type, 1 + random.nextInt(3), 1));
+                    case 1 -> items.add(new KItemForFixedPriceStrategy(type, 2 + random.nextInt(3), new BigDecimal("0.40")));
+                    case 2 -> items.add(new MinQtyFixedUnitPriceStrategy(type, 2 + random.nextInt(4), new BigDecimal("0.20")));
+                    default -> { }
+                }
+            }
+            List<ItemComboFixedPriceStrategy> combos = new ArrayList<>();
+            for (int c = 0, n = 1 + random.nextInt(3); c < n; c++) {
+                Map<ItemType, Integer> combo = new EnumMap<>(ItemType.class);
+                for (int k = 0, size = 1 + random.nextInt(3); k < size; k++) {
+                    combo.put(types[random.nextInt(types.length)], 1 + random.nextInt(2));
+                }
+                StringBuilder csv = new StringBuilder();
+                combo.forEach((type, qty) -> csv.append(csv.isEmpty() ? "" : ",").append(type).append(':').append(qty));
+                String max = random.nextBoolean() ? null : String.valueOf(1 + random.nextInt(3));
+                combos.add(new ItemComboFixedPriceStrategy(csv.toString(), new BigDecimal("0.50"), max));
+            }
+            List<BasketItem> basket = new ArrayList<>();
+            int[] quantities = new int[types.length];
+            for (ItemType type : types) {
+                if (random.nextInt(3) == 0) continue;
+                quantities[type.ordinal()] = 1 + random.nextInt(6);
+                basket.add(BasketItem.builder().type(type).quantity(quantities[type.ordinal()]).build());
+            }
+            if (basket.isEmpty()) continue;
+
+            List<BasketLevelStrategy> basketStrategies = new ArrayList<>(combos);
+            Receipt greedy = checkout(items, basketStrategies, null).checkout(basket);
+            Receipt optimal = checkout(items, basketStrategies, Duration.ofSeconds(5)).checkout(basket);
+
+            long best = Math.max(exhaustive(items, combos, quantities, 0),
+                    -MoneyMath.toPence(greedy.getTotalDiscount()));
+            assertThat(-MoneyMath.toPence(optimal.getTotalDiscount())).as("run %d, basket %s", run, basket).isEqualTo(best);
+            assertThat(optimal.getTotalDiscount()).isLessThanOrEqualTo(greedy.getTotalDiscount());
+        }
+    }
+
+    /** Tries every number of sets for every combo; leftovers priced by all item deals. */
+    private long exhaustive(List<DiscountStrategy> items, List<ItemComboFixedPriceStrategy> combos, int[] remaining, int c) {
+        if (c == combos.size()) {
+            long total = 0L;
+            for (ItemType type : ItemType.values()) {
+                int qty = remaining[type.ordinal()];
+                if (qty == 0) continue;
+                for (DiscountStrategy strategy : items) {
+                    if (strategy.supports(type)) total += strategy.discountPence(type, qty, prices.pricePenceOf(type));
+                }
+            }
+            return total;
+        }
+        ItemComboFixedPriceStrategy combo = combos.get(c);
+        long perSet = Math.max(0L, combo.discountPerSetPence(prices));
+        long best = 0L;
+        int[] rest = remaining.clone();
+        for (int sets = 0; sets <= combo.maxSets(); sets++) {
+            boolean fits = true;
+            for (ItemType type : ItemType.values()) {
+                rest[type.ordinal()] = remaining[type.ordinal()] - sets * combo.unitsPerSet(type);
+                fits &= rest[type.ordinal()] >= 0;
+            }
+            if (!fits) break;
+            best = Math.max(best, sets * perSet + exhaustive(items, combos, rest, c + 1));
+        }
+        return best;
+    }
+}
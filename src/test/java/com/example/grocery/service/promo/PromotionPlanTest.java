@@ -0,0 +1,51 @@
+
+package com.example.grocery.service.promo;
+
+import com.example.grocery.domain.ItemType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PromotionPlanTest {
+
+    private final ItemComboFixedPriceStrategy applesBananas =
+            new ItemComboFixedPriceStrategy("APPLES:1,BANANAS:2", new BigDecimal("1.25"), "3");
+    private final ItemComboFixedPriceStrategy orangesLemons =
+            new ItemComboFixedPriceStrategy("ORANGES:2,LEMONS:1", new BigDecimal("0.70"), null);
+    private final MaxSubtotalPercentOffStrategy percentOff =
+            new MaxSubtotalPercentOffStrategy(new BigDecimal("50.00"), new BigDecimal("10.0"), "20.00");
+
+    private PromotionPlan plan() {
+        return PromotionPlan.compile(new StrategyRegistry(List.of()),
+                List.of(applesBananas, percentOff, orangesLemons));
+    }
+
+    @Test
+    void oneItemBasketOnlySeesMatchingAndBasketWideStrategies() {
+        assertThat(plan().candidatesFor(EnumSet.of(ItemType.PEACHES)))
+                .containsExactly(percentOff);
+        assertThat(plan().candidatesFor(EnumSet.of(ItemType.LEMONS)))
+                .containsExactly(percentOff, orangesLemons);
+    }
+
+    @Test
+    void strategyTouchingSeveralBasketItemsIsReportedOnceInRegistrationOrder() {
+        assertThat(plan().candidatesFor(EnumSet.allOf(ItemType.class)))
+                .containsExactly(applesBananas, percentOff, orangesLemons);
+    }
+
+    @Test
+    void nonExclusiveBasketStrategiesAreNotIndexed() {
+        BasketLevelStrategy stacking = new ItemComboFixedPriceStrategy("APPLES:1", new BigDecimal("0.10"), null) {
+            @Override public boolean exclusive() { return false; }
+        };
+        PromotionPlan plan = PromotionPlan.compile(new StrategyRegistry(List.of()), List.of(stacking, applesBananas));
+
+        assertThat(plan.basketStrategies()).containsExactly(applesBananas);
+        assertThat(plan.candidatesFor(EnumSet.of(ItemType.APPLES))).containsExactly(applesBananas);
+    }
+}
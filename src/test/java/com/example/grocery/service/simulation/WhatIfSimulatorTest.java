@@ -0,0 +1,191 @@
+package com.example.grocery.service.simulation;
+
+import com.example.grocery.domain.BasketItem;
+import com.example.grocery.domain.DiscountLine;
+import com.example.grocery.domain.ItemType;
+import com.example.grocery.domain.Receipt;
+import com.example.grocery.service.catalog.ItemNameResolver;
+import com.example.grocery.service.impl.CheckoutServiceImpl;
+import com.example.grocery.service.pricing.NormalizedBasket;
+import com.example.grocery.service.pricing.PriceProvider;
+import com.example.grocery.service.promo.AppliedDiscount;
+import com.example.grocery.service.promo.PromotionEngine;
+import com.example.grocery.service.promo.PromotionFactory;
+import com.example.grocery.service.promo.PromotionPlan;
+import com.example.grocery.util.MoneyMath;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WhatIfSimulatorTest {
+
+    private static final String LIVE = """
+            {"promotions":[
+              {"ruleType":"BUY_X_GET_Y_FREE","itemType":"BANANAS","params":{"x":"2","y":"1"}},
+              {"ruleType":"K_ITEM_FOR_FIXED_PRICE","itemType":"ORANGES","params":{"k":"3","price":"0.75"}},
+              {"ruleType":"ITEM_COMBO_FIXED_PRICE","params":{"combo":"APPLES:1,BANANAS:2","price":"1.25","max":"3"}},
+              {"ruleType":"MAX_SUBTOTAL_PERCENT_OFF","params":{"threshold":"5.00","percent":"10.0","cap":"2.00"}}
+            ]}""";
+    private static final String CANDIDATE = """
+            {"promotions":[
+              {"ruleType":"BUY_X_GET_Y_FREE","itemType":"BANANAS","params":{"x":"3","y":"1"}},
+              {"ruleType":"K_ITEM_FOR_FIXED_PRICE","itemType":"ORANGES","params":{"k":"3","price":"0.75"}},
+              {"ruleType":"MIN_QTY_FIXED_UNIT_PRICE","itemType":"APPLES","params":{"minQty":"3","unitPrice":"0.55"}},
+              {"ruleType":"ITEM_COMBO_FIXED_PRICE","params":{"combo":"APPLES:1,BANANAS:2","price":"1.25","max":"3"}}
+            ]}""";
+
+    private final PriceProvider prices = type -> BigDecimal.valueOf(25L + 20L * type.ordinal(), 2);
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Totals and per-promotion sums equal the receipts checkout gives under each plan")
+    void matchesCheckoutUnderBothPlans() throws IOException {
+        PromotionPlan live = plan(1L, LIVE);
+        PromotionPlan candidate = plan(2L, CANDIDATE);
+        Random random = new Random(20250601L);
+        List<List<BasketItem>> baskets = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) baskets.add(randomBasket(random));
+
+        // Small chunks and several threads, so baskets are split across many forked tasks
+        SimulationReport report = new WhatIfSimulator(prices, null, new ItemNameResolver(Map.of()), mapper, 4, 37)
+                .run(ndjson(baskets), live, candidate);
+
+        Expected before = expected(baskets, live);
+        Expected after = expected(baskets, candidate);
+        assertThat(report.baskets()).isEqualTo(baskets.size());
+        assertThat(report.skipped()).isZero();
+        assertThat(report.subtotalPence()).isEqualTo(before.subtotal);
+        assertThat(report.liveDiscountPence()).isEqualTo(before.discount);
+        assertThat(report.candidateDiscountPence()).isEqualTo(after.discount);
+        assertThat(report.candidateRevenuePence() - report.liveRevenuePence()).isEqualTo(before.discount - after.discount);
+        assertThat(report.changedBaskets()).isPositive().isLessThan(baskets.size());
+
+        // Same rule in both files: one row; changed parameters: a row per side
+        assertThat(report.promotions()).hasSize(6);
+        for (SimulationReport.Row row : report.promotions()) {
+            assertThat(row.liveGivenPence()).as(row.promotion()).isEqualTo(before.givenBy(row.promotion()));
+            assertThat(row.candidateGivenPence()).as(row.promotion()).isEqualTo(after.givenBy(row.promotion()));
+        }
+        assertThat(report.promotions()).filteredOn(row -> row.type().equals("K_ITEM_FOR_FIXED_PRICE"))
+                .singleElement().satisfies(row -> {
+                    assertThat(row.liveApplied()).isPositive();
+                    assertThat(row.candidateApplied()).isPositive();
+                });
+    }
+
+    @Test
+    @DisplayName("Unreadable baskets are skipped and counted; malformed JSON ends the run")
+    void skipsBadBaskets() throws IOException {
+        PromotionPlan live = plan(1L, LIVE);
+        String lines = """
+                {"items":[{"item":"Bananas","quantity":3}]}
+                {"items":[{"item":"Kiwi","quantity":1}]}
+                {"items":[]}
+                {"items":{"item":"Apples"}}
+                {"items":[{"item":"Oranges","quantity":3}]}
+                """;
+        SimulationReport report = new WhatIfSimulator(prices, null, new ItemNameResolver(Map.of()), mapper, 2, 2)
+                .run(stream(lines), live, live);
+
+        assertThat(report.baskets()).isEqualTo(2);
+        assertThat(report.skipped()).isEqualTo(3);
+        assertThat(report.firstError()).isEqualTo("basket 2: Unknown item: Kiwi");
+        assertThat(report.changedBaskets()).isZero();
+
+        assertThatThrownBy(() -> new WhatIfSimulator(prices, null, new ItemNameResolver(Map.of()), mapper, 2, 2)
+                .run(stream(lines + "{\"items\":[\n"), live, live))
+                .isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Malformed JSON in basket 6");
+    }
+
+    @Test
+    @DisplayName("Baskets that cannot be priced are skipped and counted; the lowest-numbered error is reported")
+    void skipsUnpriceableBaskets() throws IOException {
+        PromotionPlan live = plan(1L, LIVE);
+        PriceProvider noPeaches = type -> {
+            if (type == ItemType.PEACHES) throw new IllegalArgumentException("Missing price for item: " + type);
+            return prices.priceOf(type);
+        };
+        String lines = """
+                {"items":[{"item":"Bananas","quantity":3}]}
+                {"items":[{"item":"Peaches","quantity":1},{"item":"Apples","quantity":1}]}
+                {"items":[{"item":"Kiwi","quantity":1}]}
+                {"items":[{"item":"Lemons","quantity":2147483647},{"item":"Lemons","quantity":1}]}
+                {"items":[{"item":"Oranges","quantity":3}]}
+                """;
+        // One basket per chunk, so the failures happen on pool threads while the reader records the Kiwi
+        SimulationReport report = new WhatIfSimulator(noPeaches, null, new ItemNameResolver(Map.of()), mapper, 2, 1)
+                .run(stream(lines), live, live);
+
+        assertThat(report.baskets()).isEqualTo(2);
+        assertThat(report.skipped()).isEqualTo(3);
+        assertThat(report.firstError()).isEqualTo("basket 2: Missing price for item: PEACHES");
+        long bananas = 3 * MoneyMath.toPence(prices.priceOf(ItemType.BANANAS));
+        long oranges = 3 * MoneyMath.toPence(prices.priceOf(ItemType.ORANGES));
+        assertThat(report.subtotalPence()).isEqualTo(bananas + oranges);
+    }
+
+    /** What checkout's receipts add up to: subtotal, discount and discount per promotion. */
+    private record Expected(long subtotal, long discount, Map<String, Long> byPromotion) {
+        long givenBy(String promotion) {
+            return byPromotion.getOrDefault(promotion, 0L);
+        }
+    }
+
+    private Expected expected(List<List<BasketItem>> baskets, PromotionPlan plan) {
+        CheckoutServiceImpl checkout = new CheckoutServiceImpl(prices, plan.registry(), plan.basketStrategies());
+        // Receipts carry descriptions, not promotions: attribute each line through the discounts behind it
+        long subtotal = 0;
+        long discount = 0;
+        Map<String, Long> byPromotion = new HashMap<>();
+        for (List<BasketItem> basket : baskets) {
+            Receipt receipt = checkout.checkout(basket);
+            subtotal += MoneyMath.toPence(receipt.getSubtotal());
+            discount -= MoneyMath.toPence(receipt.getTotalDiscount());
+            List<AppliedDiscount> applied = CheckoutServiceImpl.discounts(NormalizedBasket.of(basket, prices), plan, null);
+            List<DiscountLine> lines = receipt.getDiscounts();
+            for (int i = 0; i < applied.size(); i++) {
+                assertThat(lines.get(i).getDescription()).isEqualTo(applied.get(i).description());
+                byPromotion.merge(applied.get(i).strategy().name(), applied.get(i).amountPence(), Long::sum);
+            }
+        }
+        return new Expected(subtotal, discount, byPromotion);
+    }
+
+    private static PromotionPlan plan(long version, String json) throws IOException {
+        return PromotionEngine.compile(version, PromotionFactory.readRules(stream(json)));
+    }
+
+    private static List<BasketItem> randomBasket(Random random) {
+        List<BasketItem> basket = new ArrayList<>();
+        ItemType[] items = ItemType.values();
+        for (int n = 1 + random.nextInt(6); n > 0; n--) {
+            basket.add(BasketItem.builder().type(items[random.nextInt(items.length)]).quantity(1 + random.nextInt(6)).build());
+        }
+        return basket;
+    }
+
+    private InputStream ndjson(List<List<BasketItem>> baskets) throws IOException {
+        StringBuilder out = new StringBuilder();
+        for (List<BasketItem> basket : baskets) {
+            List<Map<String, Object>> items = new ArrayList<>();
+            for (BasketItem line : basket) items.add(Map.of("item", line.getType().name(), "quantity", line.getQuantity()));
+            out.append(mapper.writeValueAsString(Map.of("items", items))).append('\n');
+        }
+        return stream(out.toString());
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,32 @@
+
+package com.example.grocery.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static com.example.grocery.util.TestUtils.BD;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MoneyMathTest {
+
+    @Test
+    void toPenceRoundsHalfUpLikePriceMath() {
+        for (String v : new String[]{"0.125", "0.124", "-0.125", "19.995", "0.005", "3", "-1.005"}) {
+            BigDecimal expected = PriceMath.scale(BD(v));
+            assertThat(MoneyMath.toBigDecimal(MoneyMath.toPence(BD(v)))).as(v).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void percentOfMatchesBigDecimalHalfUp() {
+        for (long pence = -2_000; pence <= 2_000; pence += 7) {
+            for (long bp : new long[]{0, 1, 50, 1000, 1234, 3333, 10_000}) {
+                BigDecimal expected = PriceMath.scale(MoneyMath.toBigDecimal(pence)
+                        .multiply(MoneyMath.toBigDecimal(bp)).divide(BD("100")));
+                assertThat(MoneyMath.toBigDecimal(MoneyMath.percentOf(pence, bp)))
+                        .as("%d * %d", pence, bp).isEqualTo(expected);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.grocery.web;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for cart sessions using real beans: the running receipt must match
+ * what POST /api/v1/checkout returns for the same lines.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CartControllerIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Open, scan, remove, read and close a cart")
+    void cartLifecycle() throws Exception {
+        String location = mockMvc.perform(post("/api/v1/carts"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.items").isEmpty())
+                .andReturn().getResponse().getHeader("Location");
+
+        mockMvc.perform(post(location + "/lines").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"item\":\"Bananas\",\"quantity\":3}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post(location + "/lines").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"item\":\"Apples\",\"quantity\":1}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2));
+        mockMvc.perform(delete(location + "/lines/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1));
+
+        String expected = mockMvc.perform(post("/api/v1/checkout").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"items\":[{\"item\":\"Bananas\",\"quantity\":3}]}"))
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(get(location))
+                .andExpect(status().isOk())
+                .andExpect(content().json(expected, true));
+
+        mockMvc.perform(delete(location)).andExpect(status().isNoContent());
+        mockMvc.perform(get(location)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Unknown items and line indexes → 400; unknown carts → 404")
+    void rejectsBadChanges() throws Exception {
+        String location = mockMvc.perform(post("/api/v1/carts"))
+                .andReturn().getResponse().getHeader("Location");
+
+        mockMvc.perform(post(location + "/lines").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"item\":\"Kiwis\",\"quantity\":1}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(delete(location + "/lines/0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/carts/no-such-cart/lines").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"item\":\"Bananas\",\"quantity\":1}"))
+                .andExpect(status().isNotFound());
+    }
+}
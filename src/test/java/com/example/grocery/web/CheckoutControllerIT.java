@@ -1,14 +1,24 @@
 
 package com.example.grocery.web;
 
+import com.example.grocery.service.catalog.ItemNameResolver;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -23,6 +33,15 @@ class CheckoutControllerIT {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ItemNameResolver itemNameResolver;
+
+    @Test
+    @DisplayName("ItemNameResolver, called once per basket line, is wired without a timing proxy")
+    void itemNameResolverIsNotProxied() {
+        assertThat(AopUtils.isAopProxy(itemNameResolver)).isFalse();
+    }
+
     @Test
     @DisplayName("POST /api/v1/checkout → returns itemized receipt with discounts array")
     void checkoutReturnsReceiptStructure() throws Exception {
@@ -88,4 +107,124 @@ class CheckoutControllerIT {
                 .andExpect(jsonPath("$.discounts[0].description").value("No Discount Applicable"))
                 .andExpect(jsonPath("$.discounts[0].amount").value(0.00));
     }
+
+    @Test
+    @DisplayName("POST /api/v1/checkout with Idempotency-Key → same receipt for a repeat, 400 for a different basket")
+    void idempotencyKeyReplaysReceipt() throws Exception {
+        String payload = """
+        {"items":[{"item":"Peaches","quantity":2}]}
+        """;
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/v1/checkout")
+                            .header("Idempotency-Key", "it-idempotency-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(payload))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total").value(1.50));
+        }
+
+        mockMvc.perform(post("/api/v1/checkout")
+                        .header("Idempotency-Key", "it-idempotency-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                        {"items":[{"item":"Lemons","quantity":1}]}
+                        """))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/checkout in CBOR and Smile → same receipt as JSON")
+    void binaryEncodingsMatchJson() throws Exception {
+        String payload = """
+        {"items":[{"item":"Bananas","quantity":3},{"item":"Peaches","quantity":2}]}
+        """;
+        ObjectMapper json = new ObjectMapper();
+        JsonNode expected = json.readTree(mockMvc.perform(post("/api/v1/checkout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray());
+
+        var smileType = MediaType.parseMediaType("application/x-jackson-smile");
+        for (var format : Map.of(MediaType.APPLICATION_CBOR, new CBORMapper(), smileType, new SmileMapper()).entrySet()) {
+            byte[] body = format.getValue().writeValueAsBytes(json.readTree(payload));
+            byte[] receipt = mockMvc.perform(post("/api/v1/checkout")
+                            .contentType(format.getKey())
+                            .accept(format.getKey())
+                            .content(body))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(format.getKey()))
+                    .andReturn().getResponse().getContentAsByteArray();
+            assertThat(format.getValue().readTree(receipt)).as(format.getKey().toString()).hasToString(expected.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/checkout/batch → receipts in input order, per-basket errors")
+    void batchCheckoutKeepsOrderAndReportsErrors() throws Exception {
+        String payload = """
+        [
+          {"items":[{"item":"Peaches","quantity":2}]},
+          {"items":[{"item":"Kiwis","quantity":1}]},
+          {"items":[{"item":"Lemons","quantity":4}]}
+        ]
+        """;
+
+        mockMvc.perform(post("/api/v1/checkout/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].receipt.total").value(1.50))
+                .andExpect(jsonPath("$[1].error").value("Unknown item: Kiwis"))
+                .andExpect(jsonPath("$[1].receipt").doesNotExist())
+                .andExpect(jsonPath("$[2].receipt.total").value(1.00));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/checkout/batch → 422 for an invalid basket, 400 past checkout.batch.max-size while reading")
+    void batchValidatesBasketsAndLimitsSize() throws Exception {
+        mockMvc.perform(post("/api/v1/checkout/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"items\":[{\"item\":\"Peaches\",\"quantity\":2}]},{\"items\":[]}]"))
+                .andExpect(status().isUnprocessableEntity());
+
+        // application.yml allows 5000 baskets; the trailing garbage is never reached
+        String basket = "{\"items\":[{\"item\":\"Peaches\",\"quantity\":1}]}";
+        String payload = "[" + String.join(",", Collections.nCopies(5001, basket)) + ",{not json";
+        mockMvc.perform(post("/api/v1/checkout/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Batch exceeds the limit of 5000 baskets"));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/checkout/stream → one NDJSON receipt or error line per input line")
+    void streamCheckoutWritesOneLinePerBasket() throws Exception {
+        String payload = """
+        {"items":[{"item":"Peaches","quantity":2}]}
+        {"items":[{"item":"Kiwis","quantity":1}]}
+        {"items":[{"item":"Lemons","quantity":"many"}]}
+        {"items":[{"item":"Lemons","quantity":4}]}
+        """;
+
+        String body = mockMvc.perform(post("/api/v1/checkout/stream")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .content(payload))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).contains("\"total\":1.50");
+        assertThat(lines[1]).isEqualTo("{\"line\":2,\"error\":\"Unknown item: Kiwis\"}");
+        assertThat(lines[2]).startsWith("{\"line\":3,\"error\":\"Invalid basket");
+        assertThat(lines[3]).contains("\"total\":1.00");
+    }
 }
@@ -0,0 +1,78 @@
+package com.example.grocery.web;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * The WebFlux API under the "reactive" profile: same contracts as the MVC endpoints.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("reactive")
+class ReactiveCheckoutControllerIT {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    @DisplayName("POST /api/v1/checkout (reactive) → itemized receipt")
+    void checkoutReturnsReceipt() {
+        webTestClient.post().uri("/api/v1/checkout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("""
+                {"items":[{"item":"Peaches","quantity":2},{"item":"Lemons","quantity":4}]}
+                """)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(2)
+                .jsonPath("$.total").isEqualTo(2.50)
+                .jsonPath("$.promotionVersion").isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/checkout (reactive) → 400 for an unknown item or malformed JSON, 422 for an empty basket")
+    void checkoutErrorsMatchMvc() {
+        webTestClient.post().uri("/api/v1/checkout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"items\":[{\"item\":\"Kiwis\",\"quantity\":1}]}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("Unknown item: Kiwis");
+
+        webTestClient.post().uri("/api/v1/checkout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"items\":[]}")
+                .exchange()
+                .expectStatus().isEqualTo(422);
+
+        for (String malformed : new String[] {"{\"items\":[{\"item\":\"Peaches\",", "{\"items\":[{\"item\":\"Peaches\",\"quantity\":\"x\"}]}"}) {
+            webTestClient.post().uri("/api/v1/checkout")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(malformed)
+                    .exchange()
+                    .expectStatus().isBadRequest()
+                    .expectBody()
+                    .jsonPath("$.title").isEqualTo("Bad Request");
+        }
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/items (reactive) → every item with its price")
+    void itemsListsPrices() {
+        webTestClient.get().uri("/api/v1/items")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(5)
+                .jsonPath("$[0].item").isEqualTo("BANANAS")
+                .jsonPath("$[0].unitPrice").isEqualTo(0.55);
+    }
+}